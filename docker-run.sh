@@ -10,6 +10,12 @@ export DB_NAME=6n9pyl60
 export DB_USERNAME=with_racdjgzrtmhgtadh
 export DB_PASSWORD="K#2C@Y3pTOpOJu"
 
+# 短码置换密钥，必须与已发放短码时使用的密钥一致
+if [ -z "$SHORT_CODE_PERMUTATION_KEY" ]; then
+    echo "错误: 请设置 SHORT_CODE_PERMUTATION_KEY（64位整数）"
+    exit 1
+fi
+
 # 检查Docker环境
 if ! command -v docker &> /dev/null; then
     echo "错误: 未找到Docker环境，请安装Docker"
@@ -37,6 +43,7 @@ docker run -d \
   -e DB_NAME=$DB_NAME \
   -e DB_USERNAME=$DB_USERNAME \
   -e DB_PASSWORD="$DB_PASSWORD" \
+  -e SHORT_CODE_PERMUTATION_KEY="$SHORT_CODE_PERMUTATION_KEY" \
   url-shortener:latest
 
 if [ $? -eq 0 ]; then
@@ -39,6 +39,6 @@ if [ $? -ne 0 ]; then
 fi
 
 echo "正在启动应用..."
-mvn spring-boot:run
+mvn spring-boot:run -Dspring-boot.run.profiles=dev
 
 echo "应用已启动，访问地址: http://localhost:8000"
\ No newline at end of file
@@ -0,0 +1,83 @@
+#!/bin/bash
+
+# URL Shortener Benchmark Script
+#
+# Runs the JMH benchmarks once per thread count and compares the scores
+# with the stored baseline in benchmarks/.
+#
+#   scripts/benchmark.sh                       run and compare
+#   scripts/benchmark.sh --save-baseline       run and store as the new baseline
+#   THREADS="1 8" INCLUDE=Base62 scripts/benchmark.sh
+set -e
+
+# Colors for output
+RED='\033[0;31m'
+GREEN='\033[0;32m'
+BLUE='\033[0;34m'
+NC='\033[0m' # No Color
+
+log_info() {
+    echo -e "${BLUE}[INFO]${NC} $1"
+}
+
+log_success() {
+    echo -e "${GREEN}[SUCCESS]${NC} $1"
+}
+
+log_error() {
+    echo -e "${RED}[ERROR]${NC} $1"
+}
+
+THREADS=${THREADS:-"1 4 16"}
+INCLUDE=${INCLUDE:-".*Benchmark.*"}
+BASELINE_DIR=${BASELINE_DIR:-benchmarks}
+RESULT_DIR=target/jmh
+SAVE_BASELINE=false
+
+if [ "$1" == "--save-baseline" ]; then
+    SAVE_BASELINE=true
+fi
+
+mkdir -p "$RESULT_DIR"
+log_info "Compiling benchmarks..."
+mvn -B -q -P benchmark test-compile
+
+for t in $THREADS; do
+    result="$RESULT_DIR/result-t$t.json"
+    log_info "Running benchmarks with $t thread(s)..."
+    mvn -B -q -P benchmark exec:exec -Djmh.include="$INCLUDE" -Djmh.threads="$t" -Djmh.result="$PWD/$result"
+
+    baseline="$BASELINE_DIR/baseline-t$t.json"
+    if [ "$SAVE_BASELINE" == "true" ]; then
+        mkdir -p "$BASELINE_DIR"
+        cp "$result" "$baseline"
+        log_success "Saved baseline $baseline"
+    elif [ -f "$baseline" ]; then
+        python3 - "$baseline" "$result" <<'PY'
+import json, sys
+
+def scores(path):
+    out = {}
+    for run in json.load(open(path)):
+        params = ",".join("%s=%s" % kv for kv in sorted(run.get("params", {}).items()))
+        name = run["benchmark"].rsplit(".", 2)[-2:]
+        key = ".".join(name) + ("[" + params + "]" if params else "")
+        out[key] = (run["primaryMetric"]["score"], run["primaryMetric"]["scoreUnit"],
+                    run.get("secondaryMetrics", {}).get("gc.alloc.rate.norm", {}).get("score"))
+    return out
+
+base, cur = scores(sys.argv[1]), scores(sys.argv[2])
+print("%-60s %12s %12s %8s %10s" % ("Benchmark", "Baseline", "Current", "Change", "B/op"))
+for key in sorted(cur):
+    score, unit, alloc = cur[key]
+    if key in base:
+        change = "%+.1f%%" % ((score - base[key][0]) / base[key][0] * 100)
+        print("%-60s %12.3f %12.3f %8s %10s" % (key, base[key][0], score, change,
+                                                "-" if alloc is None else "%.0f" % alloc))
+    else:
+        print("%-60s %12s %12.3f %8s" % (key, "-", score, "new"))
+PY
+    else
+        log_error "No baseline $baseline, run with --save-baseline to create one"
+    fi
+done
@@ -6,27 +6,68 @@ USE urlshortener;
 
 -- Create url_mapping table
 CREATE TABLE IF NOT EXISTS url_mapping (
-    id BIGINT PRIMARY KEY AUTO_INCREMENT,
-    short_url VARCHAR(10) NOT NULL UNIQUE,
+    id BIGINT PRIMARY KEY,  -- assigned from id_segment by the application
+    short_url VARCHAR(10) CHARACTER SET ascii COLLATE ascii_bin NOT NULL UNIQUE,  -- Base62 codes are case-sensitive
     long_url TEXT NOT NULL,
+    long_url_hash BIGINT NULL,  -- 64-bit murmur3 of the normalized long URL, backfilled by the application
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     expires_at TIMESTAMP NULL,
     click_count BIGINT DEFAULT 0,
+    redirect_status INT NULL,  -- 301, 302 or 307; NULL follows app.redirect.status
     INDEX idx_short_url (short_url),
     INDEX idx_created_at (created_at),
-    INDEX idx_expires_at (expires_at)
+    INDEX idx_expires_at (expires_at),
+    INDEX idx_long_url_hash (long_url_hash)
 );
 
+-- Upgrading an existing table (replaces the old long_url(255) prefix index):
+--   DROP INDEX idx_long_url_hash ON url_mapping;
+--   ALTER TABLE url_mapping ADD COLUMN long_url_hash BIGINT NULL, ADD INDEX idx_long_url_hash (long_url_hash);
+-- Adding per-link redirect statuses:
+--   ALTER TABLE url_mapping ADD COLUMN redirect_status INT NULL;
+-- Making short URLs case-sensitive (codes that differ only in case are distinct):
+--   ALTER TABLE url_mapping MODIFY short_url VARCHAR(10) CHARACTER SET ascii COLLATE ascii_bin NOT NULL;
+-- Assigning IDs from id_segment instead of AUTO_INCREMENT (then seed id_segment as below):
+--   ALTER TABLE url_mapping MODIFY id BIGINT NOT NULL;
+
 -- Insert sample data for testing
-INSERT INTO url_mapping (short_url, long_url, click_count) VALUES
-('github', 'https://github.com', 100),
-('google', 'https://www.google.com', 250),
-('spring', 'https://spring.io', 75),
-('k8s', 'https://kubernetes.io', 150),
-('docker', 'https://www.docker.com', 200);
+INSERT INTO url_mapping (id, short_url, long_url, click_count) VALUES
+(1, 'github', 'https://github.com', 100),
+(2, 'google', 'https://www.google.com', 250),
+(3, 'spring', 'https://spring.io', 75),
+(4, 'k8s', 'https://kubernetes.io', 150),
+(5, 'docker', 'https://www.docker.com', 200);
+
+-- Create id_segment table (segment based short code allocation)
+CREATE TABLE IF NOT EXISTS id_segment (
+    biz_tag VARCHAR(32) PRIMARY KEY,
+    max_id BIGINT NOT NULL,
+    step INT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Leased IDs start above the existing rows
+INSERT IGNORE INTO id_segment (biz_tag, max_id, step)
+SELECT 'url_mapping', COALESCE(MAX(id), 0), 10000 FROM url_mapping;
+
+-- Create global_counter table (totals for the system statistics, checkpointed by every instance)
+CREATE TABLE IF NOT EXISTS global_counter (
+    name VARCHAR(64) PRIMARY KEY,
+    total BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Create click_rollup table (clicks per link and minute, hour or day)
+CREATE TABLE IF NOT EXISTS click_rollup (
+    short_url VARCHAR(10) CHARACTER SET ascii COLLATE ascii_bin NOT NULL,
+    granularity VARCHAR(8) NOT NULL,  -- MINUTE, HOUR or DAY
+    bucket_start TIMESTAMP NOT NULL,
+    clicks BIGINT NOT NULL,
+    PRIMARY KEY (short_url, granularity, bucket_start),
+    INDEX idx_click_rollup_bucket (granularity, bucket_start)
+);
 
 -- Create indexes for performance
-CREATE INDEX IF NOT EXISTS idx_long_url_hash ON url_mapping (long_url(255));
 CREATE INDEX IF NOT EXISTS idx_click_count ON url_mapping (click_count DESC);
 
 -- Create a view for statistics
@@ -85,7 +85,7 @@ run_performance_test() {
     log_info "Running performance tests..."
     
     # Start the application in background
-    mvn spring-boot:run &
+    mvn spring-boot:run -Dspring-boot.run.profiles=dev &
     APP_PID=$!
     
     # Wait for application to start
@@ -123,7 +123,7 @@ run_load_test() {
     log_info "Running load test..."
     
     # Start the application in background
-    mvn spring-boot:run &
+    mvn spring-boot:run -Dspring-boot.run.profiles=dev &
     APP_PID=$!
     
     # Wait for application to start
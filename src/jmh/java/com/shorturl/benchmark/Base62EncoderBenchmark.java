@@ -0,0 +1,76 @@
+package com.shorturl.benchmark;
+
+import com.shorturl.util.Base62Encoder;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for Base62Encoder
+ *
+ * Inputs are drawn from a pre-built table so input generation does not
+ * show up in the measured time or allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Base62EncoderBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    private final long[] numbers = new long[INPUTS];
+    private final String[] codes = new String[INPUTS];
+    private final char[] buffer = new char[Base62Encoder.MAX_LENGTH];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < INPUTS; i++) {
+            // Seven character codes cover 62^7 values
+            numbers[i] = random.nextLong(3521614606208L);
+            codes[i] = Base62Encoder.encode(numbers[i], 7);
+        }
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (INPUTS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public String encode() {
+        return Base62Encoder.encode(numbers[nextIndex()]);
+    }
+
+    @Benchmark
+    public String encodeFixedWidth() {
+        return Base62Encoder.encode(numbers[nextIndex()], 7);
+    }
+
+    @Benchmark
+    public char[] encodeToBuffer() {
+        Base62Encoder.encodeTo(numbers[nextIndex()], 7, buffer, 0);
+        return buffer;
+    }
+
+    @Benchmark
+    public long decode() {
+        return Base62Encoder.decode(codes[nextIndex()]);
+    }
+
+    @Benchmark
+    public boolean isValidBase62() {
+        return Base62Encoder.isValidBase62(codes[nextIndex()]);
+    }
+
+    @Benchmark
+    public void generateRandom(Blackhole blackhole) {
+        blackhole.consume(Base62Encoder.generateRandom(7));
+    }
+}
@@ -0,0 +1,90 @@
+package com.shorturl.benchmark;
+
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.service.ShortCodeGenerator;
+import com.shorturl.service.impl.PermutedShortCodeGenerator;
+import com.shorturl.service.impl.RandomShortCodeGenerator;
+import com.shorturl.service.impl.SegmentShortCodeGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the short code generation strategies
+ *
+ * The random strategy runs against a repository stub that never reports
+ * a collision, so only the code generation itself is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShortCodeGeneratorBenchmark {
+
+    private static final int CODES = 1024;
+
+    @Param({"permuted", "segment", "random"})
+    public String strategy;
+
+    private ShortCodeGenerator generator;
+    private final String[] codes = new String[CODES];
+    private long nextId = 1_000_000L;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        switch (strategy) {
+            case "permuted":
+                PermutedShortCodeGenerator permuted = new PermutedShortCodeGenerator();
+                ReflectionTestUtils.setField(permuted, "permutationKey", 5316911983139663491L);
+                permuted.init();
+                generator = permuted;
+                break;
+            case "segment":
+                generator = new SegmentShortCodeGenerator();
+                break;
+            case "random":
+                RandomShortCodeGenerator random = new RandomShortCodeGenerator();
+                ReflectionTestUtils.setField(random, "urlMappingRepository", noCollisionRepository());
+                generator = random;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
+        }
+
+        for (int i = 0; i < CODES; i++) {
+            codes[i] = generator.generate(nextId++);
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.generate(nextId++);
+    }
+
+    @Benchmark
+    public OptionalLong decode() {
+        next = (next + 1) & (CODES - 1);
+        return generator.decode(codes[next]);
+    }
+
+    private static UrlMappingRepository noCollisionRepository() {
+        return (UrlMappingRepository) Proxy.newProxyInstance(
+                UrlMappingRepository.class.getClassLoader(),
+                new Class<?>[]{UrlMappingRepository.class},
+                (proxy, method, args) -> {
+                    if ("existsByShortUrl".equals(method.getName())) {
+                        return Boolean.FALSE;
+                    }
+                    if ("toString".equals(method.getName())) {
+                        return "NoCollisionRepository";
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,66 @@
+package com.shorturl.benchmark;
+
+import com.shorturl.config.CacheConfig;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.util.Base62Encoder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for urlMappings lookups with the CacheConfig settings
+ *
+ * The cache is shared by all benchmark threads, like in the service, and
+ * goes through the Spring Cache abstraction the caching proxy uses.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UrlCacheBenchmark {
+
+    private static final int KEYS = 8192;
+
+    private Cache urlMappings;
+    private final String[] hitKeys = new String[KEYS];
+    private final String[] missKeys = new String[KEYS];
+
+    @Setup
+    public void setUp() {
+        CacheManager cacheManager = new CacheConfig().cacheManager();
+        urlMappings = cacheManager.getCache("urlMappings");
+
+        for (int i = 0; i < KEYS; i++) {
+            hitKeys[i] = Base62Encoder.encode(i, 7);
+            missKeys[i] = Base62Encoder.encode(KEYS + i, 7);
+            // Every fourth link expires, the rest are permanent
+            LocalDateTime expiresAt = i % 4 == 0 ? LocalDateTime.now().plusDays(1) : null;
+            urlMappings.put(hitKeys[i], new RedirectTarget("https://www.example.com/" + i, expiresAt));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int nextIndex() {
+            next = (next + 1) & (KEYS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public Cache.ValueWrapper hit(Cursor cursor) {
+        return urlMappings.get(hitKeys[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    public Cache.ValueWrapper miss(Cursor cursor) {
+        return urlMappings.get(missKeys[cursor.nextIndex()]);
+    }
+}
@@ -0,0 +1,368 @@
+package com.shorturl.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.shorturl.UrlShortenerApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Self-contained HTTP load test for the redirect and shorten endpoints
+ *
+ * Starts the application in-process on a random port against in-memory
+ * H2, seeds it with short URLs through the batch endpoint, then keeps a
+ * fixed number of async requests in flight for the configured duration.
+ * Redirect keys are drawn from a Zipf distribution. Each runtime mode in
+ * loadtest.modes gets its own application and database, one after the
+ * other, so the servlet and reactive modes can be compared on one
+ * machine. The report is printed and written as JSON so runs of
+ * different builds can be compared too.
+ *
+ * Settings are system properties:
+ * <pre>
+ *   loadtest.modes             runtime modes to run, servlet and/or reactive (servlet)
+ *   loadtest.keys              seeded short URLs (10000)
+ *   loadtest.zipf-exponent     key popularity skew (1.0)
+ *   loadtest.redirect-ratio    share of redirects, the rest shortens (0.9)
+ *   loadtest.concurrency       requests in flight (64)
+ *   loadtest.warmup-seconds    unmeasured warm-up (10)
+ *   loadtest.duration-seconds  measured duration (30)
+ *   loadtest.max-error-rate    exit with 1 above this error rate (0.01)
+ *   loadtest.report            JSON report file (target/loadtest-report.json)
+ * </pre>
+ */
+public class LoadTestRunner {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final int keys = Integer.getInteger("loadtest.keys", 10000);
+    private final double zipfExponent = doubleProperty("loadtest.zipf-exponent", 1.0);
+    private final double redirectRatio = doubleProperty("loadtest.redirect-ratio", 0.9);
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 64);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+    private final double maxErrorRate = doubleProperty("loadtest.max-error-rate", 0.01);
+    private final String reportFile = System.getProperty("loadtest.report", "target/loadtest-report.json");
+
+    private final String mode;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final Operation redirect = new Operation("redirect");
+    private final Operation shorten = new Operation("shorten");
+    private final AtomicLong shortenSequence = new AtomicLong();
+    private volatile boolean measuring;
+
+    public LoadTestRunner(String mode) {
+        if (!"servlet".equals(mode) && !"reactive".equals(mode)) {
+            throw new IllegalArgumentException("Unknown runtime mode: " + mode);
+        }
+        this.mode = mode;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Map<String, Object>> results = new LinkedHashMap<>();
+        LoadTestRunner runner = null;
+        for (String mode : System.getProperty("loadtest.modes", "servlet").split(",")) {
+            runner = new LoadTestRunner(mode.trim());
+            results.put(runner.mode, runner.run());
+        }
+        System.exit(runner.report(results));
+    }
+
+    /**
+     * Run the load test against one runtime mode
+     *
+     * @return the results of the measured period
+     */
+    public Map<String, Object> run() throws Exception {
+        // Command line arguments, so they override application.yml; a fresh database per mode
+        List<String> args = new ArrayList<>(Arrays.asList("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                "--app.short-code.permutation-key=" + ThreadLocalRandom.current().nextLong(),
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.shorturl=WARN",
+                "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN"));
+        if ("reactive".equals(mode)) {
+            args.add("--spring.profiles.active=reactive");
+            args.add("--spring.r2dbc.url=r2dbc:h2:mem:///loadtest-" + mode + "?options=DB_CLOSE_DELAY=-1");
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(UrlShortenerApplication.class)
+                .run(args.toArray(new String[0]));
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(concurrency)
+                .setMaxConnPerRoute(concurrency)
+                .build();
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .disableRedirectHandling()
+                .disableCookieManagement()
+                .build();
+
+        try {
+            client.start();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port + "/api/v1";
+
+            System.out.printf("Seeding %d short URLs on port %d, %s mode%n", keys, port, mode);
+            List<String> codes = seed(client, baseUrl);
+
+            MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+            long[] lookupsBefore = new long[2];
+            drive(client, baseUrl, codes, () -> {
+                long[] snapshot = redirectLookups(meterRegistry);
+                lookupsBefore[0] = snapshot[0];
+                lookupsBefore[1] = snapshot[1];
+            });
+            long[] lookupsAfter = redirectLookups(meterRegistry);
+
+            long hits = lookupsAfter[0] - lookupsBefore[0];
+            long misses = lookupsAfter[1] - lookupsBefore[1];
+            double cacheHitRatio = hits + misses > 0 ? (double) hits / (hits + misses) : 0.0;
+            return results(cacheHitRatio);
+        } finally {
+            client.close();
+            context.close();
+        }
+    }
+
+    private List<String> seed(CloseableHttpAsyncClient client, String baseUrl) throws Exception {
+        List<String> codes = new ArrayList<>(keys);
+        for (int start = 0; start < keys; start += SEED_BATCH_SIZE) {
+            ObjectNode body = objectMapper.createObjectNode();
+            ArrayNode urls = body.putArray("urls");
+            for (int i = start; i < Math.min(keys, start + SEED_BATCH_SIZE); i++) {
+                urls.addObject().put("url", "https://load.example.com/seed/" + i);
+            }
+
+            SimpleHttpRequest request = SimpleRequestBuilder.post(baseUrl + "/shorten/batch")
+                    .setBody(objectMapper.writeValueAsString(body), ContentType.APPLICATION_JSON)
+                    .build();
+            SimpleHttpResponse response = client.execute(request, null).get(1, TimeUnit.MINUTES);
+            if (response.getCode() != 200) {
+                throw new IllegalStateException("Seeding failed with status " + response.getCode());
+            }
+
+            for (JsonNode result : objectMapper.readTree(response.getBodyText()).get("results")) {
+                String shortUrl = result.get("shortUrl").asText();
+                codes.add(shortUrl.substring(shortUrl.lastIndexOf('/') + 1));
+            }
+        }
+        return codes;
+    }
+
+    private void drive(CloseableHttpAsyncClient client, String baseUrl, List<String> codes,
+                       Runnable onMeasurementStart) throws InterruptedException {
+        ZipfDistribution popularity = new ZipfDistribution(codes.size(), zipfExponent);
+        Semaphore inFlight = new Semaphore(concurrency);
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        System.out.printf("Warming up for %ds, then measuring for %ds with %d requests in flight%n",
+                warmupSeconds, durationSeconds, concurrency);
+
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            if (!measuring && now >= measureFrom) {
+                onMeasurementStart.run();
+                measuring = true;
+            }
+
+            inFlight.acquire();
+            if (ThreadLocalRandom.current().nextDouble() < redirectRatio) {
+                String code = codes.get(popularity.sample());
+                send(client, SimpleRequestBuilder.get(baseUrl + "/" + code).build(), redirect, 301, inFlight);
+            } else {
+                String json = "{\"url\":\"https://load.example.com/new/" + shortenSequence.incrementAndGet() + "\"}";
+                SimpleHttpRequest request = SimpleRequestBuilder.post(baseUrl + "/shorten")
+                        .setBody(json, ContentType.APPLICATION_JSON)
+                        .build();
+                send(client, request, shorten, 200, inFlight);
+            }
+        }
+
+        // Let the requests still in flight finish
+        inFlight.tryAcquire(concurrency, 1, TimeUnit.MINUTES);
+    }
+
+    private void send(CloseableHttpAsyncClient client, SimpleHttpRequest request, Operation operation,
+                      int expectedStatus, Semaphore inFlight) {
+        boolean measured = measuring;
+        long sentAt = System.nanoTime();
+        client.execute(request, new FutureCallback<SimpleHttpResponse>() {
+            @Override
+            public void completed(SimpleHttpResponse response) {
+                operation.record(measured, sentAt, response.getCode() == expectedStatus);
+                inFlight.release();
+            }
+
+            @Override
+            public void failed(Exception e) {
+                operation.record(measured, sentAt, false);
+                inFlight.release();
+            }
+
+            @Override
+            public void cancelled() {
+                operation.record(measured, sentAt, false);
+                inFlight.release();
+            }
+        });
+    }
+
+    private static long[] redirectLookups(MeterRegistry meterRegistry) {
+        long[] counts = new long[2];
+        for (Timer timer : meterRegistry.find("url.lookup").tag("endpoint", "redirect").timers()) {
+            int slot = "hit".equals(timer.getId().getTag("cache")) ? 0 : 1;
+            counts[slot] += timer.count();
+        }
+        return counts;
+    }
+
+    private Map<String, Object> results(double cacheHitRatio) {
+        long requests = redirect.requests() + shorten.requests();
+        long errors = redirect.errors.get() + shorten.errors.get();
+        double errorRate = requests > 0 ? (double) errors / requests : 0.0;
+
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("throughput", (double) requests / durationSeconds);
+        results.put("errorRate", errorRate);
+        results.put("cacheHitRatio", cacheHitRatio);
+        results.put("redirect", redirect.summary(durationSeconds));
+        results.put("shorten", shorten.summary(durationSeconds));
+
+        System.out.println();
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %8s%n", mode, "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "errors");
+        redirect.print(durationSeconds);
+        shorten.print(durationSeconds);
+        System.out.printf("Total %.0f req/s, error rate %.4f, redirect cache hit ratio %.4f%n",
+                (double) requests / durationSeconds, errorRate, cacheHitRatio);
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int report(Map<String, Map<String, Object>> results) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("keys", keys);
+        settings.put("zipfExponent", zipfExponent);
+        settings.put("redirectRatio", redirectRatio);
+        settings.put("concurrency", concurrency);
+        settings.put("warmupSeconds", warmupSeconds);
+        settings.put("durationSeconds", durationSeconds);
+        report.put("settings", settings);
+        report.put("modes", results);
+
+        if (results.size() > 1) {
+            System.out.println();
+            System.out.printf("%-10s %12s %14s %14s %12s%n", "mode", "total req/s", "redirect p50", "redirect p99", "error rate");
+            results.forEach((name, result) -> {
+                Map<String, Object> redirects = (Map<String, Object>) result.get("redirect");
+                System.out.printf("%-10s %12.0f %14.3f %14.3f %12.4f%n", name, result.get("throughput"),
+                        redirects.get("p50Millis"), redirects.get("p99Millis"), result.get("errorRate"));
+            });
+        }
+
+        File file = new File(reportFile);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(file, report);
+        System.out.println("Report written to " + file.getPath());
+
+        boolean failed = results.values().stream()
+                .anyMatch(result -> (double) result.get("errorRate") > maxErrorRate);
+        return failed ? 1 : 0;
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    /**
+     * Latency and error counts for one kind of request
+     */
+    private static class Operation {
+
+        private final String name;
+        private final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+        private final AtomicLong errors = new AtomicLong();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void record(boolean measured, long sentAt, boolean success) {
+            if (!measured) {
+                return;
+            }
+            latency.recordValue(Math.min(System.nanoTime() - sentAt, MAX_LATENCY_NANOS));
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        long requests() {
+            return latency.getTotalCount();
+        }
+
+        Map<String, Object> summary(int durationSeconds) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", requests());
+            summary.put("errors", errors.get());
+            summary.put("throughput", (double) requests() / durationSeconds);
+            summary.put("p50Millis", millis(latency.getValueAtPercentile(50)));
+            summary.put("p99Millis", millis(latency.getValueAtPercentile(99)));
+            summary.put("p999Millis", millis(latency.getValueAtPercentile(99.9)));
+            summary.put("maxMillis", millis(latency.getMaxValue()));
+            return summary;
+        }
+
+        void print(int durationSeconds) {
+            System.out.printf("%-10s %10.0f %10.3f %10.3f %10.3f %10.3f %8d%n", name,
+                    (double) requests() / durationSeconds,
+                    millis(latency.getValueAtPercentile(50)),
+                    millis(latency.getValueAtPercentile(99)),
+                    millis(latency.getValueAtPercentile(99.9)),
+                    millis(latency.getMaxValue()),
+                    errors.get());
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
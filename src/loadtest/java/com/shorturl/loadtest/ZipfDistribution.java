@@ -0,0 +1,37 @@
+package com.shorturl.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Zipf distribution over ranks [0, n)
+ *
+ * Rank k is drawn with probability proportional to 1 / (k + 1)^exponent,
+ * by binary search over the precomputed cumulative weights.
+ */
+public class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    public ZipfDistribution(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Zipf distribution needs at least one rank: " + n);
+        }
+
+        cumulative = new double[n];
+        double sum = 0;
+        for (int k = 0; k < n; k++) {
+            sum += 1.0 / Math.pow(k + 1, exponent);
+            cumulative[k] = sum;
+        }
+    }
+
+    /**
+     * Draw a rank, 0 being the most popular
+     */
+    public int sample() {
+        double u = ThreadLocalRandom.current().nextDouble() * cumulative[cumulative.length - 1];
+        int index = Arrays.binarySearch(cumulative, u);
+        return index >= 0 ? index : Math.min(-index - 1, cumulative.length - 1);
+    }
+}
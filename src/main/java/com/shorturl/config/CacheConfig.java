@@ -1,43 +1,97 @@
 package com.shorturl.config;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Cache configuration for URL shortener service
+ * 
+ * The caching advice wraps the transaction advice, so a cache hit
+ * returns without opening a transaction. Entries of urlMappings expire
+ * individually with the link they resolve, capped at
+ * app.cache.url-mappings-max-ttl; see RedirectTargetExpiry. urlStats
+ * entries follow the app.cache.url-stats-* settings.
+ * With app.cache.l2.enabled these caches become the L1 of a two-level
+ * cache, see TwoLevelCacheConfig.
  */
 @Configuration
-@EnableCaching
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
 public class CacheConfig {
 
+    @Value("${app.cache.url-mappings-max-size:10000}")
+    private long urlMappingsMaxSize = 10000;
+
+    @Value("${app.cache.url-mappings-max-ttl:86400}")
+    private long urlMappingsMaxTtlSeconds = 86400;
+
+    @Value("${app.cache.url-stats-max-size:10000}")
+    private long urlStatsMaxSize = 10000;
+
+    @Value("${app.cache.url-stats-ttl:3600}")
+    private long urlStatsTtlSeconds = 3600;
+
+    @Value("${app.cache.url-stats-idle-seconds:1800}")
+    private long urlStatsIdleSeconds = 1800;
+
     /**
-     * Configure Caffeine cache manager
+     * Configure Caffeine cache manager, unless TwoLevelCacheConfig layers it over a shared L2
      */
     @Bean
+    @ConditionalOnProperty(name = "app.cache.l2.enabled", havingValue = "false", matchIfMissing = true)
     public CacheManager cacheManager() {
+        return caffeineCacheManager();
+    }
+
+    /**
+     * Create the Caffeine caches
+     */
+    public CaffeineCacheManager caffeineCacheManager() {
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setCaffeine(caffeineCacheBuilder());
         cacheManager.setCacheNames(Arrays.asList("urlMappings", "urlStats"));
+        cacheManager.registerCustomCache("urlMappings", urlMappingsCache().synchronous());
         return cacheManager;
     }
 
     /**
-     * Configure Caffeine cache builder
+     * Store of the urlMappings cache
+     *
+     * Built as an async cache so the reactive redirect path can share
+     * in-flight lookups; the cache manager uses its synchronous view, so
+     * both modes see the same entries and evictions.
+     */
+    @Bean
+    public AsyncCache<Object, Object> urlMappingsCache() {
+        return Caffeine.newBuilder()
+                .initialCapacity(100)
+                .maximumSize(urlMappingsMaxSize)
+                .expireAfter(new RedirectTargetExpiry(Duration.ofSeconds(urlMappingsMaxTtlSeconds)))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Configure Caffeine cache builder, used by urlStats
      */
     @Bean
     public Caffeine<Object, Object> caffeineCacheBuilder() {
         return Caffeine.newBuilder()
                 .initialCapacity(100)
-                .maximumSize(10000)
-                .expireAfterAccess(30, TimeUnit.MINUTES)
-                .expireAfterWrite(60, TimeUnit.MINUTES)
+                .maximumSize(urlStatsMaxSize)
+                .expireAfterAccess(urlStatsIdleSeconds, TimeUnit.SECONDS)
+                .expireAfterWrite(urlStatsTtlSeconds, TimeUnit.SECONDS)
                 .recordStats();
     }
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.shorturl.config;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when another instance evicted a cache entry
+ */
+public class CacheInvalidatedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String cacheName;
+    private final String key;
+
+    public CacheInvalidatedEvent(Object source, String cacheName, String key) {
+        super(source);
+        this.cacheName = cacheName;
+        this.key = key;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * Get the evicted key
+     *
+     * @return the key, or null if the whole cache was cleared
+     */
+    public String getKey() {
+        return key;
+    }
+}
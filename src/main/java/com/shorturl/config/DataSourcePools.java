@@ -0,0 +1,67 @@
+package com.shorturl.config;
+
+import com.shorturl.repository.replica.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the Hikari pools behind the sharding and read replica configurations
+ */
+final class DataSourcePools {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataSourcePools.class);
+
+    private DataSourcePools() {
+    }
+
+    /**
+     * Create a Hikari pool configured from spring.datasource.hikari
+     *
+     * @param properties the connection settings
+     * @param binder binds the pool settings
+     * @param poolName the pool name
+     * @return the pool
+     */
+    static HikariDataSource pool(DataSourceProperties properties, Binder binder, String poolName) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        return dataSource;
+    }
+
+    /**
+     * Put the replicas listed under a property prefix in front of a primary pool
+     *
+     * Each replica takes the same keys as spring.datasource.
+     *
+     * @param name the primary's name
+     * @param primary the primary pool
+     * @param replicasPrefix the property listing the replicas
+     * @param binder binds the replica settings
+     * @return the primary itself if no replicas are listed, otherwise a replica routing DataSource
+     */
+    static DataSource withReplicas(String name, DataSource primary, String replicasPrefix, Binder binder) {
+        List<DataSourceProperties> replicas = binder.bind(replicasPrefix, Bindable.listOf(DataSourceProperties.class))
+                .orElse(Collections.emptyList());
+        if (replicas.isEmpty()) {
+            return primary;
+        }
+
+        List<DataSource> replicaPools = new ArrayList<>(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaPools.add(pool(replicas.get(i), binder, name + "-replica-" + i));
+        }
+        long healthCheckMillis = binder.bind("app.datasource.replica-health-check-ms", Long.class).orElse(5000L);
+        logger.info("Reading from {} replicas of {}", replicaPools.size(), name);
+        return new ReplicaRoutingDataSource(name, primary, replicaPools, healthCheckMillis);
+    }
+}
@@ -0,0 +1,79 @@
+package com.shorturl.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Configuration for the reactive runtime mode
+ *
+ * Serves on Netty even though Tomcat is on the classpath. The R2DBC pool
+ * is configured from spring.r2dbc but deliberately not exposed as a
+ * ConnectionFactory bean: Spring Boot would then skip the JDBC DataSource
+ * that JPA, and with it every write, still runs on.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveConfig.class);
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Client over a pooled R2DBC connection to the URL mapping database
+     */
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(Environment environment) {
+        R2dbcProperties properties = Binder.get(environment).bind("spring.r2dbc", R2dbcProperties.class)
+                .orElseThrow(() -> new IllegalStateException("The reactive mode needs spring.r2dbc.url"));
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (StringUtils.hasText(properties.getUsername())) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (StringUtils.hasText(properties.getPassword())) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+
+        R2dbcProperties.Pool pool = properties.getPool();
+        ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name("r2dbc-pool")
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime());
+        if (pool.getMaxAcquireTime() != null) {
+            configuration.maxAcquireTime(pool.getMaxAcquireTime());
+        }
+        connectionPool = new ConnectionPool(configuration.build());
+
+        logger.info("R2DBC pool of up to {} connections for redirect lookups", pool.getMaxSize());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+}
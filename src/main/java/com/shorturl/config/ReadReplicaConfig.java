@@ -0,0 +1,44 @@
+package com.shorturl.config;
+
+import com.shorturl.repository.replica.ReplicaRoutingDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * DataSource configuration for reading from replicas of an unsharded database
+ *
+ * Active when app.datasource.replicas lists at least one replica and
+ * sharding is off; shards list their replicas under their own entry,
+ * see ShardingConfig. spring.datasource stays the primary.
+ */
+@Configuration
+@ConditionalOnExpression("!${app.sharding.enabled:false} && '${app.datasource.replicas[0].url:}' != ''")
+public class ReadReplicaConfig {
+
+    /**
+     * Routing DataSource over the primary and its replicas
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties properties, Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSource primary = DataSourcePools.pool(properties, binder, "primary");
+        return (ReplicaRoutingDataSource) DataSourcePools.withReplicas("primary", primary, "app.datasource.replicas", binder);
+    }
+
+    /**
+     * DataSource that picks the target once a transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
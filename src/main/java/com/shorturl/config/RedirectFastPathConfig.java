@@ -0,0 +1,38 @@
+package com.shorturl.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.shorturl.controller.RedirectFastPathFilter;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.HttpCachePolicy;
+import com.shorturl.service.impl.UrlShortenerMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Registers the redirect fast path in front of every other servlet filter
+ *
+ * The filter reads the local urlMappings store directly. With the shared
+ * L2 cache that is the L1, so an entry only in Redis is still served by
+ * Spring MVC, which copies it into L1 for the next request.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "app.redirect.fast-path", havingValue = "true", matchIfMissing = true)
+public class RedirectFastPathConfig {
+
+    @Bean
+    public FilterRegistrationBean<RedirectFastPathFilter> redirectFastPathFilter(
+            AsyncCache<Object, Object> urlMappingsCache, ClickCountAggregator clickCountAggregator,
+            UrlShortenerMetrics urlShortenerMetrics, HttpCachePolicy httpCachePolicy) {
+        FilterRegistrationBean<RedirectFastPathFilter> registration = new FilterRegistrationBean<>(
+                new RedirectFastPathFilter(urlMappingsCache.synchronous(), clickCountAggregator, urlShortenerMetrics,
+                        httpCachePolicy));
+        registration.addUrlPatterns("/api/v1/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
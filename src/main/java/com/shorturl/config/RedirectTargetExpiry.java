@@ -0,0 +1,62 @@
+package com.shorturl.config;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.shorturl.dto.RedirectTarget;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Per-entry expiry for the urlMappings cache
+ *
+ * A cached redirect target lives until its own expiresAt, but no longer
+ * than the maximum TTL. Targets without an expiry, or expiring later,
+ * are dropped after the maximum TTL, so an entry an eviction message
+ * missed is read again from the database eventually.
+ */
+public class RedirectTargetExpiry implements Expiry<Object, Object> {
+
+    private final long maxTtlNanos;
+
+    /**
+     * @param maxTtl the longest an entry is kept
+     */
+    public RedirectTargetExpiry(Duration maxTtl) {
+        this.maxTtlNanos = maxTtl.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return nanosUntilExpiry(value);
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return nanosUntilExpiry(value);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    long nanosUntilExpiry(Object value) {
+        if (!(value instanceof RedirectTarget)) {
+            return maxTtlNanos;
+        }
+        LocalDateTime expiresAt = ((RedirectTarget) value).getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtlNanos;
+        }
+        Duration remaining = Duration.between(LocalDateTime.now(), expiresAt);
+        if (remaining.isNegative()) {
+            return 0L;
+        }
+        try {
+            return Math.min(remaining.toNanos(), maxTtlNanos);
+        } catch (ArithmeticException e) {
+            // Too far in the future to count in nanoseconds
+            return maxTtlNanos;
+        }
+    }
+}
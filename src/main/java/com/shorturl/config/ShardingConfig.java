@@ -0,0 +1,99 @@
+package com.shorturl.config;
+
+import com.shorturl.repository.shard.ShardRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * DataSource configuration for hash-sharded URL mappings
+ *
+ * Each entry of app.sharding.shards takes the same keys as
+ * spring.datasource plus a name, and gets its own Hikari pool configured
+ * from spring.datasource.hikari. The first shard is the default one and
+ * also holds id_segment. Every shard needs the full schema; for local
+ * runs on in-memory H2, replicate-schema copies the schema Hibernate
+ * created on the first shard to the others at startup.
+ *
+ * A shard may list read replicas under its own replicas key, with the
+ * same keys as spring.datasource; read-only transactions on that shard
+ * then go to them, see ReplicaRoutingDataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardingConfig.class);
+
+    /**
+     * Routing DataSource over all configured shards
+     */
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(Environment environment) {
+        Binder binder = Binder.get(environment);
+        List<DataSourceProperties> shards = binder.bind("app.sharding.shards", Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException("Sharding is enabled but app.sharding.shards is empty"));
+
+        LinkedHashMap<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            DataSourceProperties shard = shards.get(i);
+            if (!StringUtils.hasText(shard.getName()) || dataSources.containsKey(shard.getName())) {
+                throw new IllegalStateException("Every shard needs a unique name, got: " + shard.getName());
+            }
+            String name = "shard-" + shard.getName();
+            DataSource primary = DataSourcePools.pool(shard, binder, name);
+            dataSources.put(shard.getName(),
+                    DataSourcePools.withReplicas(name, primary, "app.sharding.shards[" + i + "].replicas", binder));
+        }
+
+        logger.info("Routing URL mappings across shards {}", dataSources.keySet());
+        return new ShardRoutingDataSource(dataSources);
+    }
+
+    /**
+     * DataSource that picks the target once a transaction's read-only flag is known
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    /**
+     * Copy the H2 schema of the default shard to the other shards once Hibernate has created it
+     */
+    @Bean
+    @ConditionalOnProperty(name = "app.sharding.replicate-schema", havingValue = "true")
+    public SmartInitializingSingleton shardSchemaReplicator(ShardRoutingDataSource dataSource) {
+        return () -> {
+            List<String> shards = dataSource.getShardNames();
+            List<String> statements = new JdbcTemplate(dataSource.getShard(shards.get(0)))
+                    .queryForList("SCRIPT NODATA", String.class);
+            for (String shard : shards.subList(1, shards.size())) {
+                JdbcTemplate target = new JdbcTemplate(dataSource.getShard(shard));
+                target.execute("DROP ALL OBJECTS");
+                for (String statement : statements) {
+                    if (!statement.startsWith("--")) {
+                        target.execute(statement);
+                    }
+                }
+                logger.info("Replicated schema to shard {}", shard);
+            }
+        };
+    }
+}
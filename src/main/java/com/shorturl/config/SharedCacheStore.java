@@ -0,0 +1,106 @@
+package com.shorturl.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Second-level cache shared by all instances, kept in Redis
+ *
+ * Values are stored as bytes under "prefix + cache name + ':' + key" with
+ * a time to live, and evictions are announced on a pub/sub channel. Every
+ * call is timed per cache and operation. Redis being slow or down never
+ * fails a request: errors are counted and reads behave as misses.
+ */
+public class SharedCacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(SharedCacheStore.class);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final String keyPrefix;
+    private final MeterRegistry meterRegistry;
+    private final Counter errors;
+
+    public SharedCacheStore(RedisConnectionFactory connectionFactory, String keyPrefix, MeterRegistry meterRegistry) {
+        this.redisTemplate = new RedisTemplate<>();
+        this.redisTemplate.setConnectionFactory(connectionFactory);
+        this.redisTemplate.setKeySerializer(RedisSerializer.string());
+        this.redisTemplate.setValueSerializer(RedisSerializer.byteArray());
+        this.redisTemplate.setEnableDefaultSerializer(false);
+        this.redisTemplate.afterPropertiesSet();
+        this.keyPrefix = keyPrefix;
+        this.meterRegistry = meterRegistry;
+        this.errors = meterRegistry.counter("cache.l2.errors");
+    }
+
+    /**
+     * Read a value
+     *
+     * @return the value, or null if it is absent or Redis cannot be reached
+     */
+    public byte[] get(String cacheName, Object key) {
+        byte[] value = execute(cacheName, "get", () -> redisTemplate.opsForValue().get(redisKey(cacheName, key)));
+        meterRegistry.counter("cache.l2.requests", "cache", cacheName, "result", value != null ? "hit" : "miss")
+                .increment();
+        return value;
+    }
+
+    /**
+     * Write a value that expires after the given time
+     */
+    public void put(String cacheName, Object key, byte[] value, long ttlMillis) {
+        byte[] rawKey = redisKey(cacheName, key).getBytes(StandardCharsets.UTF_8);
+        execute(cacheName, "put", () -> redisTemplate.execute((RedisCallback<Boolean>) connection ->
+                connection.stringCommands().set(rawKey, value, Expiration.milliseconds(ttlMillis),
+                        RedisStringCommands.SetOption.upsert())));
+    }
+
+    /**
+     * Remove a value
+     */
+    public void evict(String cacheName, Object key) {
+        execute(cacheName, "evict", () -> redisTemplate.delete(redisKey(cacheName, key)));
+    }
+
+    /**
+     * Publish a message about a cache on a channel
+     */
+    public void publish(String cacheName, String channel, byte[] message) {
+        byte[] rawChannel = channel.getBytes(StandardCharsets.UTF_8);
+        execute(cacheName, "publish", () -> redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.publish(rawChannel, message)));
+    }
+
+    private String redisKey(String cacheName, Object key) {
+        return keyPrefix + cacheName + ":" + key;
+    }
+
+    private <T> T execute(String cacheName, String operation, Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            errors.increment();
+            logger.debug("Shared cache {} failed for {}", operation, cacheName, e);
+            return null;
+        } finally {
+            Timer.builder("cache.l2.latency")
+                    .tag("cache", cacheName)
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.shorturl.config;
+
+import com.shorturl.dto.RedirectTarget;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache backed by a local Caffeine cache (L1) and the shared store (L2)
+ *
+ * Reads try L1, then L2, and copy an L2 hit into L1; keys the manager's
+ * key filter rejects skip L2. Writes go to both.
+ * An eviction removes the entry from L2 before L1, so a concurrent read
+ * cannot copy the old value back, and is then broadcast so every other
+ * instance drops it from its L1 too. Only redirect targets that follow
+ * the global redirect status are written to L2, so the value format
+ * stays the same across versions; other values, such as those of a
+ * cache that is not shared, stay in L1 while their evictions are still
+ * broadcast.
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    private final CaffeineCache local;
+    private final SharedCacheStore shared;
+    private final TwoLevelCacheManager manager;
+    private final long ttlMillis;
+
+    /**
+     * @param local the L1 cache
+     * @param shared the L2 store, or null if this cache is not shared
+     * @param manager the manager broadcasting evictions
+     * @param ttl the longest time an entry lives in L2
+     */
+    TwoLevelCache(CaffeineCache local, SharedCacheStore shared, TwoLevelCacheManager manager, Duration ttl) {
+        this.local = local;
+        this.shared = shared;
+        this.manager = manager;
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Get the L1 cache
+     */
+    public CaffeineCache getLocal() {
+        return local;
+    }
+
+    @Override
+    public String getName() {
+        return local.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = local.get(key);
+        if (value != null || shared == null || !manager.mayBeShared(getName(), key)) {
+            return value;
+        }
+
+        byte[] bytes = shared.get(getName(), key);
+        if (bytes == null) {
+            return null;
+        }
+        RedirectTarget target = decode(bytes);
+        if (target == null) {
+            return null;
+        }
+        local.put(key, target);
+        return new SimpleValueWrapper(target);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper value = get(key);
+        if (value == null) {
+            return null;
+        }
+        Object result = value.get();
+        if (result != null && type != null && !type.isInstance(result)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + result);
+        }
+        return (T) result;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        T result = local.get(key, valueLoader);
+        putShared(key, result);
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        local.put(key, value);
+        putShared(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (shared != null) {
+            shared.evict(getName(), key);
+        }
+        local.evict(key);
+        manager.publishEviction(getName(), key);
+    }
+
+    @Override
+    public void clear() {
+        local.clear();
+        manager.publishEviction(getName(), null);
+    }
+
+    /**
+     * Drop an entry from L1 only, for an eviction made on another instance
+     */
+    void evictLocal(Object key) {
+        if (key == null) {
+            local.clear();
+        } else {
+            local.evict(key);
+        }
+    }
+
+    private void putShared(Object key, Object value) {
+        if (shared == null || !(value instanceof RedirectTarget)) {
+            return;
+        }
+        RedirectTarget target = (RedirectTarget) value;
+        if (target.getRedirectStatus() != null) {
+            // L2 values carry no status, a read from there would fall back to the global one
+            return;
+        }
+        long ttl = ttlMillis;
+        if (target.getExpiresAt() != null) {
+            ttl = Math.min(ttl, Duration.between(LocalDateTime.now(), target.getExpiresAt()).toMillis());
+        }
+        if (ttl > 0) {
+            shared.put(getName(), key, encode(target), ttl);
+        }
+    }
+
+    static byte[] encode(RedirectTarget target) {
+        byte[] longUrl = target.getLongUrl().getBytes(StandardCharsets.UTF_8);
+        LocalDateTime expiresAt = target.getExpiresAt();
+        return ByteBuffer.allocate(Long.BYTES + longUrl.length)
+                .putLong(expiresAt != null ? expiresAt.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_EXPIRY)
+                .put(longUrl)
+                .array();
+    }
+
+    static RedirectTarget decode(byte[] bytes) {
+        if (bytes.length < Long.BYTES) {
+            return null;
+        }
+        long millis = ByteBuffer.wrap(bytes).getLong();
+        LocalDateTime expiresAt = millis == NO_EXPIRY ? null : LocalDateTime.ofEpochSecond(
+                Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+        String longUrl = new String(bytes, Long.BYTES, bytes.length - Long.BYTES, StandardCharsets.UTF_8);
+        return new RedirectTarget(longUrl, expiresAt);
+    }
+}
@@ -0,0 +1,91 @@
+package com.shorturl.config;
+
+import com.shorturl.service.impl.ShortUrlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Cache configuration with a shared Redis L2 behind the Caffeine caches
+ *
+ * Active when app.cache.l2.enabled is true; the connection comes from
+ * spring.redis. Replaces the cache manager of CacheConfig with a
+ * TwoLevelCacheManager and subscribes it to the invalidation channel.
+ * Short URLs the ShortUrlFilter rejects are not looked up in L2.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.cache.l2.enabled", havingValue = "true")
+public class TwoLevelCacheConfig {
+
+    @Value("${app.cache.l2.caches:urlMappings}")
+    private String[] sharedCaches = {"urlMappings"};
+
+    @Value("${app.cache.l2.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+
+    @Value("${app.cache.l2.key-prefix:url-shortener:}")
+    private String keyPrefix = "url-shortener:";
+
+    @Value("${app.cache.l2.channel:url-shortener:cache-invalidation}")
+    private String channel = "url-shortener:cache-invalidation";
+
+    /**
+     * Shared L2 store
+     */
+    @Bean
+    public SharedCacheStore sharedCacheStore(RedisConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+        return new SharedCacheStore(connectionFactory, keyPrefix, meterRegistry);
+    }
+
+    /**
+     * Caffeine caches as L1 over the shared store
+     */
+    @Bean
+    public TwoLevelCacheManager cacheManager(CacheConfig cacheConfig, SharedCacheStore sharedCacheStore,
+                                             MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher,
+                                             ObjectProvider<ShortUrlFilter> shortUrlFilter) {
+        TwoLevelCacheManager cacheManager = new TwoLevelCacheManager(cacheConfig.caffeineCacheManager(),
+                sharedCacheStore, new HashSet<>(Arrays.asList(sharedCaches)), Duration.ofSeconds(ttlSeconds),
+                channel, meterRegistry, eventPublisher);
+        // Resolved on first use, the filter depends on beans that use the cache manager
+        cacheManager.setSharedKeyFilter("urlMappings", key -> {
+            ShortUrlFilter filter = shortUrlFilter.getIfAvailable();
+            return filter == null || filter.mightExistUncounted(key.toString());
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Subscription to the invalidation channel
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                   TwoLevelCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> cacheManager.onInvalidation(message.getBody()),
+                new ChannelTopic(cacheManager.getChannel()));
+        return container;
+    }
+
+    /**
+     * Export the Caffeine statistics of each L1 cache as cache metrics
+     */
+    @Bean
+    public CacheMeterBinderProvider<TwoLevelCache> twoLevelCacheMeterBinderProvider() {
+        return (cache, tags) -> new CaffeineCacheMetrics<>(cache.getLocal().getNativeCache(), cache.getName(), tags);
+    }
+}
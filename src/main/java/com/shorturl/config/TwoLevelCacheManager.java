@@ -0,0 +1,151 @@
+package com.shorturl.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Cache manager layering every Caffeine cache over the shared store
+ *
+ * Evictions are published on the invalidation channel as
+ * "origin\nsentAt\ncache\nkey", with an empty key for a clear. Each
+ * instance ignores its own messages, drops the key from its L1 for the
+ * others and publishes a CacheInvalidatedEvent, so local tiers outside
+ * the cache manager can follow. The time from publish to apply is
+ * recorded as the invalidation lag. A cache can be given a key filter;
+ * keys it rejects are not looked up in L2.
+ */
+public class TwoLevelCacheManager implements CacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CaffeineCacheManager localCacheManager;
+    private final SharedCacheStore sharedCacheStore;
+    private final Set<String> sharedCacheNames;
+    private final Duration ttl;
+    private final String channel;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String instanceId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Predicate<Object>> sharedKeyFilters = new ConcurrentHashMap<>();
+    private final Timer invalidationLag;
+    private final Counter invalidationsSent;
+
+    public TwoLevelCacheManager(CaffeineCacheManager localCacheManager, SharedCacheStore sharedCacheStore,
+                                Set<String> sharedCacheNames, Duration ttl, String channel,
+                                MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher) {
+        this.localCacheManager = localCacheManager;
+        this.sharedCacheStore = sharedCacheStore;
+        this.sharedCacheNames = sharedCacheNames;
+        this.ttl = ttl;
+        this.channel = channel;
+        this.eventPublisher = eventPublisher;
+        this.invalidationLag = Timer.builder("cache.invalidation.lag")
+                .description("Time from an eviction on one instance to its L1 eviction on another")
+                .register(meterRegistry);
+        this.invalidationsSent = meterRegistry.counter("cache.invalidation.sent");
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoLevelCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache local = localCacheManager.getCache(name);
+        if (local == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new TwoLevelCache((CaffeineCache) local,
+                sharedCacheNames.contains(name) ? sharedCacheStore : null, this, ttl));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return localCacheManager.getCacheNames();
+    }
+
+    /**
+     * Skip the L2 lookup of keys that cannot be in a cache
+     *
+     * @param cacheName the cache
+     * @param filter false for keys that are known not to exist
+     */
+    public void setSharedKeyFilter(String cacheName, Predicate<Object> filter) {
+        sharedKeyFilters.put(cacheName, filter);
+    }
+
+    /**
+     * Check whether a key is worth looking up in L2
+     */
+    boolean mayBeShared(String cacheName, Object key) {
+        Predicate<Object> filter = sharedKeyFilters.get(cacheName);
+        return filter == null || filter.test(key);
+    }
+
+    /**
+     * Get the channel evictions are published on
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    /**
+     * Tell the other instances that an entry was evicted
+     *
+     * @param cacheName the cache
+     * @param key the evicted key, or null if the cache was cleared
+     */
+    void publishEviction(String cacheName, Object key) {
+        String message = instanceId + "\n" + System.currentTimeMillis() + "\n" + cacheName + "\n"
+                + (key != null ? key : "");
+        sharedCacheStore.publish(cacheName, channel, message.getBytes(StandardCharsets.UTF_8));
+        invalidationsSent.increment();
+    }
+
+    /**
+     * Apply an eviction received on the invalidation channel
+     *
+     * @param body the message
+     */
+    public void onInvalidation(byte[] body) {
+        String[] parts = new String(body, StandardCharsets.UTF_8).split("\n", 4);
+        if (parts.length < 4) {
+            logger.warn("Ignoring malformed cache invalidation message");
+            return;
+        }
+        if (instanceId.equals(parts[0])) {
+            return;
+        }
+
+        String key = parts[3].isEmpty() ? null : parts[3];
+        Cache cache = getCache(parts[2]);
+        if (cache != null) {
+            ((TwoLevelCache) cache).evictLocal(key);
+        }
+        eventPublisher.publishEvent(new CacheInvalidatedEvent(this, parts[2], key));
+        try {
+            invalidationLag.record(Math.max(0L, System.currentTimeMillis() - Long.parseLong(parts[1])),
+                    TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            logger.warn("Cache invalidation message has no valid timestamp");
+        }
+    }
+}
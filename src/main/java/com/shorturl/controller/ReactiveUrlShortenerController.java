@@ -0,0 +1,249 @@
+package com.shorturl.controller;
+
+import com.shorturl.dto.BatchShortenRequest;
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.BatchShortenResult;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.dto.ShortenUrlRequest;
+import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlStatsResponse;
+import com.shorturl.service.UrlShortenerService;
+import com.shorturl.service.impl.HttpCachePolicy;
+import com.shorturl.service.impl.ReactiveUrlShortenerService;
+import com.shorturl.service.impl.UrlShortenerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Reactive REST Controller for the redirect and shorten endpoints
+ *
+ * Replaces UrlShortenerController in the reactive runtime mode, with the
+ * same paths and responses for shorten, batch shorten, redirect, stats,
+ * click time series, delete and health. Bulk import and export, listing,
+ * cleanup and the shard endpoints are only served in the servlet mode.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@CrossOrigin(origins = "*")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlShortenerController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUrlShortenerController.class);
+
+    @Autowired
+    private ReactiveUrlShortenerService reactiveUrlShortenerService;
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private UrlShortenerMetrics urlShortenerMetrics;
+
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+
+    /**
+     * Shorten a long URL
+     */
+    @PostMapping("/shorten")
+    public Mono<ResponseEntity<ShortenUrlResponse>> shortenUrl(@Valid @RequestBody ShortenUrlRequest request,
+                                                              ServerHttpRequest httpRequest) {
+        logger.info("Received request to shorten URL: {}", request.getUrl());
+
+        return reactiveUrlShortenerService.offload(() -> urlShortenerService.shortenUrl(request))
+                .map(response -> {
+                    response.setShortUrl(getBaseUrl(httpRequest) + "/" + response.getShortUrl());
+                    return ResponseEntity.ok(response);
+                })
+                .onErrorResume(e -> {
+                    logger.error("Error shortening URL: {}", request.getUrl(), e);
+                    return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                });
+    }
+
+    /**
+     * Shorten many long URLs in one request
+     */
+    @PostMapping("/shorten/batch")
+    public Mono<ResponseEntity<BatchShortenResponse>> shortenUrls(@Valid @RequestBody BatchShortenRequest request,
+                                                                  ServerHttpRequest httpRequest) {
+        logger.info("Received request to shorten {} URLs", request.getUrls().size());
+
+        return reactiveUrlShortenerService.offload(() -> urlShortenerService.shortenUrls(request.getUrls()))
+                .map(response -> {
+                    String baseUrl = getBaseUrl(httpRequest);
+                    for (BatchShortenResult result : response.getResults()) {
+                        if (!result.isFailed()) {
+                            result.setShortUrl(baseUrl + "/" + result.getShortUrl());
+                        }
+                    }
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Redirect to original URL
+     */
+    @GetMapping("/{shortUrl}")
+    public Mono<ResponseEntity<Void>> redirectToOriginalUrl(@PathVariable String shortUrl) {
+        logger.debug("Received request to expand short URL: {}", shortUrl);
+
+        return reactiveUrlShortenerService.expandUrl(shortUrl)
+                .map(target -> {
+                    // Resolution may be served from cache, every redirect still counts as a click
+                    urlShortenerService.recordClick(shortUrl);
+                    logger.debug("Redirecting {} to {}", shortUrl, target.getLongUrl());
+                    return ResponseEntity.status(httpCachePolicy.redirectStatus(target))
+                            .header(HttpHeaders.LOCATION, target.getLongUrl())
+                            .header(HttpHeaders.CACHE_CONTROL, httpCachePolicy.redirectCacheControl(target))
+                            .<Void>build();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> notFound(shortUrl, "/api/v1/{shortUrl}")));
+    }
+
+    /**
+     * Get URL statistics
+     */
+    @GetMapping("/stats/{shortUrl}")
+    public Mono<ResponseEntity<UrlStatsResponse>> getUrlStats(@PathVariable String shortUrl) {
+        logger.info("Received request for stats of short URL: {}", shortUrl);
+
+        return reactiveUrlShortenerService.offload(() -> urlShortenerMetrics.lookup("stats",
+                        () -> urlShortenerService.getUrlStats(shortUrl)))
+                .map(stats -> stats.map(this::statsResponse)
+                        .orElseGet(() -> notFound(shortUrl, "/api/v1/stats/{shortUrl}")));
+    }
+
+    /**
+     * Get the clicks on a URL per step, by default hourly over the last day
+     */
+    @GetMapping("/stats/{shortUrl}/timeseries")
+    public Mono<ResponseEntity<ClickTimeSeriesResponse>> getClickTimeSeries(
+            @PathVariable String shortUrl,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1h") String step) {
+        logger.info("Received request for click time series of short URL: {}", shortUrl);
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        Duration stepDuration = DurationStyle.detectAndParse(step);
+        return reactiveUrlShortenerService.offload(() -> urlShortenerService.getClickTimeSeries(shortUrl, start, end,
+                        stepDuration))
+                .map(timeSeries -> timeSeries.map(ResponseEntity::ok)
+                        .orElseGet(() -> notFound(shortUrl, "/api/v1/stats/{shortUrl}/timeseries")));
+    }
+
+    /**
+     * Delete a URL
+     */
+    @DeleteMapping("/admin/urls/{shortUrl}")
+    public Mono<ResponseEntity<Map<String, String>>> deleteUrl(@PathVariable String shortUrl) {
+        logger.info("Received request to delete short URL: {}", shortUrl);
+
+        return reactiveUrlShortenerService.offload(() -> urlShortenerService.deleteUrl(shortUrl))
+                .map(deleted -> {
+                    if (!deleted) {
+                        return notFound(shortUrl, "/api/v1/admin/urls/{shortUrl}");
+                    }
+                    Map<String, String> response = new HashMap<>();
+                    response.put("message", "URL deleted successfully");
+                    return ResponseEntity.ok(response);
+                });
+    }
+
+    /**
+     * Health check endpoint
+     */
+    @GetMapping("/health")
+    public Mono<ResponseEntity<Map<String, String>>> healthCheck() {
+        Map<String, String> response = new HashMap<>();
+        response.put("status", "UP");
+        response.put("service", "URL Shortener");
+        return Mono.just(ResponseEntity.ok(response));
+    }
+
+    /**
+     * Get base URL from request
+     */
+    private String getBaseUrl(ServerHttpRequest request) {
+        URI uri = request.getURI();
+        String scheme = uri.getScheme();
+        int port = uri.getPort();
+
+        StringBuilder url = new StringBuilder();
+        url.append(scheme).append("://").append(uri.getHost());
+
+        if (port != -1 && ((scheme.equals("http") && port != 80) || (scheme.equals("https") && port != 443))) {
+            url.append(":").append(port);
+        }
+
+        url.append(request.getPath().contextPath().value()).append("/api/v1");
+        return url.toString();
+    }
+
+    private ResponseEntity<UrlStatsResponse> statsResponse(UrlStatsResponse stats) {
+        // Answered with 304 when the request's validators still match
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(httpCachePolicy.statsETag(stats))
+                .lastModified(httpCachePolicy.statsLastModified(stats))
+                .body(stats);
+    }
+
+    private <T> ResponseEntity<T> notFound(String shortUrl, String uri) {
+        logger.warn("Short URL not found: {}", shortUrl);
+        urlShortenerMetrics.recordNotFound(uri);
+        return ResponseEntity.notFound().build();
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Map<String, String>> handleValidationException(WebExchangeBindException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Invalid request data");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException e) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    }
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecutionException(RejectedExecutionException e) {
+        // The queue in front of the blocking database calls is full
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Service busy");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Map<String, String>> handleGenericException(Exception e) {
+        logger.error("Unexpected error", e);
+        Map<String, String> response = new HashMap<>();
+        response.put("error", "Internal server error");
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+}
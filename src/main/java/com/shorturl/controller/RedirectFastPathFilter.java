@@ -0,0 +1,104 @@
+package com.shorturl.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.HttpCachePolicy;
+import com.shorturl.service.impl.UrlShortenerMetrics;
+import org.springframework.http.HttpHeaders;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Serves redirects found in the urlMappings cache before Spring MVC runs
+ *
+ * A GET of /api/v1/{shortUrl} whose target is in the local cache is
+ * answered here with the status, Location and Cache-Control headers,
+ * after counting the click and the cache hit, the same as
+ * UrlShortenerController would. The
+ * only allocation is the key. Everything else, including cache misses,
+ * goes down the filter chain unchanged. Fast-path redirects therefore do
+ * not show up in http.server.requests; url.lookup counts them.
+ */
+public class RedirectFastPathFilter implements Filter {
+
+    private static final String API_PREFIX = "/api/v1/";
+
+    /** Single-segment GET endpoints that are not short URLs */
+    private static final String HEALTH = "health";
+
+    private final Cache<Object, Object> urlMappingsCache;
+    private final ClickCountAggregator clickCountAggregator;
+    private final UrlShortenerMetrics urlShortenerMetrics;
+    private final HttpCachePolicy httpCachePolicy;
+
+    private volatile String prefix;
+
+    public RedirectFastPathFilter(Cache<Object, Object> urlMappingsCache, ClickCountAggregator clickCountAggregator,
+                                  UrlShortenerMetrics urlShortenerMetrics, HttpCachePolicy httpCachePolicy) {
+        this.urlMappingsCache = urlMappingsCache;
+        this.clickCountAggregator = clickCountAggregator;
+        this.urlShortenerMetrics = urlShortenerMetrics;
+        this.httpCachePolicy = httpCachePolicy;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        long start = System.nanoTime();
+        HttpServletRequest request = (HttpServletRequest) req;
+        String shortUrl = shortUrlOf(request);
+        Object cached = shortUrl != null ? urlMappingsCache.getIfPresent(shortUrl) : null;
+        if (!(cached instanceof RedirectTarget)) {
+            chain.doFilter(req, res);
+            return;
+        }
+
+        RedirectTarget target = (RedirectTarget) cached;
+        HttpServletResponse response = (HttpServletResponse) res;
+        response.setStatus(httpCachePolicy.redirectStatus(target));
+        response.setHeader(HttpHeaders.LOCATION, target.getLongUrl());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, httpCachePolicy.redirectCacheControl(target));
+        clickCountAggregator.recordClick(shortUrl);
+        urlShortenerMetrics.recordRedirectHit(System.nanoTime() - start);
+    }
+
+    /**
+     * The short URL of a redirect request, or null for any other request
+     */
+    private String shortUrlOf(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String prefix = this.prefix;
+        if (prefix == null) {
+            // The context path is fixed for the servlet context
+            prefix = request.getContextPath() + API_PREFIX;
+            this.prefix = prefix;
+        }
+
+        String uri = request.getRequestURI();
+        int length = uri.length();
+        if (length <= prefix.length() || !uri.startsWith(prefix)) {
+            return null;
+        }
+        for (int i = prefix.length(); i < length; i++) {
+            char c = uri.charAt(i);
+            // Nested paths, path parameters and escapes are left to Spring MVC
+            if (c == '/' || c == ';' || c == '%') {
+                return null;
+            }
+        }
+        if (length - prefix.length() == HEALTH.length() && uri.endsWith(HEALTH)) {
+            return null;
+        }
+        return uri.substring(prefix.length());
+    }
+}
@@ -1,24 +1,45 @@
 package com.shorturl.controller;
 
+import com.shorturl.dto.BatchShortenRequest;
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.BatchShortenResult;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.dto.ImportResult;
+import com.shorturl.dto.RedirectTarget;
 import com.shorturl.dto.ShortenUrlRequest;
 import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.dto.UrlPage;
 import com.shorturl.dto.UrlStatsResponse;
-import com.shorturl.entity.UrlMapping;
+import com.shorturl.exception.ImportBusyException;
 import com.shorturl.exception.UrlNotFoundException;
 import com.shorturl.service.UrlShortenerService;
+import com.shorturl.service.impl.HttpCachePolicy;
+import com.shorturl.service.impl.ShardRebalancer;
+import com.shorturl.service.impl.UrlExporter;
+import com.shorturl.service.impl.UrlImporter;
+import com.shorturl.service.impl.UrlShortenerMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.servlet.view.RedirectView;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.IOException;
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -26,6 +47,7 @@ import java.util.Optional;
  * REST Controller for URL shortening operations
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/v1")
 @CrossOrigin(origins = "*")
 public class UrlShortenerController {
@@ -35,6 +57,21 @@ public class UrlShortenerController {
     @Autowired
     private UrlShortenerService urlShortenerService;
 
+    @Autowired
+    private UrlImporter urlImporter;
+
+    @Autowired
+    private UrlExporter urlExporter;
+
+    @Autowired
+    private UrlShortenerMetrics urlShortenerMetrics;
+
+    @Autowired
+    private HttpCachePolicy httpCachePolicy;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
     /**
      * Shorten a long URL
      */
@@ -57,20 +94,44 @@ public class UrlShortenerController {
         }
     }
 
+    /**
+     * Shorten many long URLs in one request
+     */
+    @PostMapping("/shorten/batch")
+    public ResponseEntity<BatchShortenResponse> shortenUrls(@Valid @RequestBody BatchShortenRequest request,
+                                                            HttpServletRequest httpRequest) {
+        logger.info("Received request to shorten {} URLs", request.getUrls().size());
+
+        // Aliases taken concurrently are reported per item, like any other failure
+        BatchShortenResponse response = urlShortenerService.shortenUrls(request.getUrls());
+
+        String baseUrl = getBaseUrl(httpRequest);
+        for (BatchShortenResult result : response.getResults()) {
+            if (!result.isFailed()) {
+                result.setShortUrl(baseUrl + "/" + result.getShortUrl());
+            }
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Redirect to original URL
      */
     @GetMapping("/{shortUrl}")
-    public RedirectView redirectToOriginalUrl(@PathVariable String shortUrl) {
-        logger.info("Received request to expand short URL: {}", shortUrl);
+    public ResponseEntity<Void> redirectToOriginalUrl(@PathVariable String shortUrl) {
+        logger.debug("Received request to expand short URL: {}", shortUrl);
         
-        Optional<String> longUrl = urlShortenerService.expandUrl(shortUrl);
-        if (longUrl.isPresent()) {
-            logger.info("Redirecting {} to {}", shortUrl, longUrl.get());
-            RedirectView redirectView = new RedirectView();
-            redirectView.setUrl(longUrl.get());
-            redirectView.setStatusCode(HttpStatus.MOVED_PERMANENTLY);
-            return redirectView;
+        Optional<RedirectTarget> target = urlShortenerMetrics.lookup("redirect",
+                () -> urlShortenerService.expandUrl(shortUrl));
+        if (target.isPresent()) {
+            // Resolution may be served from cache, every redirect still counts as a click
+            urlShortenerService.recordClick(shortUrl);
+            logger.debug("Redirecting {} to {}", shortUrl, target.get().getLongUrl());
+            return ResponseEntity.status(httpCachePolicy.redirectStatus(target.get()))
+                    .header(HttpHeaders.LOCATION, target.get().getLongUrl())
+                    .header(HttpHeaders.CACHE_CONTROL, httpCachePolicy.redirectCacheControl(target.get()))
+                    .build();
         } else {
             logger.warn("Short URL not found: {}", shortUrl);
             throw new UrlNotFoundException("Short URL not found: " + shortUrl);
@@ -84,22 +145,61 @@ public class UrlShortenerController {
     public ResponseEntity<UrlStatsResponse> getUrlStats(@PathVariable String shortUrl) {
         logger.info("Received request for stats of short URL: {}", shortUrl);
         
-        Optional<UrlStatsResponse> stats = urlShortenerService.getUrlStats(shortUrl);
+        Optional<UrlStatsResponse> stats = urlShortenerMetrics.lookup("stats",
+                () -> urlShortenerService.getUrlStats(shortUrl));
         if (stats.isPresent()) {
-            return ResponseEntity.ok(stats.get());
+            // Answered with 304 when the request's validators still match
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(httpCachePolicy.statsETag(stats.get()))
+                    .lastModified(httpCachePolicy.statsLastModified(stats.get()))
+                    .body(stats.get());
         } else {
-            return ResponseEntity.notFound().build();
+            throw new UrlNotFoundException("Short URL not found: " + shortUrl);
         }
     }
 
     /**
-     * Get all URLs (admin endpoint)
+     * Get the clicks on a URL per step, by default hourly over the last day
+     */
+    @GetMapping("/stats/{shortUrl}/timeseries")
+    public ResponseEntity<ClickTimeSeriesResponse> getClickTimeSeries(
+            @PathVariable String shortUrl,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1h") String step) {
+        logger.info("Received request for click time series of short URL: {}", shortUrl);
+
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        Optional<ClickTimeSeriesResponse> timeSeries = urlShortenerService.getClickTimeSeries(shortUrl, start, end,
+                DurationStyle.detectAndParse(step));
+        return timeSeries.map(ResponseEntity::ok)
+                .orElseThrow(() -> new UrlNotFoundException("Short URL not found: " + shortUrl));
+    }
+
+    /**
+     * List URLs one page at a time (admin endpoint)
      */
     @GetMapping("/admin/urls")
-    public ResponseEntity<List<UrlMapping>> getAllUrls() {
-        logger.info("Received request to get all URLs");
-        List<UrlMapping> urls = urlShortenerService.getAllUrls();
-        return ResponseEntity.ok(urls);
+    public ResponseEntity<UrlPage> listUrls(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "100") int size,
+                                            UrlListFilter filter) {
+        logger.info("Received request to list URLs after cursor {}", cursor);
+        UrlPage page = urlShortenerService.listUrls(cursor, filter, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * Export all matching URLs as NDJSON (admin endpoint)
+     */
+    @GetMapping(value = "/admin/urls/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportUrls(UrlListFilter filter) {
+        logger.info("Received request to export URLs with {}", filter);
+        StreamingResponseBody body = output -> urlExporter.export(filter, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     /**
@@ -116,8 +216,24 @@ public class UrlShortenerController {
             response.put("message", "URL deleted successfully");
             return ResponseEntity.ok(response);
         } else {
-            response.put("error", "URL not found");
-            return ResponseEntity.notFound().build();
+            throw new UrlNotFoundException("Short URL not found: " + shortUrl);
+        }
+    }
+
+    /**
+     * Bulk import URLs streamed as NDJSON or CSV (admin endpoint)
+     */
+    @PostMapping("/admin/import")
+    public ResponseEntity<ImportResult> importUrls(@RequestParam(required = false) String format,
+                                                   HttpServletRequest httpRequest) throws IOException {
+        UrlImporter.Format importFormat = UrlImporter.Format.detect(format != null ? format : httpRequest.getContentType());
+        logger.info("Received request to import URLs as {}", importFormat);
+
+        try {
+            return ResponseEntity.ok(urlImporter.importUrls(httpRequest.getInputStream(), importFormat));
+        } catch (ImportBusyException e) {
+            logger.warn("Import rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
         }
     }
 
@@ -136,6 +252,27 @@ public class UrlShortenerController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get row counts per shard and rebalance progress (admin endpoint)
+     */
+    @GetMapping("/admin/shards")
+    public ResponseEntity<Map<String, Object>> getShards() {
+        return ResponseEntity.ok(shardRebalancer.getStatus());
+    }
+
+    /**
+     * Move URLs to the shard that owns them after shards were added (admin endpoint)
+     */
+    @PostMapping("/admin/shards/rebalance")
+    public ResponseEntity<Map<String, Object>> rebalanceShards() {
+        logger.info("Received request to rebalance shards");
+
+        if (!shardRebalancer.start()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(shardRebalancer.getStatus());
+        }
+        return ResponseEntity.accepted().body(shardRebalancer.getStatus());
+    }
+
     /**
      * Get system statistics
      */
@@ -188,7 +325,10 @@ public class UrlShortenerController {
      * Global exception handler
      */
     @ExceptionHandler(UrlNotFoundException.class)
-    public ResponseEntity<Map<String, String>> handleUrlNotFoundException(UrlNotFoundException e) {
+    public ResponseEntity<Map<String, String>> handleUrlNotFoundException(UrlNotFoundException e,
+                                                                         HttpServletRequest request) {
+        urlShortenerMetrics.recordNotFound(
+                (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE));
         Map<String, String> response = new HashMap<>();
         response.put("error", e.getMessage());
         return ResponseEntity.notFound().build();
@@ -0,0 +1,39 @@
+package com.shorturl.dto;
+
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * Request DTO for shortening many URLs at once
+ *
+ * Items are validated one by one, so an invalid item fails on its own
+ * instead of rejecting the whole batch.
+ */
+public class BatchShortenRequest {
+
+    @NotEmpty(message = "URLs cannot be empty")
+    private List<ShortenUrlRequest> urls;
+
+    // Constructors
+    public BatchShortenRequest() {}
+
+    public BatchShortenRequest(List<ShortenUrlRequest> urls) {
+        this.urls = urls;
+    }
+
+    // Getters and Setters
+    public List<ShortenUrlRequest> getUrls() {
+        return urls;
+    }
+
+    public void setUrls(List<ShortenUrlRequest> urls) {
+        this.urls = urls;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchShortenRequest{" +
+                "urls=" + (urls != null ? urls.size() : 0) +
+                '}';
+    }
+}
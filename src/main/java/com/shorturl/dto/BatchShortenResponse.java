@@ -0,0 +1,52 @@
+package com.shorturl.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for batch URL shortening, with one result per item in request order
+ */
+public class BatchShortenResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BatchShortenResult> results;
+
+    // Constructors
+    public BatchShortenResponse() {}
+
+    public BatchShortenResponse(List<BatchShortenResult> results) {
+        this.results = results;
+        for (BatchShortenResult result : results) {
+            if (result.isFailed()) {
+                failed++;
+            } else {
+                succeeded++;
+            }
+        }
+    }
+
+    // Getters and Setters
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchShortenResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchShortenResult> results) {
+        this.results = results;
+    }
+}
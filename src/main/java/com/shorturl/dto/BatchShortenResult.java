@@ -0,0 +1,122 @@
+package com.shorturl.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Result of one item of a batch shorten request
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchShortenResult {
+
+    /**
+     * Outcome of a batch item
+     */
+    public enum Status {
+        CREATED,
+        EXISTING,
+        FAILED
+    }
+
+    private int index;
+    private Status status;
+    private String shortUrl;
+    private String longUrl;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+    private String error;
+
+    // Constructors
+    public BatchShortenResult() {}
+
+    public BatchShortenResult(int index, Status status, String shortUrl, String longUrl,
+                              LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.index = index;
+        this.status = status;
+        this.shortUrl = shortUrl;
+        this.longUrl = longUrl;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public static BatchShortenResult failed(int index, String longUrl, String error) {
+        BatchShortenResult result = new BatchShortenResult();
+        result.index = index;
+        result.status = Status.FAILED;
+        result.longUrl = longUrl;
+        result.error = error;
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getShortUrl() {
+        return shortUrl;
+    }
+
+    public void setShortUrl(String shortUrl) {
+        this.shortUrl = shortUrl;
+    }
+
+    public String getLongUrl() {
+        return longUrl;
+    }
+
+    public void setLongUrl(String longUrl) {
+        this.longUrl = longUrl;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isFailed() {
+        return status == Status.FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchShortenResult{" +
+                "index=" + index +
+                ", status=" + status +
+                ", shortUrl='" + shortUrl + '\'' +
+                ", error='" + error + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,139 @@
+package com.shorturl.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Clicks on one short URL per step, from the rollup tables
+ *
+ * Points start at from and are stepSeconds apart; the last one starts
+ * before to. Steps without clicks have a point with zero clicks.
+ */
+public class ClickTimeSeriesResponse {
+
+    private String shortUrl;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long stepSeconds;
+    private String granularity;
+    private long totalClicks;
+    private List<Point> points;
+
+    // Constructors
+    public ClickTimeSeriesResponse() {}
+
+    public ClickTimeSeriesResponse(String shortUrl, LocalDateTime from, LocalDateTime to, long stepSeconds,
+                                   String granularity, List<Point> points) {
+        this.shortUrl = shortUrl;
+        this.from = from;
+        this.to = to;
+        this.stepSeconds = stepSeconds;
+        this.granularity = granularity;
+        this.points = points;
+        for (Point point : points) {
+            this.totalClicks += point.getClicks();
+        }
+    }
+
+    // Getters and Setters
+    public String getShortUrl() {
+        return shortUrl;
+    }
+
+    public void setShortUrl(String shortUrl) {
+        this.shortUrl = shortUrl;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public long getStepSeconds() {
+        return stepSeconds;
+    }
+
+    public void setStepSeconds(long stepSeconds) {
+        this.stepSeconds = stepSeconds;
+    }
+
+    public String getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+
+    public long getTotalClicks() {
+        return totalClicks;
+    }
+
+    public void setTotalClicks(long totalClicks) {
+        this.totalClicks = totalClicks;
+    }
+
+    public List<Point> getPoints() {
+        return points;
+    }
+
+    public void setPoints(List<Point> points) {
+        this.points = points;
+    }
+
+    @Override
+    public String toString() {
+        return "ClickTimeSeriesResponse{" +
+                "shortUrl='" + shortUrl + '\'' +
+                ", from=" + from +
+                ", to=" + to +
+                ", stepSeconds=" + stepSeconds +
+                ", granularity='" + granularity + '\'' +
+                ", totalClicks=" + totalClicks +
+                ", points=" + points.size() +
+                '}';
+    }
+
+    /**
+     * The clicks in one step
+     */
+    public static class Point {
+
+        private LocalDateTime time;
+        private long clicks;
+
+        public Point() {}
+
+        public Point(LocalDateTime time, long clicks) {
+            this.time = time;
+            this.clicks = clicks;
+        }
+
+        public LocalDateTime getTime() {
+            return time;
+        }
+
+        public void setTime(LocalDateTime time) {
+            this.time = time;
+        }
+
+        public long getClicks() {
+            return clicks;
+        }
+
+        public void setClicks(long clicks) {
+            this.clicks = clicks;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.shorturl.dto;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Resolved redirect target of a short URL
+ *
+ * This is the value held in the urlMappings cache. The expiry travels
+ * with it so the cache can drop the entry exactly when the link expires.
+ * A null redirect status means the global app.redirect.status applies.
+ */
+public class RedirectTarget implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private String longUrl;
+    private LocalDateTime expiresAt;
+    private Integer redirectStatus;
+
+    // Constructors
+    public RedirectTarget() {}
+
+    public RedirectTarget(String longUrl, LocalDateTime expiresAt) {
+        this.longUrl = longUrl;
+        this.expiresAt = expiresAt;
+    }
+
+    public RedirectTarget(String longUrl, LocalDateTime expiresAt, Integer redirectStatus) {
+        this(longUrl, expiresAt);
+        this.redirectStatus = redirectStatus;
+    }
+
+    /**
+     * Whether a link may redirect with this status: 301, 302 or 307
+     */
+    public static boolean isSupportedStatus(int status) {
+        return status == 301 || status == 302 || status == 307;
+    }
+
+    // Getters and Setters
+    public String getLongUrl() {
+        return longUrl;
+    }
+
+    public void setLongUrl(String longUrl) {
+        this.longUrl = longUrl;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Integer getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public void setRedirectStatus(Integer redirectStatus) {
+        this.redirectStatus = redirectStatus;
+    }
+
+    @Override
+    public String toString() {
+        return "RedirectTarget{" +
+                "longUrl='" + longUrl + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", redirectStatus=" + redirectStatus +
+                '}';
+    }
+}
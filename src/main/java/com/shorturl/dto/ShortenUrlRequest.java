@@ -1,5 +1,8 @@
 package com.shorturl.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
@@ -20,6 +23,8 @@ public class ShortenUrlRequest {
 
     private LocalDateTime expiresAt;
 
+    private Integer redirectStatus;
+
     // Constructors
     public ShortenUrlRequest() {}
 
@@ -57,12 +62,27 @@ public class ShortenUrlRequest {
         this.expiresAt = expiresAt;
     }
 
+    public Integer getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public void setRedirectStatus(Integer redirectStatus) {
+        this.redirectStatus = redirectStatus;
+    }
+
+    @JsonIgnore
+    @AssertTrue(message = "Redirect status must be 301, 302 or 307")
+    public boolean isRedirectStatusSupported() {
+        return redirectStatus == null || RedirectTarget.isSupportedStatus(redirectStatus);
+    }
+
     @Override
     public String toString() {
         return "ShortenUrlRequest{" +
                 "url='" + url + '\'' +
                 ", customAlias='" + customAlias + '\'' +
                 ", expiresAt=" + expiresAt +
+                ", redirectStatus=" + redirectStatus +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+package com.shorturl.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters for listing and exporting URL mappings, all optional
+ */
+public class UrlListFilter {
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdAfter;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime createdBefore;
+
+    private Boolean expired;
+
+    private Long minClicks;
+
+    // Constructors
+    public UrlListFilter() {}
+
+    // Getters and Setters
+    public LocalDateTime getCreatedAfter() {
+        return createdAfter;
+    }
+
+    public void setCreatedAfter(LocalDateTime createdAfter) {
+        this.createdAfter = createdAfter;
+    }
+
+    public LocalDateTime getCreatedBefore() {
+        return createdBefore;
+    }
+
+    public void setCreatedBefore(LocalDateTime createdBefore) {
+        this.createdBefore = createdBefore;
+    }
+
+    public Boolean getExpired() {
+        return expired;
+    }
+
+    public void setExpired(Boolean expired) {
+        this.expired = expired;
+    }
+
+    public Long getMinClicks() {
+        return minClicks;
+    }
+
+    public void setMinClicks(Long minClicks) {
+        this.minClicks = minClicks;
+    }
+
+    @Override
+    public String toString() {
+        return "UrlListFilter{" +
+                "createdAfter=" + createdAfter +
+                ", createdBefore=" + createdBefore +
+                ", expired=" + expired +
+                ", minClicks=" + minClicks +
+                '}';
+    }
+}
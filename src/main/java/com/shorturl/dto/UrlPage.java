@@ -0,0 +1,51 @@
+package com.shorturl.dto;
+
+import com.shorturl.entity.UrlMapping;
+
+import java.util.List;
+
+/**
+ * One page of URL mappings in ID order
+ *
+ * Pass nextCursor back as the cursor parameter to get the following page.
+ */
+public class UrlPage {
+
+    private List<UrlMapping> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    // Constructors
+    public UrlPage() {}
+
+    public UrlPage(List<UrlMapping> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<UrlMapping> getItems() {
+        return items;
+    }
+
+    public void setItems(List<UrlMapping> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
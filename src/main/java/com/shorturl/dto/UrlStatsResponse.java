@@ -1,9 +1,14 @@
 package com.shorturl.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 
 /**
  * Response DTO for URL statistics
+ *
+ * computedAt is when the figures were read; stats are cached, and it
+ * serves as the Last-Modified time of the response.
  */
 public class UrlStatsResponse {
 
@@ -13,6 +18,10 @@ public class UrlStatsResponse {
     private LocalDateTime createdAt;
     private LocalDateTime expiresAt;
     private boolean isExpired;
+    private Integer redirectStatus;
+
+    @JsonIgnore
+    private LocalDateTime computedAt = LocalDateTime.now();
 
     // Constructors
     public UrlStatsResponse() {}
@@ -76,6 +85,23 @@ public class UrlStatsResponse {
         isExpired = expired;
     }
 
+    public Integer getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public void setRedirectStatus(Integer redirectStatus) {
+        this.redirectStatus = redirectStatus;
+    }
+
+    @JsonIgnore
+    public LocalDateTime getComputedAt() {
+        return computedAt;
+    }
+
+    public void setComputedAt(LocalDateTime computedAt) {
+        this.computedAt = computedAt;
+    }
+
     @Override
     public String toString() {
         return "UrlStatsResponse{" +
@@ -85,6 +111,7 @@ public class UrlStatsResponse {
                 ", createdAt=" + createdAt +
                 ", expiresAt=" + expiresAt +
                 ", isExpired=" + isExpired +
+                ", redirectStatus=" + redirectStatus +
                 '}';
     }
 }
\ No newline at end of file
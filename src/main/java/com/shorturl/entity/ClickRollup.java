@@ -0,0 +1,152 @@
+package com.shorturl.entity;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+
+/**
+ * Click Rollup Entity
+ * 
+ * The clicks on one short URL within one minute, hour or day, starting
+ * at bucket_start. Every click is added to the bucket of each
+ * granularity, so a time series is read from one granularity without
+ * touching finer rows.
+ */
+@Entity
+@IdClass(ClickRollup.Key.class)
+@Table(name = "click_rollup", indexes = {
+    @Index(name = "idx_click_rollup_bucket", columnList = "granularity, bucket_start")
+})
+public class ClickRollup {
+
+    /**
+     * Bucket sizes, finest first
+     */
+    public enum Granularity {
+        MINUTE(ChronoUnit.MINUTES),
+        HOUR(ChronoUnit.HOURS),
+        DAY(ChronoUnit.DAYS);
+
+        private final ChronoUnit unit;
+
+        Granularity(ChronoUnit unit) {
+            this.unit = unit;
+        }
+
+        public Duration getDuration() {
+            return unit.getDuration();
+        }
+
+        /**
+         * Get the start of the bucket a time falls into
+         */
+        public LocalDateTime bucketStart(LocalDateTime time) {
+            return time.truncatedTo(unit);
+        }
+    }
+
+    @Id
+    @Column(name = "short_url", length = 10)
+    private String shortUrl;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "granularity", length = 8)
+    private Granularity granularity;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "clicks", nullable = false)
+    private Long clicks;
+
+    // Constructors
+    public ClickRollup() {}
+
+    public ClickRollup(String shortUrl, Granularity granularity, LocalDateTime bucketStart, Long clicks) {
+        this.shortUrl = shortUrl;
+        this.granularity = granularity;
+        this.bucketStart = bucketStart;
+        this.clicks = clicks;
+    }
+
+    // Getters and Setters
+    public String getShortUrl() {
+        return shortUrl;
+    }
+
+    public void setShortUrl(String shortUrl) {
+        this.shortUrl = shortUrl;
+    }
+
+    public Granularity getGranularity() {
+        return granularity;
+    }
+
+    public void setGranularity(Granularity granularity) {
+        this.granularity = granularity;
+    }
+
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public Long getClicks() {
+        return clicks;
+    }
+
+    public void setClicks(Long clicks) {
+        this.clicks = clicks;
+    }
+
+    @Override
+    public String toString() {
+        return "ClickRollup{" +
+                "shortUrl='" + shortUrl + '\'' +
+                ", granularity=" + granularity +
+                ", bucketStart=" + bucketStart +
+                ", clicks=" + clicks +
+                '}';
+    }
+
+    /**
+     * Primary key: short URL, granularity and bucket start
+     */
+    public static class Key implements Serializable {
+
+        private String shortUrl;
+        private Granularity granularity;
+        private LocalDateTime bucketStart;
+
+        public Key() {}
+
+        public Key(String shortUrl, Granularity granularity, LocalDateTime bucketStart) {
+            this.shortUrl = shortUrl;
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return Objects.equals(shortUrl, key.shortUrl) &&
+                    granularity == key.granularity &&
+                    Objects.equals(bucketStart, key.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shortUrl, granularity, bucketStart);
+        }
+    }
+}
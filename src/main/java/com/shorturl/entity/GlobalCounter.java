@@ -0,0 +1,68 @@
+package com.shorturl.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Global Counter Entity
+ * 
+ * One named service-wide total, such as the number of URLs created.
+ * Instances add their local deltas to the total at every checkpoint.
+ */
+@Entity
+@Table(name = "global_counter")
+public class GlobalCounter {
+
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    @Column(name = "total", nullable = false)
+    private Long total;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public GlobalCounter() {}
+
+    public GlobalCounter(String name, Long total) {
+        this.name = name;
+        this.total = total;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "GlobalCounter{" +
+                "name='" + name + '\'' +
+                ", total=" + total +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
@@ -0,0 +1,82 @@
+package com.shorturl.entity;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * ID Segment Entity
+ * 
+ * Tracks the highest numeric ID leased so far for a business tag.
+ * Each node leases a block of IDs by advancing max_id and then hands
+ * the IDs out from memory.
+ */
+@Entity
+@Table(name = "id_segment")
+public class IdSegment {
+
+    @Id
+    @Column(name = "biz_tag", length = 32)
+    private String bizTag;
+
+    @Column(name = "max_id", nullable = false)
+    private Long maxId;
+
+    @Column(name = "step", nullable = false)
+    private Integer step;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public IdSegment() {}
+
+    public IdSegment(String bizTag, Long maxId, Integer step) {
+        this.bizTag = bizTag;
+        this.maxId = maxId;
+        this.step = step;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getBizTag() {
+        return bizTag;
+    }
+
+    public void setBizTag(String bizTag) {
+        this.bizTag = bizTag;
+    }
+
+    public Long getMaxId() {
+        return maxId;
+    }
+
+    public void setMaxId(Long maxId) {
+        this.maxId = maxId;
+    }
+
+    public Integer getStep() {
+        return step;
+    }
+
+    public void setStep(Integer step) {
+        this.step = step;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdSegment{" +
+                "bizTag='" + bizTag + '\'' +
+                ", maxId=" + maxId +
+                ", step=" + step +
+                ", updatedAt=" + updatedAt +
+                '}';
+    }
+}
@@ -1,5 +1,9 @@
 package com.shorturl.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.shorturl.util.UrlHasher;
+import org.springframework.data.domain.Persistable;
+
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
@@ -8,17 +12,22 @@ import java.time.LocalDateTime;
 /**
  * URL Mapping Entity
  * 
- * Represents the mapping between short URLs and long URLs
+ * Represents the mapping between short URLs and long URLs.
+ * IDs are leased from the segment allocator rather than generated by
+ * the database, so a generated short code decodes to its primary key.
  */
 @Entity
+@EntityListeners(UrlMappingEntityListener.class)
 @Table(name = "url_mapping", indexes = {
     @Index(name = "idx_short_url", columnList = "short_url"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_long_url_hash", columnList = "long_url_hash"),
+    @Index(name = "idx_click_count", columnList = "click_count DESC")
 })
-public class UrlMapping {
+public class UrlMapping implements Persistable<Long> {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(name = "short_url", nullable = false, unique = true, length = 10)
@@ -30,6 +39,10 @@ public class UrlMapping {
     @NotBlank(message = "Long URL cannot be blank")
     private String longUrl;
 
+    @JsonIgnore
+    @Column(name = "long_url_hash")
+    private Long longUrlHash;
+
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
@@ -39,6 +52,13 @@ public class UrlMapping {
     @Column(name = "click_count", nullable = false)
     private Long clickCount = 0L;
 
+    /** 301, 302 or 307; null follows app.redirect.status */
+    @Column(name = "redirect_status")
+    private Integer redirectStatus;
+
+    @Transient
+    private boolean isNew = true;
+
     // Constructors
     public UrlMapping() {
         this.createdAt = LocalDateTime.now();
@@ -56,6 +76,7 @@ public class UrlMapping {
     }
 
     // Getters and Setters
+    @Override
     public Long getId() {
         return id;
     }
@@ -80,6 +101,14 @@ public class UrlMapping {
         this.longUrl = longUrl;
     }
 
+    public Long getLongUrlHash() {
+        return longUrlHash;
+    }
+
+    public void setLongUrlHash(Long longUrlHash) {
+        this.longUrlHash = longUrlHash;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -104,7 +133,33 @@ public class UrlMapping {
         this.clickCount = clickCount;
     }
 
+    public Integer getRedirectStatus() {
+        return redirectStatus;
+    }
+
+    public void setRedirectStatus(Integer redirectStatus) {
+        this.redirectStatus = redirectStatus;
+    }
+
     // Utility methods
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateLongUrlHash() {
+        this.longUrlHash = UrlHasher.hash(longUrl);
+    }
+
     public boolean isExpired() {
         return expiresAt != null && LocalDateTime.now().isAfter(expiresAt);
     }
@@ -0,0 +1,26 @@
+package com.shorturl.entity;
+
+import com.shorturl.service.impl.SegmentIdAllocator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PrePersist;
+
+/**
+ * Entity listener that assigns segment allocated IDs to new URL mappings
+ *
+ * The service assigns IDs itself before deriving the short code; this
+ * covers mappings persisted without one.
+ */
+public class UrlMappingEntityListener {
+
+    @Autowired
+    private ObjectProvider<SegmentIdAllocator> segmentIdAllocator;
+
+    @PrePersist
+    public void assignId(UrlMapping urlMapping) {
+        if (urlMapping.getId() == null) {
+            urlMapping.setId(segmentIdAllocator.getObject().nextId());
+        }
+    }
+}
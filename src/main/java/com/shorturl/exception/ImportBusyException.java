@@ -0,0 +1,11 @@
+package com.shorturl.exception;
+
+/**
+ * Exception thrown when the maximum number of concurrent imports is already running
+ */
+public class ImportBusyException extends RuntimeException {
+
+    public ImportBusyException(String message) {
+        super(message);
+    }
+}
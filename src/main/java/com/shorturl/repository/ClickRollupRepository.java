@@ -0,0 +1,41 @@
+package com.shorturl.repository;
+
+import com.shorturl.entity.ClickRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for ClickRollup entity
+ */
+@Repository
+public interface ClickRollupRepository extends JpaRepository<ClickRollup, ClickRollup.Key> {
+
+    /**
+     * Find the buckets of a short URL in a time range, start inclusive and end exclusive
+     */
+    @Query("SELECT r FROM ClickRollup r WHERE r.shortUrl = :shortUrl AND r.granularity = :granularity " +
+           "AND r.bucketStart >= :from AND r.bucketStart < :to ORDER BY r.bucketStart")
+    List<ClickRollup> findBuckets(@Param("shortUrl") String shortUrl,
+                                  @Param("granularity") ClickRollup.Granularity granularity,
+                                  @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Find the start of the oldest bucket of a granularity
+     */
+    @Query("SELECT MIN(r.bucketStart) FROM ClickRollup r WHERE r.granularity = :granularity")
+    LocalDateTime findOldestBucketStart(@Param("granularity") ClickRollup.Granularity granularity);
+
+    /**
+     * Delete the buckets of a granularity that start before the given time
+     */
+    @Modifying
+    @Query("DELETE FROM ClickRollup r WHERE r.granularity = :granularity AND r.bucketStart < :before")
+    int deleteBucketsBefore(@Param("granularity") ClickRollup.Granularity granularity,
+                            @Param("before") LocalDateTime before);
+}
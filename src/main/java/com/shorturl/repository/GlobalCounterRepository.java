@@ -0,0 +1,39 @@
+package com.shorturl.repository;
+
+import com.shorturl.entity.GlobalCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for GlobalCounter entity
+ */
+@Repository
+public interface GlobalCounterRepository extends JpaRepository<GlobalCounter, String> {
+
+    /**
+     * Add a delta to a counter
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE GlobalCounter c SET c.total = c.total + :delta, c.updatedAt = :now WHERE c.name = :name")
+    int addToTotal(@Param("name") String name, @Param("delta") long delta, @Param("now") LocalDateTime now);
+
+    /**
+     * Set a counter to a new value if its current value is at most the given one
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE GlobalCounter c SET c.total = :total, c.updatedAt = :now WHERE c.name = :name AND c.total <= :atMost")
+    int replaceTotalIfAtMost(@Param("name") String name, @Param("total") long total, @Param("atMost") long atMost,
+                             @Param("now") LocalDateTime now);
+
+    /**
+     * Delete the counters whose names start with the prefix and sort before the given name
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM GlobalCounter c WHERE c.name LIKE CONCAT(:prefix, '%') AND c.name < :before")
+    int deleteByPrefixBefore(@Param("prefix") String prefix, @Param("before") String before);
+}
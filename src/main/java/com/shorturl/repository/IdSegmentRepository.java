@@ -0,0 +1,24 @@
+package com.shorturl.repository;
+
+import com.shorturl.entity.IdSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repository interface for IdSegment entity
+ */
+@Repository
+public interface IdSegmentRepository extends JpaRepository<IdSegment, String> {
+
+    /**
+     * Advance the max ID of a business tag by the given step
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE IdSegment s SET s.maxId = s.maxId + :step, s.updatedAt = :now WHERE s.bizTag = :bizTag")
+    int advanceMaxId(@Param("bizTag") String bizTag, @Param("step") long step, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,54 @@
+package com.shorturl.repository;
+
+import com.shorturl.entity.UrlMapping;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking lookups of url_mapping over R2DBC
+ *
+ * Only present in the reactive runtime mode; connections come from the
+ * pool in ReactiveConfig and read the unsharded database. Rows are mapped to
+ * detached UrlMapping objects, they are not managed by JPA.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlMappingRepository {
+
+    private static final String FIND_BY_SHORT_URL_SQL =
+            "SELECT id, short_url, long_url, created_at, expires_at, click_count, redirect_status " +
+            "FROM url_mapping WHERE short_url = :shortUrl";
+
+    @Autowired
+    private DatabaseClient reactiveDatabaseClient;
+
+    /**
+     * Find a URL mapping by its short URL
+     *
+     * @param shortUrl the short URL
+     * @return the mapping, or empty if there is none
+     */
+    public Mono<UrlMapping> findByShortUrl(String shortUrl) {
+        return reactiveDatabaseClient.sql(FIND_BY_SHORT_URL_SQL)
+                .bind("shortUrl", shortUrl)
+                .map((row, metadata) -> toUrlMapping(row))
+                .one();
+    }
+
+    private static UrlMapping toUrlMapping(Row row) {
+        UrlMapping mapping = new UrlMapping(row.get("short_url", String.class), row.get("long_url", String.class),
+                row.get("expires_at", LocalDateTime.class));
+        mapping.setId(row.get("id", Long.class));
+        mapping.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        Long clickCount = row.get("click_count", Long.class);
+        mapping.setClickCount(clickCount != null ? clickCount : 0L);
+        mapping.setRedirectStatus(row.get("redirect_status", Integer.class));
+        return mapping;
+    }
+}
@@ -1,6 +1,7 @@
 package com.shorturl.repository;
 
 import com.shorturl.entity.UrlMapping;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,7 +17,7 @@ import java.util.Optional;
  * Repository interface for UrlMapping entity
  */
 @Repository
-public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
+public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long>, UrlMappingRepositoryCustom {
 
     /**
      * Find URL mapping by short URL
@@ -23,9 +25,25 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
     Optional<UrlMapping> findByShortUrl(String shortUrl);
 
     /**
-     * Find URL mapping by long URL
+     * Find URL mappings whose long URL hashes to the given value
      */
-    Optional<UrlMapping> findByLongUrl(String longUrl);
+    List<UrlMapping> findByLongUrlHash(Long longUrlHash);
+
+    /**
+     * Find URL mappings whose long URL hashes to any of the given values
+     */
+    List<UrlMapping> findByLongUrlHashIn(Collection<Long> longUrlHashes);
+
+    /**
+     * Find URL mappings for any of the given short URLs
+     */
+    List<UrlMapping> findByShortUrlIn(Collection<String> shortUrls);
+
+    /**
+     * Find which of the given short URLs already exist
+     */
+    @Query("SELECT u.shortUrl FROM UrlMapping u WHERE u.shortUrl IN :shortUrls")
+    List<String> findExistingShortUrls(@Param("shortUrls") Collection<String> shortUrls);
 
     /**
      * Check if short URL exists
@@ -39,18 +57,23 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
     List<UrlMapping> findExpiredUrls(@Param("now") LocalDateTime now);
 
     /**
-     * Delete expired URLs
+     * Find the URLs that expired first, oldest expiry first
+     */
+    @Query("SELECT u FROM UrlMapping u WHERE u.expiresAt < :now ORDER BY u.expiresAt")
+    List<UrlMapping> findOldestExpiredUrls(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Get the oldest expiry among URLs that have expired
      */
-    @Modifying
-    @Query("DELETE FROM UrlMapping u WHERE u.expiresAt IS NOT NULL AND u.expiresAt < :now")
-    int deleteExpiredUrls(@Param("now") LocalDateTime now);
+    @Query("SELECT MIN(u.expiresAt) FROM UrlMapping u WHERE u.expiresAt < :now")
+    LocalDateTime findOldestExpiry(@Param("now") LocalDateTime now);
 
     /**
-     * Increment click count for a short URL
+     * Delete the given URLs if they are still expired
      */
-    @Modifying
-    @Query("UPDATE UrlMapping u SET u.clickCount = u.clickCount + 1 WHERE u.shortUrl = :shortUrl")
-    int incrementClickCount(@Param("shortUrl") String shortUrl);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM UrlMapping u WHERE u.id IN :ids AND u.expiresAt < :now")
+    int deleteExpiredUrlsByIds(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
 
     /**
      * Find URLs created after a specific date
@@ -58,10 +81,21 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
     List<UrlMapping> findByCreatedAtAfter(LocalDateTime date);
 
     /**
-     * Find top URLs by click count
+     * Find the most clicked URLs that have not expired, one page at a time
+     *
+     * Pages are keyed by the last row of the previous page; start with
+     * Long.MAX_VALUE clicks and ID 0.
+     */
+    @Query("SELECT u FROM UrlMapping u WHERE (u.clickCount < :clicks OR (u.clickCount = :clicks AND u.id > :afterId)) " +
+           "AND (u.expiresAt IS NULL OR u.expiresAt > :now) ORDER BY u.clickCount DESC, u.id")
+    List<UrlMapping> findTopUrlsByClickCount(@Param("clicks") long clicks, @Param("afterId") long afterId,
+                                             @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Get the highest assigned ID
      */
-    @Query("SELECT u FROM UrlMapping u ORDER BY u.clickCount DESC")
-    List<UrlMapping> findTopUrlsByClickCount();
+    @Query("SELECT COALESCE(MAX(u.id), 0) FROM UrlMapping u")
+    long findMaxId();
 
     /**
      * Count total URLs
@@ -70,10 +104,10 @@ public interface UrlMappingRepository extends JpaRepository<UrlMapping, Long> {
     long countTotalUrls();
 
     /**
-     * Count URLs created today
+     * Count URLs created in a time range, start inclusive and end exclusive
      */
-    @Query("SELECT COUNT(u) FROM UrlMapping u WHERE DATE(u.createdAt) = CURRENT_DATE")
-    long countUrlsCreatedToday();
+    @Query("SELECT COUNT(u) FROM UrlMapping u WHERE u.createdAt >= :from AND u.createdAt < :to")
+    long countUrlsCreatedBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 
     /**
      * Get total click count
@@ -0,0 +1,22 @@
+package com.shorturl.repository;
+
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.entity.UrlMapping;
+
+import java.util.List;
+
+/**
+ * Custom queries for UrlMapping that do not fit derived or annotated queries
+ */
+public interface UrlMappingRepositoryCustom {
+
+    /**
+     * Find the next URL mappings after an ID, in ID order
+     *
+     * @param afterId only return mappings with a greater ID, or null to start at the beginning
+     * @param filter the filters to apply
+     * @param limit the maximum number of mappings to return
+     * @return the matching mappings
+     */
+    List<UrlMapping> findPage(Long afterId, UrlListFilter filter, int limit);
+}
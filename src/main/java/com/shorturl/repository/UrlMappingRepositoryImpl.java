@@ -0,0 +1,60 @@
+package com.shorturl.repository;
+
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.entity.UrlMapping;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keyset pagination for URL mappings
+ *
+ * Seeks on the primary key instead of using OFFSET, so every page costs
+ * the same however deep into the table it is.
+ */
+public class UrlMappingRepositoryImpl implements UrlMappingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UrlMapping> findPage(Long afterId, UrlListFilter filter, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UrlMapping> query = cb.createQuery(UrlMapping.class);
+        Root<UrlMapping> root = query.from(UrlMapping.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(root.get("id"), afterId));
+        }
+        if (filter.getCreatedAfter() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filter.getCreatedAfter()));
+        }
+        if (filter.getCreatedBefore() != null) {
+            predicates.add(cb.lessThan(root.get("createdAt"), filter.getCreatedBefore()));
+        }
+        if (filter.getExpired() != null) {
+            LocalDateTime now = LocalDateTime.now();
+            predicates.add(filter.getExpired()
+                    ? cb.lessThan(root.get("expiresAt"), now)
+                    : cb.or(cb.isNull(root.get("expiresAt")), cb.greaterThanOrEqualTo(root.get("expiresAt"), now)));
+        }
+        if (filter.getMinClicks() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.get("clickCount"), filter.getMinClicks()));
+        }
+
+        query.select(root)
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
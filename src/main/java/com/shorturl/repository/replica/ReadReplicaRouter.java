@@ -0,0 +1,113 @@
+package com.shorturl.repository.replica;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Decides which reads must see the primary instead of a replica
+ *
+ * Read-only transactions go to replicas, see ReplicaRoutingDataSource.
+ * Calls wrapped in onPrimary read from the primary regardless, for
+ * checks that must not act on stale data, like deduplication before a
+ * write. Short URLs recorded with recordWrite also resolve from the
+ * primary for the read-your-writes window, so a newly created code works
+ * before the replicas have caught up. The window is kept per instance.
+ *
+ * Without replicas every call runs as it would without the router.
+ */
+@Component
+public class ReadReplicaRouter {
+
+    @Value("${app.datasource.read-your-writes-ms:5000}")
+    private long readYourWritesMillis = 5000;
+
+    @Value("${app.datasource.read-your-writes-max-size:100000}")
+    private long readYourWritesMaxSize = 100000;
+
+    private Cache<String, Boolean> recentWrites;
+
+    @PostConstruct
+    public void init() {
+        if (readYourWritesMillis > 0) {
+            recentWrites = Caffeine.newBuilder()
+                    .expireAfterWrite(readYourWritesMillis, TimeUnit.MILLISECONDS)
+                    .maximumSize(readYourWritesMaxSize)
+                    .build();
+        }
+    }
+
+    /**
+     * Remember that a short URL was just written, so reads of it go to the primary for a while
+     *
+     * @param shortUrl the short URL
+     */
+    public void recordWrite(String shortUrl) {
+        if (recentWrites != null) {
+            recentWrites.put(shortUrl, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Check whether a short URL was written within the read-your-writes window
+     */
+    public boolean isRecentlyWritten(String shortUrl) {
+        return recentWrites != null && recentWrites.getIfPresent(shortUrl) != null;
+    }
+
+    /**
+     * Read a short URL, from the primary if it was written within the read-your-writes window
+     *
+     * @param shortUrl the short URL
+     * @param read the read
+     * @return the read's result
+     */
+    public <T> T readFresh(String shortUrl, Supplier<T> read) {
+        return isRecentlyWritten(shortUrl) ? onPrimary(read) : read.get();
+    }
+
+    /**
+     * Run an action with all its reads on the primary
+     *
+     * @param action the action
+     * @return the action's result
+     */
+    public <T> T onPrimary(Supplier<T> action) {
+        if (ReplicaContext.isPrimaryForced()) {
+            return action.get();
+        }
+        ReplicaContext.setPrimaryForced(true);
+        try {
+            return action.get();
+        } finally {
+            ReplicaContext.setPrimaryForced(false);
+        }
+    }
+
+    /**
+     * Run an action with all its reads on the primary
+     *
+     * @param action the action
+     */
+    public void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wrap an action so it reads from the primary on another thread if the calling thread does
+     *
+     * @param action the action
+     * @return the action to hand to the other thread
+     */
+    public <T> Supplier<T> inheritRouting(Supplier<T> action) {
+        return ReplicaContext.isPrimaryForced() ? () -> onPrimary(action) : action;
+    }
+}
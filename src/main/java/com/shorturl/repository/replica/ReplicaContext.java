@@ -0,0 +1,33 @@
+package com.shorturl.repository.replica;
+
+/**
+ * Whether the current thread must read from the primary
+ *
+ * Set by ReadReplicaRouter around calls that need fresh data and read by
+ * ReplicaRoutingDataSource whenever a connection is acquired.
+ */
+final class ReplicaContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private ReplicaContext() {
+    }
+
+    /**
+     * Check whether reads on this thread must go to the primary
+     */
+    static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(PRIMARY_FORCED.get());
+    }
+
+    /**
+     * Force reads on this thread to the primary, or stop forcing them
+     */
+    static void setPrimaryForced(boolean forced) {
+        if (forced) {
+            PRIMARY_FORCED.set(Boolean.TRUE);
+        } else {
+            PRIMARY_FORCED.remove();
+        }
+    }
+}
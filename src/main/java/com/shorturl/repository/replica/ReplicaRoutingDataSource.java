@@ -0,0 +1,186 @@
+package com.shorturl.repository.replica;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource that sends read-only transactions to replicas and everything else to the primary
+ *
+ * Replicas are used round robin. A background check validates each
+ * replica periodically; a replica that fails the check, or fails to hand
+ * out a connection, is skipped until it passes again. Without a healthy
+ * replica, reads go to the primary.
+ *
+ * The read-only flag of a transaction is only known after it has begun,
+ * so this DataSource has to sit behind a LazyConnectionDataSourceProxy,
+ * which defers getting the connection to the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String name;
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final boolean[] healthy;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    /**
+     * Create a replica routing DataSource
+     *
+     * @param name the name used in logs
+     * @param primary the primary DataSource
+     * @param replicas the replica DataSources
+     * @param healthCheckMillis the interval between health checks, or 0 to never check
+     */
+    public ReplicaRoutingDataSource(String name, DataSource primary, List<DataSource> replicas, long healthCheckMillis) {
+        this.name = name;
+        this.primary = primary;
+        this.replicas = new ArrayList<>(replicas);
+        this.healthy = new boolean[replicas.size()];
+        for (int i = 0; i < healthy.length; i++) {
+            healthy[i] = true;
+        }
+
+        if (healthCheckMillis > 0 && !replicas.isEmpty()) {
+            healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-" + name);
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkHealth, healthCheckMillis, healthCheckMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            healthChecker = null;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int replica = selectReplica();
+        if (replica >= 0) {
+            try {
+                return replicas.get(replica).getConnection();
+            } catch (SQLException e) {
+                markHealthy(replica, false, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int replica = selectReplica();
+        if (replica >= 0) {
+            try {
+                return replicas.get(replica).getConnection(username, password);
+            } catch (SQLException e) {
+                markHealthy(replica, false, e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Validate every replica, taking failed ones out of rotation and passing ones back in
+     */
+    public void checkHealth() {
+        for (int i = 0; i < replicas.size(); i++) {
+            try (Connection connection = replicas.get(i).getConnection()) {
+                boolean valid = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+                markHealthy(i, valid, null);
+            } catch (SQLException e) {
+                markHealthy(i, false, e);
+            }
+        }
+    }
+
+    /**
+     * Get the primary DataSource
+     */
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    /**
+     * Get the number of replicas currently in rotation
+     */
+    public int getHealthyReplicaCount() {
+        int count = 0;
+        for (int i = 0; i < healthy.length; i++) {
+            if (isHealthy(i)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable) {
+                ((AutoCloseable) replica).close();
+            }
+        }
+        if (primary instanceof AutoCloseable) {
+            ((AutoCloseable) primary).close();
+        }
+    }
+
+    /**
+     * Pick the next healthy replica for a read-only transaction
+     *
+     * @return the replica index, or -1 to use the primary
+     */
+    private int selectReplica() {
+        if (replicas.isEmpty() || ReplicaContext.isPrimaryForced()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return -1;
+        }
+        int start = nextReplica.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            int replica = Math.floorMod(start + i, replicas.size());
+            if (isHealthy(replica)) {
+                return replica;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isHealthy(int replica) {
+        synchronized (healthy) {
+            return healthy[replica];
+        }
+    }
+
+    private void markHealthy(int replica, boolean up, SQLException cause) {
+        boolean changed;
+        synchronized (healthy) {
+            changed = healthy[replica] != up;
+            healthy[replica] = up;
+        }
+        if (changed && up) {
+            logger.info("Replica {} of {} is healthy again", replica, name);
+        } else if (changed) {
+            logger.warn("Replica {} of {} is unhealthy, reading from the primary instead", replica, name,
+                    cause);
+        }
+    }
+}
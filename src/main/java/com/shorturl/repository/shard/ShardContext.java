@@ -0,0 +1,33 @@
+package com.shorturl.repository.shard;
+
+/**
+ * The shard the current thread reads from and writes to
+ *
+ * Set by ShardRouter around each routed call and read by
+ * ShardRoutingDataSource whenever a connection is acquired.
+ */
+final class ShardContext {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Get the current shard, or null for the default shard
+     */
+    static String get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the current shard, or clear it with null
+     */
+    static void set(String shard) {
+        if (shard != null) {
+            CURRENT.set(shard);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
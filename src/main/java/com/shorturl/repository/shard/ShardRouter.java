@@ -0,0 +1,276 @@
+package com.shorturl.repository.shard;
+
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.util.ConsistentHashRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Routes URL mapping reads and writes to the shard that owns a short URL
+ *
+ * Short URLs are assigned to shards by a consistent hash ring over the
+ * configured shard names. Calls wrapped in onShard run with that shard in
+ * the ShardContext, so repository methods, JdbcTemplate and transactions
+ * started inside get their connections from it. A transaction stays on
+ * the shard it started on: switching to another shard while one is open
+ * suspends it and runs the call in a new transaction on the other shard.
+ *
+ * While shards are being added, previous-shards lists the shards before
+ * the change and lookups fall back to the shard that owned a short URL
+ * on the old ring until ShardRebalancer has moved it.
+ *
+ * Without sharding there is a single shard named "default" and every
+ * call runs as it would without the router.
+ */
+@Component
+public class ShardRouter {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    @Autowired(required = false)
+    private ShardRoutingDataSource shardRoutingDataSource;
+
+    @Autowired(required = false)
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired(required = false)
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Value("${app.sharding.virtual-nodes:160}")
+    private int virtualNodes = 160;
+
+    @Value("${app.sharding.rebalance.previous-shards:}")
+    private String previousShards = "";
+
+    private List<String> shardNames;
+    private ConsistentHashRing ring;
+    private ConsistentHashRing previousRing;
+    private TransactionTemplate requiresNewTransaction;
+    private ExecutorService fanOutExecutor;
+
+    @PostConstruct
+    public void init() {
+        shardNames = shardRoutingDataSource != null
+                ? shardRoutingDataSource.getShardNames()
+                : Collections.singletonList(DEFAULT_SHARD);
+        ring = new ConsistentHashRing(shardNames, virtualNodes);
+
+        List<String> previous = Arrays.stream(previousShards.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .collect(Collectors.toList());
+        if (!previous.isEmpty()) {
+            if (!shardNames.containsAll(previous)) {
+                throw new IllegalStateException("Previous shards " + previous + " must all still be configured");
+            }
+            previousRing = new ConsistentHashRing(previous, virtualNodes);
+        }
+
+        if (transactionManager != null) {
+            requiresNewTransaction = new TransactionTemplate(transactionManager);
+            requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        }
+        if (shardNames.size() > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            fanOutExecutor = Executors.newFixedThreadPool(shardNames.size() * 2, runnable -> {
+                Thread thread = new Thread(runnable, "shard-fan-out-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the shard names, the default shard first
+     */
+    public List<String> getShardNames() {
+        return shardNames;
+    }
+
+    /**
+     * Get the shard that holds the tables which are not sharded
+     */
+    public String getDefaultShard() {
+        return shardNames.get(0);
+    }
+
+    /**
+     * Check whether more than one shard is configured
+     */
+    public boolean isSharded() {
+        return shardNames.size() > 1;
+    }
+
+    /**
+     * Check whether rows may still live on the shard that owned them before the last change
+     */
+    public boolean isRebalancing() {
+        return previousRing != null;
+    }
+
+    /**
+     * Find the shard that owns a short URL
+     *
+     * @param shortUrl the short URL
+     * @return the shard name
+     */
+    public String shardFor(String shortUrl) {
+        return ring.nodeFor(shortUrl);
+    }
+
+    /**
+     * Find the shards a short URL may live on, its owner first
+     *
+     * @param shortUrl the short URL
+     * @return the owner, followed by its previous owner while rebalancing
+     */
+    public List<String> candidateShards(String shortUrl) {
+        String owner = ring.nodeFor(shortUrl);
+        if (previousRing == null) {
+            return Collections.singletonList(owner);
+        }
+        String previousOwner = previousRing.nodeFor(shortUrl);
+        return previousOwner.equals(owner) ? Collections.singletonList(owner) : Arrays.asList(owner, previousOwner);
+    }
+
+    /**
+     * Run an action against one shard
+     *
+     * @param shard the shard name
+     * @param action the action
+     * @return the action's result
+     */
+    public <T> T onShard(String shard, Supplier<T> action) {
+        String previous = ShardContext.get();
+        String current = previous != null ? previous : getDefaultShard();
+        if (shard.equals(current)) {
+            return action.get();
+        }
+
+        ShardContext.set(shard);
+        try {
+            // Whatever is bound to this thread holds a connection to the current shard
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                return requiresNewTransaction.execute(status -> action.get());
+            }
+            return action.get();
+        } finally {
+            ShardContext.set(previous);
+        }
+    }
+
+    /**
+     * Run an action against one shard
+     *
+     * @param shard the shard name
+     * @param action the action
+     */
+    public void onShard(String shard, Runnable action) {
+        onShard(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run an action against the shard that owns a short URL
+     *
+     * @param shortUrl the short URL
+     * @param action the action
+     * @return the action's result
+     */
+    public <T> T onShardOf(String shortUrl, Supplier<T> action) {
+        return onShard(shardFor(shortUrl), action);
+    }
+
+    /**
+     * Run an action against every shard, in parallel when there are several
+     *
+     * Parallel calls run on other threads, outside any transaction of the
+     * caller, and do not see its uncommitted changes. They read from the
+     * primary if the caller does.
+     *
+     * @param action the action, given the shard name
+     * @return the results by shard, in shard order
+     */
+    public <T> Map<String, T> onEachShard(Function<String, T> action) {
+        Map<String, T> results = new LinkedHashMap<>();
+        if (fanOutExecutor == null) {
+            for (String shard : shardNames) {
+                results.put(shard, onShard(shard, () -> action.apply(shard)));
+            }
+            return results;
+        }
+
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String shard : shardNames) {
+            Supplier<T> task = () -> onShard(shard, () -> action.apply(shard));
+            if (readReplicaRouter != null) {
+                task = readReplicaRouter.inheritRouting(task);
+            }
+            futures.put(shard, fanOutExecutor.submit(task::get));
+        }
+        try {
+            for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while querying shards", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Shard query failed", e.getCause());
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+        return results;
+    }
+
+    /**
+     * Group items by the shard that owns their short URL
+     *
+     * @param items the items
+     * @param shortUrl extracts an item's short URL
+     * @return the items by shard, each group in the original order
+     */
+    public <T> Map<String, List<T>> groupByShard(Collection<T> items, Function<T, String> shortUrl) {
+        Map<String, List<T>> groups = new LinkedHashMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardFor(shortUrl.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+}
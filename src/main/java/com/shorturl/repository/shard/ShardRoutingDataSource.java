@@ -0,0 +1,78 @@
+package com.shorturl.repository.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DataSource that hands out connections from the shard in the current ShardContext
+ *
+ * Without a shard in context, connections come from the first shard,
+ * which also holds the tables that are not sharded, such as id_segment.
+ * A transaction keeps the connection it started with, so the shard has
+ * to be chosen before the transaction begins; ShardRouter takes care of
+ * that.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private final Map<String, DataSource> shards;
+
+    /**
+     * Create a routing DataSource
+     *
+     * @param shards the shard DataSources by name, the default shard first
+     */
+    public ShardRoutingDataSource(LinkedHashMap<String, DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard must be configured");
+        }
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.values().iterator().next());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.get();
+    }
+
+    /**
+     * Get the shard names, the default shard first
+     */
+    public List<String> getShardNames() {
+        return new ArrayList<>(shards.keySet());
+    }
+
+    /**
+     * Get the DataSource of one shard
+     *
+     * @param shard the shard name
+     * @return the shard's DataSource
+     * @throws IllegalArgumentException if there is no such shard
+     */
+    public DataSource getShard(String shard) {
+        DataSource dataSource = shards.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Unknown shard: " + shard);
+        }
+        return dataSource;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        for (DataSource dataSource : shards.values()) {
+            if (dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) dataSource).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.shorturl.service;
+
+import java.util.OptionalLong;
+
+/**
+ * Strategy for generating short codes for new URL mappings
+ */
+public interface ShortCodeGenerator {
+
+    /**
+     * Generate the short code for a new URL mapping
+     * 
+     * @param id the unique ID allocated for the mapping
+     * @return the generated short code
+     */
+    String generate(long id);
+
+    /**
+     * Map a short code back to the ID it was generated from
+     * 
+     * @param shortUrl the short code
+     * @return the ID, or empty if the code was not produced by this strategy
+     */
+    default OptionalLong decode(String shortUrl) {
+        return OptionalLong.empty();
+    }
+}
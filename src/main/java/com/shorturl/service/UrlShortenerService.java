@@ -1,10 +1,16 @@
 package com.shorturl.service;
 
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.dto.RedirectTarget;
 import com.shorturl.dto.ShortenUrlRequest;
 import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.dto.UrlPage;
 import com.shorturl.dto.UrlStatsResponse;
-import com.shorturl.entity.UrlMapping;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -21,13 +27,34 @@ public interface UrlShortenerService {
      */
     ShortenUrlResponse shortenUrl(ShortenUrlRequest request);
 
+    /**
+     * Shorten many long URLs at once
+     * 
+     * Items are validated and deduplicated individually; an invalid item
+     * fails on its own without affecting the rest of the batch.
+     * 
+     * @param requests the shorten URL requests
+     * @return one result per request, in request order
+     */
+    BatchShortenResponse shortenUrls(List<ShortenUrlRequest> requests);
+
     /**
      * Expand a short URL to get the original long URL
      * 
+     * Resolution only, results are cached until the link expires; clicks
+     * are recorded separately through {@link #recordClick(String)}.
+     * 
      * @param shortUrl the short URL
-     * @return the original long URL if found
+     * @return the redirect target if found and not expired
      */
-    Optional<String> expandUrl(String shortUrl);
+    Optional<RedirectTarget> expandUrl(String shortUrl);
+
+    /**
+     * Record a click on a short URL without blocking on the database
+     * 
+     * @param shortUrl the short URL that was followed
+     */
+    void recordClick(String shortUrl);
 
     /**
      * Get URL statistics
@@ -38,11 +65,26 @@ public interface UrlShortenerService {
     Optional<UrlStatsResponse> getUrlStats(String shortUrl);
 
     /**
-     * Get all URL mappings (for admin purposes)
+     * Get the clicks on a short URL per step
+     * 
+     * @param shortUrl the short URL
+     * @param from start of the range
+     * @param to end of the range, exclusive
+     * @param step the width of each point, a whole number of minutes
+     * @return the time series if the short URL exists
+     */
+    Optional<ClickTimeSeriesResponse> getClickTimeSeries(String shortUrl, LocalDateTime from, LocalDateTime to,
+                                                         Duration step);
+
+    /**
+     * List URL mappings one page at a time, in ID order (for admin purposes)
      * 
-     * @return list of all URL mappings
+     * @param cursor the nextCursor of the previous page, or null for the first page
+     * @param filter the filters to apply
+     * @param size the page size, capped at the configured maximum
+     * @return the page of URL mappings
      */
-    List<UrlMapping> getAllUrls();
+    UrlPage listUrls(String cursor, UrlListFilter filter, int size);
 
     /**
      * Delete a URL mapping
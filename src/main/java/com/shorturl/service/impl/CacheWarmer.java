@@ -0,0 +1,363 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Fills the urlMappings cache before a new instance takes traffic
+ *
+ * Once the application has started, the cache is restored from the
+ * snapshot written at the last shutdown, if enabled and recent enough,
+ * and then topped up with the most clicked links from every shard.
+ * Until that has finished or the time budget has run out, this
+ * indicator reports OUT_OF_SERVICE, which keeps the readiness group
+ * down.
+ *
+ * The snapshot is binary: a header with a magic number, format version,
+ * write time and entry count, then per entry the short URL, the expiry
+ * in epoch milliseconds (Long.MIN_VALUE for none), the redirect status
+ * (0 for the global one) and the long URL, both strings as a length
+ * followed by their bytes. The hottest entries come
+ * first, so a cache smaller than the snapshot keeps the best ones.
+ */
+@Component
+public class CacheWarmer implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+    private static final int SNAPSHOT_MAGIC = 0x54555743; // "TUWC"
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cache.warm-up.enabled:true}")
+    private boolean warmUpEnabled = true;
+
+    @Value("${app.cache.warm-up.top-n:10000}")
+    private int topN = 10000;
+
+    @Value("${app.cache.warm-up.page-size:1000}")
+    private int pageSize = 1000;
+
+    @Value("${app.cache.warm-up.timeout-ms:30000}")
+    private long timeoutMillis = 30000;
+
+    @Value("${app.cache.snapshot.enabled:false}")
+    private boolean snapshotEnabled = false;
+
+    @Value("${app.cache.snapshot.file:data/url-mappings.snapshot}")
+    private String snapshotFile = "data/url-mappings.snapshot";
+
+    @Value("${app.cache.snapshot.max-entries:10000}")
+    private int snapshotMaxEntries = 10000;
+
+    @Value("${app.cache.snapshot.max-age-seconds:3600}")
+    private long snapshotMaxAgeSeconds = 3600;
+
+    private ExecutorService warmUpExecutor;
+    private Counter restoredEntries;
+    private Counter preloadedEntries;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+    private volatile boolean finished;
+    private volatile long restored;
+    private volatile long preloaded;
+
+    @PostConstruct
+    public void init() {
+        warmUpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-warm-up");
+            thread.setDaemon(true);
+            return thread;
+        });
+        restoredEntries = meterRegistry.counter("url.cache.warmup.entries", "source", "snapshot");
+        preloadedEntries = meterRegistry.counter("url.cache.warmup.entries", "source", "database");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        warmUpExecutor.shutdownNow();
+        if (snapshotEnabled) {
+            try {
+                writeSnapshot();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to write cache snapshot to {}", snapshotFile, e);
+            }
+        }
+    }
+
+    /**
+     * Warm the cache in the background once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpOnStartup() {
+        startedNanos = System.nanoTime();
+        warmUpExecutor.execute(this::warmUp);
+    }
+
+    /**
+     * Restore the snapshot and preload the most clicked links, stopping at the time budget
+     */
+    public void warmUp() {
+        if (startedNanos == 0) {
+            startedNanos = System.nanoTime();
+        }
+        try {
+            if (snapshotEnabled) {
+                restored = readSnapshot();
+                restoredEntries.increment(restored);
+            }
+            if (warmUpEnabled) {
+                preloaded = preloadTopUrls();
+                preloadedEntries.increment(preloaded);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Cache warm-up failed, continuing with what was loaded", e);
+        } finally {
+            finishedNanos = System.nanoTime();
+            finished = true;
+        }
+        logger.info("Cache warm-up restored {} and preloaded {} entries in {} ms", restored, preloaded,
+                TimeUnit.NANOSECONDS.toMillis(finishedNanos - startedNanos));
+    }
+
+    /**
+     * Check whether warm-up has finished or its time budget has run out
+     */
+    public boolean isReady() {
+        return finished || (startedNanos != 0 && isOverBudget());
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = isReady() ? Health.up() : Health.outOfService();
+        builder.withDetail("finished", finished)
+                .withDetail("restored", restored)
+                .withDetail("preloaded", preloaded);
+        if (startedNanos != 0) {
+            long end = finished ? finishedNanos : System.nanoTime();
+            builder.withDetail("elapsedMs", TimeUnit.NANOSECONDS.toMillis(end - startedNanos));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Load the most clicked links of all shards into the cache
+     *
+     * @return the number of entries loaded
+     */
+    private long preloadTopUrls() {
+        Cache cache = cacheManager.getCache("urlMappings");
+        if (cache == null || topN <= 0) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<UrlMapping> hottest = shardRouter.onEachShard(shard -> findTopUrls(now)).values().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(UrlMapping::getClickCount).reversed())
+                .limit(topN)
+                .collect(Collectors.toList());
+
+        // Coldest first, so the hottest are the most recently written if the cache is full
+        long loaded = 0;
+        for (int i = hottest.size() - 1; i >= 0 && !isOverBudget(); i--) {
+            UrlMapping mapping = hottest.get(i);
+            cache.put(mapping.getShortUrl(),
+                    new RedirectTarget(mapping.getLongUrl(), mapping.getExpiresAt(), mapping.getRedirectStatus()));
+            loaded++;
+        }
+        return loaded;
+    }
+
+    /**
+     * Page through the most clicked links of the shard in context
+     */
+    private List<UrlMapping> findTopUrls(LocalDateTime now) {
+        List<UrlMapping> result = new ArrayList<>();
+        long clicks = Long.MAX_VALUE;
+        long afterId = 0;
+        while (result.size() < topN && !isOverBudget()) {
+            int size = Math.min(pageSize, topN - result.size());
+            List<UrlMapping> page = urlMappingRepository.findTopUrlsByClickCount(clicks, afterId, now,
+                    PageRequest.of(0, size));
+            result.addAll(page);
+            if (page.size() < size) {
+                break;
+            }
+            UrlMapping last = page.get(page.size() - 1);
+            clicks = last.getClickCount();
+            afterId = last.getId();
+        }
+        return result;
+    }
+
+    /**
+     * Write the hottest cache entries to the snapshot file
+     *
+     * @return the number of entries written
+     */
+    public long writeSnapshot() throws IOException {
+        Cache cache = cacheManager.getCache("urlMappings");
+        if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+            return 0;
+        }
+        @SuppressWarnings("unchecked")
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        Map<Object, Object> entries = nativeCache.policy().eviction()
+                .map(eviction -> eviction.hottest(snapshotMaxEntries))
+                .orElseGet(nativeCache::asMap);
+
+        List<Map.Entry<Object, Object>> targets = entries.entrySet().stream()
+                .filter(entry -> entry.getKey() instanceof String && entry.getValue() instanceof RedirectTarget)
+                .limit(snapshotMaxEntries)
+                .collect(Collectors.toList());
+
+        Path path = Paths.get(snapshotFile);
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(targets.size());
+            for (Map.Entry<Object, Object> entry : targets) {
+                RedirectTarget target = (RedirectTarget) entry.getValue();
+                byte[] shortUrl = ((String) entry.getKey()).getBytes(StandardCharsets.UTF_8);
+                byte[] longUrl = target.getLongUrl().getBytes(StandardCharsets.UTF_8);
+                out.writeByte(shortUrl.length);
+                out.write(shortUrl);
+                out.writeLong(toMillis(target.getExpiresAt()));
+                out.writeShort(target.getRedirectStatus() != null ? target.getRedirectStatus() : 0);
+                out.writeInt(longUrl.length);
+                out.write(longUrl);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Wrote {} cache entries to {}", targets.size(), path);
+        return targets.size();
+    }
+
+    /**
+     * Load the snapshot file into the cache, skipping expired entries
+     *
+     * @return the number of entries loaded
+     */
+    public long readSnapshot() {
+        Path path = Paths.get(snapshotFile);
+        Cache cache = cacheManager.getCache("urlMappings");
+        if (cache == null || !Files.isRegularFile(path)) {
+            return 0;
+        }
+
+        long loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                logger.warn("Ignoring cache snapshot {} in an unknown format", path);
+                return 0;
+            }
+            long writtenAt = in.readLong();
+            if (System.currentTimeMillis() - writtenAt > TimeUnit.SECONDS.toMillis(snapshotMaxAgeSeconds)) {
+                logger.info("Ignoring cache snapshot {}, it is older than {} seconds", path, snapshotMaxAgeSeconds);
+                return 0;
+            }
+
+            int count = in.readInt();
+            long now = toMillis(LocalDateTime.now());
+            List<String> shortUrls = new ArrayList<>(Math.min(count, snapshotMaxEntries));
+            List<RedirectTarget> targets = new ArrayList<>(Math.min(count, snapshotMaxEntries));
+            for (int i = 0; i < count && !isOverBudget(); i++) {
+                byte[] shortUrl = new byte[in.readUnsignedByte()];
+                in.readFully(shortUrl);
+                long expiresAt = in.readLong();
+                int redirectStatus = in.readUnsignedShort();
+                byte[] longUrl = new byte[in.readInt()];
+                in.readFully(longUrl);
+                if (expiresAt == NO_EXPIRY || expiresAt > now) {
+                    shortUrls.add(new String(shortUrl, StandardCharsets.UTF_8));
+                    targets.add(new RedirectTarget(new String(longUrl, StandardCharsets.UTF_8), toDateTime(expiresAt),
+                            redirectStatus != 0 ? redirectStatus : null));
+                }
+            }
+
+            // Written hottest first; put coldest first so the hottest stay if the cache is smaller
+            for (int i = shortUrls.size() - 1; i >= 0; i--) {
+                cache.put(shortUrls.get(i), targets.get(i));
+                loaded++;
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to read cache snapshot {}, restored {} entries", path, loaded, e);
+        }
+        return loaded;
+    }
+
+    private boolean isOverBudget() {
+        return System.nanoTime() - startedNanos > TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_EXPIRY;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        if (millis == NO_EXPIRY) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,233 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.repository.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind aggregator for click counts
+ *
+ * Clicks are accumulated per short URL in memory and written to the
+ * database periodically as one JDBC batch of increments, so recording a
+ * click never waits on the database and a popular link does not turn
+ * into an UPDATE per redirect on a single row. Each shard gets its own
+ * batches. Every click is also counted in ClickTimeSeries.
+ */
+@Component
+public class ClickCountAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickCountAggregator.class);
+    private static final String INCREMENT_SQL =
+            "UPDATE url_mapping SET click_count = click_count + ? WHERE short_url = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private GlobalCounters globalCounters;
+
+    @Autowired
+    private ClickTimeSeries clickTimeSeries;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.clicks.max-pending-keys:100000}")
+    private int maxPendingKeys = 100000;
+
+    @Value("${app.clicks.batch-size:500}")
+    private int batchSize = 500;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean();
+    private List<Map.Entry<String, LongAdder>> retired = new ArrayList<>();
+
+    private TransactionTemplate transactionTemplate;
+    private ExecutorService earlyFlushExecutor;
+    private Counter recordedClicks;
+    private Counter flushedClicks;
+    private Counter orphanedClicks;
+    private Counter flushFailures;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        earlyFlushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-count-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        recordedClicks = meterRegistry.counter("url.clicks.recorded");
+        flushedClicks = meterRegistry.counter("url.clicks.flushed");
+        orphanedClicks = meterRegistry.counter("url.clicks.orphaned");
+        flushFailures = meterRegistry.counter("url.clicks.flush.failures");
+        flushTimer = meterRegistry.timer("url.clicks.flush");
+        Gauge.builder("url.clicks.pending.keys", pending, Map::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        earlyFlushExecutor.shutdownNow();
+        flush();
+    }
+
+    /**
+     * Record a click without touching the database
+     *
+     * @param shortUrl the short URL that was clicked
+     */
+    public void recordClick(String shortUrl) {
+        LongAdder adder = pending.get(shortUrl);
+        if (adder == null) {
+            if (pending.size() >= maxPendingKeys && earlyFlushRequested.compareAndSet(false, true)) {
+                earlyFlushExecutor.execute(() -> {
+                    earlyFlushRequested.set(false);
+                    flush();
+                });
+            }
+            adder = pending.computeIfAbsent(shortUrl, key -> new LongAdder());
+        }
+        adder.increment();
+        recordedClicks.increment();
+        clickTimeSeries.recordClick(shortUrl);
+    }
+
+    /**
+     * Get the number of clicks recorded but not yet flushed
+     *
+     * @param shortUrl the short URL
+     * @return the pending click count
+     */
+    public long getPendingClicks(String shortUrl) {
+        LongAdder adder = pending.get(shortUrl);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * Write all pending clicks to the database
+     */
+    @Scheduled(fixedDelayString = "${app.clicks.flush-interval-ms:1000}",
+               initialDelayString = "${app.clicks.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        Map<String, Long> deltas = drainPending();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> writeDeltas(deltas));
+    }
+
+    /**
+     * Collect the pending deltas, sorted by short URL so concurrent flushes lock rows in the same order
+     */
+    private Map<String, Long> drainPending() {
+        Map<String, Long> deltas = new TreeMap<>();
+
+        // Counters retired in the previous flush may have received late clicks
+        for (Map.Entry<String, LongAdder> entry : retired) {
+            long late = entry.getValue().sum();
+            if (late > 0) {
+                deltas.merge(entry.getKey(), late, Long::sum);
+            }
+        }
+        retired = new ArrayList<>();
+
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta > 0) {
+                adder.add(-delta);
+                deltas.merge(entry.getKey(), delta, Long::sum);
+            } else if (pending.remove(entry.getKey(), adder)) {
+                retired.add(entry);
+            }
+        }
+        return deltas;
+    }
+
+    private void writeDeltas(Map<String, Long> deltas) {
+        Map<String, List<Map.Entry<String, Long>>> byShard = shardRouter.groupByShard(deltas.entrySet(), Map.Entry::getKey);
+        for (Map.Entry<String, List<Map.Entry<String, Long>>> group : byShard.entrySet()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(batchSize, group.getValue().size()));
+            for (Map.Entry<String, Long> entry : group.getValue()) {
+                batch.add(new Object[]{entry.getValue(), entry.getKey()});
+                if (batch.size() == batchSize) {
+                    writeBatch(group.getKey(), batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(group.getKey(), batch);
+            }
+        }
+    }
+
+    private void writeBatch(String shard, List<Object[]> batch) {
+        Map<String, List<Object[]>> notMovedYet = new LinkedHashMap<>();
+        try {
+            int[] updated = shardRouter.onShard(shard,
+                    () -> transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INCREMENT_SQL, batch)));
+            for (int i = 0; i < batch.size(); i++) {
+                long clicks = (Long) batch.get(i)[0];
+                if (updated != null && updated[i] == 0) {
+                    String previousShard = nextCandidateShard((String) batch.get(i)[1], shard);
+                    if (previousShard != null) {
+                        // Still on the shard that owned it before the rebalance
+                        notMovedYet.computeIfAbsent(previousShard, key -> new ArrayList<>()).add(batch.get(i));
+                    } else {
+                        // The short URL was deleted before its clicks were flushed
+                        orphanedClicks.increment(clicks);
+                    }
+                } else {
+                    flushedClicks.increment(clicks);
+                    globalCounters.recordClicks(clicks);
+                }
+            }
+        } catch (Exception e) {
+            flushFailures.increment();
+            logger.error("Failed to flush {} click counts, keeping them for the next flush", batch.size(), e);
+            for (Object[] args : batch) {
+                pending.computeIfAbsent((String) args[1], key -> new LongAdder()).add((Long) args[0]);
+            }
+        }
+        notMovedYet.forEach(this::writeBatch);
+    }
+
+    private String nextCandidateShard(String shortUrl, String shard) {
+        List<String> candidates = shardRouter.candidateShards(shortUrl);
+        int next = candidates.indexOf(shard) + 1;
+        return next > 0 && next < candidates.size() ? candidates.get(next) : null;
+    }
+}
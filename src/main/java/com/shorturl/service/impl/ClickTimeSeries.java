@@ -0,0 +1,398 @@
+package com.shorturl.service.impl;
+
+import com.google.common.collect.Lists;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.entity.ClickRollup;
+import com.shorturl.entity.ClickRollup.Granularity;
+import com.shorturl.repository.ClickRollupRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-link click time series, pre-aggregated into rollups
+ *
+ * Clicks are counted in memory per short URL and minute. Each flush adds
+ * the counts to the link's minute, hour and day buckets in click_rollup
+ * as JDBC batches of increments on the link's shard, and inserts the
+ * buckets that do not exist yet. A time series reads the coarsest
+ * granularity that divides its step, so its cost depends on the number
+ * of buckets in the range, not on the number of clicks.
+ *
+ * Retention downsamples the history: minute buckets are deleted first,
+ * then hour buckets, then day buckets, each after its own retention.
+ * The coarser buckets keep counting those clicks.
+ */
+@Component
+public class ClickTimeSeries {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClickTimeSeries.class);
+    private static final String INCREMENT_SQL =
+            "UPDATE click_rollup SET clicks = clicks + ? WHERE short_url = ? AND granularity = ? AND bucket_start = ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO click_rollup (clicks, short_url, granularity, bucket_start) VALUES (?, ?, ?, ?)";
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final int RETENTION_SLICE_BUCKETS = 60;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ClickRollupRepository clickRollupRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.analytics.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.analytics.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${app.analytics.max-buckets:20000}")
+    private int maxBuckets = 20000;
+
+    @Value("${app.analytics.retention.minute-hours:48}")
+    private long minuteRetentionHours = 48;
+
+    @Value("${app.analytics.retention.hour-days:90}")
+    private long hourRetentionDays = 90;
+
+    @Value("${app.analytics.retention.day-days:1825}")
+    private long dayRetentionDays = 1825;
+
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<String, LongAdder>> pending = new ConcurrentHashMap<>();
+    private List<Map.Entry<Long, ConcurrentHashMap<String, LongAdder>>> retired = new ArrayList<>();
+    private final Map<Bucket, Long> unwritten = new HashMap<>();
+
+    private TransactionTemplate transactionTemplate;
+    private Counter flushFailures;
+    private Counter deletedBuckets;
+    private Timer flushTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        flushFailures = meterRegistry.counter("url.rollups.flush.failures");
+        deletedBuckets = meterRegistry.counter("url.rollups.deleted");
+        flushTimer = meterRegistry.timer("url.rollups.flush");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Count a click in the current minute without touching the database
+     *
+     * @param shortUrl the short URL that was clicked
+     */
+    public void recordClick(String shortUrl) {
+        if (!enabled) {
+            return;
+        }
+
+        long minute = System.currentTimeMillis() / MILLIS_PER_MINUTE;
+        ConcurrentHashMap<String, LongAdder> clicks = pending.get(minute);
+        if (clicks == null) {
+            clicks = pending.computeIfAbsent(minute, key -> new ConcurrentHashMap<>());
+        }
+        LongAdder adder = clicks.get(shortUrl);
+        if (adder == null) {
+            adder = clicks.computeIfAbsent(shortUrl, key -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * Add the pending clicks to the rollup buckets
+     */
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval-ms:10000}",
+               initialDelayString = "${app.analytics.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        Map<Bucket, Long> deltas = drainPending();
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        flushTimer.record(() -> writeDeltas(deltas));
+    }
+
+    /**
+     * Read the clicks on a short URL per step from the rollups
+     *
+     * @param shortUrl the short URL
+     * @param from start of the range, rounded down to a bucket
+     * @param to end of the range, exclusive
+     * @param step the width of each point, a whole number of minutes
+     * @return one point per step; clicks from the last flush interval are not included yet
+     */
+    public ClickTimeSeriesResponse getTimeSeries(String shortUrl, LocalDateTime from, LocalDateTime to, Duration step) {
+        Granularity granularity = granularityFor(step);
+        LocalDateTime start = granularity.bucketStart(from);
+        if (!start.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        long buckets = divideRoundingUp(Duration.between(start, to), granularity.getDuration());
+        if (buckets > maxBuckets) {
+            throw new IllegalArgumentException("Time range covers " + buckets + " " + granularity.name().toLowerCase()
+                    + " buckets, at most " + maxBuckets + " can be read; narrow the range or use a longer step");
+        }
+
+        long[] clicks = new long[(int) divideRoundingUp(Duration.between(start, to), step)];
+        // Rows stay on the shard they were written to, so a rebalance does not hide older history
+        for (List<ClickRollup> rows : shardRouter.onEachShard(
+                shard -> clickRollupRepository.findBuckets(shortUrl, granularity, start, to)).values()) {
+            for (ClickRollup row : rows) {
+                int index = (int) (Duration.between(start, row.getBucketStart()).toMillis() / step.toMillis());
+                clicks[index] += row.getClicks();
+            }
+        }
+
+        List<ClickTimeSeriesResponse.Point> points = new ArrayList<>(clicks.length);
+        for (int i = 0; i < clicks.length; i++) {
+            points.add(new ClickTimeSeriesResponse.Point(start.plus(step.multipliedBy(i)), clicks[i]));
+        }
+        return new ClickTimeSeriesResponse(shortUrl, start, to, step.getSeconds(), granularity.name(), points);
+    }
+
+    /**
+     * Delete rollup buckets past their retention on the configured schedule
+     */
+    @Scheduled(cron = "${app.analytics.retention-cron:0 15 3 * * ?}")
+    public void scheduledApplyRetention() {
+        logger.info("Running scheduled click rollup retention");
+        applyRetention();
+    }
+
+    /**
+     * Delete the buckets of each granularity that are older than its retention
+     *
+     * @return the number of buckets deleted
+     */
+    public int applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = deleteBucketsBefore(Granularity.MINUTE, now.minusHours(minuteRetentionHours))
+                + deleteBucketsBefore(Granularity.HOUR, now.minusDays(hourRetentionDays))
+                + deleteBucketsBefore(Granularity.DAY, now.minusDays(dayRetentionDays));
+        logger.info("Deleted {} click rollup buckets past their retention", total);
+        return total;
+    }
+
+    /**
+     * Pick the coarsest granularity that divides the step
+     */
+    private static Granularity granularityFor(Duration step) {
+        Granularity[] granularities = Granularity.values();
+        for (int i = granularities.length - 1; i >= 0; i--) {
+            Duration size = granularities[i].getDuration();
+            if (step.compareTo(size) >= 0 && step.toMillis() % size.toMillis() == 0) {
+                return granularities[i];
+            }
+        }
+        throw new IllegalArgumentException("Step must be a whole number of minutes: " + step);
+    }
+
+    private static long divideRoundingUp(Duration range, Duration size) {
+        return (range.toMillis() + size.toMillis() - 1) / size.toMillis();
+    }
+
+    /**
+     * Collect the pending clicks per bucket, sorted so concurrent flushes lock rows in the same order
+     */
+    private Map<Bucket, Long> drainPending() {
+        Map<Bucket, Long> deltas = new TreeMap<>();
+
+        // Minutes retired in the previous flush may have received late clicks
+        for (Map.Entry<Long, ConcurrentHashMap<String, LongAdder>> entry : retired) {
+            drainMinute(entry.getKey(), entry.getValue(), deltas);
+        }
+        retired = new ArrayList<>();
+
+        long currentMinute = System.currentTimeMillis() / MILLIS_PER_MINUTE;
+        for (Map.Entry<Long, ConcurrentHashMap<String, LongAdder>> entry : pending.entrySet()) {
+            drainMinute(entry.getKey(), entry.getValue(), deltas);
+            if (entry.getKey() < currentMinute && pending.remove(entry.getKey(), entry.getValue())) {
+                retired.add(entry);
+            }
+        }
+
+        unwritten.forEach((bucket, delta) -> deltas.merge(bucket, delta, Long::sum));
+        unwritten.clear();
+        return deltas;
+    }
+
+    private static void drainMinute(long minute, Map<String, LongAdder> clicks, Map<Bucket, Long> deltas) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(minute * MILLIS_PER_MINUTE), ZoneId.systemDefault());
+        for (Map.Entry<String, LongAdder> entry : clicks.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta > 0) {
+                adder.add(-delta);
+                for (Granularity granularity : Granularity.values()) {
+                    deltas.merge(new Bucket(entry.getKey(), granularity, granularity.bucketStart(time)), delta, Long::sum);
+                }
+            }
+        }
+    }
+
+    private void writeDeltas(Map<Bucket, Long> deltas) {
+        for (Map.Entry<String, List<Map.Entry<Bucket, Long>>> group
+                : shardRouter.groupByShard(deltas.entrySet(), entry -> entry.getKey().shortUrl).entrySet()) {
+            for (List<Map.Entry<Bucket, Long>> batch : Lists.partition(group.getValue(), batchSize)) {
+                writeBatch(group.getKey(), batch);
+            }
+        }
+    }
+
+    /**
+     * Increment the existing buckets of a batch and insert the rest
+     */
+    private void writeBatch(String shard, List<Map.Entry<Bucket, Long>> batch) {
+        List<Map.Entry<Bucket, Long>> remaining = batch;
+        try {
+            for (int attempt = 0; !remaining.isEmpty(); attempt++) {
+                remaining = incrementExisting(shard, remaining);
+                if (remaining.isEmpty()) {
+                    break;
+                }
+                try {
+                    List<Object[]> args = toArgs(remaining);
+                    shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_SQL, args)));
+                    remaining = Collections.emptyList();
+                } catch (DuplicateKeyException e) {
+                    if (attempt > 0) {
+                        throw e;
+                    }
+                    // Another instance inserted some of these buckets first, add to them instead
+                }
+            }
+        } catch (Exception e) {
+            flushFailures.increment();
+            logger.error("Failed to write {} click rollup buckets, keeping them for the next flush", remaining.size(), e);
+            for (Map.Entry<Bucket, Long> entry : remaining) {
+                unwritten.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+    }
+
+    /**
+     * @return the entries whose bucket does not exist yet
+     */
+    private List<Map.Entry<Bucket, Long>> incrementExisting(String shard, List<Map.Entry<Bucket, Long>> entries) {
+        List<Object[]> args = toArgs(entries);
+        int[] updated = shardRouter.onShard(shard,
+                () -> transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INCREMENT_SQL, args)));
+        List<Map.Entry<Bucket, Long>> missing = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            if (updated == null || updated[i] == 0) {
+                missing.add(entries.get(i));
+            }
+        }
+        return missing;
+    }
+
+    private static List<Object[]> toArgs(List<Map.Entry<Bucket, Long>> entries) {
+        List<Object[]> args = new ArrayList<>(entries.size());
+        for (Map.Entry<Bucket, Long> entry : entries) {
+            Bucket bucket = entry.getKey();
+            args.add(new Object[]{entry.getValue(), bucket.shortUrl, bucket.granularity.name(), Timestamp.valueOf(bucket.start)});
+        }
+        return args;
+    }
+
+    /**
+     * Delete the buckets of one granularity older than the cutoff, a slice at a time, oldest first
+     */
+    private int deleteBucketsBefore(Granularity granularity, LocalDateTime cutoff) {
+        Duration slice = granularity.getDuration().multipliedBy(RETENTION_SLICE_BUCKETS);
+        int total = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            LocalDateTime oldest = shardRouter.onShard(shard, () -> clickRollupRepository.findOldestBucketStart(granularity));
+            while (oldest != null && oldest.isBefore(cutoff)) {
+                LocalDateTime end = oldest.plus(slice).isBefore(cutoff) ? oldest.plus(slice) : cutoff;
+                Integer deleted = shardRouter.onShard(shard, () -> transactionTemplate.execute(
+                        status -> clickRollupRepository.deleteBucketsBefore(granularity, end)));
+                total += deleted != null ? deleted : 0;
+                oldest = end;
+            }
+        }
+        deletedBuckets.increment(total);
+        return total;
+    }
+
+    /**
+     * One rollup row: short URL, granularity and bucket start
+     */
+    private static final class Bucket implements Comparable<Bucket> {
+
+        private static final Comparator<Bucket> ORDER = Comparator.<Bucket, String>comparing(bucket -> bucket.shortUrl)
+                .thenComparing(bucket -> bucket.granularity)
+                .thenComparing(bucket -> bucket.start);
+
+        final String shortUrl;
+        final Granularity granularity;
+        final LocalDateTime start;
+
+        Bucket(String shortUrl, Granularity granularity, LocalDateTime start) {
+            this.shortUrl = shortUrl;
+            this.granularity = granularity;
+            this.start = start;
+        }
+
+        @Override
+        public int compareTo(Bucket other) {
+            return ORDER.compare(this, other);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Bucket bucket = (Bucket) o;
+            return shortUrl.equals(bucket.shortUrl) && granularity == bucket.granularity && start.equals(bucket.start);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(shortUrl, granularity, start);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Scheduled reaper for expired URL mappings
+ *
+ * Deletes expired rows in bounded chunks, oldest expiry first, each chunk
+ * in its own short transaction with a pause in between, so locks are held
+ * briefly and no single transaction grows with the backlog. Shards are
+ * reaped one after another. Deleted short URLs are evicted from the
+ * caches and marked in the negative cache. The scheduled run fires on
+ * every instance, so it takes a lease in the global_counter table and
+ * only the instance that claims it reaps.
+ */
+@Component
+public class ExpiredUrlReaper {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredUrlReaper.class);
+    private static final String REAPED_AT = "reaped.at";
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    @Autowired
+    private RedirectIndex redirectIndex;
+
+    @Autowired
+    private GlobalCounters globalCounters;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.cleanup.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${app.cleanup.pause-ms:100}")
+    private long pauseMillis = 100;
+
+    @Value("${app.cleanup.max-chunks-per-run:10000}")
+    private int maxChunksPerRun = 10000;
+
+    @Value("${app.cleanup.lease-ms:3600000}")
+    private long leaseMillis = 3600000;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter deletedRows;
+    private Timer runTimer;
+    private final AtomicLong lastRunRowsPerSecond = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        deletedRows = meterRegistry.counter("url.reaper.deleted");
+        runTimer = meterRegistry.timer("url.reaper.run");
+        Gauge.builder("url.reaper.rows.per.second", lastRunRowsPerSecond, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("url.reaper.lag", lagSeconds, AtomicLong::get)
+                .baseUnit("seconds")
+                .description("Age of the oldest expired URL not yet deleted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Delete expired URL mappings on the configured schedule
+     */
+    @Scheduled(cron = "${app.cleanup.expired-urls-cron}")
+    public void scheduledReap() {
+        if (!globalCounters.claimLease(REAPED_AT, leaseMillis)) {
+            logger.debug("Expired URLs were cleaned up recently by another instance");
+            return;
+        }
+        logger.info("Running scheduled cleanup of expired URLs");
+        reap();
+    }
+
+    /**
+     * Delete all URL mappings that have expired, chunk by chunk
+     *
+     * Joins the caller's transaction if there is one; otherwise every
+     * chunk commits on its own.
+     *
+     * @return the number of mappings deleted
+     */
+    public synchronized int reap() {
+        long start = System.nanoTime();
+        LocalDateTime cutoff = LocalDateTime.now();
+        int total = 0;
+
+        try {
+            for (String shard : shardRouter.getShardNames()) {
+                for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                    Integer deleted = shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> deleteChunk(cutoff)));
+                    total += deleted != null ? deleted : 0;
+                    if (deleted == null || deleted < chunkSize) {
+                        break;
+                    }
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Expired URL cleanup interrupted after {} rows", total);
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            runTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            lastRunRowsPerSecond.set(elapsedNanos > 0 ? total * TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0);
+            updateLag();
+        }
+
+        logger.info("Cleaned up {} expired URLs", total);
+        return total;
+    }
+
+    private int deleteChunk(LocalDateTime cutoff) {
+        List<UrlMapping> expired = urlMappingRepository.findOldestExpiredUrls(cutoff, PageRequest.of(0, chunkSize));
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> ids = new ArrayList<>(expired.size());
+        for (UrlMapping mapping : expired) {
+            ids.add(mapping.getId());
+        }
+        int deleted = urlMappingRepository.deleteExpiredUrlsByIds(ids, cutoff);
+        deletedRows.increment(deleted);
+        if (deleted == expired.size()) {
+            // Otherwise another instance reaped some of them, reconciliation fixes the counts
+            expired.forEach(globalCounters::recordReaped);
+        }
+
+        Cache urlMappings = cacheManager.getCache("urlMappings");
+        Cache urlStats = cacheManager.getCache("urlStats");
+        for (UrlMapping mapping : expired) {
+            if (urlMappings != null) {
+                urlMappings.evict(mapping.getShortUrl());
+            }
+            if (urlStats != null) {
+                urlStats.evict(mapping.getShortUrl());
+            }
+            shortUrlFilter.recordDeleted(mapping.getShortUrl());
+            redirectIndex.recordDeleted(mapping.getShortUrl());
+        }
+        return deleted;
+    }
+
+    private void updateLag() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime oldest = shardRouter.onEachShard(shard -> urlMappingRepository.findOldestExpiry(now)).values().stream()
+                    .filter(Objects::nonNull)
+                    .min(LocalDateTime::compareTo)
+                    .orElse(null);
+            lagSeconds.set(oldest != null ? Duration.between(oldest, now).getSeconds() : 0L);
+        } catch (Exception e) {
+            logger.warn("Failed to measure expired URL cleanup lag", e);
+        }
+    }
+}
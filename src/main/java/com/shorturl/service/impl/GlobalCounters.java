@@ -0,0 +1,511 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.entity.GlobalCounter;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.GlobalCounterRepository;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained totals for the system statistics
+ *
+ * Created, deleted and reaped URLs and flushed clicks are counted in
+ * memory and added to the global_counter table at every checkpoint, one
+ * UPDATE per counter, so the statistics never aggregate url_mapping.
+ * Every instance adds its own deltas; reads return the totals loaded at
+ * this instance's last checkpoint plus its deltas since. The table lives
+ * on the default shard.
+ *
+ * Writes that bypass the service, a counted write whose transaction later
+ * rolls back, or a crash between checkpoints make the totals drift. A
+ * scheduled reconciliation on one instance recounts url_mapping and
+ * corrects them. Other instances may hold deltas for writes made before
+ * the recount that they have not checkpointed yet, so the recount is
+ * fenced: the reconciler announces a fence time app.counters.reconcile-fence-ms
+ * ahead, which every instance learns at its next checkpoint, recounts at
+ * the fence, and waits as long again so every instance has checkpointed
+ * its earlier writes. Instances also add the deltas they count after the
+ * fence to separate fenced rows, in the same transaction as the totals,
+ * and the reconciler subtracts those from the stored totals to get the
+ * totals at the fence. An instance whose checkpoints fail across the
+ * fence, or whose clock is off by more than the fence lead, can still
+ * skew one correction by its own writes. When the counter rows are
+ * missing at startup, as on the first start against an existing
+ * url_mapping table, the instance that claims the reconciliation seeds
+ * them right away without a fence, since no instance has checkpointed.
+ */
+@Component
+public class GlobalCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalCounters.class);
+    private static final String CREATED = "urls.created";
+    private static final String DELETED = "urls.deleted";
+    private static final String REAPED = "urls.reaped";
+    private static final String ADJUSTED = "urls.adjusted";
+    private static final String CLICKS = "clicks";
+    private static final String CREATED_ON_PREFIX = "urls.created.";
+    private static final String RECONCILED_AT = "reconciled.at";
+    private static final String RECONCILE_FENCE = "reconcile.fence";
+    private static final String FENCED_PREFIX = "fenced.";
+
+    @Autowired
+    private GlobalCounterRepository globalCounterRepository;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.counters.reconcile-lease-ms:600000}")
+    private long reconcileLeaseMillis = 600000;
+
+    @Value("${app.counters.reconcile-fence-ms:10000}")
+    private long reconcileFenceMillis = 10000;
+
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+    private final Set<String> knownRows = ConcurrentHashMap.newKeySet();
+    private final Object reconcileLock = new Object();
+    private final AtomicLong urlsDrift = new AtomicLong();
+    private final AtomicLong clicksDrift = new AtomicLong();
+    private final AtomicLong createdTodayDrift = new AtomicLong();
+    private volatile Totals totals = Totals.EMPTY;
+    private volatile long fence;
+
+    private TransactionTemplate requiresNewTransaction;
+    private Counter checkpointFailures;
+
+    @PostConstruct
+    public void init() {
+        requiresNewTransaction = new TransactionTemplate(transactionManager);
+        requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        checkpointFailures = meterRegistry.counter("url.counters.checkpoint.failures");
+        Gauge.builder("url.counters.drift", urlsDrift, AtomicLong::get)
+                .tag("counter", "urls")
+                .description("Correction applied by the last reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("url.counters.drift", clicksDrift, AtomicLong::get)
+                .tag("counter", "clicks")
+                .description("Correction applied by the last reconciliation")
+                .register(meterRegistry);
+        Gauge.builder("url.counters.drift", createdTodayDrift, AtomicLong::get)
+                .tag("counter", "urls.created.today")
+                .description("Correction applied by the last reconciliation")
+                .register(meterRegistry);
+
+        try {
+            load(shardRouter.onShard(shardRouter.getDefaultShard(),
+                    () -> requiresNewTransaction.execute(status -> loadStored())));
+        } catch (Exception e) {
+            logger.warn("Failed to load global counters, they are loaded again at the next checkpoint", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    /**
+     * Count a URL mapping that was inserted, with the clicks it was imported with
+     */
+    public void recordCreated(UrlMapping urlMapping) {
+        count(CREATED, 1);
+        count(CLICKS, clicksOf(urlMapping));
+        countCreatedToday(urlMapping, 1);
+    }
+
+    /**
+     * Count a URL mapping that was deleted through the service
+     */
+    public void recordDeleted(UrlMapping urlMapping) {
+        count(DELETED, 1);
+        count(CLICKS, -clicksOf(urlMapping));
+        countCreatedToday(urlMapping, -1);
+    }
+
+    /**
+     * Count an expired URL mapping that was reaped
+     */
+    public void recordReaped(UrlMapping urlMapping) {
+        count(REAPED, 1);
+        count(CLICKS, -clicksOf(urlMapping));
+        countCreatedToday(urlMapping, -1);
+    }
+
+    /**
+     * Count clicks written to the database
+     */
+    public void recordClicks(long clicks) {
+        count(CLICKS, clicks);
+    }
+
+    /**
+     * Get the current totals
+     *
+     * @return total URLs, total clicks and URLs created today
+     */
+    public long[] getTotals() {
+        return totalsOn(LocalDate.now());
+    }
+
+    /**
+     * Add the pending deltas to the counters table and reload the totals
+     */
+    @Scheduled(fixedDelayString = "${app.counters.checkpoint-interval-ms:5000}",
+               initialDelayString = "${app.counters.checkpoint-interval-ms:5000}")
+    public synchronized void checkpoint() {
+        Map<String, Long> deltas = drainPending();
+        Totals previous = totals;
+        // Drained deltas stay readable until the reloaded totals include them
+        totals = new Totals(previous.stored, deltas);
+
+        try {
+            Map<String, Long> stored = shardRouter.onShard(shardRouter.getDefaultShard(), () -> {
+                ensureRows(deltas.keySet());
+                return requiresNewTransaction.execute(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+                        globalCounterRepository.addToTotal(delta.getKey(), delta.getValue(), now);
+                    }
+                    return loadStored();
+                });
+            });
+            load(stored);
+        } catch (Exception e) {
+            checkpointFailures.increment();
+            logger.error("Failed to checkpoint {} global counters, keeping them for the next checkpoint", deltas.size(), e);
+            deltas.forEach(this::add);
+            totals = new Totals(previous.stored, Collections.emptyMap());
+        }
+    }
+
+    /**
+     * Reconcile the counters on the configured schedule, on one instance at a time
+     */
+    @Scheduled(cron = "${app.counters.reconcile-cron:0 30 * * * ?}")
+    public void scheduledReconcile() {
+        if (!claimLease(RECONCILED_AT, reconcileLeaseMillis)) {
+            logger.debug("Global counters were reconciled recently by another instance");
+            return;
+        }
+        reconcile();
+    }
+
+    /**
+     * Reconcile counters that have no rows yet once the application has started,
+     * unless another instance is already doing so
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedOnStartup() {
+        if (totals.stored.containsKey(CREATED) && totals.stored.containsKey(CLICKS)) {
+            return;
+        }
+        try {
+            if (!claimLease(RECONCILED_AT, reconcileLeaseMillis)) {
+                logger.info("Global counters are missing and being seeded by another instance");
+                return;
+            }
+            reconcile(0);
+            // Keep the rows even when there was nothing to count, so the next start does not seed again
+            shardRouter.onShard(shardRouter.getDefaultShard(), () -> ensureRows(Arrays.asList(CREATED, CLICKS)));
+        } catch (Exception e) {
+            logger.warn("Failed to seed global counters, they are corrected at the next reconciliation", e);
+        }
+    }
+
+    /**
+     * Recount url_mapping on every shard at a fence and correct the counters by the difference
+     */
+    public void reconcile() {
+        reconcile(reconcileFenceMillis);
+    }
+
+    private void reconcile(long fenceLeadMillis) {
+        // Not the checkpoint monitor, so scheduled checkpoints go on while waiting for the fence
+        synchronized (reconcileLock) {
+            checkpoint();
+
+            long fenceAt = System.currentTimeMillis() + fenceLeadMillis;
+            setFence(fenceAt);
+            LocalDate today;
+            try {
+                sleepUntil(fenceAt);
+                today = LocalDate.now();
+                long[] actual = recount(today);
+                sleepUntil(fenceAt + fenceLeadMillis);
+                // Stored totals and fenced rows of this checkpoint are read together
+                checkpoint();
+                correct(actual, totals.stored, fenceAt, today);
+            } finally {
+                setFence(0);
+            }
+            checkpoint();
+            cleanUp(today, fenceAt);
+        }
+
+        logger.info("Reconciled global counters, corrected URLs by {}, clicks by {} and URLs created today by {}",
+                urlsDrift.get(), clicksDrift.get(), createdTodayDrift.get());
+    }
+
+    /**
+     * Delete the daily counters before yesterday and the fenced rows of this and earlier fences
+     */
+    private void cleanUp(LocalDate today, long fenceAt) {
+        String oldest = createdOn(today.minusDays(1));
+        String oldestFenced = fencedPrefix(fenceAt + 1);
+        shardRouter.onShard(shardRouter.getDefaultShard(), () -> requiresNewTransaction.execute(status -> {
+            globalCounterRepository.deleteByPrefixBefore(CREATED_ON_PREFIX, oldest);
+            return globalCounterRepository.deleteByPrefixBefore(FENCED_PREFIX, oldestFenced);
+        }));
+        knownRows.removeIf(name -> name.startsWith(CREATED_ON_PREFIX) && name.compareTo(oldest) < 0
+                || name.startsWith(FENCED_PREFIX));
+    }
+
+    /**
+     * Count url_mapping on every shard
+     *
+     * @return total URLs, total clicks and URLs created on the day
+     */
+    private long[] recount(LocalDate today) {
+        LocalDateTime from = today.atStartOfDay();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+        long[] actual = new long[3];
+        for (long[] counts : readReplicaRouter.onPrimary(() -> shardRouter.onEachShard(shard -> {
+            Long clicks = urlMappingRepository.getTotalClickCount();
+            return new long[]{urlMappingRepository.countTotalUrls(), clicks != null ? clicks : 0L,
+                    urlMappingRepository.countUrlsCreatedBetween(from, to)};
+        })).values()) {
+            for (int i = 0; i < actual.length; i++) {
+                actual[i] += counts[i];
+            }
+        }
+
+        return actual;
+    }
+
+    /**
+     * Correct the counters by the difference between a recount and the stored totals at its fence
+     *
+     * Deltas counted after the fence are in both the stored totals and the fenced rows, so
+     * subtracting the fenced rows leaves the totals at the fence.
+     */
+    private void correct(long[] actual, Map<String, Long> stored, long fenceAt, LocalDate today) {
+        Map<String, Long> atFence = new HashMap<>(stored);
+        String prefix = fencedPrefix(fenceAt);
+        for (Map.Entry<String, Long> row : stored.entrySet()) {
+            if (row.getKey().startsWith(prefix)) {
+                atFence.merge(row.getKey().substring(prefix.length()), -row.getValue(), Long::sum);
+            }
+        }
+        Totals counted = new Totals(atFence, Collections.emptyMap());
+        long urls = counted.get(CREATED) - counted.get(DELETED) - counted.get(REAPED) + counted.get(ADJUSTED);
+
+        urlsDrift.set(actual[0] - urls);
+        clicksDrift.set(actual[1] - counted.get(CLICKS));
+        createdTodayDrift.set(actual[2] - counted.get(createdOn(today)));
+        add(ADJUSTED, urlsDrift.get());
+        add(CLICKS, clicksDrift.get());
+        add(createdOn(today), createdTodayDrift.get());
+    }
+
+    /**
+     * Announce a recount fence to every instance, or withdraw it with 0
+     */
+    private void setFence(long fenceAt) {
+        fence = fenceAt;
+        shardRouter.onShard(shardRouter.getDefaultShard(), () -> {
+            ensureRows(Collections.singleton(RECONCILE_FENCE));
+            return requiresNewTransaction.execute(status -> globalCounterRepository.replaceTotalIfAtMost(
+                    RECONCILE_FENCE, fenceAt, Long.MAX_VALUE, LocalDateTime.now()));
+        });
+    }
+
+    private static void sleepUntil(long millis) {
+        long remaining = millis - System.currentTimeMillis();
+        if (remaining <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(remaining);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the recount fence", e);
+        }
+    }
+
+    private long[] totalsOn(LocalDate day) {
+        long urls = get(CREATED) - get(DELETED) - get(REAPED) + get(ADJUSTED);
+        return new long[]{urls, get(CLICKS), get(createdOn(day))};
+    }
+
+    private long get(String name) {
+        LongAdder adder = pending.get(name);
+        return totals.get(name) + (adder != null ? adder.sum() : 0L);
+    }
+
+    private void add(String name, long delta) {
+        if (delta != 0) {
+            pending.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+        }
+    }
+
+    /**
+     * Add a delta for a write, also to the fenced row if it happens after the recount fence
+     */
+    private void count(String name, long delta) {
+        add(name, delta);
+        long fenceAt = fence;
+        if (fenceAt != 0 && System.currentTimeMillis() >= fenceAt) {
+            add(fencedPrefix(fenceAt) + name, delta);
+        }
+    }
+
+    private void countCreatedToday(UrlMapping urlMapping, long delta) {
+        // Only today's count is served, so other days are left to reconciliation
+        LocalDate today = LocalDate.now();
+        if (urlMapping.getCreatedAt() != null && urlMapping.getCreatedAt().toLocalDate().equals(today)) {
+            count(createdOn(today), delta);
+        }
+    }
+
+    private void load(Map<String, Long> stored) {
+        totals = new Totals(stored, Collections.emptyMap());
+        fence = stored.getOrDefault(RECONCILE_FENCE, 0L);
+    }
+
+    private static long clicksOf(UrlMapping urlMapping) {
+        return urlMapping.getClickCount() != null ? urlMapping.getClickCount() : 0L;
+    }
+
+    private static String createdOn(LocalDate day) {
+        return CREATED_ON_PREFIX + day;
+    }
+
+    private static String fencedPrefix(long fenceAt) {
+        return FENCED_PREFIX + fenceAt + ".";
+    }
+
+    /**
+     * Take the pending deltas, sorted by name so concurrent checkpoints lock rows in the same order
+     */
+    private Map<String, Long> drainPending() {
+        Map<String, Long> deltas = new TreeMap<>();
+        for (Map.Entry<String, LongAdder> entry : pending.entrySet()) {
+            LongAdder adder = entry.getValue();
+            long delta = adder.sum();
+            if (delta != 0) {
+                adder.add(-delta);
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        return deltas;
+    }
+
+    private Map<String, Long> loadStored() {
+        Map<String, Long> stored = new HashMap<>();
+        for (GlobalCounter counter : globalCounterRepository.findAll()) {
+            stored.put(counter.getName(), counter.getTotal());
+        }
+        return stored;
+    }
+
+    /**
+     * Create missing counter rows, each in its own transaction
+     */
+    private void ensureRows(Collection<String> names) {
+        for (String name : names) {
+            if (knownRows.contains(name)) {
+                continue;
+            }
+            try {
+                requiresNewTransaction.execute(status -> {
+                    if (!globalCounterRepository.existsById(name)) {
+                        globalCounterRepository.saveAndFlush(new GlobalCounter(name, 0L));
+                    }
+                    return null;
+                });
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Global counter {} was created by another instance", name);
+            }
+            knownRows.add(name);
+        }
+    }
+
+    /**
+     * Move a lease row to the current time unless another instance did so within the lease
+     *
+     * @param name the counter row holding the time the lease was last claimed
+     * @param leaseMillis how long a claim keeps other instances out
+     * @return true if this instance claimed the lease
+     */
+    public boolean claimLease(String name, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        return shardRouter.onShard(shardRouter.getDefaultShard(), () -> {
+            ensureRows(Collections.singleton(name));
+            Integer claimed = requiresNewTransaction.execute(status -> globalCounterRepository.replaceTotalIfAtMost(
+                    name, now, now - leaseMillis, LocalDateTime.now()));
+            return claimed != null && claimed > 0;
+        });
+    }
+
+    /**
+     * Totals loaded from the counters table, plus deltas being written to it
+     */
+    private static final class Totals {
+
+        static final Totals EMPTY = new Totals(Collections.emptyMap(), Collections.emptyMap());
+
+        final Map<String, Long> stored;
+        final Map<String, Long> inFlight;
+
+        Totals(Map<String, Long> stored, Map<String, Long> inFlight) {
+            this.stored = stored;
+            this.inFlight = inFlight;
+        }
+
+        long get(String name) {
+            return stored.getOrDefault(name, 0L) + inFlight.getOrDefault(name, 0L);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.dto.UrlStatsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * HTTP status and caching headers of redirect and stats responses
+ *
+ * A redirect uses the link's own status, or app.redirect.status. Its
+ * Cache-Control lets browsers and the CDN keep it for
+ * app.redirect.max-age-seconds, but never past the link's expiry. A
+ * redirect served from a cache is not counted as a click, so the ceiling
+ * also bounds how long clicks can go uncounted. Stats are sent with an
+ * ETag over their content and with the time they were computed as
+ * Last-Modified, and caches must revalidate them.
+ */
+@Component
+public class HttpCachePolicy {
+
+    @Value("${app.redirect.status:301}")
+    private int defaultStatus = 301;
+
+    @Value("${app.redirect.max-age-seconds:300}")
+    private long maxAgeSeconds = 300;
+
+    private String maxAgeCacheControl;
+
+    @PostConstruct
+    public void init() {
+        if (!RedirectTarget.isSupportedStatus(defaultStatus)) {
+            throw new IllegalStateException("app.redirect.status must be 301, 302 or 307, got " + defaultStatus);
+        }
+        maxAgeCacheControl = cacheControl(maxAgeSeconds);
+    }
+
+    /**
+     * The status code to redirect with
+     */
+    public int redirectStatus(RedirectTarget target) {
+        Integer status = target.getRedirectStatus();
+        return status != null ? status : defaultStatus;
+    }
+
+    /**
+     * The Cache-Control value of a redirect
+     */
+    public String redirectCacheControl(RedirectTarget target) {
+        if (target.getExpiresAt() == null) {
+            return maxAgeCacheControl;
+        }
+        long remaining = Duration.between(LocalDateTime.now(), target.getExpiresAt()).getSeconds();
+        return remaining >= maxAgeSeconds ? maxAgeCacheControl : cacheControl(remaining);
+    }
+
+    /**
+     * A strong ETag over everything the stats response shows
+     */
+    public String statsETag(UrlStatsResponse stats) {
+        String content = stats.getShortUrl() + '\n' + stats.getLongUrl() + '\n' + stats.getClickCount() + '\n'
+                + stats.getCreatedAt() + '\n' + stats.getExpiresAt() + '\n' + stats.isExpired() + '\n'
+                + stats.getRedirectStatus();
+        return '"' + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + '"';
+    }
+
+    /**
+     * The Last-Modified time of a stats response
+     */
+    public ZonedDateTime statsLastModified(UrlStatsResponse stats) {
+        return stats.getComputedAt().atZone(ZoneId.systemDefault());
+    }
+
+    private static String cacheControl(long maxAge) {
+        return maxAge > 0 ? "public, max-age=" + maxAge : "no-store";
+    }
+}
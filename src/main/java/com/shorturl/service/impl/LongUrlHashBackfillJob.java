@@ -0,0 +1,139 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.util.UrlHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Backfills long_url_hash for rows created before the column existed
+ *
+ * Walks url_mapping on each shard in primary key order, one chunk per
+ * statement, so each chunk commits on its own and the job can be
+ * interrupted and resumed at any point. Rows without a hash are simply not found by the
+ * deduplication lookup until they are backfilled.
+ */
+@Component
+public class LongUrlHashBackfillJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(LongUrlHashBackfillJob.class);
+    private static final String SELECT_SQL =
+            "SELECT id, long_url FROM url_mapping WHERE long_url_hash IS NULL AND id > ? ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL =
+            "UPDATE url_mapping SET long_url_hash = ? WHERE id = ? AND long_url_hash IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.long-url-hash.backfill.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.long-url-hash.backfill.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${app.long-url-hash.backfill.pause-ms:50}")
+    private long pauseMillis = 50;
+
+    private ExecutorService backfillExecutor;
+    private Counter backfilledRows;
+
+    @PostConstruct
+    public void init() {
+        backfillExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "long-url-hash-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        backfilledRows = meterRegistry.counter("url.long.url.hash.backfilled");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    /**
+     * Start the backfill in the background once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (enabled) {
+            backfillExecutor.execute(this::backfill);
+        }
+    }
+
+    /**
+     * Hash every row that has no long_url_hash yet
+     *
+     * @return the number of rows backfilled
+     */
+    public long backfill() {
+        long total = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            total += shardRouter.onShard(shard, () -> backfillShard(shard));
+        }
+
+        if (total > 0) {
+            logger.info("Backfilled long URL hash for {} rows", total);
+        }
+        return total;
+    }
+
+    private long backfillShard(String shard) {
+        long total = 0;
+        long lastId = 0;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(SELECT_SQL, lastId, chunkSize);
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<Object[]> batch = new ArrayList<>(rows.size());
+                for (Map<String, Object> row : rows) {
+                    long id = ((Number) row.get("id")).longValue();
+                    batch.add(new Object[]{UrlHasher.hash((String) row.get("long_url")), id});
+                    lastId = id;
+                }
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+                total += batch.size();
+                backfilledRows.increment(batch.size());
+
+                if (rows.size() < chunkSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.error("Long URL hash backfill of shard {} stopped after id {}", shard, lastId, e);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,85 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.service.ShortCodeGenerator;
+import com.shorturl.util.Base62Encoder;
+import com.shorturl.util.FeistelPermutation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.OptionalLong;
+
+/**
+ * Short code generator that runs the allocated ID through a keyed permutation
+ *
+ * The ID is permuted over the 62^length domain and encoded to a fixed
+ * width, so codes are unique by construction but do not reveal the
+ * order in which they were created. IDs beyond the domain spill over
+ * into longer codes. The key shipped in application.yml is public, so
+ * startup fails if it is used outside the dev and test profiles.
+ */
+@Component
+@ConditionalOnProperty(name = "app.short-code.strategy", havingValue = "permuted", matchIfMissing = true)
+public class PermutedShortCodeGenerator implements ShortCodeGenerator {
+
+    private static final int MAX_SHORT_URL_LENGTH = 10;
+    private static final long DEFAULT_PERMUTATION_KEY = 7046029254386353131L;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${app.url.short-url-length:7}")
+    private int shortUrlLength = 7;
+
+    @Value("${app.short-code.permutation-key:0}")
+    private long permutationKey;
+
+    private FeistelPermutation[] permutations;
+
+    @PostConstruct
+    public void init() {
+        if (permutationKey == DEFAULT_PERMUTATION_KEY && !environment.acceptsProfiles(Profiles.of("dev", "test"))) {
+            throw new IllegalStateException("app.short-code.permutation-key is the default key from application.yml, "
+                    + "set SHORT_CODE_PERMUTATION_KEY outside the dev and test profiles");
+        }
+
+        permutations = new FeistelPermutation[MAX_SHORT_URL_LENGTH + 1];
+        long domain = 1;
+        for (int width = 1; width <= MAX_SHORT_URL_LENGTH; width++) {
+            domain *= 62;
+            if (width >= shortUrlLength) {
+                permutations[width] = new FeistelPermutation(permutationKey + width, domain);
+            }
+        }
+    }
+
+    @Override
+    public String generate(long id) {
+        for (int width = shortUrlLength; width <= MAX_SHORT_URL_LENGTH; width++) {
+            FeistelPermutation permutation = permutations[width];
+            if (id < permutation.getDomain()) {
+                return Base62Encoder.encode(permutation.permute(id), width);
+            }
+        }
+        throw new IllegalStateException("ID exceeds the short code space: " + id);
+    }
+
+    @Override
+    public OptionalLong decode(String shortUrl) {
+        int width = shortUrl.length();
+        if (width < shortUrlLength || width > MAX_SHORT_URL_LENGTH || !Base62Encoder.isValidBase62(shortUrl)) {
+            return OptionalLong.empty();
+        }
+
+        long id = permutations[width].inverse(Base62Encoder.decode(shortUrl));
+        // IDs that fit a shorter code are never encoded at this width
+        if (width > shortUrlLength && id < permutations[width - 1].getDomain()) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(id);
+    }
+}
@@ -0,0 +1,57 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.service.ShortCodeGenerator;
+import com.shorturl.util.Base62Encoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Short code generator that picks random codes and checks them against the database
+ *
+ * The allocated ID is not used, so codes from this strategy can only be
+ * looked up through the short_url index.
+ */
+@Component
+@ConditionalOnProperty(name = "app.short-code.strategy", havingValue = "random")
+public class RandomShortCodeGenerator implements ShortCodeGenerator {
+
+    private static final int MAX_RETRY_ATTEMPTS = 5;
+    private static final int SHORT_URL_LENGTH = 7;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Override
+    public String generate(long id) {
+        for (int attempt = 0; attempt < MAX_RETRY_ATTEMPTS; attempt++) {
+            String shortUrl = generateRandomShortUrl();
+            if (!urlMappingRepository.existsByShortUrl(shortUrl)) {
+                return shortUrl;
+            }
+        }
+        
+        // If we can't generate a unique URL after max attempts, use timestamp-based approach
+        long timestamp = System.currentTimeMillis();
+        String encoded = Base62Encoder.encode(timestamp);
+        String shortUrl = encoded.substring(0, Math.min(SHORT_URL_LENGTH, encoded.length()));
+        
+        // Ensure uniqueness by appending random characters if needed
+        while (urlMappingRepository.existsByShortUrl(shortUrl)) {
+            shortUrl = shortUrl + Base62Encoder.generateRandom(1);
+            if (shortUrl.length() > 10) {
+                shortUrl = shortUrl.substring(0, 10);
+            }
+        }
+        
+        return shortUrl;
+    }
+
+    /**
+     * Generate a random short URL
+     */
+    private String generateRandomShortUrl() {
+        return Base62Encoder.generateRandom(SHORT_URL_LENGTH);
+    }
+}
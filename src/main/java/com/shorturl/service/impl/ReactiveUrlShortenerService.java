@@ -0,0 +1,171 @@
+package com.shorturl.service.impl;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.ReactiveUrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.UrlShortenerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Non-blocking front of UrlShortenerService for the reactive runtime mode
+ *
+ * Redirect lookups never block an event loop thread: they go through the
+ * async view of the urlMappings cache, which the servlet mode's cache
+ * manager also uses, so evictions from deleteUrl, the cleanup job and
+ * other instances apply to both. Concurrent misses for one short URL
+ * share a single query. A miss takes the same steps as
+ * UrlShortenerServiceImpl.expandUrl, with the database read done over
+ * R2DBC. The off-heap redirect index can page in from disk, so it is
+ * read and written on the bounded scheduler. Shards and short URLs inside
+ * the read-your-writes window are resolved by the blocking service
+ * instead, which knows where to read. Misses do not read through the
+ * shared L2 cache; its Redis client would block the event loop.
+ *
+ * Everything else calls UrlShortenerService on a bounded scheduler, so a
+ * stalled database fills its queue rather than the event loops.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUrlShortenerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUrlShortenerService.class);
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private ReactiveUrlMappingRepository reactiveUrlMappingRepository;
+
+    @Autowired
+    private AsyncCache<Object, Object> urlMappingsCache;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    @Autowired
+    private RedirectIndex redirectIndex;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private UrlShortenerMetrics urlShortenerMetrics;
+
+    @Value("${app.reactive.blocking-threads:32}")
+    private int blockingThreads = 32;
+
+    @Value("${app.reactive.blocking-queue-size:10000}")
+    private int blockingQueueSize = 10000;
+
+    private Scheduler blockingScheduler;
+
+    @PostConstruct
+    public void init() {
+        blockingScheduler = Schedulers.newBoundedElastic(blockingThreads, blockingQueueSize, "blocking-db", 60, true);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        blockingScheduler.dispose();
+    }
+
+    /**
+     * Resolve a short URL to its redirect target
+     *
+     * @param shortUrl the short URL
+     * @return the target, or empty if the short URL is unknown or expired
+     */
+    public Mono<RedirectTarget> expandUrl(String shortUrl) {
+        long start = System.nanoTime();
+        CompletableFuture<Object> cached = urlMappingsCache.getIfPresent(shortUrl);
+        boolean cacheMiss = cached == null;
+        CompletableFuture<Object> shared = cacheMiss
+                ? urlMappingsCache.get(shortUrl, (key, executor) -> resolve(shortUrl).map(Object.class::cast).toFuture())
+                : cached;
+
+        // A dependent future, so a cancelled request does not cancel the lookup others wait for
+        return Mono.fromFuture(shared.thenApply(RedirectTarget.class::cast))
+                .doOnSuccess(target -> urlShortenerMetrics.recordLookup("redirect", cacheMiss, target != null,
+                        System.nanoTime() - start))
+                .doOnError(e -> urlShortenerMetrics.recordLookup("redirect", cacheMiss, false,
+                        System.nanoTime() - start));
+    }
+
+    /**
+     * Run a call to the blocking service off the event loop
+     *
+     * @param call the blocking call
+     * @return its result
+     */
+    public <T> Mono<T> offload(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(blockingScheduler);
+    }
+
+    private Mono<RedirectTarget> resolve(String shortUrl) {
+        logger.debug("Expanding short URL: {}", shortUrl);
+
+        if (!shortUrlFilter.mightExist(shortUrl)) {
+            logger.debug("Short URL rejected by filter: {}", shortUrl);
+            return Mono.empty();
+        }
+
+        return offload(() -> redirectIndex.lookup(shortUrl))
+                .flatMap(indexed -> indexed.isPresent() ? fromIndex(shortUrl, indexed.get()) : fromDatabase(shortUrl));
+    }
+
+    private Mono<RedirectTarget> fromIndex(String shortUrl, RedirectTarget target) {
+        if (target.getExpiresAt() != null && LocalDateTime.now().isAfter(target.getExpiresAt())) {
+            logger.warn("Short URL {} has expired", shortUrl);
+            shortUrlFilter.recordMiss(shortUrl);
+            return Mono.empty();
+        }
+        return Mono.just(target);
+    }
+
+    private Mono<RedirectTarget> fromDatabase(String shortUrl) {
+        if (shardRouter.isSharded() || readReplicaRouter.isRecentlyWritten(shortUrl)) {
+            return offload(() -> urlShortenerService.expandUrl(shortUrl)).flatMap(Mono::justOrEmpty);
+        }
+
+        return reactiveUrlMappingRepository.findByShortUrl(shortUrl)
+                .filter(mapping -> !mapping.isExpired())
+                .doOnNext(this::recordInIndex)
+                .map(mapping -> new RedirectTarget(mapping.getLongUrl(), mapping.getExpiresAt(), mapping.getRedirectStatus()))
+                .switchIfEmpty(Mono.fromRunnable(() -> {
+                    logger.warn("Short URL not found or expired: {}", shortUrl);
+                    shortUrlFilter.recordMiss(shortUrl);
+                }));
+    }
+
+    /**
+     * Add a mapping to the redirect index without holding up the redirect
+     */
+    private void recordInIndex(UrlMapping mapping) {
+        try {
+            blockingScheduler.schedule(() -> redirectIndex.record(mapping));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Blocking scheduler is full, not indexing short URL {}", mapping.getShortUrl());
+        }
+    }
+}
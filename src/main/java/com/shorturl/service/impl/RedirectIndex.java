@@ -0,0 +1,318 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.config.CacheInvalidatedEvent;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.util.MappedUrlTable;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Off-heap tier between the urlMappings cache and the database
+ *
+ * Keeps every short URL that was created, or resolved from the database,
+ * in a memory-mapped MappedUrlTable on local disk, so redirects for far
+ * more links than the heap cache holds skip the database without adding
+ * GC pressure. The table is updated on create and delete and reopened
+ * as it is after a restart. Like the caches it is local to the instance:
+ * deletes made on other nodes reach it through the cache invalidation
+ * channel when the shared L2 cache is enabled. Without it, and for
+ * deletes made while this instance was down, entries older than
+ * app.redirect-index.ttl-seconds count as a miss, so the link is checked
+ * against the database again and recorded anew if it still exists.
+ * Links with their own redirect status are not indexed, since the table
+ * has no room for it.
+ *
+ * Deletes leave tombstones that fill slots and changed targets leave dead
+ * records in the data file. Once the garbage passes
+ * app.redirect-index.compact-garbage-ratio the table is rewritten into a
+ * fresh one, at least as large as app.redirect-index.capacity. Between
+ * compactions the data file is bounded by the live records divided by
+ * one minus that ratio. Codes that come in while the table is full of
+ * live entries are refused and counted in url.redirect.index.rejected;
+ * they resolve from the database until the capacity is raised.
+ *
+ * Failures never fail a request; the index then behaves as a miss.
+ */
+@Component
+public class RedirectIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedirectIndex.class);
+    private static final long NO_EXPIRY = Long.MIN_VALUE;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.redirect-index.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${app.redirect-index.directory:data/redirect-index}")
+    private String directory = "data/redirect-index";
+
+    @Value("${app.redirect-index.capacity:1048576}")
+    private long capacity = 1048576;
+
+    @Value("${app.redirect-index.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+
+    @Value("${app.redirect-index.compact-garbage-ratio:0.5}")
+    private double compactGarbageRatio = 0.5;
+
+    @Value("${app.redirect-index.compact-min-bytes:67108864}")
+    private long compactMinBytes = 67108864;
+
+    private volatile MappedUrlTable table;
+    private Set<String> deletedDuringCompaction;
+    private Counter hits;
+    private Counter misses;
+    private Counter stale;
+    private Counter rejected;
+    private Counter compactions;
+
+    @PostConstruct
+    public void init() {
+        hits = meterRegistry.counter("url.redirect.index.lookups", "result", "hit");
+        misses = meterRegistry.counter("url.redirect.index.lookups", "result", "miss");
+        stale = meterRegistry.counter("url.redirect.index.lookups", "result", "stale");
+        rejected = meterRegistry.counter("url.redirect.index.rejected");
+        compactions = meterRegistry.counter("url.redirect.index.compactions");
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            table = MappedUrlTable.open(Paths.get(directory), capacity);
+            logger.info("Opened redirect index in {} with {} of {} slots used", directory, table.size(), table.capacity());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to open redirect index in {}, redirects go to the database", directory, e);
+            return;
+        }
+        Gauge.builder("url.redirect.index.size", this, index -> index.measure(MappedUrlTable::size))
+                .register(meterRegistry);
+        Gauge.builder("url.redirect.index.data", this, index -> index.measure(MappedUrlTable::dataBytes))
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        MappedUrlTable current = table;
+        table = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close redirect index", e);
+            }
+        }
+    }
+
+    /**
+     * Check whether the index is open
+     */
+    public boolean isEnabled() {
+        return table != null;
+    }
+
+    /**
+     * Look up the redirect target of a short URL
+     *
+     * @param shortUrl the short URL
+     * @return the target, possibly expired, or empty if the index does not know the short URL or
+     *         its entry is older than the TTL
+     */
+    public Optional<RedirectTarget> lookup(String shortUrl) {
+        MappedUrlTable current = table;
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        MappedUrlTable.Entry entry;
+        try {
+            entry = current.get(shortUrl);
+        } catch (RuntimeException e) {
+            logger.warn("Redirect index lookup failed for {}", shortUrl, e);
+            return Optional.empty();
+        }
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (System.currentTimeMillis() - entry.getRecordedAtMillis() > TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            stale.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(new RedirectTarget(entry.getLongUrl(), toDateTime(entry.getExpiresAtMillis())));
+    }
+
+    /**
+     * Add or replace the redirect target of a URL mapping
+     *
+     * @param mapping the URL mapping
+     */
+    public void record(UrlMapping mapping) {
+        MappedUrlTable current = table;
+        if (current == null || mapping.getRedirectStatus() != null) {
+            return;
+        }
+
+        try {
+            if (!current.put(mapping.getShortUrl(), mapping.getLongUrl(), toMillis(mapping.getExpiresAt()))) {
+                rejected.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to add {} to the redirect index", mapping.getShortUrl(), e);
+        }
+    }
+
+    /**
+     * Remove a short URL
+     *
+     * @param shortUrl the short URL
+     */
+    public synchronized void recordDeleted(String shortUrl) {
+        if (deletedDuringCompaction != null) {
+            deletedDuringCompaction.add(shortUrl);
+        }
+        MappedUrlTable current = table;
+        if (current == null) {
+            return;
+        }
+
+        try {
+            current.remove(shortUrl);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to remove {} from the redirect index", shortUrl, e);
+        }
+    }
+
+    /**
+     * Rewrite the table once tombstones or dead records pass the garbage ratio
+     */
+    @Scheduled(fixedDelayString = "${app.redirect-index.compact-check-ms:60000}")
+    public void compactIfNeeded() {
+        MappedUrlTable current = table;
+        if (current == null) {
+            return;
+        }
+        long used = current.used();
+        long deadSlots = used - current.size();
+        long dataBytes = current.dataBytes();
+        long deadBytes = dataBytes - current.liveBytes();
+        boolean slotsFilling = used >= current.capacity() * MappedUrlTable.MAX_LOAD / 2
+                && deadSlots > used * compactGarbageRatio;
+        boolean dataGrowing = dataBytes >= compactMinBytes && deadBytes > dataBytes * compactGarbageRatio;
+        if (slotsFilling || dataGrowing) {
+            compact();
+        }
+    }
+
+    /**
+     * Copy the live entries into a fresh table and swap it in
+     *
+     * Lookups and writes keep using the old table during the copy. Deletes
+     * made meanwhile are applied to the new table before it is swapped in;
+     * codes recorded meanwhile may be left out and are recorded again on
+     * their next database read.
+     */
+    public void compact() {
+        MappedUrlTable current;
+        synchronized (this) {
+            current = table;
+            if (current == null || deletedDuringCompaction != null) {
+                return;
+            }
+            deletedDuringCompaction = new HashSet<>();
+        }
+
+        Path target = Paths.get(directory);
+        Path staging = target.resolveSibling(target.getFileName() + ".compact");
+        MappedUrlTable compacted = null;
+        try {
+            MappedUrlTable.delete(staging);
+            compacted = MappedUrlTable.open(staging, Math.max(capacity, current.capacity()));
+            long refused = current.copyTo(compacted);
+            synchronized (this) {
+                if (table != current) {
+                    // Shut down meanwhile
+                    return;
+                }
+                for (String shortUrl : deletedDuringCompaction) {
+                    compacted.remove(shortUrl);
+                }
+                // Leave the index off if the files cannot be swapped
+                table = null;
+                current.close();
+                MappedUrlTable.move(staging, target);
+                table = compacted;
+            }
+            compactions.increment();
+            logger.info("Compacted redirect index in {} to {} entries, {} refused", directory,
+                    compacted.size(), refused);
+            compacted = null;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to compact redirect index in {}", directory, e);
+        } finally {
+            synchronized (this) {
+                deletedDuringCompaction = null;
+            }
+            if (compacted != null) {
+                try {
+                    compacted.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close unused redirect index", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Follow a urlMappings eviction made on another instance
+     */
+    @EventListener
+    public void onCacheInvalidated(CacheInvalidatedEvent event) {
+        if (!"urlMappings".equals(event.getCacheName()) || event.getKey() == null) {
+            return;
+        }
+        recordDeleted(event.getKey());
+    }
+
+    private double measure(ToLongFunction<MappedUrlTable> metric) {
+        MappedUrlTable current = table;
+        return current != null ? metric.applyAsLong(current) : 0;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_EXPIRY;
+    }
+
+    private static LocalDateTime toDateTime(long millis) {
+        if (millis == NO_EXPIRY) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L),
+                (int) Math.floorMod(millis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+}
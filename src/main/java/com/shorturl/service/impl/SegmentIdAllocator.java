@@ -0,0 +1,231 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.entity.IdSegment;
+import com.shorturl.repository.IdSegmentRepository;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Segment based numeric ID allocator
+ *
+ * Leases blocks of IDs from the id_segment table and hands them out from
+ * memory, so generating an ID does not cost a database round trip. The
+ * next block is leased in the background once the current block runs low.
+ * The id_segment table lives on the default shard, and IDs are unique
+ * across all shards.
+ */
+@Component
+public class SegmentIdAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentIdAllocator.class);
+    private static final long PREFETCH_TIMEOUT_SECONDS = 5;
+
+    @Autowired
+    private IdSegmentRepository idSegmentRepository;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.short-code.segment.biz-tag:url_mapping}")
+    private String bizTag = "url_mapping";
+
+    @Value("${app.short-code.segment.step:10000}")
+    private int step = 10000;
+
+    @Value("${app.short-code.segment.prefetch-ratio:0.2}")
+    private double prefetchRatio = 0.2;
+
+    @Value("${app.short-code.segment.initial-id:0}")
+    private long initialId;
+
+    private TransactionTemplate requiresNewTransaction;
+    private ExecutorService prefetchExecutor;
+    private volatile Segment current = Segment.EMPTY;
+    private volatile Future<Segment> nextSegment;
+    private volatile boolean segmentRowChecked;
+
+    @PostConstruct
+    public void init() {
+        requiresNewTransaction = new TransactionTemplate(transactionManager);
+        requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "id-segment-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Get the next unique ID
+     *
+     * @return a unique, positive ID
+     */
+    public long nextId() {
+        while (true) {
+            Segment segment = current;
+            long id = segment.cursor.getAndIncrement();
+            if (id <= segment.end) {
+                if (segment.end - id < segment.prefetchThreshold && segment.prefetchTriggered.compareAndSet(false, true)) {
+                    nextSegment = prefetchExecutor.submit(this::leaseSegment);
+                }
+                return id;
+            }
+            switchSegment(segment);
+        }
+    }
+
+    /**
+     * Get several unique IDs at once
+     *
+     * @param count the number of IDs
+     * @return unique, positive IDs
+     */
+    public long[] nextIds(int count) {
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = nextId();
+        }
+        return ids;
+    }
+
+    /**
+     * Find the highest ID any node may hand out before the next lease
+     *
+     * @return the end of the last leased segment plus one more step, or 0 before the first lease
+     */
+    public long findIdCeiling() {
+        return shardRouter.onShard(shardRouter.getDefaultShard(), () -> readReplicaRouter.onPrimary(
+                () -> idSegmentRepository.findById(bizTag)
+                        .map(segment -> segment.getMaxId() + segment.getStep())
+                        .orElse(0L)));
+    }
+
+    /**
+     * Replace an exhausted segment with the prefetched one, or lease one synchronously
+     */
+    private synchronized void switchSegment(Segment exhausted) {
+        if (current != exhausted) {
+            return;
+        }
+
+        Segment next = null;
+        Future<Segment> pending = nextSegment;
+        nextSegment = null;
+        if (pending != null) {
+            try {
+                next = pending.get(PREFETCH_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for ID segment", e);
+            } catch (Exception e) {
+                logger.warn("Prefetching ID segment for {} failed, leasing synchronously", bizTag, e);
+            }
+        }
+
+        current = next != null ? next : leaseSegment();
+    }
+
+    /**
+     * Lease the next block of IDs from the database in its own transaction
+     */
+    private Segment leaseSegment() {
+        ensureSegmentRow();
+
+        Long maxId = shardRouter.onShard(shardRouter.getDefaultShard(), () -> requiresNewTransaction.execute(status -> {
+            int updated = idSegmentRepository.advanceMaxId(bizTag, step, LocalDateTime.now());
+            if (updated == 0) {
+                throw new IllegalStateException("ID segment row missing for biz tag: " + bizTag);
+            }
+            return idSegmentRepository.findById(bizTag)
+                    .map(IdSegment::getMaxId)
+                    .orElseThrow(() -> new IllegalStateException("ID segment row missing for biz tag: " + bizTag));
+        }));
+
+        Segment segment = new Segment(maxId - step + 1, maxId, (long) (step * prefetchRatio));
+        logger.info("Leased ID segment [{}, {}] for {}", maxId - step + 1, maxId, bizTag);
+        return segment;
+    }
+
+    /**
+     * Create the segment row for the business tag on first use
+     *
+     * The row starts above any ID already present in url_mapping on any
+     * shard, so tables populated before segment allocation keep working.
+     */
+    private void ensureSegmentRow() {
+        if (segmentRowChecked) {
+            return;
+        }
+
+        try {
+            long maxId = readReplicaRouter.onPrimary(() -> shardRouter.onEachShard(shard -> urlMappingRepository.findMaxId()))
+                    .values().stream()
+                    .mapToLong(Long::longValue)
+                    .max()
+                    .orElse(0L);
+            shardRouter.onShard(shardRouter.getDefaultShard(), () -> requiresNewTransaction.execute(status -> {
+                if (!idSegmentRepository.existsById(bizTag)) {
+                    long floor = Math.max(initialId, maxId);
+                    idSegmentRepository.saveAndFlush(new IdSegment(bizTag, floor, step));
+                }
+                return null;
+            }));
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("ID segment row for {} was created by another node", bizTag);
+        }
+        segmentRowChecked = true;
+    }
+
+    /**
+     * A leased block of IDs, handed out through an atomic cursor
+     */
+    private static final class Segment {
+
+        static final Segment EMPTY = new Segment(1, 0, 0);
+
+        final AtomicLong cursor;
+        final long end;
+        final long prefetchThreshold;
+        final AtomicBoolean prefetchTriggered = new AtomicBoolean();
+
+        Segment(long start, long end, long prefetchThreshold) {
+            this.cursor = new AtomicLong(start);
+            this.end = end;
+            this.prefetchThreshold = prefetchThreshold;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.service.ShortCodeGenerator;
+import com.shorturl.util.Base62Encoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+
+/**
+ * Short code generator that encodes the allocated ID as is
+ *
+ * Every ID is handed out once, so the generated codes are unique by
+ * construction and no existence check against the database is needed.
+ * The codes are sequential and therefore easy to guess.
+ */
+@Component
+@ConditionalOnProperty(name = "app.short-code.strategy", havingValue = "segment")
+public class SegmentShortCodeGenerator implements ShortCodeGenerator {
+
+    private static final int MAX_SHORT_URL_LENGTH = 10;
+
+    @Value("${app.url.short-url-length:7}")
+    private int shortUrlLength = 7;
+
+    @Override
+    public String generate(long id) {
+        return Base62Encoder.encode(id, shortUrlLength);
+    }
+
+    @Override
+    public OptionalLong decode(String shortUrl) {
+        int width = shortUrl.length();
+        if (width < shortUrlLength || width > MAX_SHORT_URL_LENGTH || !Base62Encoder.isValidBase62(shortUrl)) {
+            return OptionalLong.empty();
+        }
+
+        // Only the padded canonical form is generated by this strategy
+        if (width > shortUrlLength && shortUrl.charAt(0) == '0') {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(Base62Encoder.decode(shortUrl));
+    }
+}
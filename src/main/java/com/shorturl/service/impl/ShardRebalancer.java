@@ -0,0 +1,235 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Moves URL mappings to the shard that owns them after shards were added
+ *
+ * Walks every shard in primary key order, copies each row whose short URL
+ * now belongs to another shard and then deletes it from the source. The
+ * delete only goes through if the click count did not change since the
+ * copy; otherwise the difference is added to the copy and the delete is
+ * retried, so clicks flushed during the move are kept. Lookups fall back
+ * to the previous owner meanwhile, so the service stays online. Once a
+ * run has finished, app.sharding.rebalance.previous-shards can be removed.
+ */
+@Component
+public class ShardRebalancer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardRebalancer.class);
+    private static final int MAX_DELETE_ATTEMPTS = 5;
+    private static final String SELECT_SQL =
+            "SELECT id, short_url, long_url, long_url_hash, created_at, expires_at, click_count, redirect_status " +
+            "FROM url_mapping WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String INSERT_SQL =
+            "INSERT INTO url_mapping (id, short_url, long_url, long_url_hash, created_at, expires_at, click_count, " +
+            "redirect_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM url_mapping WHERE id = ? AND click_count = ?";
+    private static final String SELECT_CLICKS_SQL = "SELECT click_count FROM url_mapping WHERE id = ?";
+    private static final String ADD_CLICKS_SQL = "UPDATE url_mapping SET click_count = click_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.sharding.rebalance.chunk-size:500}")
+    private int chunkSize = 500;
+
+    @Value("${app.sharding.rebalance.pause-ms:50}")
+    private long pauseMillis = 50;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong scannedRows = new AtomicLong();
+    private final AtomicLong movedRows = new AtomicLong();
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private ExecutorService rebalanceExecutor;
+    private Counter movedCounter;
+
+    @PostConstruct
+    public void init() {
+        rebalanceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-rebalance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        movedCounter = meterRegistry.counter("url.shard.rebalance.moved");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebalanceExecutor.shutdownNow();
+    }
+
+    /**
+     * Start a rebalance in the background
+     *
+     * @return false if one is already running
+     */
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        rebalanceExecutor.execute(this::moveAll);
+        return true;
+    }
+
+    /**
+     * Move every misplaced URL mapping to its owner, waiting for the result
+     *
+     * @return the number of mappings moved
+     * @throws IllegalStateException if a rebalance is already running
+     */
+    public long rebalance() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("A shard rebalance is already running");
+        }
+        return moveAll();
+    }
+
+    /**
+     * Get row counts per shard and the progress of the current or last rebalance
+     */
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("shards", shardRouter.onEachShard(shard -> urlMappingRepository.countTotalUrls()));
+        status.put("rebalancing", shardRouter.isRebalancing());
+        status.put("running", running.get());
+        status.put("scannedRows", scannedRows.get());
+        status.put("movedRows", movedRows.get());
+        status.put("startedAt", startedAt);
+        status.put("finishedAt", finishedAt);
+        status.put("error", lastError);
+        return status;
+    }
+
+    private long moveAll() {
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        scannedRows.set(0);
+        movedRows.set(0);
+        logger.info("Rebalancing URL mappings across shards {}", shardRouter.getShardNames());
+
+        try {
+            for (String shard : shardRouter.getShardNames()) {
+                moveMisplaced(shard);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            lastError = "Interrupted";
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.error("Shard rebalance failed after moving {} rows", movedRows.get(), e);
+        } finally {
+            finishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+
+        logger.info("Shard rebalance scanned {} rows and moved {}", scannedRows.get(), movedRows.get());
+        return movedRows.get();
+    }
+
+    private void moveMisplaced(String source) throws InterruptedException {
+        long lastId = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long afterId = lastId;
+            List<Map<String, Object>> rows = shardRouter.onShard(source,
+                    () -> jdbcTemplate.queryForList(SELECT_SQL, afterId, chunkSize));
+            for (Map<String, Object> row : rows) {
+                lastId = ((Number) row.get("id")).longValue();
+                scannedRows.incrementAndGet();
+                String owner = shardRouter.shardFor((String) row.get("short_url"));
+                if (!owner.equals(source)) {
+                    moveRow(row, source, owner);
+                }
+            }
+
+            if (rows.size() < chunkSize) {
+                return;
+            }
+            Thread.sleep(pauseMillis);
+        }
+    }
+
+    private void moveRow(Map<String, Object> row, String source, String owner) {
+        long id = ((Number) row.get("id")).longValue();
+        if (!copyRow(row, owner)) {
+            return;
+        }
+
+        long copiedClicks = ((Number) row.get("click_count")).longValue();
+        for (int attempt = 0; attempt < MAX_DELETE_ATTEMPTS; attempt++) {
+            long clicks = copiedClicks;
+            int deleted = shardRouter.onShard(source, () -> jdbcTemplate.update(DELETE_SQL, id, clicks));
+            if (deleted == 1) {
+                movedRows.incrementAndGet();
+                movedCounter.increment();
+                return;
+            }
+
+            // Clicks were flushed to the source since the copy, or the row was deleted
+            List<Long> current = shardRouter.onShard(source,
+                    () -> jdbcTemplate.queryForList(SELECT_CLICKS_SQL, Long.class, id));
+            if (current.isEmpty()) {
+                return;
+            }
+            long delta = current.get(0) - clicks;
+            shardRouter.onShard(owner, () -> jdbcTemplate.update(ADD_CLICKS_SQL, delta, id));
+            copiedClicks = current.get(0);
+        }
+        logger.warn("Gave up moving URL mapping {} from shard {} to {}, clicks keep changing", id, source, owner);
+    }
+
+    /**
+     * Copy a row to its owner, accepting a copy left by an interrupted run
+     */
+    private boolean copyRow(Map<String, Object> row, String owner) {
+        long id = ((Number) row.get("id")).longValue();
+        try {
+            shardRouter.onShard(owner, () -> jdbcTemplate.update(INSERT_SQL, id, row.get("short_url"),
+                    row.get("long_url"), row.get("long_url_hash"), row.get("created_at"), row.get("expires_at"),
+                    row.get("click_count"), row.get("redirect_status")));
+            return true;
+        } catch (DuplicateKeyException e) {
+            List<Long> existing = shardRouter.onShard(owner,
+                    () -> jdbcTemplate.queryForList(SELECT_CLICKS_SQL, Long.class, id));
+            if (!existing.isEmpty()) {
+                return true;
+            }
+            logger.warn("Short URL {} of URL mapping {} already exists on shard {}, leaving it in place",
+                    row.get("short_url"), id, owner);
+            return false;
+        }
+    }
+}
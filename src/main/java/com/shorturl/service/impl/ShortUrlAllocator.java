@@ -0,0 +1,105 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.ShortCodeGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Assigns IDs and generated short URLs to new URL mappings
+ *
+ * A generated code can already be taken by a custom alias or an imported
+ * short URL that happens to decode to the same ID. The Bloom filter rules
+ * this out for almost every code; the rare possible hit is checked
+ * against the database and the ID is skipped if the code is taken.
+ */
+@Component
+public class ShortUrlAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShortUrlAllocator.class);
+    private static final int MAX_SKIPPED_IDS = 100;
+
+    @Autowired
+    private SegmentIdAllocator segmentIdAllocator;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter skippedIds;
+
+    @PostConstruct
+    public void init() {
+        skippedIds = meterRegistry.counter("url.short.code.collisions");
+    }
+
+    /**
+     * Assign an ID, and a generated short URL if it has none, to a new mapping
+     *
+     * @param urlMapping the new mapping
+     */
+    public void assign(UrlMapping urlMapping) {
+        assignAll(Collections.singletonList(urlMapping));
+    }
+
+    /**
+     * Assign IDs, and generated short URLs where missing, to new mappings
+     *
+     * @param urlMappings the new mappings
+     */
+    public void assignAll(List<UrlMapping> urlMappings) {
+        long[] ids = segmentIdAllocator.nextIds(urlMappings.size());
+        for (int i = 0; i < urlMappings.size(); i++) {
+            UrlMapping urlMapping = urlMappings.get(i);
+            urlMapping.setId(ids[i]);
+            if (urlMapping.getShortUrl() == null) {
+                assignGeneratedShortUrl(urlMapping);
+            }
+        }
+    }
+
+    private void assignGeneratedShortUrl(UrlMapping urlMapping) {
+        for (int attempt = 0; attempt < MAX_SKIPPED_IDS; attempt++) {
+            String shortUrl = shortCodeGenerator.generate(urlMapping.getId());
+            if (!shortUrlFilter.mightContain(shortUrl) || !isTaken(shortUrl)) {
+                urlMapping.setShortUrl(shortUrl);
+                return;
+            }
+
+            logger.warn("Generated short URL {} is already taken, skipping ID {}", shortUrl, urlMapping.getId());
+            skippedIds.increment();
+            urlMapping.setId(segmentIdAllocator.nextId());
+        }
+        throw new IllegalStateException("Unable to generate a free short URL after " + MAX_SKIPPED_IDS + " attempts");
+    }
+
+    private boolean isTaken(String shortUrl) {
+        for (String shard : shardRouter.candidateShards(shortUrl)) {
+            if (shardRouter.onShard(shard, () -> urlMappingRepository.existsByShortUrl(shortUrl))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,385 @@
+package com.shorturl.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.ShortCodeGenerator;
+import com.shorturl.util.Base62Encoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.OptionalLong;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Filter that rejects short URLs which cannot exist without querying the database
+ *
+ * Combines a Bloom filter of all existing short URLs with a short-lived
+ * negative cache of recent misses. The Bloom filter is built at startup,
+ * updated on create, topped up periodically with short URLs created on
+ * other nodes and rebuilt from scratch to drop deleted ones. Rebuilds
+ * read url_mapping in pages keyed by ID, so no query holds a cursor over
+ * the whole table. The top-up
+ * picks up rows above the highest ID seen so far as well as rows with a
+ * recent creation time, so imported rows that keep an old created_at
+ * are found too.
+ *
+ * Codes created on another node are not in this node's filter until the
+ * next refresh. A generated code that decodes to an ID above the highest
+ * one loaded, but within the leased ID range, may be one of them: it is
+ * passed on to the database, and a miss for it is not cached. A code the
+ * generator cannot have issued so far may be a custom alias created on
+ * another node; unless the negative cache knows it, it is passed on to the
+ * database too, and its miss is cached. Such codes therefore cost one
+ * lookup per negative cache TTL until a refresh loads them. Codes found
+ * by a refresh are also dropped from the negative cache and read from the
+ * primary for the read-your-writes window, in case a replica lags.
+ */
+@Component
+public class ShortUrlFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShortUrlFilter.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private SegmentIdAllocator segmentIdAllocator;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.bloom-filter.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.bloom-filter.expected-insertions:10000000}")
+    private long expectedInsertions = 10000000L;
+
+    @Value("${app.bloom-filter.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${app.bloom-filter.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Value("${app.bloom-filter.rebuild-page-size:10000}")
+    private int rebuildPageSize = 10000;
+
+    @Value("${app.url.max-custom-alias-length:10}")
+    private int maxCustomAliasLength = 10;
+
+    @Value("${app.bloom-filter.refresh-lookback-seconds:60}")
+    private long refreshLookbackSeconds = 60;
+
+    @Value("${app.negative-cache.ttl-seconds:60}")
+    private long negativeCacheTtlSeconds = 60;
+
+    @Value("${app.negative-cache.maximum-size:100000}")
+    private long negativeCacheMaximumSize = 100000;
+
+    private volatile BloomFilter<CharSequence> bloomFilter;
+    private volatile BloomFilter<CharSequence> building;
+    private volatile LocalDateTime lastRefresh;
+    private volatile long maxLoadedId;
+    private volatile long idCeiling;
+    private Cache<String, Boolean> negativeCache;
+    private ExecutorService buildExecutor;
+    private Counter rejectedByBloomFilter;
+    private Counter rejectedByNegativeCache;
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    public void init() {
+        negativeCache = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaximumSize)
+                .expireAfterWrite(negativeCacheTtlSeconds, TimeUnit.SECONDS)
+                .build();
+        buildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "short-url-filter-build");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        rejectedByBloomFilter = meterRegistry.counter("url.filter.rejected", "source", "bloom");
+        rejectedByNegativeCache = meterRegistry.counter("url.filter.rejected", "source", "negative-cache");
+        rebuildTimer = meterRegistry.timer("url.bloom.rebuild");
+        Gauge.builder("url.bloom.expected.fpp", this, filter -> filter.bloomFilter != null ? filter.bloomFilter.expectedFpp() : 0)
+                .register(meterRegistry);
+        Gauge.builder("url.bloom.elements", this, filter -> filter.bloomFilter != null ? filter.bloomFilter.approximateElementCount() : 0)
+                .register(meterRegistry);
+        Gauge.builder("url.bloom.memory", this, ShortUrlFilter::getMemoryBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("url.negative.cache.size", negativeCache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        buildExecutor.shutdownNow();
+    }
+
+    /**
+     * Build the Bloom filter in the background once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            buildExecutor.execute(this::rebuild);
+        }
+    }
+
+    /**
+     * Check whether a short URL might exist
+     *
+     * @param shortUrl the short URL
+     * @return false if the short URL definitely does not exist
+     */
+    public boolean mightExist(String shortUrl) {
+        if (negativeCache.getIfPresent(shortUrl) != null) {
+            rejectedByNegativeCache.increment();
+            return false;
+        }
+
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter == null || filter.mightContain(shortUrl) || mayBeCreatedElsewhere(shortUrl)
+                || mayBeAlias(shortUrl)) {
+            return true;
+        }
+        rejectedByBloomFilter.increment();
+        return false;
+    }
+
+    /**
+     * Check whether a short URL might exist, without counting a rejection, for
+     * tiers consulted before the lookup that does count it
+     *
+     * @param shortUrl the short URL
+     * @return false if the short URL definitely does not exist
+     */
+    public boolean mightExistUncounted(String shortUrl) {
+        if (negativeCache.getIfPresent(shortUrl) != null) {
+            return false;
+        }
+        BloomFilter<CharSequence> filter = bloomFilter;
+        return filter == null || filter.mightContain(shortUrl) || mayBeCreatedElsewhere(shortUrl)
+                || mayBeAlias(shortUrl);
+    }
+
+    /**
+     * Check whether a short URL might be taken, without counting it as a lookup
+     *
+     * @param shortUrl the short URL
+     * @return false if the short URL definitely does not exist
+     */
+    public boolean mightContain(String shortUrl) {
+        BloomFilter<CharSequence> filter = bloomFilter;
+        return filter == null || filter.mightContain(shortUrl);
+    }
+
+    /**
+     * Remember a short URL that was not found in the database
+     */
+    public void recordMiss(String shortUrl) {
+        // It may exist on the primary already, or be loaded by the next refresh
+        if (!mayBeCreatedElsewhere(shortUrl)) {
+            negativeCache.put(shortUrl, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Add a newly created short URL
+     */
+    public void recordCreated(String shortUrl) {
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (filter != null) {
+            filter.put(shortUrl);
+        }
+        BloomFilter<CharSequence> inProgress = building;
+        if (inProgress != null) {
+            inProgress.put(shortUrl);
+        }
+        negativeCache.invalidate(shortUrl);
+    }
+
+    /**
+     * Remember a deleted short URL; the Bloom filter forgets it on the next rebuild
+     */
+    public void recordDeleted(String shortUrl) {
+        negativeCache.put(shortUrl, Boolean.TRUE);
+    }
+
+    /**
+     * Rebuild the Bloom filter from all short URLs in the database
+     */
+    @Scheduled(fixedDelayString = "${app.bloom-filter.rebuild-interval-ms:3600000}",
+               initialDelayString = "${app.bloom-filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        BloomFilter<CharSequence> filter = BloomFilter.create(
+                Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, falsePositiveRate);
+        building = filter;
+        try {
+            long ceiling = segmentIdAllocator.findIdCeiling();
+            long[] maxId = {0L};
+            long count = loadAllShortUrls(filter::put, maxId);
+            bloomFilter = filter;
+            lastRefresh = startedAt;
+            maxLoadedId = maxId[0];
+            idCeiling = ceiling;
+            logger.info("Built short URL Bloom filter with {} entries in {} ms",
+                    count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            logger.error("Failed to build short URL Bloom filter", e);
+        } finally {
+            building = null;
+            rebuildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Add short URLs created on other nodes since the last refresh
+     */
+    @Scheduled(fixedDelayString = "${app.bloom-filter.refresh-interval-ms:5000}")
+    public synchronized void refresh() {
+        BloomFilter<CharSequence> filter = bloomFilter;
+        if (!enabled || filter == null) {
+            return;
+        }
+
+        LocalDateTime startedAt = LocalDateTime.now();
+        Timestamp since = Timestamp.valueOf(lastRefresh.minusSeconds(refreshLookbackSeconds));
+        try {
+            long ceiling = segmentIdAllocator.findIdCeiling();
+            long[] maxId = {maxLoadedId};
+            loadShortUrls("SELECT id, short_url FROM url_mapping WHERE id > ? OR created_at >= ?", shortUrl -> {
+                filter.put(shortUrl);
+                negativeCache.invalidate(shortUrl);
+                readReplicaRouter.recordWrite(shortUrl);
+            }, maxId, maxId[0], since);
+            lastRefresh = startedAt;
+            maxLoadedId = maxId[0];
+            idCeiling = ceiling;
+        } catch (Exception e) {
+            logger.warn("Failed to refresh short URL Bloom filter", e);
+        }
+    }
+
+    /**
+     * Approximate memory used by the Bloom filter bit array
+     */
+    public long getMemoryBytes() {
+        double bits = -expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        return bloomFilter != null ? (long) (bits / Byte.SIZE) : 0L;
+    }
+
+    /**
+     * Check whether a generated code may have been issued on another node since the last refresh
+     */
+    private boolean mayBeCreatedElsewhere(String shortUrl) {
+        long loaded = maxLoadedId;
+        long ceiling = idCeiling;
+        if (ceiling <= loaded) {
+            return false;
+        }
+        OptionalLong id = shortCodeGenerator.decode(shortUrl);
+        return id.isPresent() && id.getAsLong() > loaded && id.getAsLong() <= ceiling;
+    }
+
+    /**
+     * Check whether a code may be a custom alias, which a Bloom filter "no" cannot rule out before the next refresh
+     *
+     * Codes the generator could have issued up to the last refresh are not aliases;
+     * codes above the leased range or not in its form may be.
+     */
+    private boolean mayBeAlias(String shortUrl) {
+        if (shortUrl.isEmpty() || shortUrl.length() > maxCustomAliasLength || !Base62Encoder.isValidBase62(shortUrl)) {
+            return false;
+        }
+        OptionalLong id = shortCodeGenerator.decode(shortUrl);
+        return !id.isPresent() || id.getAsLong() > Math.max(maxLoadedId, idCeiling);
+    }
+
+    /**
+     * Pass every short URL to the sink, shard by shard in pages keyed by ID
+     */
+    private long loadAllShortUrls(Consumer<String> sink, long[] maxId) {
+        long count = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            long[] lastId = {Long.MIN_VALUE};
+            long loaded;
+            do {
+                Object[] args = {lastId[0], rebuildPageSize};
+                loaded = shardRouter.onShard(shard, () -> loadShortUrlsFromShard(
+                        "SELECT id, short_url FROM url_mapping WHERE id > ? ORDER BY id LIMIT ?", sink, lastId, args));
+                count += loaded;
+            } while (loaded >= rebuildPageSize);
+            maxId[0] = Math.max(maxId[0], lastId[0]);
+        }
+        return count;
+    }
+
+    /**
+     * Pass the short URLs selected on every shard to the sink, raising maxId to the highest ID loaded
+     */
+    private long loadShortUrls(String sql, Consumer<String> sink, long[] maxId, Object... args) {
+        long count = 0;
+        for (String shard : shardRouter.getShardNames()) {
+            count += shardRouter.onShard(shard, () -> loadShortUrlsFromShard(sql, sink, maxId, args));
+        }
+        return count;
+    }
+
+    private long loadShortUrlsFromShard(String sql, Consumer<String> sink, long[] maxId, Object[] args) {
+        long[] count = {0};
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, resultSet -> {
+            maxId[0] = Math.max(maxId[0], resultSet.getLong(1));
+            sink.accept(resultSet.getString(2));
+            count[0]++;
+        });
+        return count[0];
+    }
+}
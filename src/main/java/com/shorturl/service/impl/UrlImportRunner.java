@@ -0,0 +1,71 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.dto.ImportResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Offline bulk import from a file
+ *
+ * Enabled by setting app.import.file, for example:
+ * <pre>
+ * java -jar url-shortener.jar --spring.main.web-application-type=none --app.import.file=/data/links.ndjson
+ * </pre>
+ * The format is taken from the file extension (.ndjson, .jsonl or .csv)
+ * unless app.import.format is set. The application exits when the import
+ * is done, with a non-zero status if any row was rejected.
+ */
+@Component
+@ConditionalOnProperty(name = "app.import.file")
+public class UrlImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlImportRunner.class);
+
+    @Autowired
+    private UrlImporter urlImporter;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    @Value("${app.import.file}")
+    private String file;
+
+    @Value("${app.import.format:}")
+    private String format;
+
+    @Value("${app.import.exit-on-completion:true}")
+    private boolean exitOnCompletion = true;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path path = Paths.get(file);
+        UrlImporter.Format importFormat = UrlImporter.Format.detect(format.isEmpty() ? path.getFileName().toString() : format);
+        logger.info("Importing URLs from {} as {}", path, importFormat);
+
+        ImportResult result;
+        try (InputStream input = Files.newInputStream(path)) {
+            result = urlImporter.importUrls(input, importFormat);
+        }
+        for (String error : result.getErrors()) {
+            logger.warn("Rejected {}", error);
+        }
+
+        if (exitOnCompletion) {
+            int exitCode = SpringApplication.exit(applicationContext, () -> result.getRejected() > 0 ? 1 : 0);
+            System.exit(exitCode);
+        }
+    }
+}
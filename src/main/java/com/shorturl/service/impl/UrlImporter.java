@@ -0,0 +1,427 @@
+package com.shorturl.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shorturl.dto.ImportResult;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.exception.ImportBusyException;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.util.CsvLineParser;
+import com.shorturl.util.UrlHasher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Streaming bulk importer for URL mappings from NDJSON or CSV
+ *
+ * Input is parsed line by line and processed in fixed-size chunks, each
+ * deduplicated and batch-inserted in its own transaction per shard, so
+ * memory use does not depend on the input size. The input is only read
+ * as fast as chunks are written, which throttles an HTTP upload through
+ * TCP flow control. Short URLs, expiry, click counts and creation times from the
+ * source are kept; rows without a short URL get a generated one.
+ *
+ * Re-running an import skips rows that are already present, so an
+ * interrupted import can be restarted from the beginning.
+ */
+@Component
+public class UrlImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlImporter.class);
+    private static final Pattern URL_PATTERN = Pattern.compile("^https?://.*");
+    private static final Pattern SHORT_URL_PATTERN = Pattern.compile("^[a-zA-Z0-9]{1,10}$");
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    /**
+     * Supported input formats
+     */
+    public enum Format {
+        NDJSON,
+        CSV;
+
+        /**
+         * Pick the format from a content type or file name
+         *
+         * @throws IllegalArgumentException if the format is not recognized
+         */
+        public static Format detect(String contentTypeOrFileName) {
+            String value = contentTypeOrFileName != null ? contentTypeOrFileName.toLowerCase(Locale.ROOT) : "";
+            if (value.contains("csv")) {
+                return CSV;
+            }
+            if (value.contains("ndjson") || value.contains("jsonl") || value.contains("json")) {
+                return NDJSON;
+            }
+            throw new IllegalArgumentException("Unsupported import format: " + contentTypeOrFileName);
+        }
+    }
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private ShortUrlAllocator shortUrlAllocator;
+
+    @Autowired
+    private UrlMappingBatchWriter urlMappingBatchWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.import.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${app.import.max-concurrent:1}")
+    private int maxConcurrent = 1;
+
+    @Value("${app.import.progress-interval-rows:100000}")
+    private long progressIntervalRows = 100000;
+
+    private Semaphore permits;
+    private TransactionTemplate transactionTemplate;
+    private Counter importedRows;
+    private Counter duplicateRows;
+    private Counter rejectedRows;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(maxConcurrent);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        importedRows = meterRegistry.counter("url.import.rows", "result", "imported");
+        duplicateRows = meterRegistry.counter("url.import.rows", "result", "duplicate");
+        rejectedRows = meterRegistry.counter("url.import.rows", "result", "rejected");
+    }
+
+    /**
+     * Import URL mappings from a stream
+     *
+     * @param input the NDJSON or CSV input, read to the end but not closed
+     * @param format the input format
+     * @return the import summary
+     * @throws ImportBusyException if too many imports are already running
+     */
+    public ImportResult importUrls(InputStream input, Format format) {
+        if (!permits.tryAcquire()) {
+            throw new ImportBusyException("Too many imports running, try again later");
+        }
+
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+            long nextProgress = progressIntervalRows;
+            List<String> header = null;
+            long lineNumber = 0;
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!StringUtils.hasText(line)) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseHeader(line);
+                    continue;
+                }
+
+                result.setRead(result.getRead() + 1);
+                try {
+                    chunk.add(format == Format.CSV ? parseCsv(lineNumber, line, header) : parseJson(lineNumber, line));
+                } catch (RuntimeException e) {
+                    reject(result, lineNumber, e.getMessage());
+                }
+
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, result);
+                    chunk.clear();
+                }
+                if (result.getRead() >= nextProgress) {
+                    logProgress(result, start);
+                    nextProgress += progressIntervalRows;
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, result);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import input", e);
+        } finally {
+            result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            permits.release();
+        }
+
+        logger.info("Import finished: {}", result);
+        return result;
+    }
+
+    /**
+     * Deduplicate one chunk against itself and the primary, then insert the new rows
+     *
+     * The insert runs outside the lookup transaction, so the writer commits
+     * every shard on its own and reports short URLs taken in the meantime
+     * per row instead of failing the import.
+     */
+    private void processChunk(List<ImportRecord> chunk, ImportResult result) {
+        Map<UrlMapping, Long> lineByMapping = new IdentityHashMap<>();
+        List<UrlMapping> newMappings = readReplicaRouter.onPrimary(() -> transactionTemplate.execute(status -> {
+            Map<String, UrlMapping> existingByShortUrl = new HashMap<>();
+            Map<Long, List<UrlMapping>> existingByHash = new HashMap<>();
+            List<String> shortUrls = new ArrayList<>();
+            List<Long> hashes = new ArrayList<>();
+            for (ImportRecord record : chunk) {
+                if (record.shortUrl != null) {
+                    shortUrls.add(record.shortUrl);
+                } else {
+                    hashes.add(UrlHasher.hash(record.url));
+                }
+            }
+            // Short URLs are looked up where they may live, long URLs on every shard
+            Map<String, List<String>> shortUrlsByShard = new LinkedHashMap<>();
+            for (String shortUrl : shortUrls) {
+                for (String shard : shardRouter.candidateShards(shortUrl)) {
+                    shortUrlsByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(shortUrl);
+                }
+            }
+            shortUrlsByShard.forEach((shard, group) -> shardRouter.onShard(shard, () -> {
+                for (UrlMapping mapping : urlMappingRepository.findByShortUrlIn(group)) {
+                    existingByShortUrl.put(mapping.getShortUrl(), mapping);
+                }
+            }));
+            if (!hashes.isEmpty()) {
+                for (List<UrlMapping> mappings : shardRouter.onEachShard(shard -> urlMappingRepository.findByLongUrlHashIn(hashes)).values()) {
+                    for (UrlMapping mapping : mappings) {
+                        existingByHash.computeIfAbsent(mapping.getLongUrlHash(), hash -> new ArrayList<>()).add(mapping);
+                    }
+                }
+            }
+
+            Set<String> seenShortUrls = new HashSet<>();
+            Set<String> seenUrls = new HashSet<>();
+            List<UrlMapping> fresh = new ArrayList<>(chunk.size());
+            for (ImportRecord record : chunk) {
+                if (record.shortUrl != null) {
+                    UrlMapping existing = existingByShortUrl.get(record.shortUrl);
+                    if (existing != null && UrlHasher.sameUrl(existing.getLongUrl(), record.url)) {
+                        duplicate(result);
+                        continue;
+                    }
+                    if (existing != null || !seenShortUrls.add(record.shortUrl)) {
+                        reject(result, record.line, "Short URL already exists: " + record.shortUrl);
+                        continue;
+                    }
+                } else {
+                    boolean exists = existingByHash.getOrDefault(UrlHasher.hash(record.url), Collections.emptyList())
+                            .stream().anyMatch(mapping -> UrlHasher.sameUrl(mapping.getLongUrl(), record.url));
+                    if (exists || !seenUrls.add(UrlHasher.normalize(record.url))) {
+                        duplicate(result);
+                        continue;
+                    }
+                }
+                UrlMapping mapping = record.toUrlMapping();
+                lineByMapping.put(mapping, record.line);
+                fresh.add(mapping);
+            }
+            return fresh;
+        }));
+
+        List<UrlMapping> conflicts = readReplicaRouter.onPrimary(() -> {
+            shortUrlAllocator.assignAll(newMappings);
+            return urlMappingBatchWriter.insert(newMappings);
+        });
+        for (UrlMapping conflict : conflicts) {
+            reject(result, lineByMapping.get(conflict), "Short URL already exists: " + conflict.getShortUrl());
+        }
+        int imported = newMappings.size() - conflicts.size();
+        result.setImported(result.getImported() + imported);
+        importedRows.increment(imported);
+    }
+
+    private ImportRecord parseJson(long lineNumber, String line) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return ImportRecord.of(lineNumber, name -> {
+            JsonNode value = node.get(name);
+            return value != null && !value.isNull() ? value.asText() : null;
+        });
+    }
+
+    private ImportRecord parseCsv(long lineNumber, String line, List<String> header) {
+        List<String> fields = CsvLineParser.parse(line);
+        return ImportRecord.of(lineNumber, name -> {
+            int index = header.indexOf(name);
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        });
+    }
+
+    private List<String> parseHeader(String line) {
+        List<String> header = new ArrayList<>();
+        for (String column : CsvLineParser.parse(line)) {
+            header.add(column.trim());
+        }
+        return header;
+    }
+
+    private void duplicate(ImportResult result) {
+        result.setDuplicates(result.getDuplicates() + 1);
+        duplicateRows.increment();
+    }
+
+    private void reject(ImportResult result, long lineNumber, String reason) {
+        result.setRejected(result.getRejected() + 1);
+        rejectedRows.increment();
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add("line " + lineNumber + ": " + reason);
+        }
+    }
+
+    private void logProgress(ImportResult result, long start) {
+        result.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        logger.info("Import progress: read {}, imported {}, duplicates {}, rejected {}, {} rows/s",
+                result.getRead(), result.getImported(), result.getDuplicates(), result.getRejected(),
+                result.getRowsPerSecond());
+    }
+
+    /**
+     * One validated input row
+     */
+    private static final class ImportRecord {
+
+        long line;
+        String url;
+        String shortUrl;
+        LocalDateTime expiresAt;
+        LocalDateTime createdAt;
+        long clickCount;
+        Integer redirectStatus;
+
+        /**
+         * Read a row through a field accessor, accepting snake_case and camelCase names
+         *
+         * @throws IllegalArgumentException if the row is invalid
+         */
+        static ImportRecord of(long line, Function<String, String> field) {
+            ImportRecord record = new ImportRecord();
+            record.line = line;
+            record.url = firstText(field, "long_url", "longUrl", "url");
+            record.shortUrl = firstText(field, "short_url", "shortUrl", "custom_alias", "customAlias");
+            record.expiresAt = parseTime(firstText(field, "expires_at", "expiresAt"), "expires_at");
+            record.createdAt = parseTime(firstText(field, "created_at", "createdAt"), "created_at");
+            String clickCount = firstText(field, "click_count", "clickCount");
+            String redirectStatus = firstText(field, "redirect_status", "redirectStatus");
+
+            if (record.url == null || !URL_PATTERN.matcher(record.url).matches()) {
+                throw new IllegalArgumentException("URL must start with http:// or https://");
+            }
+            if (record.shortUrl != null && !SHORT_URL_PATTERN.matcher(record.shortUrl).matches()) {
+                throw new IllegalArgumentException("Short URL must be 1 to 10 alphanumeric characters: " + record.shortUrl);
+            }
+            try {
+                record.clickCount = clickCount != null ? Long.parseLong(clickCount) : 0L;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid click_count: " + clickCount);
+            }
+            if (record.clickCount < 0) {
+                throw new IllegalArgumentException("Invalid click_count: " + clickCount);
+            }
+            if (redirectStatus != null) {
+                try {
+                    record.redirectStatus = Integer.valueOf(redirectStatus);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid redirect_status: " + redirectStatus);
+                }
+                if (!RedirectTarget.isSupportedStatus(record.redirectStatus)) {
+                    throw new IllegalArgumentException("Redirect status must be 301, 302 or 307: " + redirectStatus);
+                }
+            }
+            return record;
+        }
+
+        UrlMapping toUrlMapping() {
+            UrlMapping urlMapping = new UrlMapping(shortUrl, url, expiresAt);
+            urlMapping.setClickCount(clickCount);
+            urlMapping.setRedirectStatus(redirectStatus);
+            if (createdAt != null) {
+                urlMapping.setCreatedAt(createdAt);
+            }
+            return urlMapping;
+        }
+
+        private static String firstText(Function<String, String> field, String... names) {
+            for (String name : names) {
+                String value = field.apply(name);
+                if (StringUtils.hasText(value)) {
+                    return value.trim();
+                }
+            }
+            return null;
+        }
+
+        private static LocalDateTime parseTime(String value, String name) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                // Accept both ISO-8601 and the API's "yyyy-MM-dd HH:mm:ss"
+                return LocalDateTime.parse(value.replace(' ', 'T'));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid " + name + ": " + value);
+            }
+        }
+    }
+}
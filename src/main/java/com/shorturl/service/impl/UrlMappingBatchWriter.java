@@ -0,0 +1,162 @@
+package com.shorturl.service.impl;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.exception.UrlAlreadyExistsException;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.util.UrlHasher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Inserts URL mappings with JDBC batching
+ *
+ * Bypasses the persistence context, so thousands of rows cost a handful
+ * of round trips instead of one INSERT each. IDs must already be assigned.
+ * The rows of each shard are inserted in one transaction, which joins the
+ * caller's if it is on the same shard; with MySQL, rewriteBatchedStatements
+ * turns each batch into multi-row INSERTs.
+ *
+ * A short URL taken concurrently rolls back only its shard's transaction.
+ * The rows of that shard are then inserted again without the taken ones,
+ * which are returned to the caller, so every shard's rows end up either
+ * written or reported. Inside a caller's transaction that cannot be
+ * retried, and UrlAlreadyExistsException is thrown instead.
+ */
+@Component
+public class UrlMappingBatchWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO url_mapping (id, short_url, long_url, long_url_hash, created_at, expires_at, click_count, " +
+            "redirect_status) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    @Autowired
+    private RedirectIndex redirectIndex;
+
+    @Autowired
+    private GlobalCounters globalCounters;
+
+    @Autowired
+    private UrlMappingRepository urlMappingRepository;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.batch.insert-batch-size:500}")
+    private int insertBatchSize = 500;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Insert new URL mappings
+     *
+     * @param urlMappings mappings with IDs assigned
+     * @return the mappings that were not written because their short URL was taken concurrently
+     * @throws UrlAlreadyExistsException if a short URL was taken and the caller's transaction was joined
+     */
+    public List<UrlMapping> insert(List<UrlMapping> urlMappings) {
+        List<UrlMapping> conflicts = new ArrayList<>();
+        if (urlMappings.isEmpty()) {
+            return conflicts;
+        }
+
+        for (Map.Entry<String, List<UrlMapping>> group : shardRouter.groupByShard(urlMappings, UrlMapping::getShortUrl).entrySet()) {
+            String shard = group.getKey();
+            List<UrlMapping> pending = new ArrayList<>(group.getValue());
+            while (!pending.isEmpty() && !insertOnShard(shard, pending)) {
+                Set<String> taken = findExistingShortUrls(shard, pending);
+                if (taken.isEmpty()) {
+                    throw new IllegalStateException("Batch insert on shard " + shard + " failed on a duplicate ID");
+                }
+                for (UrlMapping mapping : pending) {
+                    if (taken.contains(mapping.getShortUrl())) {
+                        conflicts.add(mapping);
+                    }
+                }
+                pending.removeIf(mapping -> taken.contains(mapping.getShortUrl()));
+            }
+            for (UrlMapping mapping : pending) {
+                shortUrlFilter.recordCreated(mapping.getShortUrl());
+                redirectIndex.record(mapping);
+                globalCounters.recordCreated(mapping);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Insert the rows of one shard in one transaction
+     *
+     * @return false if a short URL was taken and the transaction was rolled back
+     */
+    private boolean insertOnShard(String shard, List<UrlMapping> urlMappings) {
+        return shardRouter.onShard(shard, () -> transactionTemplate.execute(status -> {
+            try {
+                batchInsert(urlMappings);
+                return true;
+            } catch (DuplicateKeyException e) {
+                if (!status.isNewTransaction()) {
+                    throw new UrlAlreadyExistsException("Short URL in batch was created concurrently", e);
+                }
+                status.setRollbackOnly();
+                return false;
+            }
+        }));
+    }
+
+    private Set<String> findExistingShortUrls(String shard, List<UrlMapping> urlMappings) {
+        List<String> shortUrls = urlMappings.stream().map(UrlMapping::getShortUrl).collect(Collectors.toList());
+        return shardRouter.onShard(shard, () -> new HashSet<>(urlMappingRepository.findExistingShortUrls(shortUrls)));
+    }
+
+    private void batchInsert(List<UrlMapping> urlMappings) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, urlMappings, insertBatchSize, (statement, mapping) -> {
+            statement.setLong(1, mapping.getId());
+            statement.setString(2, mapping.getShortUrl());
+            statement.setString(3, mapping.getLongUrl());
+            statement.setLong(4, UrlHasher.hash(mapping.getLongUrl()));
+            statement.setTimestamp(5, Timestamp.valueOf(mapping.getCreatedAt()));
+            if (mapping.getExpiresAt() != null) {
+                statement.setTimestamp(6, Timestamp.valueOf(mapping.getExpiresAt()));
+            } else {
+                statement.setNull(6, Types.TIMESTAMP);
+            }
+            statement.setLong(7, mapping.getClickCount() != null ? mapping.getClickCount() : 0L);
+            if (mapping.getRedirectStatus() != null) {
+                statement.setInt(8, mapping.getRedirectStatus());
+            } else {
+                statement.setNull(8, Types.INTEGER);
+            }
+        });
+    }
+}
@@ -0,0 +1,114 @@
+package com.shorturl.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Meters for the redirect and shorten hot paths
+ *
+ * Lookups go through the caching proxy, so the service method body only
+ * runs on a cache miss. The service reports that through
+ * {@link #recordCacheMiss()}, and {@link #lookup(String, Supplier)} turns it
+ * into the cache tag of the url.lookup timer, giving hits, misses and
+ * latency per endpoint. Percentile histograms are enabled in configuration.
+ */
+@Component
+public class UrlShortenerMetrics {
+
+    private static final ThreadLocal<boolean[]> CACHE_MISS = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Timer shortenTimer;
+    private Timer redirectHitTimer;
+
+    @PostConstruct
+    public void init() {
+        shortenTimer = Timer.builder("url.shorten")
+                .description("Time to create a short URL")
+                .register(meterRegistry);
+        redirectHitTimer = lookupTimer("redirect", false, true);
+    }
+
+    /**
+     * Time a cached lookup and record whether it was served from cache
+     *
+     * @param endpoint the endpoint tag, e.g. redirect or stats
+     * @param resolver the lookup through the caching proxy
+     * @return the lookup result
+     */
+    public <T> Optional<T> lookup(String endpoint, Supplier<Optional<T>> resolver) {
+        boolean[] missed = CACHE_MISS.get();
+        missed[0] = false;
+        long start = System.nanoTime();
+        Optional<T> result = Optional.empty();
+        try {
+            result = resolver.get();
+            return result;
+        } finally {
+            recordLookup(endpoint, missed[0], result.isPresent(), System.nanoTime() - start);
+            missed[0] = false;
+        }
+    }
+
+    /**
+     * Record a lookup timed by the caller, for lookups that do not run on one thread
+     *
+     * @param endpoint the endpoint tag, e.g. redirect or stats
+     * @param cacheMiss whether the lookup was not served from cache
+     * @param found whether the short URL was resolved
+     * @param nanos the time taken
+     */
+    public void recordLookup(String endpoint, boolean cacheMiss, boolean found, long nanos) {
+        lookupTimer(endpoint, cacheMiss, found).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record a redirect served from cache, without looking up the timer
+     *
+     * @param nanos the time taken
+     */
+    public void recordRedirectHit(long nanos) {
+        redirectHitTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer lookupTimer(String endpoint, boolean cacheMiss, boolean found) {
+        return Timer.builder("url.lookup")
+                .description("Time to resolve a short URL, by endpoint and cache outcome")
+                .tag("endpoint", endpoint)
+                .tag("cache", cacheMiss ? "miss" : "hit")
+                .tag("found", String.valueOf(found))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Mark the current lookup as not served from cache
+     */
+    public void recordCacheMiss() {
+        CACHE_MISS.get()[0] = true;
+    }
+
+    /**
+     * Time the creation of a short URL
+     */
+    public <T> T timeShorten(Supplier<T> shortener) {
+        return shortenTimer.record(shortener);
+    }
+
+    /**
+     * Count a 404 response
+     *
+     * @param uri the matched URI template, not the raw path
+     */
+    public void recordNotFound(String uri) {
+        meterRegistry.counter("url.not.found", "uri", uri != null ? uri : "UNKNOWN").increment();
+    }
+}
@@ -1,69 +1,163 @@
 package com.shorturl.service.impl;
 
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.BatchShortenResult;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.dto.RedirectTarget;
 import com.shorturl.dto.ShortenUrlRequest;
 import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.dto.UrlPage;
 import com.shorturl.dto.UrlStatsResponse;
 import com.shorturl.entity.UrlMapping;
 import com.shorturl.exception.UrlNotFoundException;
 import com.shorturl.exception.UrlAlreadyExistsException;
 import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.ShortCodeGenerator;
 import com.shorturl.service.UrlShortenerService;
-import com.shorturl.util.Base62Encoder;
+import com.shorturl.util.UrlHasher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of URL shortener service
+ *
+ * URL mappings are read and written on the shard that owns their short
+ * URL; see ShardRouter. Methods do not hold a transaction of their own,
+ * so each repository call runs in its own transaction on the shard in
+ * context, and batch writes are made atomic per shard by the writer.
+ *
+ * Lookups are read-only and may be served by a replica; the checks that
+ * precede a write read from the primary, and newly created short URLs
+ * resolve from the primary for the read-your-writes window.
  */
 @Service
-@Transactional
+@Transactional(propagation = Propagation.SUPPORTS)
 public class UrlShortenerServiceImpl implements UrlShortenerService {
 
     private static final Logger logger = LoggerFactory.getLogger(UrlShortenerServiceImpl.class);
-    private static final int MAX_RETRY_ATTEMPTS = 5;
-    private static final int SHORT_URL_LENGTH = 7;
 
     @Autowired
     private UrlMappingRepository urlMappingRepository;
 
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ReadReplicaRouter readReplicaRouter;
+
+    @Autowired
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Autowired
+    private ShortUrlAllocator shortUrlAllocator;
+
+    @Autowired
+    private ClickCountAggregator clickCountAggregator;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    @Autowired
+    private RedirectIndex redirectIndex;
+
+    @Autowired
+    private UrlMappingBatchWriter urlMappingBatchWriter;
+
+    @Autowired
+    private ExpiredUrlReaper expiredUrlReaper;
+
+    @Autowired
+    private GlobalCounters globalCounters;
+
+    @Autowired
+    private ClickTimeSeries clickTimeSeries;
+
+    @Autowired
+    private UrlShortenerMetrics urlShortenerMetrics;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${app.batch.max-size:5000}")
+    private int maxBatchSize = 5000;
+
+    @Value("${app.batch.lookup-chunk-size:1000}")
+    private int lookupChunkSize = 1000;
+
+    @Value("${app.admin.max-page-size:1000}")
+    private int maxPageSize = 1000;
+
     @Override
     public ShortenUrlResponse shortenUrl(ShortenUrlRequest request) {
+        return urlShortenerMetrics.timeShorten(() -> readReplicaRouter.onPrimary(() -> createShortUrl(request)));
+    }
+
+    private ShortenUrlResponse createShortUrl(ShortenUrlRequest request) {
         logger.info("Shortening URL: {}", request.getUrl());
 
-        // Check if URL already exists
-        Optional<UrlMapping> existingMapping = urlMappingRepository.findByLongUrl(request.getUrl());
-        if (existingMapping.isPresent() && !existingMapping.get().isExpired()) {
+        // Check if URL already exists, unless the caller asked for an alias of their own
+        boolean hasAlias = StringUtils.hasText(request.getCustomAlias());
+        Optional<UrlMapping> existingMapping = hasAlias ? Optional.empty() : findByLongUrl(request.getUrl());
+        if (existingMapping.isPresent()) {
             UrlMapping mapping = existingMapping.get();
             logger.info("URL already exists with short URL: {}", mapping.getShortUrl());
             return new ShortenUrlResponse(mapping.getShortUrl(), mapping.getLongUrl(), 
                                         mapping.getCreatedAt(), mapping.getExpiresAt());
         }
 
-        String shortUrl;
-        if (StringUtils.hasText(request.getCustomAlias())) {
+        String shortUrl = null;
+        if (hasAlias) {
             // Use custom alias
             shortUrl = request.getCustomAlias();
-            if (urlMappingRepository.existsByShortUrl(shortUrl)) {
+            if (urlExists(shortUrl)) {
                 throw new UrlAlreadyExistsException("Custom alias already exists: " + shortUrl);
             }
-        } else {
-            // Generate random short URL
-            shortUrl = generateUniqueShortUrl();
         }
 
+        // Assign an ID, and generate the short URL unless an alias was given
         UrlMapping urlMapping = new UrlMapping(shortUrl, request.getUrl(), request.getExpiresAt());
-        urlMapping = urlMappingRepository.save(urlMapping);
+        urlMapping.setRedirectStatus(request.getRedirectStatus());
+        shortUrlAllocator.assign(urlMapping);
+        shortUrl = urlMapping.getShortUrl();
+        UrlMapping newMapping = urlMapping;
+        urlMapping = shardRouter.onShardOf(shortUrl, () -> urlMappingRepository.save(newMapping));
+        shortUrlFilter.recordCreated(shortUrl);
+        redirectIndex.record(urlMapping);
+        globalCounters.recordCreated(urlMapping);
+        readReplicaRouter.recordWrite(shortUrl);
 
         logger.info("Successfully created short URL: {} for long URL: {}", shortUrl, request.getUrl());
         return new ShortenUrlResponse(urlMapping.getShortUrl(), urlMapping.getLongUrl(), 
@@ -71,45 +165,207 @@ public class UrlShortenerServiceImpl implements UrlShortenerService {
     }
 
     @Override
-    @Cacheable(value = "urlMappings", key = "#shortUrl")
-    public Optional<String> expandUrl(String shortUrl) {
+    public BatchShortenResponse shortenUrls(List<ShortenUrlRequest> requests) {
+        return readReplicaRouter.onPrimary(() -> createShortUrls(requests));
+    }
+
+    private BatchShortenResponse createShortUrls(List<ShortenUrlRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch cannot contain more than " + maxBatchSize + " URLs");
+        }
+        logger.info("Shortening batch of {} URLs", requests.size());
+
+        int size = requests.size();
+        BatchShortenResult[] results = new BatchShortenResult[size];
+        long[] hashes = new long[size];
+        for (int i = 0; i < size; i++) {
+            ShortenUrlRequest request = requests.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results[i] = BatchShortenResult.failed(i, request != null ? request.getUrl() : null, error);
+            } else {
+                hashes[i] = UrlHasher.hash(request.getUrl());
+            }
+        }
+
+        // Deduplicate against the database and within the batch, first occurrence wins;
+        // items with a custom alias always get their own mapping
+        Map<Long, List<UrlMapping>> existingByHash = findByLongUrlHashes(hashes, results);
+        Map<String, Integer> firstIndexByUrl = new HashMap<>();
+        int[] duplicateOf = new int[size];
+        Arrays.fill(duplicateOf, -1);
+        List<Integer> toCreate = new ArrayList<>();
+        Set<String> aliases = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+
+            ShortenUrlRequest request = requests.get(i);
+            if (StringUtils.hasText(request.getCustomAlias())) {
+                toCreate.add(i);
+                aliases.add(request.getCustomAlias());
+                continue;
+            }
+
+            Integer first = firstIndexByUrl.putIfAbsent(UrlHasher.normalize(request.getUrl()), i);
+            if (first != null) {
+                duplicateOf[i] = first;
+                continue;
+            }
+
+            Optional<UrlMapping> existing = existingByHash.getOrDefault(hashes[i], Collections.emptyList()).stream()
+                    .filter(mapping -> !mapping.isExpired() && UrlHasher.sameUrl(request.getUrl(), mapping.getLongUrl()))
+                    .findFirst();
+            if (existing.isPresent()) {
+                UrlMapping mapping = existing.get();
+                results[i] = new BatchShortenResult(i, BatchShortenResult.Status.EXISTING, mapping.getShortUrl(),
+                        mapping.getLongUrl(), mapping.getCreatedAt(), mapping.getExpiresAt());
+            } else {
+                toCreate.add(i);
+            }
+        }
+
+        // Aliases are looked up on every shard they may live on, including the previous owner while rebalancing
+        Map<String, List<String>> aliasesByShard = new LinkedHashMap<>();
+        for (String alias : aliases) {
+            for (String shard : shardRouter.candidateShards(alias)) {
+                aliasesByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(alias);
+            }
+        }
+        Set<String> takenAliases = new HashSet<>();
+        aliasesByShard.forEach((shard, group) -> shardRouter.onShard(shard, () -> {
+            for (List<String> chunk : Lists.partition(group, lookupChunkSize)) {
+                takenAliases.addAll(urlMappingRepository.findExistingShortUrls(chunk));
+            }
+        }));
+
+        List<Integer> newIndexes = new ArrayList<>(toCreate.size());
+        for (int i : toCreate) {
+            String alias = requests.get(i).getCustomAlias();
+            if (StringUtils.hasText(alias) && !takenAliases.add(alias)) {
+                results[i] = BatchShortenResult.failed(i, requests.get(i).getUrl(), "Custom alias already exists: " + alias);
+            } else {
+                newIndexes.add(i);
+            }
+        }
+
+        // Allocate IDs and codes for the new mappings in one pass
+        List<UrlMapping> newMappings = new ArrayList<>(newIndexes.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i : newIndexes) {
+            ShortenUrlRequest request = requests.get(i);
+            String alias = StringUtils.hasText(request.getCustomAlias()) ? request.getCustomAlias() : null;
+            UrlMapping urlMapping = new UrlMapping(alias, request.getUrl(), request.getExpiresAt());
+            urlMapping.setCreatedAt(now);
+            urlMapping.setRedirectStatus(request.getRedirectStatus());
+            newMappings.add(urlMapping);
+        }
+        shortUrlAllocator.assignAll(newMappings);
+
+        // Aliases taken between the check and the insert fail just their own items
+        Set<UrlMapping> conflicts = Collections.newSetFromMap(new IdentityHashMap<>());
+        conflicts.addAll(urlMappingBatchWriter.insert(newMappings));
+        int created = 0;
+        for (int n = 0; n < newIndexes.size(); n++) {
+            int i = newIndexes.get(n);
+            UrlMapping urlMapping = newMappings.get(n);
+            if (conflicts.contains(urlMapping)) {
+                String error = StringUtils.hasText(requests.get(i).getCustomAlias())
+                        ? "Custom alias already exists: " + urlMapping.getShortUrl()
+                        : "Short URL already exists: " + urlMapping.getShortUrl();
+                results[i] = BatchShortenResult.failed(i, urlMapping.getLongUrl(), error);
+                continue;
+            }
+            results[i] = new BatchShortenResult(i, BatchShortenResult.Status.CREATED, urlMapping.getShortUrl(),
+                    urlMapping.getLongUrl(), now, urlMapping.getExpiresAt());
+            readReplicaRouter.recordWrite(urlMapping.getShortUrl());
+            created++;
+        }
+
+        for (int i = 0; i < size; i++) {
+            if (duplicateOf[i] >= 0) {
+                BatchShortenResult first = results[duplicateOf[i]];
+                results[i] = first.isFailed()
+                        ? BatchShortenResult.failed(i, requests.get(i).getUrl(), first.getError())
+                        : new BatchShortenResult(i, BatchShortenResult.Status.EXISTING, first.getShortUrl(),
+                                first.getLongUrl(), first.getCreatedAt(), first.getExpiresAt());
+            }
+        }
+
+        logger.info("Created {} short URLs in batch of {}", created, size);
+        return new BatchShortenResponse(Arrays.asList(results));
+    }
+
+    @Override
+    @Cacheable(value = "urlMappings", key = "#shortUrl", unless = "#result == null")
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<RedirectTarget> expandUrl(String shortUrl) {
         logger.debug("Expanding short URL: {}", shortUrl);
+        urlShortenerMetrics.recordCacheMiss();
+
+        // Unknown codes are rejected without querying the database
+        if (!shortUrlFilter.mightExist(shortUrl)) {
+            logger.debug("Short URL rejected by filter: {}", shortUrl);
+            return Optional.empty();
+        }
 
-        Optional<UrlMapping> urlMapping = urlMappingRepository.findByShortUrl(shortUrl);
+        // Then the off-heap index, which holds far more short URLs than the cache
+        Optional<RedirectTarget> indexed = redirectIndex.lookup(shortUrl);
+        if (indexed.isPresent()) {
+            RedirectTarget target = indexed.get();
+            if (target.getExpiresAt() != null && LocalDateTime.now().isAfter(target.getExpiresAt())) {
+                logger.warn("Short URL {} has expired", shortUrl);
+                shortUrlFilter.recordMiss(shortUrl);
+                return Optional.empty();
+            }
+            return indexed;
+        }
+
+        Optional<UrlMapping> urlMapping = readReplicaRouter.readFresh(shortUrl, () -> findByShortUrl(shortUrl));
         if (urlMapping.isPresent()) {
             UrlMapping mapping = urlMapping.get();
             if (mapping.isExpired()) {
                 logger.warn("Short URL {} has expired", shortUrl);
+                shortUrlFilter.recordMiss(shortUrl);
                 return Optional.empty();
             }
 
-            // Increment click count asynchronously
-            incrementClickCountAsync(shortUrl);
-            
             logger.debug("Successfully expanded short URL: {} to: {}", shortUrl, mapping.getLongUrl());
-            return Optional.of(mapping.getLongUrl());
+            redirectIndex.record(mapping);
+            return Optional.of(new RedirectTarget(mapping.getLongUrl(), mapping.getExpiresAt(), mapping.getRedirectStatus()));
         }
 
         logger.warn("Short URL not found: {}", shortUrl);
+        shortUrlFilter.recordMiss(shortUrl);
         return Optional.empty();
     }
 
+    @Override
+    public void recordClick(String shortUrl) {
+        // Kept in memory and written to the database in batches
+        clickCountAggregator.recordClick(shortUrl);
+    }
+
     @Override
     @Cacheable(value = "urlStats", key = "#shortUrl")
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Optional<UrlStatsResponse> getUrlStats(String shortUrl) {
         logger.debug("Getting stats for short URL: {}", shortUrl);
+        urlShortenerMetrics.recordCacheMiss();
 
-        Optional<UrlMapping> urlMapping = urlMappingRepository.findByShortUrl(shortUrl);
+        Optional<UrlMapping> urlMapping = readReplicaRouter.readFresh(shortUrl, () -> findByShortUrl(shortUrl));
         if (urlMapping.isPresent()) {
             UrlMapping mapping = urlMapping.get();
             UrlStatsResponse stats = new UrlStatsResponse(
                 mapping.getShortUrl(),
                 mapping.getLongUrl(),
-                mapping.getClickCount(),
+                mapping.getClickCount() + clickCountAggregator.getPendingClicks(shortUrl),
                 mapping.getCreatedAt(),
                 mapping.getExpiresAt(),
                 mapping.isExpired()
             );
+            stats.setRedirectStatus(mapping.getRedirectStatus());
             return Optional.of(stats);
         }
 
@@ -117,9 +373,46 @@ public class UrlShortenerServiceImpl implements UrlShortenerService {
     }
 
     @Override
-    public List<UrlMapping> getAllUrls() {
-        logger.debug("Getting all URL mappings");
-        return urlMappingRepository.findAll();
+    public Optional<ClickTimeSeriesResponse> getClickTimeSeries(String shortUrl, LocalDateTime from, LocalDateTime to,
+                                                                Duration step) {
+        logger.debug("Getting click time series for short URL: {}", shortUrl);
+
+        if (!urlExists(shortUrl)) {
+            return Optional.empty();
+        }
+        return Optional.of(clickTimeSeries.getTimeSeries(shortUrl, from, to, step));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public UrlPage listUrls(String cursor, UrlListFilter filter, int size) {
+        logger.debug("Listing URL mappings after cursor {} with {}", cursor, filter);
+
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        Long afterId = null;
+        if (StringUtils.hasText(cursor)) {
+            try {
+                afterId = Long.parseLong(cursor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Fetch one extra row from every shard to know whether another page follows,
+        // then keep the lowest IDs; IDs are unique across shards
+        Long cursorId = afterId;
+        List<UrlMapping> items = shardRouter.onEachShard(shard -> urlMappingRepository.findPage(cursorId, filter, pageSize + 1))
+                .values().stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(UrlMapping::getId))
+                .limit(pageSize + 1)
+                .collect(Collectors.toList());
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = items.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new UrlPage(items, nextCursor, hasMore);
     }
 
     @Override
@@ -127,9 +420,21 @@ public class UrlShortenerServiceImpl implements UrlShortenerService {
     public boolean deleteUrl(String shortUrl) {
         logger.info("Deleting short URL: {}", shortUrl);
 
-        Optional<UrlMapping> urlMapping = urlMappingRepository.findByShortUrl(shortUrl);
-        if (urlMapping.isPresent()) {
-            urlMappingRepository.delete(urlMapping.get());
+        // While rebalancing the row may still be on its previous shard
+        boolean deleted = false;
+        for (String shard : shardRouter.candidateShards(shortUrl)) {
+            deleted |= shardRouter.onShard(shard, () -> readReplicaRouter.onPrimary(() -> {
+                Optional<UrlMapping> urlMapping = findOnShard(shortUrl);
+                urlMapping.ifPresent(mapping -> {
+                    urlMappingRepository.delete(mapping);
+                    globalCounters.recordDeleted(mapping);
+                });
+                return urlMapping.isPresent();
+            }));
+        }
+        if (deleted) {
+            shortUrlFilter.recordDeleted(shortUrl);
+            redirectIndex.recordDeleted(shortUrl);
             logger.info("Successfully deleted short URL: {}", shortUrl);
             return true;
         }
@@ -141,69 +446,110 @@ public class UrlShortenerServiceImpl implements UrlShortenerService {
     @Override
     public int cleanupExpiredUrls() {
         logger.info("Cleaning up expired URLs");
-        int deletedCount = urlMappingRepository.deleteExpiredUrls(LocalDateTime.now());
-        logger.info("Cleaned up {} expired URLs", deletedCount);
-        return deletedCount;
+        // Deleted in chunks, each in its own transaction
+        return expiredUrlReaper.reap();
     }
 
     @Override
     public boolean urlExists(String shortUrl) {
-        return urlMappingRepository.existsByShortUrl(shortUrl);
+        for (String shard : shardRouter.candidateShards(shortUrl)) {
+            if (shardRouter.onShard(shard, () -> urlMappingRepository.existsByShortUrl(shortUrl))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public long[] getTotalStats() {
-        long totalUrls = urlMappingRepository.countTotalUrls();
-        Long totalClicks = urlMappingRepository.getTotalClickCount();
-        long urlsToday = urlMappingRepository.countUrlsCreatedToday();
-        
-        return new long[]{totalUrls, totalClicks != null ? totalClicks : 0L, urlsToday};
+        // Maintained as URLs are written, see GlobalCounters
+        return globalCounters.getTotals();
+    }
+
+    /**
+     * Validate one batch item
+     * 
+     * @return the validation error, or null if the item is valid
+     */
+    private String validate(ShortenUrlRequest request) {
+        if (request == null) {
+            return "URL cannot be blank";
+        }
+        Set<ConstraintViolation<ShortenUrlRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
 
     /**
-     * Generate a unique short URL
+     * Look up dedup candidates for all valid batch items, in chunks
      */
-    private String generateUniqueShortUrl() {
-        for (int attempt = 0; attempt < MAX_RETRY_ATTEMPTS; attempt++) {
-            String shortUrl = generateRandomShortUrl();
-            if (!urlMappingRepository.existsByShortUrl(shortUrl)) {
-                return shortUrl;
+    private Map<Long, List<UrlMapping>> findByLongUrlHashes(long[] hashes, BatchShortenResult[] results) {
+        Set<Long> distinctHashes = new LinkedHashSet<>();
+        for (int i = 0; i < hashes.length; i++) {
+            if (results[i] == null) {
+                distinctHashes.add(hashes[i]);
             }
         }
-        
-        // If we can't generate a unique URL after max attempts, use timestamp-based approach
-        long timestamp = System.currentTimeMillis();
-        String shortUrl = Base62Encoder.encode(timestamp).substring(0, Math.min(SHORT_URL_LENGTH, 
-                                                Base62Encoder.encode(timestamp).length()));
-        
-        // Ensure uniqueness by appending random characters if needed
-        while (urlMappingRepository.existsByShortUrl(shortUrl)) {
-            shortUrl = shortUrl + Base62Encoder.encode(ThreadLocalRandom.current().nextLong()).charAt(0);
-            if (shortUrl.length() > 10) {
-                shortUrl = shortUrl.substring(0, 10);
+
+        // Mappings are placed by short URL, so any shard may hold a long URL
+        Map<Long, List<UrlMapping>> candidates = new HashMap<>();
+        for (List<Long> chunk : Iterables.partition(distinctHashes, lookupChunkSize)) {
+            for (List<UrlMapping> mappings : shardRouter.onEachShard(shard -> urlMappingRepository.findByLongUrlHashIn(chunk)).values()) {
+                for (UrlMapping mapping : mappings) {
+                    candidates.computeIfAbsent(mapping.getLongUrlHash(), hash -> new ArrayList<>()).add(mapping);
+                }
             }
         }
-        
-        return shortUrl;
+        return candidates;
     }
 
     /**
-     * Generate a random short URL
+     * Find an unexpired URL mapping for a long URL
+     * 
+     * Candidates come from the long_url_hash index of every shard and are
+     * compared in full to rule out hash collisions.
      */
-    private String generateRandomShortUrl() {
-        long randomNumber = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
-        String encoded = Base62Encoder.encode(randomNumber);
-        return encoded.substring(0, Math.min(SHORT_URL_LENGTH, encoded.length()));
+    private Optional<UrlMapping> findByLongUrl(String longUrl) {
+        long hash = UrlHasher.hash(longUrl);
+        return shardRouter.onEachShard(shard -> urlMappingRepository.findByLongUrlHash(hash)).values().stream()
+                .flatMap(List::stream)
+                .filter(mapping -> !mapping.isExpired() && UrlHasher.sameUrl(longUrl, mapping.getLongUrl()))
+                .findFirst();
     }
 
     /**
-     * Increment click count asynchronously
+     * Find a URL mapping by short URL on the shard that owns it
      */
-    private void incrementClickCountAsync(String shortUrl) {
-        try {
-            urlMappingRepository.incrementClickCount(shortUrl);
-        } catch (Exception e) {
-            logger.error("Failed to increment click count for short URL: {}", shortUrl, e);
+    private Optional<UrlMapping> findByShortUrl(String shortUrl) {
+        for (String shard : shardRouter.candidateShards(shortUrl)) {
+            Optional<UrlMapping> urlMapping = shardRouter.onShard(shard, () -> findOnShard(shortUrl));
+            if (urlMapping.isPresent()) {
+                return urlMapping;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Find a URL mapping by short URL on the shard in context
+     * 
+     * Generated codes decode to their ID and are looked up by primary key;
+     * custom aliases and codes from other strategies fall back to the
+     * short_url index.
+     */
+    private Optional<UrlMapping> findOnShard(String shortUrl) {
+        OptionalLong id = shortCodeGenerator.decode(shortUrl);
+        if (id.isPresent()) {
+            Optional<UrlMapping> urlMapping = urlMappingRepository.findById(id.getAsLong());
+            if (urlMapping.isPresent() && shortUrl.equals(urlMapping.get().getShortUrl())) {
+                return urlMapping;
+            }
         }
+        return urlMappingRepository.findByShortUrl(shortUrl);
     }
 }
\ No newline at end of file
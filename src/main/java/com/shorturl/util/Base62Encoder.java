@@ -1,54 +1,156 @@
 package com.shorturl.util;
 
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Base62 encoder utility for generating short URLs
- * 
+ *
  * Base62 uses characters: 0-9, a-z, A-Z (62 characters total)
  * This provides a good balance between URL length and readability
+ *
+ * Decoding and validation use a 128-entry lookup table and work on any
+ * CharSequence without copying it. The encodeTo methods write into a
+ * caller-supplied buffer, so codes can be produced without allocating.
  */
 public class Base62Encoder {
 
-    private static final String BASE62_CHARS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
-    private static final int BASE = BASE62_CHARS.length();
+    private static final char[] BASE62_CHARS =
+            "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final int BASE = BASE62_CHARS.length;
+
+    /**
+     * Length of the longest encoded value, Long.MAX_VALUE
+     */
+    public static final int MAX_LENGTH = 11;
+
+    private static final byte[] DIGIT_VALUES = new byte[128];
+
+    static {
+        Arrays.fill(DIGIT_VALUES, (byte) -1);
+        for (int i = 0; i < BASE; i++) {
+            DIGIT_VALUES[BASE62_CHARS[i]] = (byte) i;
+        }
+    }
 
     /**
      * Encode a long number to Base62 string
-     * 
-     * @param number the number to encode
+     *
+     * @param number the non-negative number to encode
      * @return Base62 encoded string
      */
     public static String encode(long number) {
-        if (number == 0) {
-            return String.valueOf(BASE62_CHARS.charAt(0));
+        return encode(number, 1);
+    }
+
+    /**
+     * Encode a long number to a Base62 string left-padded to a minimum width
+     *
+     * @param number the non-negative number to encode
+     * @param width the minimum length of the result
+     * @return Base62 encoded string, padded with leading zeros
+     */
+    public static String encode(long number, int width) {
+        char[] buffer = new char[encodedLength(number, width)];
+        encodeTo(number, width, buffer, 0);
+        return new String(buffer);
+    }
+
+    /**
+     * Encode a long number into a char buffer, left-padded to a minimum width
+     *
+     * @param number the non-negative number to encode
+     * @param width the minimum number of characters to write
+     * @param dest the buffer to write to
+     * @param offset the position of the first character
+     * @return the number of characters written
+     */
+    public static int encodeTo(long number, int width, char[] dest, int offset) {
+        int length = encodedLength(number, width);
+        checkBounds(dest.length, offset, length);
+
+        for (int i = offset + length - 1; i >= offset; i--) {
+            dest[i] = BASE62_CHARS[(int) (number % BASE)];
+            number /= BASE;
         }
+        return length;
+    }
+
+    /**
+     * Encode a long number into a byte buffer as ASCII, left-padded to a minimum width
+     *
+     * @param number the non-negative number to encode
+     * @param width the minimum number of bytes to write
+     * @param dest the buffer to write to
+     * @param offset the position of the first byte
+     * @return the number of bytes written
+     */
+    public static int encodeTo(long number, int width, byte[] dest, int offset) {
+        int length = encodedLength(number, width);
+        checkBounds(dest.length, offset, length);
 
-        StringBuilder result = new StringBuilder();
-        while (number > 0) {
-            result.append(BASE62_CHARS.charAt((int) (number % BASE)));
+        for (int i = offset + length - 1; i >= offset; i--) {
+            dest[i] = (byte) BASE62_CHARS[(int) (number % BASE)];
             number /= BASE;
         }
+        return length;
+    }
+
+    /**
+     * Number of characters needed to encode a number at a minimum width
+     *
+     * @param number the non-negative number to encode
+     * @param width the minimum length
+     * @return the encoded length
+     */
+    public static int encodedLength(long number, int width) {
+        if (number < 0) {
+            throw new IllegalArgumentException("Cannot encode a negative number: " + number);
+        }
 
-        return result.reverse().toString();
+        int length = 1;
+        for (long rest = number / BASE; rest > 0; rest /= BASE) {
+            length++;
+        }
+        return Math.max(length, width);
     }
 
     /**
      * Decode a Base62 string to long number
-     * 
+     *
      * @param encoded the Base62 encoded string
      * @return decoded long number
      */
-    public static long decode(String encoded) {
-        long result = 0;
-        long power = 1;
+    public static long decode(CharSequence encoded) {
+        return decode(encoded, 0, encoded.length());
+    }
 
-        for (int i = encoded.length() - 1; i >= 0; i--) {
+    /**
+     * Decode part of a character sequence as Base62
+     *
+     * @param encoded the characters to decode
+     * @param start the index of the first character
+     * @param end the index after the last character
+     * @return decoded long number
+     * @throws IllegalArgumentException if the range is empty, contains a
+     *         character outside the alphabet or does not fit in a long
+     */
+    public static long decode(CharSequence encoded, int start, int end) {
+        if (start >= end) {
+            throw new IllegalArgumentException("Empty Base62 string");
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
             char c = encoded.charAt(i);
-            int index = BASE62_CHARS.indexOf(c);
-            if (index == -1) {
+            int digit = c < DIGIT_VALUES.length ? DIGIT_VALUES[c] : -1;
+            if (digit < 0) {
                 throw new IllegalArgumentException("Invalid character in Base62 string: " + c);
             }
-            result += index * power;
-            power *= BASE;
+            if (result > (Long.MAX_VALUE - digit) / BASE) {
+                throw new IllegalArgumentException("Base62 string does not fit in a long: " + encoded);
+            }
+            result = result * BASE + digit;
         }
 
         return result;
@@ -56,17 +158,18 @@ public class Base62Encoder {
 
     /**
      * Check if a string is valid Base62
-     * 
+     *
      * @param str the string to check
      * @return true if valid Base62
      */
-    public static boolean isValidBase62(String str) {
-        if (str == null || str.isEmpty()) {
+    public static boolean isValidBase62(CharSequence str) {
+        if (str == null || str.length() == 0) {
             return false;
         }
 
-        for (char c : str.toCharArray()) {
-            if (BASE62_CHARS.indexOf(c) == -1) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+            if (c >= DIGIT_VALUES.length || DIGIT_VALUES[c] < 0) {
                 return false;
             }
         }
@@ -76,16 +179,23 @@ public class Base62Encoder {
 
     /**
      * Generate a random Base62 string of specified length
-     * 
+     *
      * @param length the desired length
      * @return random Base62 string
      */
     public static String generateRandom(int length) {
-        StringBuilder result = new StringBuilder();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] result = new char[length];
         for (int i = 0; i < length; i++) {
-            int randomIndex = (int) (Math.random() * BASE);
-            result.append(BASE62_CHARS.charAt(randomIndex));
+            result[i] = BASE62_CHARS[random.nextInt(BASE)];
+        }
+        return new String(result);
+    }
+
+    private static void checkBounds(int capacity, int offset, int length) {
+        if (offset < 0 || offset > capacity - length) {
+            throw new IndexOutOfBoundsException(
+                    "Cannot write " + length + " characters at offset " + offset + " into " + capacity);
         }
-        return result.toString();
     }
-}
\ No newline at end of file
+}
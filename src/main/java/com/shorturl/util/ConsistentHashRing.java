@@ -0,0 +1,95 @@
+package com.shorturl.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring mapping keys to a fixed set of nodes
+ *
+ * Every node is placed on the ring at several virtual points, and a key
+ * belongs to the first point at or after its own hash. Adding a node to
+ * N existing ones moves roughly 1/(N+1) of the keys, all of them to the
+ * new node. The ring is immutable and safe to share between threads.
+ */
+public class ConsistentHashRing {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    /**
+     * Build a ring
+     *
+     * @param nodes the node names, at least one
+     * @param virtualNodes the number of points per node
+     */
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A hash ring needs at least one node");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes must be positive: " + virtualNodes);
+        }
+
+        // Sorted by point; ties, which are practically impossible, go to the node listed first
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String node : nodes) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.putIfAbsent(hash(node + "#" + i), node);
+            }
+        }
+
+        this.nodes = Collections.unmodifiableList(new ArrayList<>(nodes));
+        this.points = new long[ring.size()];
+        this.owners = new String[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> entry : ring.entrySet()) {
+            points[i] = entry.getKey();
+            owners[i] = entry.getValue();
+            i++;
+        }
+    }
+
+    /**
+     * Find the node a key belongs to
+     *
+     * @param key the key
+     * @return the owning node
+     */
+    public String nodeFor(CharSequence key) {
+        long hash = hash(key);
+        int low = 0;
+        int high = points.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        // Past the last point the ring wraps around to the first
+        return owners[low == points.length ? 0 : low];
+    }
+
+    /**
+     * Get the node names in the order they were given
+     */
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    private static long hash(CharSequence key) {
+        return HASH_FUNCTION.hashString(key, StandardCharsets.UTF_8).asLong();
+    }
+}
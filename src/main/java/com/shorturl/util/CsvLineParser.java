@@ -0,0 +1,54 @@
+package com.shorturl.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal CSV line parser
+ *
+ * Supports comma separated fields, double-quoted fields containing commas
+ * and doubled quotes as escapes. Quoted fields spanning several lines are
+ * not supported, which is fine for URLs.
+ */
+public class CsvLineParser {
+
+    /**
+     * Split a CSV line into fields
+     *
+     * @param line the CSV line
+     * @return the unquoted fields
+     * @throws IllegalArgumentException if a quoted field is not closed
+     */
+    public static List<String> parse(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,115 @@
+package com.shorturl.util;
+
+/**
+ * Keyed bijective permutation over the range [0, domain)
+ *
+ * A balanced Feistel network permutes the smallest even number of bits
+ * that covers the domain, and cycle-walking maps the result back into
+ * the domain. Consecutive inputs produce unrelated looking outputs, and
+ * every output can be mapped back to its input with {@link #inverse(long)}.
+ */
+public class FeistelPermutation {
+
+    private static final int ROUNDS = 6;
+
+    private final long domain;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    /**
+     * Create a permutation
+     *
+     * @param key the secret key
+     * @param domain the size of the domain, at least 2
+     */
+    public FeistelPermutation(long key, long domain) {
+        if (domain < 2) {
+            throw new IllegalArgumentException("Domain must contain at least 2 values: " + domain);
+        }
+
+        int bits = 64 - Long.numberOfLeadingZeros(domain - 1);
+        this.domain = domain;
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+
+        long state = key;
+        for (int i = 0; i < ROUNDS; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            roundKeys[i] = mix(state);
+        }
+    }
+
+    /**
+     * Map a value to its permuted value
+     *
+     * @param value a value in [0, domain)
+     * @return the permuted value in [0, domain)
+     */
+    public long permute(long value) {
+        checkRange(value);
+        do {
+            value = encrypt(value);
+        } while (value >= domain);
+        return value;
+    }
+
+    /**
+     * Map a permuted value back to its original value
+     *
+     * @param value a permuted value in [0, domain)
+     * @return the original value in [0, domain)
+     */
+    public long inverse(long value) {
+        checkRange(value);
+        do {
+            value = decrypt(value);
+        } while (value >= domain);
+        return value;
+    }
+
+    public long getDomain() {
+        return domain;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int i = 0; i < ROUNDS; i++) {
+            long next = left ^ round(right, roundKeys[i]);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long decrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int i = ROUNDS - 1; i >= 0; i--) {
+            long previous = right ^ round(left, roundKeys[i]);
+            right = left;
+            left = previous;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long round(long half, long roundKey) {
+        return mix(half ^ roundKey) & halfMask;
+    }
+
+    private void checkRange(long value) {
+        if (value < 0 || value >= domain) {
+            throw new IllegalArgumentException("Value out of permutation domain: " + value);
+        }
+    }
+
+    /**
+     * SplitMix64 finalizer
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,672 @@
+package com.shorturl.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Off-heap hash table from short code to long URL, kept in two files
+ *
+ * The index file holds an open-addressing table with linear probing,
+ * memory-mapped in segments so it can grow past 2 GB. Each 16-byte slot
+ * holds the short code decoded as Base62 and the offset of its record
+ * in the data file. Records are appended: the short code, the expiry,
+ * the time the record was written and the long URL. The code is stored
+ * in the record and compared on lookup, since codes differing only in
+ * leading zeros decode to the same number. Re-recording a code with the
+ * same long URL and expiry only refreshes its recording time in place;
+ * any other replace appends a new record. Removing a code leaves a
+ * tombstone that lookups probe past and inserts may reuse.
+ *
+ * Both files are reopened as they are after a restart; files written by
+ * an older version are started over. The table never resizes: inserts
+ * into a fresh slot are refused once live codes and tombstones fill
+ * three quarters of it. Replaced and removed records stay in the data
+ * file, so it grows by every insert and changed target until the table
+ * is rewritten with {@link #copyTo}, which drops tombstones and dead
+ * records.
+ *
+ * Lookups read optimistically without locking; writes are serialized.
+ */
+public final class MappedUrlTable implements Closeable {
+
+    /** Fraction of slots, live or tombstone, after which inserts are refused */
+    public static final double MAX_LOAD = 0.75;
+
+    private static final long MAGIC = 0x54494E5955524C31L; // "TINYURL1"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 64;
+    private static final int HEADER_CAPACITY = 16;
+    private static final int HEADER_SIZE_FIELD = 24;
+    private static final int HEADER_USED = 32;
+    private static final int HEADER_DATA_END = 40;
+    private static final int HEADER_LIVE_BYTES = 48;
+    private static final int SLOT_SIZE = 16;
+    private static final int SEGMENT_SHIFT = 26;
+    private static final long SEGMENT_SLOTS = 1L << SEGMENT_SHIFT;
+    private static final int MAX_CODE_LENGTH = 255;
+    private static final int RECORD_PREFIX = 4 + 1;
+    private static final int READ_AHEAD = 512;
+    private static final long EMPTY = 0;
+
+    private final FileChannel indexChannel;
+    private final FileChannel dataChannel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] segments;
+    private final long capacity;
+    private final long mask;
+    private final long maxUsed;
+    private final StampedLock lock = new StampedLock();
+    private long size;
+    private long used;
+    private long liveBytes;
+    private volatile long dataEnd;
+
+    private MappedUrlTable(FileChannel indexChannel, FileChannel dataChannel, long capacity, boolean created)
+            throws IOException {
+        this.indexChannel = indexChannel;
+        this.dataChannel = dataChannel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxUsed = (long) (capacity * MAX_LOAD);
+
+        header = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        int segmentCount = (int) ((capacity + SEGMENT_SLOTS - 1) >>> SEGMENT_SHIFT);
+        segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long slots = Math.min(SEGMENT_SLOTS, capacity - ((long) i << SEGMENT_SHIFT));
+            segments[i] = indexChannel.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_SIZE + ((long) i << SEGMENT_SHIFT) * SLOT_SIZE, slots * SLOT_SIZE);
+        }
+
+        if (created) {
+            header.putLong(0, MAGIC);
+            header.putInt(8, VERSION);
+            header.putLong(HEADER_CAPACITY, capacity);
+            writeCounts();
+        } else {
+            size = header.getLong(HEADER_SIZE_FIELD);
+            used = header.getLong(HEADER_USED);
+            dataEnd = header.getLong(HEADER_DATA_END);
+            liveBytes = header.getLong(HEADER_LIVE_BYTES);
+            // Drop a record appended by a write that never got to its slot
+            if (dataChannel.size() > dataEnd) {
+                dataChannel.truncate(dataEnd);
+            }
+        }
+    }
+
+    /**
+     * Open the table in a directory, creating it if it does not exist
+     *
+     * An existing table keeps the capacity it was created with.
+     *
+     * @param directory the directory holding the index and data files
+     * @param capacity the number of slots of a new table, rounded up to a power of two
+     * @return the table
+     * @throws IOException if the files cannot be opened or are not a table
+     */
+    public static MappedUrlTable open(Path directory, long capacity) throws IOException {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        Files.createDirectories(directory);
+        Path indexFile = directory.resolve("redirect.idx");
+        Path dataFile = directory.resolve("redirect.dat");
+        boolean created = !Files.exists(indexFile) || Files.size(indexFile) == 0 || isOlderVersion(indexFile);
+
+        FileChannel indexChannel = FileChannel.open(indexFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel dataChannel = null;
+        try {
+            long slots;
+            if (created) {
+                slots = Long.highestOneBit(capacity - 1) << 1;
+                // Sparse on most file systems; pages are only allocated once written
+                try (RandomAccessFile file = new RandomAccessFile(indexFile.toFile(), "rw")) {
+                    file.setLength(0);
+                    file.setLength(HEADER_SIZE + slots * SLOT_SIZE);
+                }
+                Files.deleteIfExists(dataFile);
+            } else {
+                slots = readCapacity(indexChannel, indexFile);
+            }
+            dataChannel = FileChannel.open(dataFile,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new MappedUrlTable(indexChannel, dataChannel, slots, created);
+        } catch (IOException | RuntimeException e) {
+            indexChannel.close();
+            if (dataChannel != null) {
+                dataChannel.close();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Look up a short code
+     *
+     * @param code the short code
+     * @return the entry, or null if the code is not in the table
+     */
+    public Entry get(String code) {
+        long key = keyOf(code);
+        if (key < 0) {
+            return null;
+        }
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Entry entry = find(code, key);
+                if (lock.validate(stamp)) {
+                    return entry;
+                }
+            } catch (IOException | RuntimeException e) {
+                if (lock.validate(stamp)) {
+                    throw new IllegalStateException("Failed to read redirect table", e);
+                }
+                // Read a slot while it was being written; retry under the lock
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return find(code, key);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read redirect table", e);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Add a short code or replace its entry, recorded now
+     *
+     * @param code the short code
+     * @param longUrl the long URL
+     * @param expiresAtMillis the expiry in epoch milliseconds, or Long.MIN_VALUE if it never expires
+     * @return false if the table is full or the code cannot be stored
+     * @throws IOException if the record cannot be written
+     */
+    public boolean put(String code, String longUrl, long expiresAtMillis) throws IOException {
+        return put(code, longUrl, expiresAtMillis, System.currentTimeMillis());
+    }
+
+    /**
+     * Add a short code or replace its entry
+     *
+     * @param code the short code
+     * @param longUrl the long URL
+     * @param expiresAtMillis the expiry in epoch milliseconds, or Long.MIN_VALUE if it never expires
+     * @param recordedAtMillis when the entry was known to be current, in epoch milliseconds
+     * @return false if the table is full or the code cannot be stored
+     * @throws IOException if the record cannot be written
+     */
+    public boolean put(String code, String longUrl, long expiresAtMillis, long recordedAtMillis) throws IOException {
+        long key = keyOf(code);
+        if (key < 0) {
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            long tombstone = -1;
+            long slot = slotOf(key);
+            for (long probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                long ref = ref(slot);
+                if (ref == EMPTY) {
+                    break;
+                }
+                if (ref < 0) {
+                    if (tombstone < 0) {
+                        tombstone = slot;
+                    }
+                } else if (key(slot) == key) {
+                    Entry current = readEntry(ref - 1, code);
+                    if (current == null) {
+                        continue;
+                    }
+                    if (current.longUrl.equals(longUrl) && current.expiresAtMillis == expiresAtMillis) {
+                        writeRecordedAt(ref - 1, code.length(), recordedAtMillis);
+                        return true;
+                    }
+                    liveBytes -= recordLength(ref - 1);
+                    setRef(slot, append(code, longUrl, expiresAtMillis, recordedAtMillis) + 1);
+                    writeCounts();
+                    return true;
+                }
+            }
+
+            long target = tombstone;
+            if (target < 0) {
+                if (used >= maxUsed) {
+                    return false;
+                }
+                target = slot;
+                used++;
+            }
+            long offset = append(code, longUrl, expiresAtMillis, recordedAtMillis);
+            setKey(target, key);
+            setRef(target, offset + 1);
+            size++;
+            writeCounts();
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Remove a short code
+     *
+     * @param code the short code
+     * @return true if the code was in the table
+     * @throws IOException if the data file cannot be read
+     */
+    public boolean remove(String code) throws IOException {
+        long key = keyOf(code);
+        if (key < 0) {
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            long slot = slotOf(key);
+            for (long probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+                long ref = ref(slot);
+                if (ref == EMPTY) {
+                    return false;
+                }
+                if (ref > 0 && key(slot) == key && code.equals(readCode(ref - 1))) {
+                    setRef(slot, -ref);
+                    size--;
+                    liveBytes -= recordLength(ref - 1);
+                    writeCounts();
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Get the number of codes in the table
+     */
+    public long size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Get the number of slots taken by codes or tombstones
+     */
+    public long used() {
+        long stamp = lock.readLock();
+        try {
+            return used;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Get the number of slots
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the size of the data file in bytes
+     */
+    public long dataBytes() {
+        return dataEnd;
+    }
+
+    /**
+     * Get the bytes of the data file taken by the current records
+     */
+    public long liveBytes() {
+        long stamp = lock.readLock();
+        try {
+            return liveBytes;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Copy every code into another table, leaving tombstones and dead records behind
+     *
+     * Writes to this table wait until the copy is done.
+     *
+     * @param target the table to copy into
+     * @return the number of codes the target refused because it is full
+     * @throws IOException if a record cannot be read or written
+     */
+    public long copyTo(MappedUrlTable target) throws IOException {
+        long refused = 0;
+        long stamp = lock.readLock();
+        try {
+            for (long slot = 0; slot < capacity; slot++) {
+                long ref = ref(slot);
+                if (ref > 0) {
+                    String code = readCode(ref - 1);
+                    Entry entry = readEntry(ref - 1, code);
+                    if (!target.put(code, entry.longUrl, entry.expiresAtMillis, entry.recordedAtMillis)) {
+                        refused++;
+                    }
+                }
+            }
+            return refused;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Move the files of a table to another directory, replacing the table there
+     *
+     * The index file is removed first and moved last, so a crash in between
+     * leaves no index and the target directory starts over. A table still
+     * open on the source keeps working on the moved files.
+     *
+     * @param source the directory holding the table
+     * @param target the directory to move it to
+     * @throws IOException if the files cannot be moved
+     */
+    public static void move(Path source, Path target) throws IOException {
+        Files.createDirectories(target);
+        Files.deleteIfExists(target.resolve("redirect.idx"));
+        Files.move(source.resolve("redirect.dat"), target.resolve("redirect.dat"),
+                StandardCopyOption.REPLACE_EXISTING);
+        Files.move(source.resolve("redirect.idx"), target.resolve("redirect.idx"));
+    }
+
+    /**
+     * Delete the files of a table that is not open
+     *
+     * @param directory the directory holding the table
+     * @throws IOException if the files cannot be deleted
+     */
+    public static void delete(Path directory) throws IOException {
+        Files.deleteIfExists(directory.resolve("redirect.idx"));
+        Files.deleteIfExists(directory.resolve("redirect.dat"));
+    }
+
+    /**
+     * Write changes to disk
+     */
+    public void force() throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            dataChannel.force(false);
+            for (MappedByteBuffer segment : segments) {
+                segment.force();
+            }
+            header.force();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            force();
+        } finally {
+            dataChannel.close();
+            indexChannel.close();
+        }
+    }
+
+    /**
+     * Probe for a code; runs under a lock or an optimistic read stamp
+     */
+    private Entry find(String code, long key) throws IOException {
+        long slot = slotOf(key);
+        for (long probes = 0; probes < capacity; probes++, slot = (slot + 1) & mask) {
+            long ref = ref(slot);
+            if (ref == EMPTY) {
+                return null;
+            }
+            if (ref > 0 && key(slot) == key) {
+                Entry entry = readEntry(ref - 1, code);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Append a record and return its offset
+     *
+     * Layout: int record length, byte code length, code, long expiry,
+     * long recording time, long URL in UTF-8 to the end of the record.
+     */
+    private long append(String code, String longUrl, long expiresAtMillis, long recordedAtMillis) throws IOException {
+        byte[] codeBytes = code.getBytes(StandardCharsets.US_ASCII);
+        byte[] urlBytes = longUrl.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_PREFIX + codeBytes.length + 16 + urlBytes.length;
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.putInt(length).put((byte) codeBytes.length).put(codeBytes).putLong(expiresAtMillis)
+                .putLong(recordedAtMillis).put(urlBytes);
+        record.flip();
+
+        long offset = dataEnd;
+        long position = offset;
+        while (record.hasRemaining()) {
+            position += dataChannel.write(record, position);
+        }
+        dataEnd = position;
+        liveBytes += length;
+        return offset;
+    }
+
+    private int recordLength(long offset) throws IOException {
+        return read(offset, RECORD_PREFIX).getInt(0);
+    }
+
+    private void writeRecordedAt(long offset, int codeLength, long recordedAtMillis) throws IOException {
+        ByteBuffer value = ByteBuffer.allocate(8);
+        value.putLong(0, recordedAtMillis);
+        long position = offset + RECORD_PREFIX + codeLength + 8;
+        while (value.hasRemaining()) {
+            position += dataChannel.write(value, position);
+        }
+    }
+
+    private String readCode(long offset) throws IOException {
+        ByteBuffer record = read(offset, RECORD_PREFIX + MAX_CODE_LENGTH);
+        int codeLength = record.get(4) & 0xFF;
+        return new String(record.array(), RECORD_PREFIX, codeLength, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Read the record at an offset if it belongs to the code
+     */
+    private Entry readEntry(long offset, String code) throws IOException {
+        ByteBuffer record = read(offset, READ_AHEAD);
+        int length = record.getInt(0);
+        int codeLength = record.get(4) & 0xFF;
+        if (length < RECORD_PREFIX + codeLength + 16 || offset + length > dataEnd) {
+            throw new IOException("Corrupt record at offset " + offset);
+        }
+        if (codeLength != code.length()) {
+            return null;
+        }
+        for (int i = 0; i < codeLength; i++) {
+            if (record.get(RECORD_PREFIX + i) != code.charAt(i)) {
+                return null;
+            }
+        }
+
+        if (length > record.limit()) {
+            record = read(offset, length);
+        }
+        int urlStart = RECORD_PREFIX + codeLength + 16;
+        long expiresAtMillis = record.getLong(RECORD_PREFIX + codeLength);
+        long recordedAtMillis = record.getLong(RECORD_PREFIX + codeLength + 8);
+        String longUrl = new String(record.array(), urlStart, length - urlStart, StandardCharsets.UTF_8);
+        return new Entry(longUrl, expiresAtMillis, recordedAtMillis);
+    }
+
+    /**
+     * Read up to a number of bytes of the data file, fewer at its end
+     */
+    private ByteBuffer read(long offset, int maxBytes) throws IOException {
+        int length = (int) Math.min(maxBytes, dataEnd - offset);
+        if (offset < 0 || length < RECORD_PREFIX) {
+            throw new IOException("Record offset out of range: " + offset);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        long position = offset;
+        while (buffer.hasRemaining()) {
+            int read = dataChannel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of data file at " + position);
+            }
+            position += read;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private long slotOf(long key) {
+        // Spread sequential codes over the table (murmur3 finalizer)
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h & mask;
+    }
+
+    private long key(long slot) {
+        return segment(slot).getLong(slotPosition(slot));
+    }
+
+    private long ref(long slot) {
+        return segment(slot).getLong(slotPosition(slot) + 8);
+    }
+
+    private void setKey(long slot, long key) {
+        segment(slot).putLong(slotPosition(slot), key);
+    }
+
+    private void setRef(long slot, long ref) {
+        segment(slot).putLong(slotPosition(slot) + 8, ref);
+    }
+
+    private MappedByteBuffer segment(long slot) {
+        return segments[(int) (slot >>> SEGMENT_SHIFT)];
+    }
+
+    private static int slotPosition(long slot) {
+        return (int) (slot & (SEGMENT_SLOTS - 1)) * SLOT_SIZE;
+    }
+
+    private void writeCounts() {
+        header.putLong(HEADER_SIZE_FIELD, size);
+        header.putLong(HEADER_USED, used);
+        header.putLong(HEADER_DATA_END, dataEnd);
+        header.putLong(HEADER_LIVE_BYTES, liveBytes);
+    }
+
+    /**
+     * Decode a short code to its table key
+     *
+     * @return the key, or -1 if the code is not Base62 or too long
+     */
+    private static long keyOf(String code) {
+        if (code == null || code.length() > MAX_CODE_LENGTH || !Base62Encoder.isValidBase62(code)) {
+            return -1;
+        }
+        try {
+            return Base62Encoder.decode(code);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Check whether a file is a table in an older layout
+     */
+    private static boolean isOlderVersion(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(12);
+            while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+                // keep reading
+            }
+            return !buffer.hasRemaining() && buffer.getLong(0) == MAGIC && buffer.getInt(8) < VERSION;
+        }
+    }
+
+    private static long readCapacity(FileChannel channel, Path indexFile) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) >= 0) {
+            // keep reading
+        }
+        if (buffer.hasRemaining() || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+            throw new IOException("Not a redirect table: " + indexFile);
+        }
+        long slots = buffer.getLong(HEADER_CAPACITY);
+        if (Long.bitCount(slots) != 1 || Files.size(indexFile) < HEADER_SIZE + slots * SLOT_SIZE) {
+            throw new IOException("Truncated redirect table: " + indexFile);
+        }
+        return slots;
+    }
+
+    /**
+     * A long URL, its expiry and when it was recorded
+     */
+    public static final class Entry {
+
+        private final String longUrl;
+        private final long expiresAtMillis;
+        private final long recordedAtMillis;
+
+        Entry(String longUrl, long expiresAtMillis, long recordedAtMillis) {
+            this.longUrl = longUrl;
+            this.expiresAtMillis = expiresAtMillis;
+            this.recordedAtMillis = recordedAtMillis;
+        }
+
+        public String getLongUrl() {
+            return longUrl;
+        }
+
+        /**
+         * Get the expiry in epoch milliseconds, or Long.MIN_VALUE if it never expires
+         */
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        /**
+         * Get when the entry was recorded, in epoch milliseconds
+         */
+        public long getRecordedAtMillis() {
+            return recordedAtMillis;
+        }
+    }
+}
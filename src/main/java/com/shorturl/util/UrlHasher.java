@@ -0,0 +1,62 @@
+package com.shorturl.util;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Fixed-width hashing of long URLs for the deduplication index
+ *
+ * URLs are normalized first: surrounding whitespace is trimmed and the
+ * case-insensitive scheme and host are lower-cased. Path, query and
+ * fragment are kept as they are, since they are case-sensitive.
+ */
+public class UrlHasher {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    /**
+     * Hash a long URL to 64 bits
+     *
+     * @param url the long URL
+     * @return the hash of the normalized URL
+     */
+    public static long hash(String url) {
+        return HASH_FUNCTION.hashString(normalize(url), StandardCharsets.UTF_8).asLong();
+    }
+
+    /**
+     * Normalize a long URL for comparison
+     *
+     * @param url the long URL
+     * @return the normalized URL
+     */
+    public static String normalize(String url) {
+        if (url == null) {
+            return "";
+        }
+
+        String trimmed = url.trim();
+        int schemeEnd = trimmed.indexOf("://");
+        if (schemeEnd < 0) {
+            return trimmed;
+        }
+
+        int authorityStart = schemeEnd + 3;
+        int authorityEnd = authorityStart;
+        while (authorityEnd < trimmed.length() && "/?#".indexOf(trimmed.charAt(authorityEnd)) < 0) {
+            authorityEnd++;
+        }
+
+        return trimmed.substring(0, authorityEnd).toLowerCase(Locale.ROOT) + trimmed.substring(authorityEnd);
+    }
+
+    /**
+     * Check whether two long URLs are the same after normalization
+     */
+    public static boolean sameUrl(String first, String second) {
+        return normalize(first).equals(normalize(second));
+    }
+}
@@ -0,0 +1,324 @@
+package com.shorturl.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process stand-in for Redis in tests
+ *
+ * Speaks RESP2 on a loopback port and knows the commands the shared
+ * cache uses: GET, SET with PX or EX, DEL, PUBLISH, SUBSCRIBE and
+ * UNSUBSCRIBE, plus PING and QUIT. HELLO is refused so clients fall
+ * back to RESP2.
+ */
+public class EmbeddedRedisServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Value> values = new ConcurrentHashMap<>();
+    private final Map<String, Set<Client>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+
+    public EmbeddedRedisServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::accept, "embedded-redis");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Get the time to live of a key
+     *
+     * @return milliseconds left, -1 for no expiry or -2 if the key is absent
+     */
+    public long ttlMillis(String key) {
+        Value value = live(key);
+        if (value == null) {
+            return -2;
+        }
+        return value.expiresAt == Long.MAX_VALUE ? -1 : value.expiresAt - System.currentTimeMillis();
+    }
+
+    /**
+     * Get the number of clients subscribed to a channel
+     */
+    public int subscriberCount(String channel) {
+        return subscribers.getOrDefault(channel, ConcurrentHashMap.newKeySet()).size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Client client = new Client(serverSocket.accept());
+                clients.add(client);
+                Thread thread = new Thread(client::serve, "embedded-redis-client");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private Value live(String key) {
+        Value value = values.get(key);
+        if (value != null && value.expiresAt <= System.currentTimeMillis()) {
+            values.remove(key, value);
+            return null;
+        }
+        return value;
+    }
+
+    private static final class Value {
+        private final byte[] bytes;
+        private final long expiresAt;
+
+        private Value(byte[] bytes, long expiresAt) {
+            this.bytes = bytes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Client {
+        private final Socket socket;
+        private final OutputStream out;
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+        private Client(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        private void serve() {
+            try (InputStream in = new BufferedInputStream(socket.getInputStream())) {
+                List<byte[]> command;
+                while ((command = readCommand(in)) != null) {
+                    if (!handle(command)) {
+                        break;
+                    }
+                }
+            } catch (IOException e) {
+                // Connection closed
+            } finally {
+                for (String channel : channels) {
+                    subscribers.getOrDefault(channel, ConcurrentHashMap.newKeySet()).remove(this);
+                }
+                clients.remove(this);
+                close();
+            }
+        }
+
+        private boolean handle(List<byte[]> command) throws IOException {
+            String name = string(command.get(0)).toUpperCase();
+            switch (name) {
+                case "PING":
+                    simple("PONG");
+                    break;
+                case "QUIT":
+                    simple("OK");
+                    return false;
+                case "GET": {
+                    Value value = live(string(command.get(1)));
+                    bulk(value != null ? value.bytes : null);
+                    break;
+                }
+                case "SET": {
+                    long expiresAt = Long.MAX_VALUE;
+                    for (int i = 3; i + 1 < command.size(); i += 2) {
+                        String option = string(command.get(i)).toUpperCase();
+                        long amount = Long.parseLong(string(command.get(i + 1)));
+                        if ("PX".equals(option)) {
+                            expiresAt = System.currentTimeMillis() + amount;
+                        } else if ("EX".equals(option)) {
+                            expiresAt = System.currentTimeMillis() + amount * 1000L;
+                        }
+                    }
+                    values.put(string(command.get(1)), new Value(command.get(2), expiresAt));
+                    simple("OK");
+                    break;
+                }
+                case "DEL": {
+                    long removed = 0;
+                    for (int i = 1; i < command.size(); i++) {
+                        String key = string(command.get(i));
+                        if (live(key) != null && values.remove(key) != null) {
+                            removed++;
+                        }
+                    }
+                    integer(removed);
+                    break;
+                }
+                case "PUBLISH": {
+                    Set<Client> receivers = subscribers.getOrDefault(string(command.get(1)), ConcurrentHashMap.newKeySet());
+                    for (Client receiver : receivers) {
+                        receiver.push("message", command.get(1), command.get(2));
+                    }
+                    integer(receivers.size());
+                    break;
+                }
+                case "SUBSCRIBE":
+                    for (int i = 1; i < command.size(); i++) {
+                        String channel = string(command.get(i));
+                        channels.add(channel);
+                        subscribers.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(this);
+                        subscription("subscribe", command.get(i));
+                    }
+                    break;
+                case "UNSUBSCRIBE":
+                case "PUNSUBSCRIBE": {
+                    List<String> targets = new ArrayList<>();
+                    for (int i = 1; i < command.size(); i++) {
+                        targets.add(string(command.get(i)));
+                    }
+                    if ("PUNSUBSCRIBE".equals(name)) {
+                        targets.clear();
+                    } else if (targets.isEmpty()) {
+                        targets.addAll(channels);
+                    }
+                    if (targets.isEmpty()) {
+                        subscription(name.toLowerCase(), null);
+                    }
+                    for (String channel : targets) {
+                        channels.remove(channel);
+                        subscribers.getOrDefault(channel, ConcurrentHashMap.newKeySet()).remove(this);
+                        subscription(name.toLowerCase(), channel.getBytes(StandardCharsets.UTF_8));
+                    }
+                    break;
+                }
+                default:
+                    error("ERR unknown command '" + name + "'");
+            }
+            return true;
+        }
+
+        private synchronized void simple(String message) throws IOException {
+            out.write(("+" + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private synchronized void error(String message) throws IOException {
+            out.write(("-" + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private synchronized void integer(long value) throws IOException {
+            out.write((":" + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private synchronized void bulk(byte[] value) throws IOException {
+            writeBulk(value);
+            out.flush();
+        }
+
+        private synchronized void subscription(String kind, byte[] channel) throws IOException {
+            out.write("*3\r\n".getBytes(StandardCharsets.UTF_8));
+            writeBulk(kind.getBytes(StandardCharsets.UTF_8));
+            writeBulk(channel);
+            out.write((":" + channels.size() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        private synchronized void push(String kind, byte[] channel, byte[] message) {
+            try {
+                out.write("*3\r\n".getBytes(StandardCharsets.UTF_8));
+                writeBulk(kind.getBytes(StandardCharsets.UTF_8));
+                writeBulk(channel);
+                writeBulk(message);
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        private void writeBulk(byte[] value) throws IOException {
+            if (value == null) {
+                out.write("$-1\r\n".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+            out.write(value);
+            out.write("\r\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        if (!header.startsWith("*")) {
+            throw new IOException("Expected an array but got " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> command = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String length = readLine(in);
+            if (length == null || !length.startsWith("$")) {
+                throw new IOException("Expected a bulk string but got " + length);
+            }
+            byte[] value = new byte[Integer.parseInt(length.substring(1))];
+            int read = 0;
+            while (read < value.length) {
+                int n = in.read(value, read, value.length - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                read += n;
+            }
+            readLine(in);
+            command.add(value);
+        }
+        return command;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\r') {
+                in.read();
+                return new String(line.toByteArray(), StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : new String(line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
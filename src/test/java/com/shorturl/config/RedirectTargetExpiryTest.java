@@ -0,0 +1,70 @@
+package com.shorturl.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.shorturl.dto.RedirectTarget;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RedirectTargetExpiry
+ */
+class RedirectTargetExpiryTest {
+
+    private final RedirectTargetExpiry expiry = new RedirectTargetExpiry(Duration.ofDays(1));
+
+    @Test
+    void testPermanentTarget_ExpiresAfterMaxTtl() {
+        RedirectTarget target = new RedirectTarget("https://www.example.com", null);
+
+        assertEquals(TimeUnit.DAYS.toNanos(1), expiry.expireAfterCreate("abc123", target, 0L));
+        assertEquals(TimeUnit.DAYS.toNanos(1), expiry.expireAfterCreate("abc123",
+                new RedirectTarget("https://www.example.com", LocalDateTime.now().plusDays(30)), 0L));
+        assertEquals(TimeUnit.DAYS.toNanos(1), expiry.expireAfterCreate("abc123",
+                new RedirectTarget("https://www.example.com", LocalDateTime.MAX), 0L));
+    }
+
+    @Test
+    void testTimeLimitedTarget_ExpiresWithLink() {
+        RedirectTarget target = new RedirectTarget("https://www.example.com", LocalDateTime.now().plusMinutes(5));
+
+        long nanos = expiry.expireAfterCreate("abc123", target, 0L);
+
+        assertTrue(nanos <= TimeUnit.MINUTES.toNanos(5));
+        assertTrue(nanos > TimeUnit.MINUTES.toNanos(4));
+        assertEquals(0L, expiry.expireAfterCreate("abc123",
+                new RedirectTarget("https://www.example.com", LocalDateTime.now().minusSeconds(1)), 0L));
+    }
+
+    @Test
+    void testRead_KeepsRemainingDuration() {
+        assertEquals(42L, expiry.expireAfterRead("abc123", new RedirectTarget(), 0L, 42L));
+    }
+
+    @Test
+    void testCache_DropsEntryAtExpiry() {
+        // Given
+        AtomicLong now = new AtomicLong();
+        Ticker ticker = now::get;
+        Cache<Object, Object> cache = Caffeine.newBuilder().ticker(ticker).expireAfter(expiry).build();
+        cache.put("short", new RedirectTarget("https://www.example.com", LocalDateTime.now().plusMinutes(5)));
+        cache.put("permanent", new RedirectTarget("https://www.example.org", null));
+
+        // When
+        now.addAndGet(TimeUnit.MINUTES.toNanos(6));
+
+        // Then
+        assertNull(cache.getIfPresent("short"));
+        assertNotNull(cache.getIfPresent("permanent"));
+
+        now.addAndGet(TimeUnit.DAYS.toNanos(1));
+        assertNull(cache.getIfPresent("permanent"));
+    }
+}
@@ -0,0 +1,204 @@
+package com.shorturl.config;
+
+import com.shorturl.dto.RedirectTarget;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for TwoLevelCacheManager, with two instances sharing an embedded Redis stand-in
+ */
+class TwoLevelCacheTest {
+
+    private static final String CHANNEL = "test:cache-invalidation";
+
+    private EmbeddedRedisServer server;
+    private Instance first;
+    private Instance second;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new EmbeddedRedisServer();
+        first = new Instance();
+        second = new Instance();
+        await(() -> server.subscriberCount(CHANNEL) == 2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        first.close();
+        second.close();
+        server.close();
+    }
+
+    @Test
+    void testPut_ReadThroughOtherInstance() {
+        // Given
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MILLIS);
+        first.cache().put("abc123", new RedirectTarget("https://www.example.com", expiresAt));
+
+        // When
+        RedirectTarget target = second.cache().get("abc123", RedirectTarget.class);
+
+        // Then
+        assertEquals("https://www.example.com", target.getLongUrl());
+        assertEquals(expiresAt, target.getExpiresAt());
+        assertNotNull(second.local().get("abc123"));
+        assertEquals(1.0, second.meterRegistry.counter("cache.l2.requests", "cache", "urlMappings", "result", "hit").count());
+        assertEquals(1L, second.meterRegistry.timer("cache.l2.latency", "cache", "urlMappings", "operation", "get").count());
+    }
+
+    @Test
+    void testPut_TimeToLiveEndsWithTheLink() {
+        // Given
+        first.cache().put("perm01", new RedirectTarget("https://www.example.com/permanent", null));
+        first.cache().put("temp01", new RedirectTarget("https://www.example.com/temporary",
+                LocalDateTime.now().plusSeconds(10)));
+        first.cache().put("gone01", new RedirectTarget("https://www.example.com/expired",
+                LocalDateTime.now().minusSeconds(1)));
+
+        // Then
+        assertTrue(server.ttlMillis("test:urlMappings:perm01") > 10_000);
+        assertTrue(server.ttlMillis("test:urlMappings:temp01") <= 10_000);
+        assertEquals(-2, server.ttlMillis("test:urlMappings:gone01"));
+    }
+
+    @Test
+    void testEvict_InvalidatesOtherInstances() throws Exception {
+        // Given both instances hold the entry in L1
+        first.cache().put("abc123", new RedirectTarget("https://www.example.com", null));
+        assertNotNull(second.cache().get("abc123"));
+
+        // When
+        first.cache().evict("abc123");
+
+        // Then
+        await(() -> second.local().get("abc123") == null);
+        assertNull(first.local().get("abc123"));
+        assertEquals(-2, server.ttlMillis("test:urlMappings:abc123"));
+        assertNull(second.cache().get("abc123"));
+        assertEquals(1L, second.meterRegistry.timer("cache.invalidation.lag").count());
+        assertEquals(1, second.events.size());
+        assertEquals("urlMappings", second.events.get(0).getCacheName());
+        assertEquals("abc123", second.events.get(0).getKey());
+        assertTrue(first.events.isEmpty());
+    }
+
+    @Test
+    void testUnsharedCache_StaysLocalButEvictionIsBroadcast() throws Exception {
+        // Given
+        first.manager.getCache("urlStats").put("abc123", "stats");
+        second.manager.getCache("urlStats").put("abc123", "stats");
+        assertNull(first.manager.getCache("urlStats").get("other"));
+        assertEquals(0.0, first.meterRegistry.counter("cache.l2.requests", "cache", "urlStats", "result", "miss").count());
+
+        // When
+        first.manager.getCache("urlStats").evict("abc123");
+
+        // Then
+        await(() -> second.manager.getCache("urlStats").get("abc123") == null);
+    }
+
+    @Test
+    void testKeyFilter_SkipsL2ForRejectedKeys() {
+        // Given
+        first.cache().put("abc123", new RedirectTarget("https://www.example.com", null));
+        second.manager.setSharedKeyFilter("urlMappings", key -> !key.equals("zzz999"));
+
+        // When
+        Cache.ValueWrapper rejected = second.cache().get("zzz999");
+        Cache.ValueWrapper accepted = second.cache().get("abc123");
+
+        // Then
+        assertNull(rejected);
+        assertNotNull(accepted);
+        assertEquals(0.0, second.meterRegistry.counter("cache.l2.requests", "cache", "urlMappings", "result", "miss").count());
+        assertEquals(1L, second.meterRegistry.timer("cache.l2.latency", "cache", "urlMappings", "operation", "get").count());
+    }
+
+    @Test
+    void testRedisDown_BehavesAsMiss() throws Exception {
+        // Given
+        first.cache().put("abc123", new RedirectTarget("https://www.example.com", null));
+        first.container.stop();
+        second.container.stop();
+        server.close();
+
+        // When
+        first.cache().put("def456", new RedirectTarget("https://www.example.com/other", null));
+
+        // Then
+        assertNotNull(first.cache().get("abc123"));
+        assertNotNull(first.cache().get("def456"));
+        assertNull(first.cache().get("zzz999"));
+        assertTrue(first.meterRegistry.counter("cache.l2.errors").count() >= 2);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * One application instance: its own connections, caches and subscription
+     */
+    private final class Instance implements AutoCloseable {
+        private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private final List<CacheInvalidatedEvent> events = new CopyOnWriteArrayList<>();
+        private final LettuceConnectionFactory connectionFactory;
+        private final RedisMessageListenerContainer container;
+        private final TwoLevelCacheManager manager;
+
+        private Instance() {
+            connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("127.0.0.1", server.getPort()),
+                    LettuceClientConfiguration.builder().commandTimeout(Duration.ofMillis(500)).build());
+            connectionFactory.afterPropertiesSet();
+            manager = new TwoLevelCacheManager(new CacheConfig().caffeineCacheManager(),
+                    new SharedCacheStore(connectionFactory, "test:", meterRegistry),
+                    Collections.singleton("urlMappings"), Duration.ofHours(1), CHANNEL, meterRegistry,
+                    event -> events.add((CacheInvalidatedEvent) event));
+            container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            container.addMessageListener((message, pattern) -> manager.onInvalidation(message.getBody()),
+                    new ChannelTopic(CHANNEL));
+            container.afterPropertiesSet();
+            container.start();
+        }
+
+        private Cache cache() {
+            return manager.getCache("urlMappings");
+        }
+
+        private Cache local() {
+            return ((TwoLevelCache) cache()).getLocal();
+        }
+
+        @Override
+        public void close() throws Exception {
+            container.stop();
+            container.destroy();
+            connectionFactory.destroy();
+        }
+    }
+}
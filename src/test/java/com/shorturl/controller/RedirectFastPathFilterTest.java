@@ -0,0 +1,117 @@
+package com.shorturl.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.HttpCachePolicy;
+import com.shorturl.service.impl.UrlShortenerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RedirectFastPathFilter
+ */
+class RedirectFastPathFilterTest {
+
+    private Cache<Object, Object> cache;
+    private ClickCountAggregator clickCountAggregator;
+    private MeterRegistry meterRegistry;
+    private RedirectFastPathFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        cache = Caffeine.newBuilder().build();
+        cache.put("abc123", new RedirectTarget("https://www.example.com", null));
+        cache.put("health", new RedirectTarget("https://www.example.com/health", null));
+        clickCountAggregator = mock(ClickCountAggregator.class);
+        meterRegistry = new SimpleMeterRegistry();
+        UrlShortenerMetrics metrics = new UrlShortenerMetrics();
+        ReflectionTestUtils.setField(metrics, "meterRegistry", meterRegistry);
+        metrics.init();
+        HttpCachePolicy httpCachePolicy = new HttpCachePolicy();
+        httpCachePolicy.init();
+        filter = new RedirectFastPathFilter(cache, clickCountAggregator, metrics, httpCachePolicy);
+    }
+
+    @Test
+    void testCachedRedirect_ServedWithoutChain() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/abc123");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        // When
+        filter.doFilter(request, response, chain);
+
+        // Then
+        assertEquals(301, response.getStatus());
+        assertEquals("https://www.example.com", response.getHeader("Location"));
+        assertEquals("public, max-age=300", response.getHeader("Cache-Control"));
+        assertNull(chain.getRequest());
+        verify(clickCountAggregator).recordClick("abc123");
+        assertEquals(1L, meterRegistry.get("url.lookup")
+                .tags("endpoint", "redirect", "cache", "hit", "found", "true").timer().count());
+    }
+
+    @Test
+    void testCachedRedirect_LinkPolicy() throws Exception {
+        // Given
+        cache.put("temp01", new RedirectTarget("https://www.example.com/temporary", null, 302));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/v1/temp01"), response, new MockFilterChain());
+
+        // Then
+        assertEquals(302, response.getStatus());
+        assertEquals("https://www.example.com/temporary", response.getHeader("Location"));
+    }
+
+    @Test
+    void testContextPath_Honored() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/app/api/v1/abc123");
+        request.setContextPath("/app");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Then
+        assertEquals(301, response.getStatus());
+    }
+
+    @Test
+    void testCacheMiss_PassedOn() throws Exception {
+        assertPassedOn(new MockHttpServletRequest("GET", "/api/v1/zzz999"));
+    }
+
+    @Test
+    void testOtherRequests_PassedOn() throws Exception {
+        assertPassedOn(new MockHttpServletRequest("POST", "/api/v1/abc123"));
+        assertPassedOn(new MockHttpServletRequest("HEAD", "/api/v1/abc123"));
+        assertPassedOn(new MockHttpServletRequest("GET", "/api/v1/health"));
+        assertPassedOn(new MockHttpServletRequest("GET", "/api/v1/stats/abc123"));
+        assertPassedOn(new MockHttpServletRequest("GET", "/api/v1/abc123;jsessionid=1"));
+        assertPassedOn(new MockHttpServletRequest("GET", "/api/v1/"));
+        assertPassedOn(new MockHttpServletRequest("GET", "/other/abc123"));
+        verify(clickCountAggregator, never()).recordClick(anyString());
+    }
+
+    private void assertPassedOn(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        assertSame(request, chain.getRequest(), request.getMethod() + " " + request.getRequestURI());
+    }
+}
@@ -1,25 +1,49 @@
 package com.shorturl.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shorturl.dto.BatchShortenRequest;
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.BatchShortenResult;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.dto.ImportResult;
+import com.shorturl.dto.RedirectTarget;
 import com.shorturl.dto.ShortenUrlRequest;
 import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.dto.UrlPage;
 import com.shorturl.dto.UrlStatsResponse;
 import com.shorturl.entity.UrlMapping;
+import com.shorturl.exception.ImportBusyException;
 import com.shorturl.exception.UrlNotFoundException;
 import com.shorturl.service.UrlShortenerService;
+import com.shorturl.service.impl.HttpCachePolicy;
+import com.shorturl.service.impl.ShardRebalancer;
+import com.shorturl.service.impl.UrlExporter;
+import com.shorturl.service.impl.UrlImporter;
+import com.shorturl.service.impl.UrlShortenerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -29,6 +53,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Unit tests for UrlShortenerController
  */
 @WebMvcTest(UrlShortenerController.class)
+@Import({UrlShortenerMetrics.class, HttpCachePolicy.class, SimpleMeterRegistry.class})
 class UrlShortenerControllerTest {
 
     @Autowired
@@ -37,9 +62,21 @@ class UrlShortenerControllerTest {
     @MockBean
     private UrlShortenerService urlShortenerService;
 
+    @MockBean
+    private UrlImporter urlImporter;
+
+    @MockBean
+    private UrlExporter urlExporter;
+
+    @MockBean
+    private ShardRebalancer shardRebalancer;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private ShortenUrlRequest testRequest;
     private ShortenUrlResponse testResponse;
     private UrlMapping testUrlMapping;
@@ -47,6 +84,7 @@ class UrlShortenerControllerTest {
 
     @BeforeEach
     void setUp() {
+        meterRegistry.clear();
         testRequest = new ShortenUrlRequest("https://www.example.com");
         
         testResponse = new ShortenUrlResponse("abc123", "https://www.example.com", LocalDateTime.now());
@@ -75,6 +113,105 @@ class UrlShortenerControllerTest {
         verify(urlShortenerService).shortenUrl(any(ShortenUrlRequest.class));
     }
 
+    @Test
+    void testShortenUrls_Success() throws Exception {
+        // Given
+        BatchShortenRequest request = new BatchShortenRequest(Arrays.asList(testRequest, new ShortenUrlRequest("bad")));
+        BatchShortenResponse response = new BatchShortenResponse(Arrays.asList(
+                new BatchShortenResult(0, BatchShortenResult.Status.CREATED, "abc123",
+                        "https://www.example.com", LocalDateTime.now(), null),
+                BatchShortenResult.failed(1, "bad", "URL must start with http:// or https://")));
+        when(urlShortenerService.shortenUrls(anyList())).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].shortUrl").value("http://localhost/api/v1/abc123"))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.results[1].shortUrl").doesNotExist());
+    }
+
+    @Test
+    void testShortenUrls_EmptyBatch() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchShortenRequest(Collections.emptyList()))))
+                .andExpect(status().isBadRequest());
+
+        verify(urlShortenerService, never()).shortenUrls(anyList());
+    }
+
+    @Test
+    void testShortenUrls_AliasConflict() throws Exception {
+        // Given
+        when(urlShortenerService.shortenUrls(anyList())).thenReturn(new BatchShortenResponse(Arrays.asList(
+                BatchShortenResult.failed(0, "https://www.example.com", "Custom alias already exists: taken"))));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchShortenRequest(Arrays.asList(testRequest)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value("FAILED"))
+                .andExpect(jsonPath("$.results[0].error").value("Custom alias already exists: taken"));
+    }
+
+    @Test
+    void testImportUrls_Csv() throws Exception {
+        // Given
+        ImportResult result = new ImportResult();
+        result.setRead(2);
+        result.setImported(2);
+        when(urlImporter.importUrls(any(), eq(UrlImporter.Format.CSV))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType("text/csv")
+                .content("short_url,long_url\nabc,https://www.example.com\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2));
+    }
+
+    @Test
+    void testImportUrls_AlreadyRunning() throws Exception {
+        // Given
+        when(urlImporter.importUrls(any(), any())).thenThrow(new ImportBusyException("busy"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType("application/x-ndjson")
+                .content("{\"url\":\"https://www.example.com\"}\n"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void testImportUrls_ServerError() throws Exception {
+        // Given
+        when(urlImporter.importUrls(any(), any())).thenThrow(new IllegalStateException("ID segment row missing"));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType("application/x-ndjson")
+                .content("{\"url\":\"https://www.example.com\"}\n"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void testImportUrls_UnsupportedFormat() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("https://www.example.com"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(urlImporter);
+    }
+
     @Test
     void testShortenUrl_InvalidRequest() throws Exception {
         // Given
@@ -92,14 +229,35 @@ class UrlShortenerControllerTest {
     @Test
     void testRedirectToOriginalUrl_Success() throws Exception {
         // Given
-        when(urlShortenerService.expandUrl("abc123")).thenReturn(Optional.of("https://www.example.com"));
+        when(urlShortenerService.expandUrl("abc123")).thenReturn(Optional.of(new RedirectTarget("https://www.example.com", null)));
 
         // When & Then
         mockMvc.perform(get("/api/v1/abc123"))
-                .andExpect(status().is3xxRedirection())
-                .andExpect(redirectedUrl("https://www.example.com"));
+                .andExpect(status().isMovedPermanently())
+                .andExpect(redirectedUrl("https://www.example.com"))
+                .andExpect(header().string("Cache-Control", "public, max-age=300"));
 
         verify(urlShortenerService).expandUrl("abc123");
+        verify(urlShortenerService).recordClick("abc123");
+        assertEquals(1L, meterRegistry.get("url.lookup")
+                .tags("endpoint", "redirect", "cache", "hit", "found", "true").timer().count());
+    }
+
+    @Test
+    void testRedirectToOriginalUrl_LinkPolicy() throws Exception {
+        // Given
+        when(urlShortenerService.expandUrl("temp01")).thenReturn(Optional.of(
+                new RedirectTarget("https://www.example.com/temporary", LocalDateTime.now().plusSeconds(60), 307)));
+
+        // When
+        MvcResult result = mockMvc.perform(get("/api/v1/temp01"))
+                .andExpect(status().isTemporaryRedirect())
+                .andExpect(redirectedUrl("https://www.example.com/temporary"))
+                .andReturn();
+
+        // Then the response may not be cached past the link's expiry
+        long maxAge = Long.parseLong(result.getResponse().getHeader("Cache-Control").replace("public, max-age=", ""));
+        assertTrue(maxAge > 50 && maxAge <= 60);
     }
 
     @Test
@@ -112,6 +270,8 @@ class UrlShortenerControllerTest {
                 .andExpect(status().isNotFound());
 
         verify(urlShortenerService).expandUrl("notfound");
+        verify(urlShortenerService, never()).recordClick(anyString());
+        assertEquals(1.0, meterRegistry.get("url.not.found").tag("uri", "/api/v1/{shortUrl}").counter().count());
     }
 
     @Test
@@ -125,11 +285,35 @@ class UrlShortenerControllerTest {
                 .andExpect(jsonPath("$.shortUrl").value("abc123"))
                 .andExpect(jsonPath("$.longUrl").value("https://www.example.com"))
                 .andExpect(jsonPath("$.clickCount").value(5))
-                .andExpect(jsonPath("$.expired").value(false));
+                .andExpect(jsonPath("$.expired").value(false))
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"));
 
         verify(urlShortenerService).getUrlStats("abc123");
     }
 
+    @Test
+    void testGetUrlStats_NotModified() throws Exception {
+        // Given
+        when(urlShortenerService.getUrlStats("abc123")).thenReturn(Optional.of(testStatsResponse));
+        String etag = mockMvc.perform(get("/api/v1/stats/abc123"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/stats/abc123").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // When the click count moves on
+        testStatsResponse.setClickCount(6L);
+
+        // Then
+        mockMvc.perform(get("/api/v1/stats/abc123").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.clickCount").value(6));
+    }
+
     @Test
     void testGetUrlStats_NotFound() throws Exception {
         // Given
@@ -143,19 +327,102 @@ class UrlShortenerControllerTest {
     }
 
     @Test
-    void testGetAllUrls_Success() throws Exception {
+    void testGetClickTimeSeries_Success() throws Exception {
         // Given
-        List<UrlMapping> urlMappings = Arrays.asList(testUrlMapping);
-        when(urlShortenerService.getAllUrls()).thenReturn(urlMappings);
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 2, 0);
+        ClickTimeSeriesResponse timeSeries = new ClickTimeSeriesResponse("abc123", from, to, 3600, "HOUR",
+                Arrays.asList(new ClickTimeSeriesResponse.Point(from, 4), new ClickTimeSeriesResponse.Point(from.plusHours(1), 6)));
+        when(urlShortenerService.getClickTimeSeries("abc123", from, to, Duration.ofHours(1))).thenReturn(Optional.of(timeSeries));
 
         // When & Then
-        mockMvc.perform(get("/api/v1/admin/urls"))
+        mockMvc.perform(get("/api/v1/stats/abc123/timeseries")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-01-01T02:00:00")
+                .param("step", "1h"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].shortUrl").value("abc123"))
-                .andExpect(jsonPath("$[0].longUrl").value("https://www.example.com"));
+                .andExpect(jsonPath("$.granularity").value("HOUR"))
+                .andExpect(jsonPath("$.totalClicks").value(10))
+                .andExpect(jsonPath("$.points.length()").value(2))
+                .andExpect(jsonPath("$.points[1].clicks").value(6));
+    }
 
-        verify(urlShortenerService).getAllUrls();
+    @Test
+    void testGetClickTimeSeries_InvalidStep() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/v1/stats/abc123/timeseries").param("step", "soon"))
+                .andExpect(status().isBadRequest());
+
+        verify(urlShortenerService, never()).getClickTimeSeries(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void testGetClickTimeSeries_NotFound() throws Exception {
+        // Given
+        when(urlShortenerService.getClickTimeSeries(eq("notfound"), any(LocalDateTime.class), any(LocalDateTime.class),
+                eq(Duration.ofHours(1)))).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/stats/notfound/timeseries"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testListUrls_Success() throws Exception {
+        // Given
+        UrlPage page = new UrlPage(Arrays.asList(testUrlMapping), "1", true);
+        when(urlShortenerService.listUrls(eq("0"), any(UrlListFilter.class), eq(50))).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/admin/urls")
+                .param("cursor", "0")
+                .param("size", "50")
+                .param("expired", "false")
+                .param("minClicks", "3")
+                .param("createdAfter", "2024-01-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].shortUrl").value("abc123"))
+                .andExpect(jsonPath("$.items[0].longUrl").value("https://www.example.com"))
+                .andExpect(jsonPath("$.nextCursor").value("1"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+
+        verify(urlShortenerService).listUrls(eq("0"), argThat(filter ->
+                Boolean.FALSE.equals(filter.getExpired())
+                        && Long.valueOf(3L).equals(filter.getMinClicks())
+                        && LocalDateTime.of(2024, 1, 1, 0, 0).equals(filter.getCreatedAfter())), eq(50));
+    }
+
+    @Test
+    void testListUrls_InvalidCursor() throws Exception {
+        // Given
+        when(urlShortenerService.listUrls(eq("oops"), any(UrlListFilter.class), anyInt()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: oops"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/admin/urls").param("cursor", "oops"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportUrls() throws Exception {
+        // Given
+        when(urlExporter.export(any(UrlListFilter.class), any())).thenAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("{\"short_url\":\"abc123\"}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When
+        MvcResult asyncResult = mockMvc.perform(get("/api/v1/admin/urls/export").param("expired", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string("{\"short_url\":\"abc123\"}\n"));
+        verify(urlExporter).export(argThat(filter -> Boolean.TRUE.equals(filter.getExpired())), any());
     }
 
     @Test
@@ -213,6 +480,31 @@ class UrlShortenerControllerTest {
         verify(urlShortenerService).getTotalStats();
     }
 
+    @Test
+    void testRebalanceShards_Accepted() throws Exception {
+        // Given
+        when(shardRebalancer.start()).thenReturn(true);
+        when(shardRebalancer.getStatus()).thenReturn(Collections.singletonMap("running", true));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/admin/shards/rebalance"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.running").value(true));
+
+        verify(shardRebalancer).start();
+    }
+
+    @Test
+    void testRebalanceShards_AlreadyRunning() throws Exception {
+        // Given
+        when(shardRebalancer.start()).thenReturn(false);
+        when(shardRebalancer.getStatus()).thenReturn(Collections.singletonMap("running", true));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/admin/shards/rebalance"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testHealthCheck_Success() throws Exception {
         // When & Then
@@ -0,0 +1,107 @@
+package com.shorturl.integration;
+
+import com.shorturl.UrlShortenerApplication;
+import com.shorturl.dto.ShortenUrlRequest;
+import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlStatsResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the reactive runtime mode, served by Netty
+ */
+@SpringBootTest(classes = UrlShortenerApplication.class,
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.main.web-application-type=reactive",
+                "spring.datasource.url=jdbc:h2:mem:reactive;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.url=r2dbc:h2:mem:///reactive?options=DB_CLOSE_DELAY=-1"
+        })
+@ActiveProfiles({"test", "reactive"})
+class ReactiveModeIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void testShortenAndRedirect() {
+        // When
+        ShortenUrlResponse response = shorten("https://www.example.com/reactive");
+
+        // Then
+        assertTrue(response.getShortUrl().contains("/api/v1/"));
+        String shortUrl = response.getShortUrl().substring(response.getShortUrl().lastIndexOf('/') + 1);
+
+        webTestClient.get().uri("/api/v1/{shortUrl}", shortUrl)
+                .exchange()
+                .expectStatus().isEqualTo(301)
+                .expectHeader().valueEquals("Location", "https://www.example.com/reactive");
+
+        // A second redirect is served from the cache
+        webTestClient.get().uri("/api/v1/{shortUrl}", shortUrl)
+                .exchange()
+                .expectStatus().isEqualTo(301);
+        assertEquals(1L, meterRegistry.timer("url.lookup", "endpoint", "redirect", "cache", "hit", "found", "true").count());
+
+        UrlStatsResponse stats = webTestClient.get().uri("/api/v1/stats/{shortUrl}", shortUrl)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UrlStatsResponse.class)
+                .returnResult().getResponseBody();
+        assertEquals("https://www.example.com/reactive", stats.getLongUrl());
+    }
+
+    @Test
+    void testRedirect_UnknownShortUrl() {
+        webTestClient.get().uri("/api/v1/{shortUrl}", "nonexistent")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testDelete_RedirectStops() {
+        // Given
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.example.com/deleted");
+        request.setCustomAlias("rxdel1");
+        webTestClient.post().uri("/api/v1/shorten")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get().uri("/api/v1/rxdel1").exchange().expectStatus().isEqualTo(301);
+
+        // When
+        webTestClient.delete().uri("/api/v1/admin/urls/rxdel1")
+                .exchange()
+                .expectStatus().isOk();
+
+        // Then
+        webTestClient.get().uri("/api/v1/rxdel1").exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/v1/admin/urls/rxdel1").exchange().expectStatus().isNotFound();
+    }
+
+    @Test
+    void testShorten_InvalidRequest() {
+        webTestClient.post().uri("/api/v1/shorten")
+                .bodyValue(new ShortenUrlRequest(""))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    private ShortenUrlResponse shorten(String url) {
+        return webTestClient.post().uri("/api/v1/shorten")
+                .bodyValue(new ShortenUrlRequest(url))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ShortenUrlResponse.class)
+                .returnResult().getResponseBody();
+    }
+}
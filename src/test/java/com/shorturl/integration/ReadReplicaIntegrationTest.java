@@ -0,0 +1,114 @@
+package com.shorturl.integration;
+
+import com.shorturl.UrlShortenerApplication;
+import com.shorturl.dto.ShortenUrlRequest;
+import com.shorturl.repository.replica.ReplicaRoutingDataSource;
+import com.shorturl.service.UrlShortenerService;
+import com.shorturl.service.impl.ShortUrlFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for reading from a replica of the primary database
+ *
+ * The replica is a separate in-memory H2 database with the same schema
+ * but no replication, so every row shows which side a read went to.
+ */
+@SpringBootTest(classes = UrlShortenerApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replicas[0].url=" + ReadReplicaIntegrationTest.REPLICA_URL,
+        "app.datasource.replicas[0].username=sa",
+        "app.datasource.replica-health-check-ms=0"
+})
+@ActiveProfiles("test")
+class ReadReplicaIntegrationTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-test;DB_CLOSE_DELAY=-1";
+    private static final String INSERT_SQL =
+            "INSERT INTO url_mapping (id, short_url, long_url, created_at, click_count) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(replicaRoutingDataSource.getPrimary());
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+        List<String> statements = primary.queryForList("SCRIPT NODATA", String.class);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : statements) {
+            if (!statement.startsWith("--")) {
+                replica.execute(statement);
+            }
+        }
+        primary.update("DELETE FROM url_mapping");
+    }
+
+    @Test
+    void testLookups_ReadFromReplica() {
+        // Given a row the replica has and the primary does not
+        insert(replica, 1_000_001L, "onreplica", 4L);
+
+        // When / Then
+        assertEquals("https://www.example.com/onreplica",
+                urlShortenerService.expandUrl("onreplica").get().getLongUrl());
+        assertEquals(4L, urlShortenerService.getUrlStats("onreplica").get().getClickCount());
+    }
+
+    @Test
+    void testLookups_StaleUntilReplicated() {
+        // Given a row the replica has not caught up with
+        insert(primary, 1_000_002L, "lagging", 0L);
+
+        // When / Then
+        assertFalse(urlShortenerService.expandUrl("lagging").isPresent());
+    }
+
+    @Test
+    void testNewShortUrl_ResolvesFromPrimaryWithinWindow() {
+        // When
+        String shortUrl = urlShortenerService.shortenUrl(new ShortenUrlRequest("https://www.example.com/fresh"))
+                .getShortUrl();
+
+        // Then it was written to the primary only, and still resolves
+        assertEquals(1, count(primary, shortUrl));
+        assertEquals(0, count(replica, shortUrl));
+        assertEquals("https://www.example.com/fresh", urlShortenerService.expandUrl(shortUrl).get().getLongUrl());
+
+        // Deduplication reads the primary too
+        assertEquals(shortUrl, urlShortenerService.shortenUrl(new ShortenUrlRequest("https://www.example.com/fresh"))
+                .getShortUrl());
+        assertEquals(1, replicaRoutingDataSource.getHealthyReplicaCount());
+    }
+
+    private void insert(JdbcTemplate target, long id, String shortUrl, long clicks) {
+        target.update(INSERT_SQL, id, shortUrl, "https://www.example.com/" + shortUrl,
+                Timestamp.valueOf(LocalDateTime.now()), clicks);
+        shortUrlFilter.recordCreated(shortUrl);
+    }
+
+    private int count(JdbcTemplate target, String shortUrl) {
+        return target.queryForObject("SELECT COUNT(*) FROM url_mapping WHERE short_url = ?", Integer.class, shortUrl);
+    }
+}
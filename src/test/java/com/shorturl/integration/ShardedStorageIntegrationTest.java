@@ -0,0 +1,248 @@
+package com.shorturl.integration;
+
+import com.shorturl.UrlShortenerApplication;
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.BatchShortenResult;
+import com.shorturl.dto.ShortenUrlRequest;
+import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.dto.UrlPage;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.UrlShortenerService;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.ShardRebalancer;
+import com.shorturl.service.impl.ShortUrlFilter;
+import com.shorturl.util.ConsistentHashRing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for URL mappings sharded across three in-memory H2 databases
+ *
+ * The third shard was just added: previous-shards lists the first two,
+ * so lookups fall back to the old owner until the rebalancer has run.
+ */
+@SpringBootTest(classes = UrlShortenerApplication.class, properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.replicate-schema=true",
+        "app.sharding.shards[0].name=shard0",
+        "app.sharding.shards[0].url=jdbc:h2:mem:sharded-test-0;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[0].username=sa",
+        "app.sharding.shards[1].name=shard1",
+        "app.sharding.shards[1].url=jdbc:h2:mem:sharded-test-1;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[1].username=sa",
+        "app.sharding.shards[2].name=shard2",
+        "app.sharding.shards[2].url=jdbc:h2:mem:sharded-test-2;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[2].username=sa",
+        "app.sharding.rebalance.previous-shards=shard0,shard1",
+        "app.sharding.rebalance.pause-ms=0"
+})
+@ActiveProfiles("test")
+class ShardedStorageIntegrationTest {
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ShortUrlFilter shortUrlFilter;
+
+    @Autowired
+    private ClickCountAggregator clickCountAggregator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (String shard : shardRouter.getShardNames()) {
+            shardRouter.onShard(shard, () -> jdbcTemplate.update("DELETE FROM url_mapping"));
+        }
+    }
+
+    @Test
+    void testShortenAndExpand_RoutedToOwningShard() {
+        // Given
+        List<ShortenUrlRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            requests.add(new ShortenUrlRequest("https://www.example.com/routed/" + i));
+        }
+
+        // When
+        BatchShortenResponse response = urlShortenerService.shortenUrls(requests);
+        ShortenUrlResponse alias = urlShortenerService.shortenUrl(
+                new ShortenUrlRequest("https://www.example.com/alias", "shardme"));
+
+        // Then every row lives on its owner only, and all shards got some
+        Set<String> usedShards = new HashSet<>();
+        for (BatchShortenResult result : response.getResults()) {
+            assertEquals(BatchShortenResult.Status.CREATED, result.getStatus());
+            assertStoredOnlyOnOwner(result.getShortUrl());
+            usedShards.add(shardRouter.shardFor(result.getShortUrl()));
+            assertEquals(result.getLongUrl(), urlShortenerService.expandUrl(result.getShortUrl()).get().getLongUrl());
+        }
+        assertEquals(3, usedShards.size());
+        assertStoredOnlyOnOwner(alias.getShortUrl());
+
+        // Deduplication finds long URLs on any shard
+        ShortenUrlResponse again = urlShortenerService.shortenUrl(new ShortenUrlRequest("https://www.example.com/routed/7"));
+        assertEquals(response.getResults().get(7).getShortUrl(), again.getShortUrl());
+    }
+
+    @Test
+    void testListUrlsAndStats_MergeAcrossShards() {
+        // Given
+        List<ShortenUrlRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            requests.add(new ShortenUrlRequest("https://www.example.com/listed/" + i));
+        }
+        urlShortenerService.shortenUrls(requests);
+
+        // When
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            UrlPage page = urlShortenerService.listUrls(cursor, new UrlListFilter(), 10);
+            assertTrue(page.getItems().size() <= 10);
+            for (UrlMapping mapping : page.getItems()) {
+                ids.add(mapping.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Then
+        assertEquals(25, ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i));
+        }
+        assertEquals(25L, totalRows());
+    }
+
+    @Test
+    void testClicksAndDelete_OnOwningShard() {
+        // Given
+        String shortUrl = urlShortenerService.shortenUrl(new ShortenUrlRequest("https://www.example.com/clicked"))
+                .getShortUrl();
+        String owner = shardRouter.shardFor(shortUrl);
+
+        // When
+        urlShortenerService.recordClick(shortUrl);
+        urlShortenerService.recordClick(shortUrl);
+        clickCountAggregator.flush();
+
+        // Then
+        assertEquals(2L, shardRouter.onShard(owner, () -> jdbcTemplate.queryForObject(
+                "SELECT click_count FROM url_mapping WHERE short_url = ?", Long.class, shortUrl)));
+
+        assertTrue(urlShortenerService.deleteUrl(shortUrl));
+        assertEquals(0, countOnShard(owner, shortUrl));
+        assertFalse(urlShortenerService.expandUrl(shortUrl).isPresent());
+    }
+
+    @Test
+    void testRebalance_MovesRowsToAddedShard() {
+        // Given rows placed by the ring before shard2 was added
+        ConsistentHashRing previousRing = new ConsistentHashRing(Arrays.asList("shard0", "shard1"), 160);
+        List<String> misplaced = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String shortUrl = "reb" + i;
+            String previousOwner = previousRing.nodeFor(shortUrl);
+            long id = 1_000_000L + i;
+            shardRouter.onShard(previousOwner, () -> jdbcTemplate.update(
+                    "INSERT INTO url_mapping (id, short_url, long_url, created_at, click_count) VALUES (?, ?, ?, ?, ?)",
+                    id, shortUrl, "https://www.example.com/moved/" + id, Timestamp.valueOf(LocalDateTime.now()), 3L));
+            shortUrlFilter.recordCreated(shortUrl);
+            if (!shardRouter.shardFor(shortUrl).equals(previousOwner)) {
+                misplaced.add(shortUrl);
+            }
+        }
+        assertFalse(misplaced.isEmpty());
+
+        // Still found on the previous owner before the move
+        assertTrue(urlShortenerService.urlExists(misplaced.get(0)));
+
+        // When
+        long moved = shardRebalancer.rebalance();
+
+        // Then
+        assertEquals(misplaced.size(), moved);
+        for (int i = 0; i < 200; i++) {
+            assertStoredOnlyOnOwner("reb" + i);
+        }
+        for (String shortUrl : misplaced) {
+            assertEquals(3L, shardRouter.onShard(shardRouter.shardFor(shortUrl), () -> jdbcTemplate.queryForObject(
+                    "SELECT click_count FROM url_mapping WHERE short_url = ?", Long.class, shortUrl)));
+            assertTrue(urlShortenerService.urlExists(shortUrl));
+        }
+        assertEquals(200L, totalRows());
+        assertEquals(0L, shardRebalancer.rebalance());
+    }
+
+    @Test
+    void testRebalance_KeepsRedirectStatus() {
+        // Given a temporary redirect placed by the ring before shard2 was added
+        ConsistentHashRing previousRing = new ConsistentHashRing(Arrays.asList("shard0", "shard1"), 160);
+        String shortUrl = null;
+        for (int i = 0; shortUrl == null; i++) {
+            String candidate = "tmp" + i;
+            if (!shardRouter.shardFor(candidate).equals(previousRing.nodeFor(candidate))) {
+                shortUrl = candidate;
+            }
+        }
+        String code = shortUrl;
+        shardRouter.onShard(previousRing.nodeFor(code), () -> jdbcTemplate.update(
+                "INSERT INTO url_mapping (id, short_url, long_url, created_at, click_count, redirect_status) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)",
+                2_000_000L, code, "https://www.example.com/temporary", Timestamp.valueOf(LocalDateTime.now()), 0L, 307));
+        shortUrlFilter.recordCreated(code);
+
+        // When
+        assertEquals(1L, shardRebalancer.rebalance());
+
+        // Then
+        assertStoredOnlyOnOwner(code);
+        assertEquals(307, shardRouter.onShard(shardRouter.shardFor(code), () -> jdbcTemplate.queryForObject(
+                "SELECT redirect_status FROM url_mapping WHERE short_url = ?", Integer.class, code)));
+        assertEquals(Integer.valueOf(307), urlShortenerService.getUrlStats(code).get().getRedirectStatus());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long totalRows() {
+        Map<String, Long> rowsByShard = (Map<String, Long>) shardRebalancer.getStatus().get("shards");
+        assertEquals(shardRouter.getShardNames(), new ArrayList<>(rowsByShard.keySet()));
+        return rowsByShard.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private void assertStoredOnlyOnOwner(String shortUrl) {
+        String owner = shardRouter.shardFor(shortUrl);
+        for (String shard : shardRouter.getShardNames()) {
+            assertEquals(shard.equals(owner) ? 1 : 0, countOnShard(shard, shortUrl), shortUrl + " on " + shard);
+        }
+    }
+
+    private int countOnShard(String shard, String shortUrl) {
+        return shardRouter.onShard(shard, () -> jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM url_mapping WHERE short_url = ?", Integer.class, shortUrl));
+    }
+}
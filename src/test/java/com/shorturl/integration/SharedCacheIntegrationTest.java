@@ -0,0 +1,109 @@
+package com.shorturl.integration;
+
+import com.shorturl.UrlShortenerApplication;
+import com.shorturl.config.EmbeddedRedisServer;
+import com.shorturl.config.SharedCacheStore;
+import com.shorturl.config.TwoLevelCache;
+import com.shorturl.config.TwoLevelCacheManager;
+import com.shorturl.dto.ShortenUrlRequest;
+import com.shorturl.service.UrlShortenerService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the shared L2 cache against an embedded Redis stand-in
+ *
+ * The stand-in is left running for the whole test JVM, since the cached
+ * application context keeps its connections open.
+ */
+@SpringBootTest(classes = UrlShortenerApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shared-cache;DB_CLOSE_DELAY=-1",
+        "spring.redis.host=127.0.0.1",
+        "app.cache.l2.enabled=true"
+})
+@ActiveProfiles("test")
+class SharedCacheIntegrationTest {
+
+    private static final EmbeddedRedisServer redis = start();
+
+    @Autowired
+    private UrlShortenerService urlShortenerService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SharedCacheStore sharedCacheStore;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.redis.port", redis::getPort);
+    }
+
+    @Test
+    void testRedirects_SharedAndEvictedEverywhere() throws Exception {
+        // Given
+        assertTrue(cacheManager instanceof TwoLevelCacheManager);
+        String channel = ((TwoLevelCacheManager) cacheManager).getChannel();
+        awaitTrue(() -> redis.subscriberCount(channel) == 1);
+        String shortUrl = urlShortenerService.shortenUrl(new ShortenUrlRequest("https://www.example.com/shared"))
+                .getShortUrl();
+
+        // When a lookup fills the caches
+        assertTrue(urlShortenerService.expandUrl(shortUrl).isPresent());
+
+        // Then the entry is in Redis too
+        String redisKey = "url-shortener:urlMappings:" + shortUrl;
+        assertTrue(redis.ttlMillis(redisKey) > 0);
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", "urlMappings").functionCounter());
+
+        // When another instance deletes the short URL
+        TwoLevelCache cache = (TwoLevelCache) cacheManager.getCache("urlMappings");
+        String message = "other-instance\n" + System.currentTimeMillis() + "\nurlMappings\n" + shortUrl;
+        sharedCacheStore.publish("urlMappings", channel, message.getBytes(StandardCharsets.UTF_8));
+
+        // Then this instance drops it from L1, and records the lag right after
+        awaitTrue(() -> cache.getLocal().get(shortUrl) == null);
+        awaitTrue(() -> meterRegistry.timer("cache.invalidation.lag").count() == 1L);
+
+        // When this instance deletes it
+        double sent = meterRegistry.counter("cache.invalidation.sent").count();
+        assertTrue(urlShortenerService.deleteUrl(shortUrl));
+
+        // Then it is gone from Redis and the eviction was broadcast
+        assertEquals(-2, redis.ttlMillis(redisKey));
+        assertTrue(meterRegistry.counter("cache.invalidation.sent").count() > sent);
+    }
+
+    private static EmbeddedRedisServer start() {
+        try {
+            return new EmbeddedRedisServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -2,10 +2,19 @@ package com.shorturl.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.shorturl.UrlShortenerApplication;
+import com.shorturl.dto.BatchShortenRequest;
 import com.shorturl.dto.ShortenUrlRequest;
+import com.shorturl.dto.UrlListFilter;
 import com.shorturl.dto.ShortenUrlResponse;
 import com.shorturl.entity.UrlMapping;
 import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.service.impl.CacheWarmer;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.ClickTimeSeries;
+import com.shorturl.service.impl.GlobalCounters;
+import com.shorturl.service.impl.UrlExporter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,7 +27,10 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +55,27 @@ class UrlShortenerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private ClickCountAggregator clickCountAggregator;
+
+    @Autowired
+    private CacheWarmer cacheWarmer;
+
+    @Autowired
+    private GlobalCounters globalCounters;
+
+    @Autowired
+    private ClickTimeSeries clickTimeSeries;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private UrlExporter urlExporter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp() {
         urlMappingRepository.deleteAll();
@@ -77,7 +110,10 @@ class UrlShortenerIntegrationTest {
                 .andExpect(status().is3xxRedirection())
                 .andExpect(redirectedUrl("https://www.example.com"));
 
-        // Verify click count was incremented
+        // Verify click count was incremented once the pending clicks are flushed
+        entityManager.flush();
+        clickCountAggregator.flush();
+        entityManager.clear();
         Optional<UrlMapping> updatedMapping = urlMappingRepository.findByShortUrl(shortUrlCode);
         assertTrue(updatedMapping.isPresent());
         assertEquals(1L, updatedMapping.get().getClickCount());
@@ -91,6 +127,96 @@ class UrlShortenerIntegrationTest {
                 .andExpect(jsonPath("$.expired").value(false));
     }
 
+    @Test
+    void testClicksCountedOnCachedRedirects() throws Exception {
+        // Create URL with custom alias
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.cached.com");
+        request.setCustomAlias("cached");
+
+        mockMvc.perform(post("/api/v1/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        // The first redirect fills the cache, the others are served from it
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/cached"))
+                    .andExpect(status().is3xxRedirection())
+                    .andExpect(redirectedUrl("https://www.cached.com"));
+        }
+
+        // Every redirect is counted
+        entityManager.flush();
+        clickCountAggregator.flush();
+        entityManager.clear();
+        Optional<UrlMapping> mapping = urlMappingRepository.findByShortUrl("cached");
+        assertTrue(mapping.isPresent());
+        assertEquals(3L, mapping.get().getClickCount());
+    }
+
+    @Test
+    void testRedirectStatusPerLink() throws Exception {
+        // Given
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.temporary.com");
+        request.setCustomAlias("temp302");
+        request.setRedirectStatus(302);
+
+        mockMvc.perform(post("/api/v1/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        // When & Then, through Spring MVC and then from the cache
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/v1/temp302"))
+                    .andExpect(status().isFound())
+                    .andExpect(redirectedUrl("https://www.temporary.com"))
+                    .andExpect(header().exists("Cache-Control"));
+        }
+        mockMvc.perform(get("/api/v1/stats/temp302"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.redirectStatus").value(302));
+
+        // Unsupported statuses are rejected
+        request.setCustomAlias("temp303");
+        request.setRedirectStatus(303);
+        mockMvc.perform(post("/api/v1/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testClickTimeSeries() throws Exception {
+        // Given
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.series.com");
+        request.setCustomAlias("series1");
+        mockMvc.perform(post("/api/v1/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/v1/series1"))
+                    .andExpect(status().is3xxRedirection());
+        }
+        clickTimeSeries.flush();
+
+        // Then
+        mockMvc.perform(get("/api/v1/stats/series1/timeseries").param("step", "1h"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("HOUR"))
+                .andExpect(jsonPath("$.points.length()").value(25))
+                .andExpect(jsonPath("$.totalClicks").value(3));
+        mockMvc.perform(get("/api/v1/stats/series1/timeseries").param("step", "1m"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularity").value("MINUTE"))
+                .andExpect(jsonPath("$.totalClicks").value(3));
+        mockMvc.perform(get("/api/v1/stats/missing/timeseries"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testCustomAlias() throws Exception {
         // Create URL with custom alias
@@ -162,17 +288,20 @@ class UrlShortenerIntegrationTest {
         urlMappingRepository.save(mapping1);
         urlMappingRepository.save(mapping2);
 
-        // Test get all URLs
+        // Test list URLs
         mockMvc.perform(get("/api/v1/admin/urls"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(2));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(false));
 
-        // Test system stats
+        // Test system stats, after reconciling the rows saved around the service
+        globalCounters.reconcile();
         mockMvc.perform(get("/api/v1/admin/stats"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.totalUrls").value(2))
-                .andExpect(jsonPath("$.totalClicks").value(5));
+                .andExpect(jsonPath("$.totalClicks").value(5))
+                .andExpect(jsonPath("$.urlsCreatedToday").value(2));
 
         // Test delete URL
         mockMvc.perform(delete("/api/v1/admin/urls/test1"))
@@ -182,6 +311,9 @@ class UrlShortenerIntegrationTest {
         // Verify URL was deleted
         assertFalse(urlMappingRepository.findByShortUrl("test1").isPresent());
         assertTrue(urlMappingRepository.findByShortUrl("test2").isPresent());
+        mockMvc.perform(get("/api/v1/admin/stats"))
+                .andExpect(jsonPath("$.totalUrls").value(1))
+                .andExpect(jsonPath("$.totalClicks").value(5));
     }
 
     @Test
@@ -206,6 +338,37 @@ class UrlShortenerIntegrationTest {
         assertTrue(urlMappingRepository.findByShortUrl("valid1").isPresent());
     }
 
+    @Test
+    void testHotPathMetrics() throws Exception {
+        // Given
+        ShortenUrlRequest request = new ShortenUrlRequest("https://www.example.com/metrics", "metric1");
+        mockMvc.perform(post("/api/v1/shorten")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        long hitsBefore = redirectCacheHits();
+
+        // When
+        mockMvc.perform(get("/api/v1/metric1")).andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/api/v1/metric1")).andExpect(status().is3xxRedirection());
+        mockMvc.perform(get("/api/v1/nometric")).andExpect(status().isNotFound());
+
+        // Then
+        // The second redirect is served from cache
+        assertEquals(hitsBefore + 1, redirectCacheHits());
+        assertTrue(meterRegistry.get("url.not.found").tag("uri", "/api/v1/{shortUrl}").counter().count() >= 1.0);
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", "urlMappings").meter());
+        assertNotNull(meterRegistry.find("spring.data.repository.invocations")
+                .tag("repository", "UrlMappingRepository").timer());
+    }
+
+    private long redirectCacheHits() {
+        Timer timer = meterRegistry.find("url.lookup")
+                .tags("endpoint", "redirect", "cache", "hit", "found", "true").timer();
+        return timer != null ? timer.count() : 0L;
+    }
+
     @Test
     void testHealthCheck() throws Exception {
         mockMvc.perform(get("/api/v1/health"))
@@ -270,4 +433,184 @@ class UrlShortenerIntegrationTest {
         // Should only have one entry in database
         assertEquals(1, urlMappingRepository.count());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testBatchShorten() throws Exception {
+        // Given
+        urlMappingRepository.save(new UrlMapping("exists1", "https://www.existing.com"));
+        entityManager.flush();
+        BatchShortenRequest request = new BatchShortenRequest(Arrays.asList(
+                new ShortenUrlRequest("https://www.batch-one.com"),
+                new ShortenUrlRequest("not-a-url"),
+                new ShortenUrlRequest("https://WWW.BATCH-ONE.com"),
+                new ShortenUrlRequest("https://www.existing.com"),
+                new ShortenUrlRequest("https://www.batch-two.com", "batch2")));
+
+        // When
+        mockMvc.perform(post("/api/v1/shorten/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(4))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"))
+                .andExpect(jsonPath("$.results[1].error").exists())
+                .andExpect(jsonPath("$.results[2].status").value("EXISTING"))
+                .andExpect(jsonPath("$.results[3].status").value("EXISTING"))
+                .andExpect(jsonPath("$.results[3].shortUrl").value(org.hamcrest.Matchers.endsWith("/exists1")))
+                .andExpect(jsonPath("$.results[4].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[4].shortUrl").value(org.hamcrest.Matchers.endsWith("/batch2")));
+
+        // Then
+        assertEquals(3, urlMappingRepository.count());
+        mockMvc.perform(get("/api/v1/batch2"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("https://www.batch-two.com"));
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        // Given
+        String ndjson = String.join("\n",
+                "{\"short_url\":\"legacy1\",\"long_url\":\"https://www.legacy.com\",\"click_count\":42,\"created_at\":\"2020-01-02 03:04:05\"}",
+                "{\"long_url\":\"https://www.generated.com\",\"expires_at\":\"2099-01-01T00:00:00\"}",
+                "{\"long_url\":\"https://www.generated.com\"}",
+                "{\"short_url\":\"bad-code!\",\"long_url\":\"https://www.bad.com\"}",
+                "not json",
+                "");
+
+        // When
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(5))
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.duplicates").value(1))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.errors[0]").value(org.hamcrest.Matchers.startsWith("line 4")));
+
+        // Then
+        entityManager.clear();
+        UrlMapping legacy = urlMappingRepository.findByShortUrl("legacy1").orElseThrow(AssertionError::new);
+        assertEquals(42L, legacy.getClickCount());
+        assertEquals(LocalDateTime.of(2020, 1, 2, 3, 4, 5), legacy.getCreatedAt());
+        mockMvc.perform(get("/api/v1/legacy1"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(redirectedUrl("https://www.legacy.com"));
+
+        // Importing the same data again only finds duplicates
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType("application/x-ndjson")
+                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(0))
+                .andExpect(jsonPath("$.duplicates").value(3));
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        // Given
+        String csv = "short_url,long_url,expires_at,click_count\n" +
+                "csv1,\"https://www.example.com/?a=1,2\",,7\n" +
+                "csv2,https://www.example.org,2099-01-01 00:00:00,\n";
+
+        // When
+        mockMvc.perform(post("/api/v1/admin/import")
+                .contentType("text/csv")
+                .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(2))
+                .andExpect(jsonPath("$.rejected").value(0));
+
+        // Then
+        entityManager.clear();
+        UrlMapping first = urlMappingRepository.findByShortUrl("csv1").orElseThrow(AssertionError::new);
+        assertEquals("https://www.example.com/?a=1,2", first.getLongUrl());
+        assertEquals(7L, first.getClickCount());
+        UrlMapping second = urlMappingRepository.findByShortUrl("csv2").orElseThrow(AssertionError::new);
+        assertEquals(LocalDateTime.of(2099, 1, 1, 0, 0), second.getExpiresAt());
+    }
+
+    @Test
+    void testListUrlsByCursor() throws Exception {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            UrlMapping mapping = new UrlMapping("page" + i, "https://www.page" + i + ".com");
+            mapping.setClickCount((long) i);
+            urlMappingRepository.save(mapping);
+        }
+        UrlMapping expired = new UrlMapping("pageX", "https://www.expired-page.com", LocalDateTime.now().minusDays(1));
+        urlMappingRepository.save(expired);
+        entityManager.flush();
+
+        // When
+        MvcResult first = mockMvc.perform(get("/api/v1/admin/urls")
+                .param("size", "2")
+                .param("expired", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].shortUrl").value("page1"))
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        // Then
+        mockMvc.perform(get("/api/v1/admin/urls")
+                .param("size", "2")
+                .param("expired", "false")
+                .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].shortUrl").value("page3"))
+                .andExpect(jsonPath("$.items[1].shortUrl").value("page4"));
+        mockMvc.perform(get("/api/v1/admin/urls")
+                .param("minClicks", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2));
+        mockMvc.perform(get("/api/v1/admin/urls")
+                .param("expired", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].shortUrl").value("pageX"));
+    }
+
+    @Test
+    void testExportUrls() throws Exception {
+        // Given
+        UrlMapping mapping = new UrlMapping("export1", "https://www.export.com");
+        mapping.setClickCount(9L);
+        urlMappingRepository.save(mapping);
+        urlMappingRepository.save(new UrlMapping("export2", "https://www.export2.com"));
+        entityManager.flush();
+
+        UrlListFilter filter = new UrlListFilter();
+        filter.setMinClicks(1L);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long exported = urlExporter.export(filter, output);
+
+        // Then
+        String[] lines = output.toString("UTF-8").trim().split("\n");
+        assertEquals(1, exported);
+        assertEquals(1, lines.length);
+        assertEquals("export1", objectMapper.readTree(lines[0]).get("short_url").asText());
+        assertEquals(9, objectMapper.readTree(lines[0]).get("click_count").asInt());
+    }
+
+    @Test
+    void testReadiness_UpOnceCacheIsWarm() throws Exception {
+        // Given
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!cacheWarmer.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        // When & Then
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.cacheWarmer.status").value("UP"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.shorturl.repository.replica;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource
+ */
+@ExtendWith(MockitoExtension.class)
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replica1Connection;
+
+    @Mock
+    private Connection replica2Connection;
+
+    private ReplicaRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica1.getConnection()).thenReturn(replica1Connection);
+        lenient().when(replica2.getConnection()).thenReturn(replica2Connection);
+        dataSource = new ReplicaRoutingDataSource("test", primary, Arrays.asList(replica1, replica2), 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void testWrites_GoToPrimary() throws Exception {
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void testReadOnly_RoundRobinAcrossReplicas() throws Exception {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        Connection third = dataSource.getConnection();
+
+        // Then
+        assertSame(replica1Connection, first);
+        assertSame(replica2Connection, second);
+        assertSame(replica1Connection, third);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void testReadOnly_OnPrimaryWhenForced() throws Exception {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        ReadReplicaRouter router = new ReadReplicaRouter();
+        router.init();
+
+        // When
+        Connection connection = router.onPrimary(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Then
+        assertSame(primaryConnection, connection);
+        verifyNoInteractions(replica1, replica2);
+    }
+
+    @Test
+    void testFailingReplica_SkippedUntilHealthy() throws Exception {
+        // Given
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        // When the failing replica's turn comes
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertSame(primaryConnection, connection);
+        assertEquals(1, dataSource.getHealthyReplicaCount());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+
+        // When it passes the health check again
+        doReturn(replica1Connection).when(replica1).getConnection();
+        when(replica1Connection.isValid(anyInt())).thenReturn(true);
+        when(replica2Connection.isValid(anyInt())).thenReturn(true);
+        dataSource.checkHealth();
+
+        // Then
+        assertEquals(2, dataSource.getHealthyReplicaCount());
+    }
+
+    @Test
+    void testNoHealthyReplica_ReadsFromPrimary() throws Exception {
+        // Given
+        when(replica1.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(replica2Connection.isValid(anyInt())).thenReturn(false);
+        dataSource.checkHealth();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // When
+        Connection connection = dataSource.getConnection();
+
+        // Then
+        assertEquals(0, dataSource.getHealthyReplicaCount());
+        assertSame(primaryConnection, connection);
+    }
+}
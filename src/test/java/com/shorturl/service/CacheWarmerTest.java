@@ -0,0 +1,174 @@
+package com.shorturl.service;
+
+import com.shorturl.config.CacheConfig;
+import com.shorturl.dto.RedirectTarget;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.CacheWarmer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CacheWarmer
+ */
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Spy
+    private CacheManager cacheManager = new CacheConfig().cacheManager();
+
+    @InjectMocks
+    private CacheWarmer cacheWarmer;
+
+    @TempDir
+    Path directory;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cacheWarmer, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cacheWarmer, "snapshotFile", directory.resolve("cache.snapshot").toString());
+        shardRouter.init();
+        cacheWarmer.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheWarmer.shutdown();
+    }
+
+    @Test
+    void testWarmUp_PreloadsTopUrlsInPages() {
+        // Given
+        ReflectionTestUtils.setField(cacheWarmer, "topN", 5);
+        ReflectionTestUtils.setField(cacheWarmer, "pageSize", 2);
+        when(urlMappingRepository.findTopUrlsByClickCount(eq(Long.MAX_VALUE), eq(0L), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(Arrays.asList(mapping(1L, "hot1", 50L), mapping(2L, "hot2", 40L)));
+        when(urlMappingRepository.findTopUrlsByClickCount(eq(40L), eq(2L), any(LocalDateTime.class), eq(PageRequest.of(0, 2))))
+                .thenReturn(Arrays.asList(mapping(3L, "hot3", 40L), mapping(4L, "hot4", 30L)));
+        when(urlMappingRepository.findTopUrlsByClickCount(eq(30L), eq(4L), any(LocalDateTime.class), eq(PageRequest.of(0, 1))))
+                .thenReturn(Collections.singletonList(mapping(5L, "hot5", 20L)));
+        assertEquals(Status.OUT_OF_SERVICE, cacheWarmer.health().getStatus());
+
+        // When
+        cacheWarmer.warmUp();
+
+        // Then
+        Cache cache = cacheManager.getCache("urlMappings");
+        for (int i = 1; i <= 5; i++) {
+            RedirectTarget target = cache.get("hot" + i, RedirectTarget.class);
+            assertNotNull(target);
+            assertEquals("https://www.example.com/hot" + i, target.getLongUrl());
+        }
+        assertEquals(Status.UP, cacheWarmer.health().getStatus());
+        assertEquals(5L, cacheWarmer.health().getDetails().get("preloaded"));
+        assertEquals(5.0, meterRegistry.counter("url.cache.warmup.entries", "source", "database").count());
+    }
+
+    @Test
+    void testSnapshot_RoundTrip() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(cacheWarmer, "snapshotEnabled", true);
+        ReflectionTestUtils.setField(cacheWarmer, "warmUpEnabled", false);
+        LocalDateTime expiresAt = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.MILLIS);
+        Cache cache = cacheManager.getCache("urlMappings");
+        cache.put("perm01", new RedirectTarget("https://www.example.com/permanent", null));
+        cache.put("temp01", new RedirectTarget("https://www.example.com/temporary", expiresAt));
+
+        // When
+        assertEquals(2L, cacheWarmer.writeSnapshot());
+        cache.clear();
+        cacheWarmer.warmUp();
+
+        // Then
+        assertEquals("https://www.example.com/permanent", cache.get("perm01", RedirectTarget.class).getLongUrl());
+        assertNull(cache.get("perm01", RedirectTarget.class).getExpiresAt());
+        assertEquals(expiresAt, cache.get("temp01", RedirectTarget.class).getExpiresAt());
+        assertEquals(2L, cacheWarmer.health().getDetails().get("restored"));
+        verifyNoInteractions(urlMappingRepository);
+    }
+
+    @Test
+    void testSnapshot_IgnoredWhenTooOld() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(cacheWarmer, "snapshotMaxAgeSeconds", -1L);
+        Cache cache = cacheManager.getCache("urlMappings");
+        cache.put("perm01", new RedirectTarget("https://www.example.com/permanent", null));
+        cacheWarmer.writeSnapshot();
+        cache.clear();
+
+        // When
+        long restored = cacheWarmer.readSnapshot();
+
+        // Then
+        assertEquals(0L, restored);
+        assertNull(cache.get("perm01"));
+    }
+
+    @Test
+    void testReadiness_UpWhenTimeBudgetRunsOut() throws Exception {
+        // Given a database that does not answer
+        ReflectionTestUtils.setField(cacheWarmer, "timeoutMillis", 200L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(urlMappingRepository.findTopUrlsByClickCount(anyLong(), anyLong(), any(LocalDateTime.class), any()))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return Collections.emptyList();
+                });
+
+        // When
+        cacheWarmer.warmUpOnStartup();
+
+        // Then
+        try {
+            assertFalse(cacheWarmer.isReady());
+            Thread.sleep(300);
+            assertTrue(cacheWarmer.isReady());
+            assertEquals(Status.UP, cacheWarmer.health().getStatus());
+            assertEquals(false, cacheWarmer.health().getDetails().get("finished"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private UrlMapping mapping(long id, String shortUrl, long clicks) {
+        UrlMapping mapping = new UrlMapping(shortUrl, "https://www.example.com/" + shortUrl);
+        mapping.setId(id);
+        mapping.setClickCount(clicks);
+        return mapping;
+    }
+}
@@ -0,0 +1,140 @@
+package com.shorturl.service;
+
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.ClickTimeSeries;
+import com.shorturl.service.impl.GlobalCounters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ClickCountAggregator
+ */
+@ExtendWith(MockitoExtension.class)
+class ClickCountAggregatorTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GlobalCounters globalCounters;
+
+    @Mock
+    private ClickTimeSeries clickTimeSeries;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @InjectMocks
+    private ClickCountAggregator clickCountAggregator;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(clickCountAggregator, "meterRegistry", meterRegistry);
+        shardRouter.init();
+        clickCountAggregator.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        clickCountAggregator.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesOneBatchOfDeltas() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1});
+        clickCountAggregator.recordClick("bbb");
+        clickCountAggregator.recordClick("aaa");
+        clickCountAggregator.recordClick("aaa");
+        clickCountAggregator.recordClick("aaa");
+
+        // When
+        clickCountAggregator.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertArrayEquals(new Object[]{3L, "aaa"}, batch.getValue().get(0));
+        assertArrayEquals(new Object[]{1L, "bbb"}, batch.getValue().get(1));
+        assertEquals(0L, clickCountAggregator.getPendingClicks("aaa"));
+        assertEquals(4.0, meterRegistry.counter("url.clicks.flushed").count());
+        verify(globalCounters).recordClicks(3L);
+        verify(globalCounters).recordClicks(1L);
+        verify(clickTimeSeries, times(3)).recordClick("aaa");
+    }
+
+    @Test
+    void testFlush_NothingPending() {
+        // When
+        clickCountAggregator.flush();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testFlush_FailureKeepsClicks() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        clickCountAggregator.recordClick("aaa");
+        clickCountAggregator.recordClick("aaa");
+
+        // When
+        clickCountAggregator.flush();
+
+        // Then
+        assertEquals(2L, clickCountAggregator.getPendingClicks("aaa"));
+        assertEquals(1.0, meterRegistry.counter("url.clicks.flush.failures").count());
+    }
+
+    @Test
+    void testFlush_DeletedShortUrlCountsAsOrphaned() {
+        // Given
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+        clickCountAggregator.recordClick("gone");
+
+        // When
+        clickCountAggregator.flush();
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("url.clicks.orphaned").count());
+    }
+
+    @Test
+    void testPendingClicks() {
+        // When
+        clickCountAggregator.recordClick("aaa");
+        clickCountAggregator.recordClick("aaa");
+
+        // Then
+        assertEquals(2L, clickCountAggregator.getPendingClicks("aaa"));
+        assertEquals(0L, clickCountAggregator.getPendingClicks("bbb"));
+    }
+}
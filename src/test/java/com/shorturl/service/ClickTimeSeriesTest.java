@@ -0,0 +1,209 @@
+package com.shorturl.service;
+
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.entity.ClickRollup;
+import com.shorturl.entity.ClickRollup.Granularity;
+import com.shorturl.repository.ClickRollupRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.ClickTimeSeries;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ClickTimeSeries
+ */
+@ExtendWith(MockitoExtension.class)
+class ClickTimeSeriesTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ClickRollupRepository clickRollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @InjectMocks
+    private ClickTimeSeries clickTimeSeries;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(clickTimeSeries, "meterRegistry", meterRegistry);
+        shardRouter.init();
+        clickTimeSeries.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_AddsClicksToEveryGranularity() {
+        // Given
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenAnswer(
+                invocation -> new int[((List<Object[]>) invocation.getArgument(1)).size()]);
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenReturn(new int[]{1, 1, 1, 1, 1, 1});
+        clickTimeSeries.recordClick("bbb");
+        clickTimeSeries.recordClick("aaa");
+        clickTimeSeries.recordClick("aaa");
+
+        // When
+        clickTimeSeries.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT"), inserted.capture());
+        List<Object[]> rows = inserted.getValue();
+        assertEquals(6, rows.size());
+        assertEquals(Arrays.asList(2L, "aaa", "MINUTE"), Arrays.asList(rows.get(0)).subList(0, 3));
+        assertEquals(Arrays.asList(2L, "aaa", "HOUR"), Arrays.asList(rows.get(1)).subList(0, 3));
+        assertEquals(Arrays.asList(2L, "aaa", "DAY"), Arrays.asList(rows.get(2)).subList(0, 3));
+        assertEquals(Arrays.asList(1L, "bbb", "MINUTE"), Arrays.asList(rows.get(3)).subList(0, 3));
+        LocalDateTime minute = ((Timestamp) rows.get(0)[3]).toLocalDateTime();
+        assertEquals(Granularity.HOUR.bucketStart(minute), ((Timestamp) rows.get(1)[3]).toLocalDateTime());
+        assertEquals(Granularity.DAY.bucketStart(minute), ((Timestamp) rows.get(2)[3]).toLocalDateTime());
+    }
+
+    @Test
+    void testFlush_NothingPending() {
+        // When
+        clickTimeSeries.flush();
+
+        // Then
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void testFlush_ExistingBucketsAreIncremented() {
+        // Given
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList())).thenReturn(new int[]{1, 1, 1});
+        clickTimeSeries.recordClick("aaa");
+
+        // When
+        clickTimeSeries.flush();
+
+        // Then
+        verify(jdbcTemplate, never()).batchUpdate(startsWith("INSERT"), anyList());
+    }
+
+    @Test
+    void testFlush_ConcurrentInsertFallsBackToIncrement() {
+        // Given another instance inserts the buckets first
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenReturn(new int[]{0, 0, 0})
+                .thenReturn(new int[]{1, 1, 1});
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT"), anyList())).thenThrow(new DuplicateKeyException("duplicate"));
+        clickTimeSeries.recordClick("aaa");
+
+        // When
+        clickTimeSeries.flush();
+
+        // Then
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), anyList());
+        assertEquals(0.0, meterRegistry.counter("url.rollups.flush.failures").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_FailureKeepsBucketsForNextFlush() {
+        // Given
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE"), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[]{1, 1, 1});
+        clickTimeSeries.recordClick("aaa");
+        clickTimeSeries.flush();
+
+        // When
+        clickTimeSeries.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE"), batches.capture());
+        assertEquals(3, batches.getValue().size());
+        assertEquals(1L, batches.getValue().get(0)[0]);
+        assertEquals(1.0, meterRegistry.counter("url.rollups.flush.failures").count());
+    }
+
+    @Test
+    void testGetTimeSeries_ReadsCoarsestGranularityThatDividesStep() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 30);
+        LocalDateTime to = LocalDateTime.of(2024, 1, 1, 12, 0);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(clickRollupRepository.findBuckets("abc123", Granularity.HOUR, start, to)).thenReturn(Arrays.asList(
+                new ClickRollup("abc123", Granularity.HOUR, start.plusHours(1), 2L),
+                new ClickRollup("abc123", Granularity.HOUR, start.plusHours(5), 3L),
+                new ClickRollup("abc123", Granularity.HOUR, start.plusHours(7), 4L)));
+
+        // When
+        ClickTimeSeriesResponse timeSeries = clickTimeSeries.getTimeSeries("abc123", from, to, Duration.ofHours(6));
+
+        // Then
+        assertEquals("HOUR", timeSeries.getGranularity());
+        assertEquals(start, timeSeries.getFrom());
+        assertEquals(21600, timeSeries.getStepSeconds());
+        assertEquals(2, timeSeries.getPoints().size());
+        assertEquals(start.plusHours(6), timeSeries.getPoints().get(1).getTime());
+        assertEquals(5L, timeSeries.getPoints().get(0).getClicks());
+        assertEquals(4L, timeSeries.getPoints().get(1).getClicks());
+        assertEquals(9L, timeSeries.getTotalClicks());
+    }
+
+    @Test
+    void testGetTimeSeries_RejectsInvalidRanges() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> clickTimeSeries.getTimeSeries("abc123", now.minusHours(1), now, Duration.ofSeconds(30)));
+        assertThrows(IllegalArgumentException.class,
+                () -> clickTimeSeries.getTimeSeries("abc123", now, now.minusHours(1), Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> clickTimeSeries.getTimeSeries("abc123", now.minusDays(30), now, Duration.ofMinutes(1)));
+        verifyNoInteractions(clickRollupRepository);
+    }
+
+    @Test
+    void testApplyRetention_DeletesOldBucketsInSlices() {
+        // Given minute buckets two hours past their retention
+        when(clickRollupRepository.findOldestBucketStart(Granularity.MINUTE)).thenReturn(LocalDateTime.now().minusHours(50));
+        when(clickRollupRepository.deleteBucketsBefore(eq(Granularity.MINUTE), any(LocalDateTime.class))).thenReturn(60);
+
+        // When
+        int deleted = clickTimeSeries.applyRetention();
+
+        // Then
+        ArgumentCaptor<LocalDateTime> before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(clickRollupRepository, atLeast(2)).deleteBucketsBefore(eq(Granularity.MINUTE), before.capture());
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusHours(47)));
+        verify(clickRollupRepository, never()).deleteBucketsBefore(eq(Granularity.HOUR), any(LocalDateTime.class));
+        assertEquals(60 * before.getAllValues().size(), deleted);
+    }
+}
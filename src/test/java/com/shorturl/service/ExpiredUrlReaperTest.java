@@ -0,0 +1,182 @@
+package com.shorturl.service;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.ExpiredUrlReaper;
+import com.shorturl.service.impl.GlobalCounters;
+import com.shorturl.service.impl.RedirectIndex;
+import com.shorturl.service.impl.ShortUrlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ExpiredUrlReaper
+ */
+@ExtendWith(MockitoExtension.class)
+class ExpiredUrlReaperTest {
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    @Mock
+    private RedirectIndex redirectIndex;
+
+    @Mock
+    private GlobalCounters globalCounters;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @InjectMocks
+    private ExpiredUrlReaper expiredUrlReaper;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager("urlMappings", "urlStats");
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(expiredUrlReaper, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(expiredUrlReaper, "cacheManager", cacheManager);
+        ReflectionTestUtils.setField(expiredUrlReaper, "chunkSize", 2);
+        ReflectionTestUtils.setField(expiredUrlReaper, "pauseMillis", 0L);
+        shardRouter.init();
+        expiredUrlReaper.init();
+    }
+
+    @Test
+    void testReap_DeletesInChunksUntilShortChunk() {
+        // Given
+        List<UrlMapping> firstChunk = Arrays.asList(expired(1L, "exp001"), expired(2L, "exp002"));
+        List<UrlMapping> secondChunk = Collections.singletonList(expired(3L, "exp003"));
+        when(urlMappingRepository.findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(firstChunk)
+                .thenReturn(secondChunk);
+        when(urlMappingRepository.deleteExpiredUrlsByIds(anyCollection(), any(LocalDateTime.class)))
+                .thenReturn(2, 1);
+
+        // When
+        int deleted = expiredUrlReaper.reap();
+
+        // Then
+        assertEquals(3, deleted);
+        verify(urlMappingRepository, times(2)).findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class));
+        verify(urlMappingRepository).deleteExpiredUrlsByIds(eq(Arrays.asList(1L, 2L)), any(LocalDateTime.class));
+        verify(urlMappingRepository).deleteExpiredUrlsByIds(eq(Collections.singletonList(3L)), any(LocalDateTime.class));
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3.0, meterRegistry.get("url.reaper.deleted").counter().count());
+        assertEquals(1L, meterRegistry.get("url.reaper.run").timer().count());
+    }
+
+    @Test
+    void testReap_EvictsCachesAndRecordsDeletion() {
+        // Given
+        cacheManager.getCache("urlMappings").put("exp001", "cached");
+        cacheManager.getCache("urlStats").put("exp001", "cached");
+        when(urlMappingRepository.findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.singletonList(expired(1L, "exp001")));
+        when(urlMappingRepository.deleteExpiredUrlsByIds(anyCollection(), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        expiredUrlReaper.reap();
+
+        // Then
+        assertNull(cacheManager.getCache("urlMappings").get("exp001"));
+        assertNull(cacheManager.getCache("urlStats").get("exp001"));
+        verify(shortUrlFilter).recordDeleted("exp001");
+        verify(redirectIndex).recordDeleted("exp001");
+        verify(globalCounters).recordReaped(argThat(mapping -> mapping.getShortUrl().equals("exp001")));
+    }
+
+    @Test
+    void testReap_CountsOnlyRowsActuallyDeleted() {
+        // Given another instance deleted one of the rows first
+        when(urlMappingRepository.findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Arrays.asList(expired(1L, "exp001"), expired(2L, "exp002")));
+        when(urlMappingRepository.deleteExpiredUrlsByIds(anyCollection(), any(LocalDateTime.class))).thenReturn(1);
+
+        // When
+        int deleted = expiredUrlReaper.reap();
+
+        // Then
+        assertEquals(1, deleted);
+        verify(globalCounters, never()).recordReaped(any(UrlMapping.class));
+    }
+
+    @Test
+    void testScheduledReap_SkipsWhenClaimedElsewhere() {
+        // Given
+        when(globalCounters.claimLease(eq("reaped.at"), anyLong())).thenReturn(false);
+
+        // When
+        expiredUrlReaper.scheduledReap();
+
+        // Then
+        verifyNoInteractions(urlMappingRepository);
+    }
+
+    @Test
+    void testScheduledReap_ReapsWhenLeaseClaimed() {
+        // Given
+        when(globalCounters.claimLease(eq("reaped.at"), anyLong())).thenReturn(true);
+        when(urlMappingRepository.findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+
+        // When
+        expiredUrlReaper.scheduledReap();
+
+        // Then
+        verify(urlMappingRepository).findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    @Test
+    void testReap_ReportsLagOfOldestRemainingExpiry() {
+        // Given
+        when(urlMappingRepository.findOldestExpiredUrls(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(Collections.emptyList());
+        when(urlMappingRepository.findOldestExpiry(any(LocalDateTime.class)))
+                .thenReturn(LocalDateTime.now().minusHours(1));
+
+        // When
+        int deleted = expiredUrlReaper.reap();
+
+        // Then
+        assertEquals(0, deleted);
+        verify(urlMappingRepository, never()).deleteExpiredUrlsByIds(anyCollection(), any(LocalDateTime.class));
+        assertTrue(meterRegistry.get("url.reaper.lag").gauge().value() >= 3600);
+    }
+
+    private UrlMapping expired(Long id, String shortUrl) {
+        UrlMapping mapping = new UrlMapping(shortUrl, "https://www.example.com/" + shortUrl,
+                LocalDateTime.now().minusDays(1));
+        mapping.setId(id);
+        return mapping;
+    }
+}
@@ -0,0 +1,270 @@
+package com.shorturl.service;
+
+import com.shorturl.entity.GlobalCounter;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.GlobalCounterRepository;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.GlobalCounters;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GlobalCounters
+ */
+@ExtendWith(MockitoExtension.class)
+class GlobalCountersTest {
+
+    @Mock
+    private GlobalCounterRepository globalCounterRepository;
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Spy
+    private ReadReplicaRouter readReplicaRouter = new ReadReplicaRouter();
+
+    @InjectMocks
+    private GlobalCounters globalCounters;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final String createdToday = "urls.created." + LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(globalCounters, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(globalCounters, "reconcileFenceMillis", 0L);
+        lenient().when(globalCounterRepository.existsById(anyString())).thenReturn(true);
+        shardRouter.init();
+        readReplicaRouter.init();
+        globalCounters.init();
+    }
+
+    @Test
+    void testGetTotals_CountsWritesBeforeCheckpoint() {
+        // Given
+        UrlMapping imported = mapping("imp001", 5L, LocalDateTime.now());
+        UrlMapping old = mapping("old001", 2L, LocalDateTime.now().minusDays(3));
+
+        // When
+        globalCounters.recordCreated(mapping("new001", 0L, LocalDateTime.now()));
+        globalCounters.recordCreated(imported);
+        globalCounters.recordCreated(old);
+        globalCounters.recordDeleted(imported);
+        globalCounters.recordReaped(old);
+        globalCounters.recordClicks(3L);
+
+        // Then
+        assertArrayEquals(new long[]{1L, 3L, 1L}, globalCounters.getTotals());
+        verify(globalCounterRepository, never()).addToTotal(anyString(), anyLong(), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testCheckpoint_AddsDeltasAndLoadsStoredTotals() {
+        // Given
+        globalCounters.recordCreated(mapping("new001", 0L, LocalDateTime.now()));
+        globalCounters.recordClicks(4L);
+        when(globalCounterRepository.findAll()).thenReturn(Arrays.asList(
+                new GlobalCounter("urls.created", 11L),
+                new GlobalCounter("urls.deleted", 1L),
+                new GlobalCounter("clicks", 24L),
+                new GlobalCounter(createdToday, 3L)));
+
+        // When
+        globalCounters.checkpoint();
+
+        // Then
+        verify(globalCounterRepository).addToTotal(eq("urls.created"), eq(1L), any(LocalDateTime.class));
+        verify(globalCounterRepository).addToTotal(eq("clicks"), eq(4L), any(LocalDateTime.class));
+        verify(globalCounterRepository).addToTotal(eq(createdToday), eq(1L), any(LocalDateTime.class));
+        assertArrayEquals(new long[]{10L, 24L, 3L}, globalCounters.getTotals());
+    }
+
+    @Test
+    void testCheckpoint_CreatesMissingRowsOnce() {
+        // Given
+        when(globalCounterRepository.existsById("clicks")).thenReturn(false);
+        globalCounters.recordClicks(1L);
+        globalCounters.checkpoint();
+
+        // When
+        globalCounters.recordClicks(1L);
+        globalCounters.checkpoint();
+
+        // Then
+        verify(globalCounterRepository, times(1)).saveAndFlush(argThat(counter -> counter.getName().equals("clicks")));
+        verify(globalCounterRepository, times(2)).addToTotal(eq("clicks"), eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testCheckpoint_FailureKeepsDeltas() {
+        // Given
+        globalCounters.recordClicks(7L);
+        when(globalCounterRepository.addToTotal(anyString(), anyLong(), any(LocalDateTime.class)))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(1);
+
+        // When
+        globalCounters.checkpoint();
+
+        // Then
+        assertEquals(7L, globalCounters.getTotals()[1]);
+        assertEquals(1.0, meterRegistry.counter("url.counters.checkpoint.failures").count());
+
+        // When the database is back
+        globalCounters.checkpoint();
+
+        // Then
+        verify(globalCounterRepository, times(2)).addToTotal(eq("clicks"), eq(7L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testReconcile_CorrectsDrift() {
+        // Given the counters missed two rows and five clicks
+        when(globalCounterRepository.findAll()).thenReturn(Arrays.asList(
+                new GlobalCounter("urls.created", 1L),
+                new GlobalCounter(createdToday, 1L)));
+        when(urlMappingRepository.countTotalUrls()).thenReturn(3L);
+        when(urlMappingRepository.getTotalClickCount()).thenReturn(5L);
+        when(urlMappingRepository.countUrlsCreatedBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1L);
+
+        // When
+        globalCounters.reconcile();
+
+        // Then
+        verify(globalCounterRepository).addToTotal(eq("urls.adjusted"), eq(2L), any(LocalDateTime.class));
+        verify(globalCounterRepository).addToTotal(eq("clicks"), eq(5L), any(LocalDateTime.class));
+        verify(globalCounterRepository, never()).addToTotal(eq(createdToday), eq(0L), any(LocalDateTime.class));
+        verify(globalCounterRepository).deleteByPrefixBefore("urls.created.", "urls.created." + LocalDate.now().minusDays(1));
+        assertEquals(2.0, meterRegistry.get("url.counters.drift").tag("counter", "urls").gauge().value());
+    }
+
+    @Test
+    void testReconcile_SubtractsCountsMadeAfterTheFence() {
+        // Given another instance checkpointed two clicks made before the recount and three after it
+        AtomicLong fence = new AtomicLong();
+        when(globalCounterRepository.replaceTotalIfAtMost(eq("reconcile.fence"), anyLong(), anyLong(),
+                any(LocalDateTime.class))).thenAnswer(invocation -> {
+                    fence.set(invocation.getArgument(1));
+                    return 1;
+                });
+        when(globalCounterRepository.findAll()).thenAnswer(invocation -> fence.get() == 0
+                ? Arrays.asList(new GlobalCounter("urls.created", 2L), new GlobalCounter("clicks", 3L))
+                : Arrays.asList(new GlobalCounter("urls.created", 2L), new GlobalCounter("clicks", 8L),
+                        new GlobalCounter("reconcile.fence", fence.get()),
+                        new GlobalCounter("fenced." + fence.get() + ".clicks", 3L)));
+        when(urlMappingRepository.countTotalUrls()).thenReturn(2L);
+        when(urlMappingRepository.getTotalClickCount()).thenReturn(5L);
+
+        // When
+        globalCounters.reconcile();
+
+        // Then
+        verify(globalCounterRepository, never()).addToTotal(eq("clicks"), anyLong(), any(LocalDateTime.class));
+        assertEquals(0.0, meterRegistry.get("url.counters.drift").tag("counter", "clicks").gauge().value());
+        verify(globalCounterRepository).deleteByPrefixBefore(eq("fenced."), startsWith("fenced."));
+    }
+
+    @Test
+    void testCount_TracksWritesAfterTheFence() {
+        // Given another instance announced a fence that has passed
+        long fence = System.currentTimeMillis() - 1000L;
+        when(globalCounterRepository.findAll()).thenReturn(Arrays.asList(
+                new GlobalCounter("clicks", 3L),
+                new GlobalCounter("reconcile.fence", fence)));
+        globalCounters.checkpoint();
+
+        // When
+        globalCounters.recordClicks(4L);
+        globalCounters.checkpoint();
+
+        // Then
+        verify(globalCounterRepository).addToTotal(eq("clicks"), eq(4L), any(LocalDateTime.class));
+        verify(globalCounterRepository).addToTotal(eq("fenced." + fence + ".clicks"), eq(4L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testScheduledReconcile_SkipsWhenClaimedElsewhere() {
+        // Given
+        when(globalCounterRepository.replaceTotalIfAtMost(eq("reconciled.at"), anyLong(), anyLong(),
+                any(LocalDateTime.class))).thenReturn(0);
+
+        // When
+        globalCounters.scheduledReconcile();
+
+        // Then
+        verifyNoInteractions(urlMappingRepository);
+    }
+
+    @Test
+    void testSeedOnStartup_ReconcilesMissingCountersFromExistingRows() {
+        // Given url_mapping has rows but the counter table is empty
+        when(globalCounterRepository.replaceTotalIfAtMost(eq("reconciled.at"), anyLong(), anyLong(),
+                any(LocalDateTime.class))).thenReturn(1);
+        when(urlMappingRepository.countTotalUrls()).thenReturn(4L);
+        when(urlMappingRepository.getTotalClickCount()).thenReturn(9L);
+        when(urlMappingRepository.countUrlsCreatedBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(2L);
+        when(globalCounterRepository.existsById(anyString())).thenReturn(false);
+
+        // When
+        globalCounters.seedOnStartup();
+
+        // Then
+        verify(globalCounterRepository).addToTotal(eq("urls.adjusted"), eq(4L), any(LocalDateTime.class));
+        verify(globalCounterRepository).addToTotal(eq("clicks"), eq(9L), any(LocalDateTime.class));
+        verify(globalCounterRepository).addToTotal(eq(createdToday), eq(2L), any(LocalDateTime.class));
+        verify(globalCounterRepository).saveAndFlush(argThat(counter -> counter.getName().equals("urls.created")));
+    }
+
+    @Test
+    void testSeedOnStartup_SkipsWhenCountersExist() {
+        // Given
+        when(globalCounterRepository.findAll()).thenReturn(Arrays.asList(
+                new GlobalCounter("urls.created", 4L),
+                new GlobalCounter("clicks", 9L)));
+
+        globalCounters.init();
+
+        // When
+        globalCounters.seedOnStartup();
+
+        // Then
+        verifyNoInteractions(urlMappingRepository);
+        assertArrayEquals(new long[]{4L, 9L, 0L}, globalCounters.getTotals());
+    }
+
+    private UrlMapping mapping(String shortUrl, long clicks, LocalDateTime createdAt) {
+        UrlMapping mapping = new UrlMapping(shortUrl, "https://www.example.com/" + shortUrl);
+        mapping.setClickCount(clicks);
+        mapping.setCreatedAt(createdAt);
+        return mapping;
+    }
+}
@@ -0,0 +1,59 @@
+package com.shorturl.service;
+
+import com.shorturl.service.impl.PermutedShortCodeGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PermutedShortCodeGenerator
+ */
+class PermutedShortCodeGeneratorTest {
+
+    private static final long DEFAULT_KEY = 7046029254386353131L;
+
+    @Test
+    void testInit_DefaultKeyFailsOutsideDevAndTest() {
+        // Given
+        PermutedShortCodeGenerator generator = generator(DEFAULT_KEY, "prod");
+
+        // When / Then
+        assertThrows(IllegalStateException.class, generator::init);
+    }
+
+    @Test
+    void testInit_DefaultKeyStartsInTestProfile() {
+        // Given
+        PermutedShortCodeGenerator generator = generator(DEFAULT_KEY, "test");
+
+        // When
+        generator.init();
+
+        // Then
+        assertEquals(7, generator.generate(1L).length());
+    }
+
+    @Test
+    void testGenerate_OwnKeyRoundTrips() {
+        // Given
+        PermutedShortCodeGenerator generator = generator(42L, "prod");
+        generator.init();
+
+        // When
+        String code = generator.generate(12345L);
+
+        // Then
+        assertEquals(12345L, generator.decode(code).getAsLong());
+    }
+
+    private PermutedShortCodeGenerator generator(long key, String profile) {
+        PermutedShortCodeGenerator generator = new PermutedShortCodeGenerator();
+        MockEnvironment environment = new MockEnvironment();
+        environment.setActiveProfiles(profile);
+        ReflectionTestUtils.setField(generator, "environment", environment);
+        ReflectionTestUtils.setField(generator, "permutationKey", key);
+        return generator;
+    }
+}
@@ -0,0 +1,111 @@
+package com.shorturl.service;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.service.impl.RedirectIndex;
+import com.shorturl.util.MappedUrlTable;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RedirectIndex
+ */
+class RedirectIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private final RedirectIndex redirectIndex = new RedirectIndex();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(redirectIndex, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(redirectIndex, "enabled", true);
+        ReflectionTestUtils.setField(redirectIndex, "directory", directory.toString());
+        ReflectionTestUtils.setField(redirectIndex, "capacity", 1024L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        redirectIndex.shutdown();
+    }
+
+    @Test
+    void testLookup_RecordedLink() {
+        // Given
+        redirectIndex.init();
+        redirectIndex.record(new UrlMapping("abc123", "https://www.example.com"));
+
+        // When & Then
+        assertEquals("https://www.example.com", redirectIndex.lookup("abc123").get().getLongUrl());
+        assertEquals(1.0, meterRegistry.counter("url.redirect.index.lookups", "result", "hit").count());
+    }
+
+    @Test
+    void testLookup_EntryOlderThanTtlIsCheckedAgain() throws Exception {
+        // Given a link recorded two hours ago, then deleted elsewhere while this instance was down
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE,
+                    System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2));
+        }
+        redirectIndex.init();
+
+        // When & Then
+        assertFalse(redirectIndex.lookup("abc123").isPresent());
+        assertEquals(1.0, meterRegistry.counter("url.redirect.index.lookups", "result", "stale").count());
+
+        // Once the database confirms it again, the index serves it
+        redirectIndex.record(new UrlMapping("abc123", "https://www.example.com"));
+        assertTrue(redirectIndex.lookup("abc123").isPresent());
+    }
+
+    @Test
+    void testCompactIfNeeded_RewritesIndexFullOfTombstones() {
+        // Given an index whose slots are mostly tombstones
+        ReflectionTestUtils.setField(redirectIndex, "capacity", 16L);
+        redirectIndex.init();
+        for (int i = 0; i < 12; i++) {
+            redirectIndex.record(new UrlMapping("code" + i, "https://www.example.com/" + i));
+        }
+        for (int i = 1; i < 12; i++) {
+            redirectIndex.recordDeleted("code" + i);
+        }
+        redirectIndex.record(new UrlMapping("fresh", "https://www.example.com/fresh"));
+        assertEquals(1.0, meterRegistry.counter("url.redirect.index.rejected").count());
+
+        // When
+        redirectIndex.compactIfNeeded();
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("url.redirect.index.compactions").count());
+        assertEquals("https://www.example.com/0", redirectIndex.lookup("code0").get().getLongUrl());
+        assertFalse(redirectIndex.lookup("code1").isPresent());
+        redirectIndex.record(new UrlMapping("fresh", "https://www.example.com/fresh"));
+        assertTrue(redirectIndex.lookup("fresh").isPresent());
+        assertEquals(1.0, meterRegistry.counter("url.redirect.index.rejected").count());
+    }
+
+    @Test
+    void testCompactIfNeeded_LeavesIndexWithLittleGarbage() {
+        // Given
+        redirectIndex.init();
+        redirectIndex.record(new UrlMapping("abc123", "https://www.example.com"));
+        redirectIndex.recordDeleted("abc123");
+
+        // When
+        redirectIndex.compactIfNeeded();
+
+        // Then
+        assertEquals(0.0, meterRegistry.counter("url.redirect.index.compactions").count());
+    }
+}
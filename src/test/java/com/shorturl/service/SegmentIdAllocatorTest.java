@@ -0,0 +1,141 @@
+package com.shorturl.service;
+
+import com.shorturl.entity.IdSegment;
+import com.shorturl.repository.IdSegmentRepository;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.SegmentIdAllocator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SegmentIdAllocator
+ */
+@ExtendWith(MockitoExtension.class)
+class SegmentIdAllocatorTest {
+
+    private static final int STEP = 10;
+
+    @Mock
+    private IdSegmentRepository idSegmentRepository;
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Spy
+    private ReadReplicaRouter readReplicaRouter = new ReadReplicaRouter();
+
+    @InjectMocks
+    private SegmentIdAllocator segmentIdAllocator;
+
+    private final AtomicLong maxId = new AtomicLong();
+    private final ThreadLocal<Long> leasedMaxId = new ThreadLocal<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(segmentIdAllocator, "step", STEP);
+
+        // Simulate the row lock: each lease sees the max ID it advanced to
+        when(idSegmentRepository.existsById("url_mapping")).thenReturn(true);
+        when(idSegmentRepository.advanceMaxId(eq("url_mapping"), eq((long) STEP), any(LocalDateTime.class)))
+                .thenAnswer(invocation -> {
+                    leasedMaxId.set(maxId.addAndGet(STEP));
+                    return 1;
+                });
+        when(idSegmentRepository.findById("url_mapping"))
+                .thenAnswer(invocation -> Optional.of(new IdSegment("url_mapping", leasedMaxId.get(), STEP)));
+
+        shardRouter.init();
+        segmentIdAllocator.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        segmentIdAllocator.shutdown();
+    }
+
+    @Test
+    void testNextId_ContiguousAcrossSegments() {
+        // When
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            ids.add(segmentIdAllocator.nextId());
+        }
+
+        // Then
+        for (int i = 0; i < 25; i++) {
+            assertEquals(i + 1L, ids.get(i));
+        }
+        verify(idSegmentRepository, times(3)).advanceMaxId(eq("url_mapping"), eq((long) STEP), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testNextId_CreatesSegmentRowAboveExistingIds() {
+        // Given
+        when(idSegmentRepository.existsById("url_mapping")).thenReturn(false);
+        when(urlMappingRepository.findMaxId()).thenReturn(500L);
+
+        // When
+        segmentIdAllocator.nextId();
+        segmentIdAllocator.nextId();
+
+        // Then
+        verify(idSegmentRepository, times(1)).saveAndFlush(argThat(segment -> segment.getMaxId() == 500L));
+    }
+
+    @Test
+    void testNextId_UniqueUnderConcurrency() throws Exception {
+        // Given
+        int threads = 8;
+        int idsPerThread = 1000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < idsPerThread; i++) {
+                    ids.add(segmentIdAllocator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(threads * idsPerThread, ids.size());
+    }
+}
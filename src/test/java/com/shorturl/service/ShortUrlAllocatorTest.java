@@ -0,0 +1,97 @@
+package com.shorturl.service;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.SegmentIdAllocator;
+import com.shorturl.service.impl.ShortUrlAllocator;
+import com.shorturl.service.impl.ShortUrlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShortUrlAllocator
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortUrlAllocatorTest {
+
+    @Mock
+    private SegmentIdAllocator segmentIdAllocator;
+
+    @Mock
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @InjectMocks
+    private ShortUrlAllocator shortUrlAllocator;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shortUrlAllocator, "meterRegistry", meterRegistry);
+        shardRouter.init();
+        shortUrlAllocator.init();
+    }
+
+    @Test
+    void testAssignAll_GeneratesCodesAndKeepsAliases() {
+        // Given
+        UrlMapping generated = new UrlMapping(null, "https://www.example.com");
+        UrlMapping alias = new UrlMapping("custom", "https://www.example.org");
+        when(segmentIdAllocator.nextIds(2)).thenReturn(new long[]{1L, 2L});
+        when(shortCodeGenerator.generate(1L)).thenReturn("code001");
+
+        // When
+        shortUrlAllocator.assignAll(Arrays.asList(generated, alias));
+
+        // Then
+        assertEquals(1L, generated.getId());
+        assertEquals("code001", generated.getShortUrl());
+        assertEquals(2L, alias.getId());
+        assertEquals("custom", alias.getShortUrl());
+        verify(urlMappingRepository, never()).existsByShortUrl(anyString());
+    }
+
+    @Test
+    void testAssign_SkipsIdWhoseCodeIsTaken() {
+        // Given
+        UrlMapping urlMapping = new UrlMapping(null, "https://www.example.com");
+        when(segmentIdAllocator.nextIds(1)).thenReturn(new long[]{1L});
+        when(segmentIdAllocator.nextId()).thenReturn(2L);
+        when(shortCodeGenerator.generate(1L)).thenReturn("taken01");
+        when(shortCodeGenerator.generate(2L)).thenReturn("code002");
+        when(shortUrlFilter.mightContain("taken01")).thenReturn(true);
+        when(urlMappingRepository.existsByShortUrl("taken01")).thenReturn(true);
+
+        // When
+        shortUrlAllocator.assign(urlMapping);
+
+        // Then
+        assertEquals(2L, urlMapping.getId());
+        assertEquals("code002", urlMapping.getShortUrl());
+        assertEquals(1.0, meterRegistry.counter("url.short.code.collisions").count());
+    }
+}
@@ -0,0 +1,262 @@
+package com.shorturl.service;
+
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.SegmentIdAllocator;
+import com.shorturl.service.impl.ShortUrlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.OptionalLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for ShortUrlFilter
+ */
+@ExtendWith(MockitoExtension.class)
+class ShortUrlFilterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Mock
+    private SegmentIdAllocator segmentIdAllocator;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Spy
+    private ReadReplicaRouter readReplicaRouter = new ReadReplicaRouter();
+
+    @InjectMocks
+    private ShortUrlFilter shortUrlFilter;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shortUrlFilter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(shortUrlFilter, "expectedInsertions", 1000L);
+        shardRouter.init();
+        readReplicaRouter.init();
+        shortUrlFilter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        shortUrlFilter.shutdown();
+    }
+
+    @Test
+    void testMightExist_BeforeBuild() {
+        // Then
+        assertTrue(shortUrlFilter.mightExist("abc123"));
+    }
+
+    @Test
+    void testRebuild_RejectsUnknownShortUrls() throws Exception {
+        // Given a code the generator issued before the rebuild
+        givenShortUrlsInDatabase("abc123", "def456");
+        when(shortCodeGenerator.decode("zzzzzzz")).thenReturn(OptionalLong.of(1L));
+
+        // When
+        shortUrlFilter.rebuild();
+
+        // Then
+        assertTrue(shortUrlFilter.mightExist("abc123"));
+        assertTrue(shortUrlFilter.mightExist("def456"));
+        assertFalse(shortUrlFilter.mightExist("zzzzzzz"));
+        assertEquals(1.0, meterRegistry.counter("url.filter.rejected", "source", "bloom").count());
+        assertTrue(meterRegistry.get("url.bloom.memory").gauge().value() > 0);
+    }
+
+    @Test
+    void testMightExistUncounted_RejectsWithoutCounting() throws Exception {
+        // Given
+        givenShortUrlsInDatabase("abc123");
+        when(shortCodeGenerator.decode("zzzzzzz")).thenReturn(OptionalLong.of(1L));
+        shortUrlFilter.rebuild();
+        shortUrlFilter.recordDeleted("def456");
+
+        // Then
+        assertTrue(shortUrlFilter.mightExistUncounted("abc123"));
+        assertFalse(shortUrlFilter.mightExistUncounted("zzzzzzz"));
+        assertFalse(shortUrlFilter.mightExistUncounted("def456"));
+        assertEquals(0.0, meterRegistry.counter("url.filter.rejected", "source", "bloom").count());
+        assertEquals(0.0, meterRegistry.counter("url.filter.rejected", "source", "negative-cache").count());
+    }
+
+    @Test
+    void testRecordCreated() throws Exception {
+        // Given
+        givenShortUrlsInDatabase("abc123");
+        shortUrlFilter.rebuild();
+        shortUrlFilter.recordMiss("new1234");
+
+        // When
+        shortUrlFilter.recordCreated("new1234");
+
+        // Then
+        assertTrue(shortUrlFilter.mightExist("new1234"));
+    }
+
+    @Test
+    void testRecordDeleted() {
+        // When
+        shortUrlFilter.recordDeleted("abc123");
+
+        // Then
+        assertFalse(shortUrlFilter.mightExist("abc123"));
+        assertEquals(1.0, meterRegistry.counter("url.filter.rejected", "source", "negative-cache").count());
+    }
+
+    @Test
+    void testRefresh_LoadsRowsAboveHighestIdSeen() throws Exception {
+        // Given
+        givenShortUrlsInDatabase("abc123", "def456");
+        shortUrlFilter.rebuild();
+
+        // When
+        shortUrlFilter.refresh();
+
+        // Then imported rows with an old created_at are found by their ID
+        ArgumentCaptor<PreparedStatementCreator> queries = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(2)).query(queries.capture(), any(RowCallbackHandler.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(contains("id > ?"), anyInt(), anyInt())).thenReturn(statement);
+        queries.getValue().createPreparedStatement(connection);
+        verify(statement).setObject(1, 2L);
+    }
+
+    @Test
+    void testRefresh_ClearsMissesForLoadedCodes() throws Exception {
+        // Given a lookup that ran before this node had seen the code
+        givenShortUrlsInDatabase("abc123", "def456");
+        shortUrlFilter.rebuild();
+        shortUrlFilter.recordMiss("def456");
+        assertFalse(shortUrlFilter.mightExist("def456"));
+
+        // When
+        shortUrlFilter.refresh();
+
+        // Then
+        assertTrue(shortUrlFilter.mightExist("def456"));
+        assertTrue(readReplicaRouter.isRecentlyWritten("def456"));
+    }
+
+    @Test
+    void testMightExist_CodesIssuedSinceRefreshReachDatabase() throws Exception {
+        // Given IDs up to 100 may have been issued, and the filter has loaded up to 2
+        givenShortUrlsInDatabase("abc123", "def456");
+        when(segmentIdAllocator.findIdCeiling()).thenReturn(100L);
+        when(shortCodeGenerator.decode("new0050")).thenReturn(OptionalLong.of(50L));
+        when(shortCodeGenerator.decode("old0001")).thenReturn(OptionalLong.of(1L));
+        shortUrlFilter.rebuild();
+
+        // When
+        shortUrlFilter.recordMiss("new0050");
+
+        // Then
+        assertTrue(shortUrlFilter.mightExist("new0050"));
+        assertFalse(shortUrlFilter.mightExist("old0001"));
+    }
+
+    @Test
+    void testMightExist_AliasesReachDatabaseUntilTheyMiss() throws Exception {
+        // Given IDs up to 100 may have been issued
+        givenShortUrlsInDatabase("abc123", "def456");
+        when(segmentIdAllocator.findIdCeiling()).thenReturn(100L);
+        when(shortCodeGenerator.decode("promo")).thenReturn(OptionalLong.empty());
+        when(shortCodeGenerator.decode("summer2024")).thenReturn(OptionalLong.of(5000L));
+        shortUrlFilter.rebuild();
+
+        // Then aliases created on another node since the refresh are looked up
+        assertTrue(shortUrlFilter.mightExist("promo"));
+        assertTrue(shortUrlFilter.mightExist("summer2024"));
+        assertFalse(shortUrlFilter.mightExist("not-an-alias"));
+        assertFalse(shortUrlFilter.mightExist("muchtoolongforanalias"));
+
+        // When the database does not have it
+        shortUrlFilter.recordMiss("promo");
+
+        // Then
+        assertFalse(shortUrlFilter.mightExist("promo"));
+    }
+
+    @Test
+    void testRebuild_ReadsPagesKeyedById() throws Exception {
+        // Given a full first page and an empty second one
+        ReflectionTestUtils.setField(shortUrlFilter, "rebuildPageSize", 2);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong(1)).thenReturn(1L, 2L);
+        when(resultSet.getString(2)).thenReturn("abc123", "def456");
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(resultSet);
+            handler.processRow(resultSet);
+            return null;
+        }).doNothing().when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // When
+        shortUrlFilter.rebuild();
+
+        // Then a full page is followed by a query for the next one, and a short one ends the scan
+        ArgumentCaptor<PreparedStatementCreator> queries = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate, times(2)).query(queries.capture(), any(RowCallbackHandler.class));
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(contains("id > ? ORDER BY id LIMIT ?"), anyInt(), anyInt())).thenReturn(statement);
+        queries.getAllValues().get(1).createPreparedStatement(connection);
+        verify(statement).setObject(1, 2L);
+        verify(statement).setObject(2, 2);
+    }
+
+    @Test
+    void testRebuild_FailureKeepsAcceptingLookups() {
+        // Given
+        doThrow(new IllegalStateException("db down")).when(jdbcTemplate)
+                .query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        // When
+        shortUrlFilter.rebuild();
+
+        // Then
+        assertTrue(shortUrlFilter.mightExist("abc123"));
+    }
+
+    private void givenShortUrlsInDatabase(String... shortUrls) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int i = 0; i < shortUrls.length; i++) {
+                when(resultSet.getLong(1)).thenReturn(i + 1L);
+                when(resultSet.getString(2)).thenReturn(shortUrls[i]);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+}
@@ -0,0 +1,97 @@
+package com.shorturl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shorturl.dto.ImportResult;
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.ShortUrlAllocator;
+import com.shorturl.service.impl.UrlImporter;
+import com.shorturl.service.impl.UrlMappingBatchWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UrlImporter
+ */
+@ExtendWith(MockitoExtension.class)
+class UrlImporterTest {
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Mock
+    private ShortUrlAllocator shortUrlAllocator;
+
+    @Mock
+    private UrlMappingBatchWriter urlMappingBatchWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Spy
+    private ReadReplicaRouter readReplicaRouter = new ReadReplicaRouter();
+
+    @InjectMocks
+    private UrlImporter urlImporter;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(urlImporter, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(urlImporter, "objectMapper", new ObjectMapper());
+        shardRouter.init();
+        readReplicaRouter.init();
+        urlImporter.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportUrls_ShortUrlTakenDuringInsertRejectsOnlyThatLine() {
+        // Given the second short URL is taken between the lookup and the insert
+        String input = "{\"short_url\": \"first01\", \"long_url\": \"https://www.example.com/1\"}\n"
+                + "{\"short_url\": \"raced01\", \"long_url\": \"https://www.example.com/2\"}\n";
+        when(urlMappingRepository.findByShortUrlIn(anyCollection())).thenReturn(Collections.emptyList());
+        when(urlMappingBatchWriter.insert(anyList())).thenAnswer(invocation ->
+                ((List<UrlMapping>) invocation.getArgument(0)).subList(1, 2));
+
+        // When
+        ImportResult result = urlImporter.importUrls(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), UrlImporter.Format.NDJSON);
+
+        // Then
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getRejected());
+        assertEquals(Collections.singletonList("line 2: Short URL already exists: raced01"), result.getErrors());
+        assertEquals(1.0, meterRegistry.counter("url.import.rows", "result", "imported").count());
+
+        // The lookup transaction has committed, so the writer starts its own
+        InOrder inOrder = inOrder(transactionManager, urlMappingBatchWriter);
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(urlMappingBatchWriter).insert(anyList());
+    }
+}
@@ -0,0 +1,119 @@
+package com.shorturl.service;
+
+import com.shorturl.entity.UrlMapping;
+import com.shorturl.exception.UrlAlreadyExistsException;
+import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.GlobalCounters;
+import com.shorturl.service.impl.RedirectIndex;
+import com.shorturl.service.impl.ShortUrlFilter;
+import com.shorturl.service.impl.UrlMappingBatchWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for UrlMappingBatchWriter
+ */
+@ExtendWith(MockitoExtension.class)
+class UrlMappingBatchWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    @Mock
+    private RedirectIndex redirectIndex;
+
+    @Mock
+    private GlobalCounters globalCounters;
+
+    @Mock
+    private UrlMappingRepository urlMappingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @InjectMocks
+    private UrlMappingBatchWriter urlMappingBatchWriter;
+
+    @BeforeEach
+    void setUp() {
+        shardRouter.init();
+        urlMappingBatchWriter.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInsert_ShortUrlTakenConcurrentlyIsReported() {
+        // Given
+        SimpleTransactionStatus failed = new SimpleTransactionStatus(true);
+        when(transactionManager.getTransaction(any())).thenReturn(failed, new SimpleTransactionStatus(true));
+        UrlMapping raced = mapping(1L, "raced");
+        UrlMapping generated = mapping(2L, "gen0002");
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"))
+                .thenReturn(new int[][]{{1}});
+        when(urlMappingRepository.findExistingShortUrls(anyCollection())).thenReturn(Collections.singletonList("raced"));
+
+        // When
+        List<UrlMapping> conflicts = urlMappingBatchWriter.insert(Arrays.asList(raced, generated));
+
+        // Then
+        assertEquals(Collections.singletonList(raced), conflicts);
+        ArgumentCaptor<Collection<UrlMapping>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batches.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(Collections.singletonList(generated), batches.getValue());
+        assertTrue(failed.isRollbackOnly());
+        verify(shortUrlFilter).recordCreated("gen0002");
+        verify(shortUrlFilter, never()).recordCreated("raced");
+        verify(globalCounters, times(1)).recordCreated(any(UrlMapping.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInsert_ConflictInCallersTransactionThrows() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus(false));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new DuplicateKeyException("duplicate"));
+
+        // When & Then
+        assertThrows(UrlAlreadyExistsException.class,
+                () -> urlMappingBatchWriter.insert(Collections.singletonList(mapping(1L, "raced"))));
+        verifyNoInteractions(shortUrlFilter, globalCounters);
+    }
+
+    private UrlMapping mapping(long id, String shortUrl) {
+        UrlMapping mapping = new UrlMapping(shortUrl, "https://www.example.com/" + shortUrl);
+        mapping.setId(id);
+        mapping.setCreatedAt(LocalDateTime.now());
+        return mapping;
+    }
+}
@@ -1,23 +1,53 @@
 package com.shorturl.service;
 
+import com.shorturl.dto.BatchShortenResponse;
+import com.shorturl.dto.BatchShortenResult;
+import com.shorturl.dto.ClickTimeSeriesResponse;
+import com.shorturl.dto.RedirectTarget;
 import com.shorturl.dto.ShortenUrlRequest;
 import com.shorturl.dto.ShortenUrlResponse;
+import com.shorturl.dto.UrlListFilter;
+import com.shorturl.dto.UrlPage;
 import com.shorturl.dto.UrlStatsResponse;
 import com.shorturl.entity.UrlMapping;
 import com.shorturl.exception.UrlAlreadyExistsException;
 import com.shorturl.repository.UrlMappingRepository;
+import com.shorturl.repository.replica.ReadReplicaRouter;
+import com.shorturl.repository.shard.ShardRouter;
+import com.shorturl.service.impl.ClickCountAggregator;
+import com.shorturl.service.impl.ClickTimeSeries;
+import com.shorturl.service.impl.ExpiredUrlReaper;
+import com.shorturl.service.impl.GlobalCounters;
+import com.shorturl.service.impl.RedirectIndex;
+import com.shorturl.service.impl.ShortUrlAllocator;
+import com.shorturl.service.impl.ShortUrlFilter;
+import com.shorturl.service.impl.UrlMappingBatchWriter;
+import com.shorturl.service.impl.UrlShortenerMetrics;
 import com.shorturl.service.impl.UrlShortenerServiceImpl;
+import com.shorturl.util.UrlHasher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -32,9 +62,49 @@ class UrlShortenerServiceTest {
     @Mock
     private UrlMappingRepository urlMappingRepository;
 
+    @Mock
+    private ShortCodeGenerator shortCodeGenerator;
+
+    @Mock
+    private ShortUrlAllocator shortUrlAllocator;
+
+    @Mock
+    private ClickCountAggregator clickCountAggregator;
+
+    @Mock
+    private ShortUrlFilter shortUrlFilter;
+
+    @Mock
+    private RedirectIndex redirectIndex;
+
+    @Mock
+    private UrlMappingBatchWriter urlMappingBatchWriter;
+
+    @Mock
+    private ExpiredUrlReaper expiredUrlReaper;
+
+    @Mock
+    private GlobalCounters globalCounters;
+
+    @Mock
+    private ClickTimeSeries clickTimeSeries;
+
+    @Spy
+    private UrlShortenerMetrics urlShortenerMetrics = new UrlShortenerMetrics();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Spy
+    private ShardRouter shardRouter = new ShardRouter();
+
+    @Spy
+    private ReadReplicaRouter readReplicaRouter = new ReadReplicaRouter();
+
     @InjectMocks
     private UrlShortenerServiceImpl urlShortenerService;
 
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
     private UrlMapping testUrlMapping;
     private ShortenUrlRequest testRequest;
 
@@ -46,13 +116,18 @@ class UrlShortenerServiceTest {
         testUrlMapping.setCreatedAt(LocalDateTime.now());
 
         testRequest = new ShortenUrlRequest("https://www.example.com");
+        lenient().when(shortUrlFilter.mightExist(anyString())).thenReturn(true);
+        ReflectionTestUtils.setField(urlShortenerMetrics, "meterRegistry", meterRegistry);
+        shardRouter.init();
+        readReplicaRouter.init();
+        urlShortenerMetrics.init();
     }
 
     @Test
     void testShortenUrl_Success() {
         // Given
-        when(urlMappingRepository.findByLongUrl(anyString())).thenReturn(Optional.empty());
-        when(urlMappingRepository.existsByShortUrl(anyString())).thenReturn(false);
+        when(urlMappingRepository.findByLongUrlHash(anyLong())).thenReturn(Collections.emptyList());
+        givenGeneratedShortUrls("abc123");
         when(urlMappingRepository.save(any(UrlMapping.class))).thenReturn(testUrlMapping);
 
         // When
@@ -64,12 +139,16 @@ class UrlShortenerServiceTest {
         assertEquals("https://www.example.com", response.getLongUrl());
         assertNotNull(response.getCreatedAt());
         verify(urlMappingRepository).save(any(UrlMapping.class));
+        verify(urlMappingRepository, never()).existsByShortUrl(anyString());
+        verify(shortUrlFilter).recordCreated("abc123");
+        assertTrue(readReplicaRouter.isRecentlyWritten("abc123"));
+        assertEquals(1L, meterRegistry.get("url.shorten").timer().count());
     }
 
     @Test
     void testShortenUrl_ExistingUrl() {
         // Given
-        when(urlMappingRepository.findByLongUrl(anyString())).thenReturn(Optional.of(testUrlMapping));
+        when(urlMappingRepository.findByLongUrlHash(anyLong())).thenReturn(Arrays.asList(testUrlMapping));
 
         // When
         ShortenUrlResponse response = urlShortenerService.shortenUrl(testRequest);
@@ -81,11 +160,26 @@ class UrlShortenerServiceTest {
         verify(urlMappingRepository, never()).save(any(UrlMapping.class));
     }
 
+    @Test
+    void testShortenUrl_HashCollision() {
+        // Given
+        UrlMapping collidingMapping = new UrlMapping("zzz9999", "https://www.other.com");
+        when(urlMappingRepository.findByLongUrlHash(anyLong())).thenReturn(Arrays.asList(collidingMapping));
+        givenGeneratedShortUrls("abc123");
+        when(urlMappingRepository.save(any(UrlMapping.class))).thenReturn(testUrlMapping);
+
+        // When
+        ShortenUrlResponse response = urlShortenerService.shortenUrl(testRequest);
+
+        // Then
+        assertEquals("abc123", response.getShortUrl());
+        verify(urlMappingRepository).save(any(UrlMapping.class));
+    }
+
     @Test
     void testShortenUrl_CustomAlias_Success() {
         // Given
         testRequest.setCustomAlias("custom");
-        when(urlMappingRepository.findByLongUrl(anyString())).thenReturn(Optional.empty());
         when(urlMappingRepository.existsByShortUrl("custom")).thenReturn(false);
         when(urlMappingRepository.save(any(UrlMapping.class))).thenReturn(testUrlMapping);
 
@@ -95,6 +189,8 @@ class UrlShortenerServiceTest {
         // Then
         assertNotNull(response);
         verify(urlMappingRepository).existsByShortUrl("custom");
+        verify(urlMappingRepository, never()).findByLongUrlHash(anyLong());
+        verify(shortUrlAllocator).assign(argThat(mapping -> "custom".equals(mapping.getShortUrl())));
         verify(urlMappingRepository).save(any(UrlMapping.class));
     }
 
@@ -102,7 +198,6 @@ class UrlShortenerServiceTest {
     void testShortenUrl_CustomAlias_AlreadyExists() {
         // Given
         testRequest.setCustomAlias("custom");
-        when(urlMappingRepository.findByLongUrl(anyString())).thenReturn(Optional.empty());
         when(urlMappingRepository.existsByShortUrl("custom")).thenReturn(true);
 
         // When & Then
@@ -111,19 +206,192 @@ class UrlShortenerServiceTest {
         });
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testShortenUrls_ResultsInRequestOrder() {
+        // Given
+        List<ShortenUrlRequest> requests = Arrays.asList(
+                new ShortenUrlRequest("https://www.new.com"),
+                new ShortenUrlRequest("ftp://invalid"),
+                new ShortenUrlRequest("https://www.example.com"),
+                new ShortenUrlRequest("https://WWW.NEW.com"),
+                new ShortenUrlRequest("https://www.taken.com", "taken"));
+        testUrlMapping.setLongUrlHash(UrlHasher.hash("https://www.example.com"));
+        when(urlMappingRepository.findByLongUrlHashIn(anyCollection())).thenReturn(Arrays.asList(testUrlMapping));
+        when(urlMappingRepository.findExistingShortUrls(anyCollection())).thenReturn(Arrays.asList("taken"));
+        givenGeneratedShortUrls("new0042");
+
+        // When
+        BatchShortenResponse response = urlShortenerService.shortenUrls(requests);
+
+        // Then
+        List<BatchShortenResult> results = response.getResults();
+        assertEquals(5, results.size());
+        assertEquals(BatchShortenResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals("new0042", results.get(0).getShortUrl());
+        assertEquals(BatchShortenResult.Status.FAILED, results.get(1).getStatus());
+        assertEquals(BatchShortenResult.Status.EXISTING, results.get(2).getStatus());
+        assertEquals("abc123", results.get(2).getShortUrl());
+        assertEquals(BatchShortenResult.Status.EXISTING, results.get(3).getStatus());
+        assertEquals("new0042", results.get(3).getShortUrl());
+        assertEquals(BatchShortenResult.Status.FAILED, results.get(4).getStatus());
+        assertEquals(3, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+
+        ArgumentCaptor<List<UrlMapping>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(urlMappingBatchWriter).insert(inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+        assertEquals("new0042", inserted.getValue().get(0).getShortUrl());
+        verify(urlMappingRepository, never()).save(any(UrlMapping.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testShortenUrls_ItemsWithAliasAreNotDeduplicated() {
+        // Given
+        List<ShortenUrlRequest> requests = Arrays.asList(
+                new ShortenUrlRequest("https://www.same.com"),
+                new ShortenUrlRequest("https://www.same.com", "mine01"),
+                new ShortenUrlRequest("https://www.example.com", "mine02"));
+        testUrlMapping.setLongUrlHash(UrlHasher.hash("https://www.example.com"));
+        when(urlMappingRepository.findByLongUrlHashIn(anyCollection())).thenReturn(Arrays.asList(testUrlMapping));
+        givenGeneratedShortUrls("new0042");
+
+        // When
+        BatchShortenResponse response = urlShortenerService.shortenUrls(requests);
+
+        // Then
+        List<BatchShortenResult> results = response.getResults();
+        assertEquals(BatchShortenResult.Status.CREATED, results.get(0).getStatus());
+        assertEquals("new0042", results.get(0).getShortUrl());
+        assertEquals(BatchShortenResult.Status.CREATED, results.get(1).getStatus());
+        assertEquals("mine01", results.get(1).getShortUrl());
+        assertEquals(BatchShortenResult.Status.CREATED, results.get(2).getStatus());
+        assertEquals("mine02", results.get(2).getShortUrl());
+
+        ArgumentCaptor<List<UrlMapping>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(urlMappingBatchWriter).insert(inserted.capture());
+        assertEquals(3, inserted.getValue().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testShortenUrls_AliasTakenDuringInsertFailsOnlyThatItem() {
+        // Given the alias is free when checked but taken before the insert
+        List<ShortenUrlRequest> requests = Arrays.asList(
+                new ShortenUrlRequest("https://www.new.com"),
+                new ShortenUrlRequest("https://www.raced.com", "raced"));
+        givenGeneratedShortUrls("new0042");
+        when(urlMappingBatchWriter.insert(anyList())).thenAnswer(invocation ->
+                ((List<UrlMapping>) invocation.getArgument(0)).subList(1, 2));
+
+        // When
+        BatchShortenResponse response = urlShortenerService.shortenUrls(requests);
+
+        // Then
+        assertEquals(BatchShortenResult.Status.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(BatchShortenResult.Status.FAILED, response.getResults().get(1).getStatus());
+        assertEquals("Custom alias already exists: raced", response.getResults().get(1).getError());
+        verify(readReplicaRouter, never()).recordWrite("raced");
+    }
+
+    @Test
+    void testShortenUrls_TooLarge() {
+        // Given
+        List<ShortenUrlRequest> requests = Collections.nCopies(5001, testRequest);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> urlShortenerService.shortenUrls(requests));
+        verifyNoInteractions(urlMappingBatchWriter);
+    }
+
     @Test
     void testExpandUrl_Success() {
         // Given
         when(urlMappingRepository.findByShortUrl("abc123")).thenReturn(Optional.of(testUrlMapping));
-        when(urlMappingRepository.incrementClickCount("abc123")).thenReturn(1);
 
         // When
-        Optional<String> result = urlShortenerService.expandUrl("abc123");
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("abc123");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("https://www.example.com", result.get().getLongUrl());
+        assertNull(result.get().getExpiresAt());
+        // Clicks are recorded by the redirect path, not during resolution
+        verify(clickCountAggregator, never()).recordClick(anyString());
+        verify(urlShortenerMetrics).recordCacheMiss();
+        verify(redirectIndex).record(testUrlMapping);
+    }
+
+    @Test
+    void testExpandUrl_FromRedirectIndex() {
+        // Given
+        when(redirectIndex.lookup("abc123"))
+                .thenReturn(Optional.of(new RedirectTarget("https://www.example.com", null)));
+
+        // When
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("abc123");
 
         // Then
         assertTrue(result.isPresent());
-        assertEquals("https://www.example.com", result.get());
-        verify(urlMappingRepository).incrementClickCount("abc123");
+        assertEquals("https://www.example.com", result.get().getLongUrl());
+        verifyNoInteractions(urlMappingRepository);
+    }
+
+    @Test
+    void testExpandUrl_ExpiredInRedirectIndex() {
+        // Given
+        when(redirectIndex.lookup("abc123"))
+                .thenReturn(Optional.of(new RedirectTarget("https://www.example.com", LocalDateTime.now().minusDays(1))));
+
+        // When
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("abc123");
+
+        // Then
+        assertFalse(result.isPresent());
+        verify(shortUrlFilter).recordMiss("abc123");
+        verifyNoInteractions(urlMappingRepository);
+    }
+
+    @Test
+    void testRecordClick() {
+        // When
+        urlShortenerService.recordClick("abc123");
+
+        // Then
+        verify(clickCountAggregator).recordClick("abc123");
+        verifyNoInteractions(urlMappingRepository);
+    }
+
+    @Test
+    void testExpandUrl_ByPrimaryKey() {
+        // Given
+        when(shortCodeGenerator.decode("abc123")).thenReturn(OptionalLong.of(1L));
+        when(urlMappingRepository.findById(1L)).thenReturn(Optional.of(testUrlMapping));
+
+        // When
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("abc123");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("https://www.example.com", result.get().getLongUrl());
+        verify(urlMappingRepository, never()).findByShortUrl(anyString());
+    }
+
+    @Test
+    void testExpandUrl_DecodedIdBelongsToOtherCode() {
+        // Given
+        UrlMapping otherMapping = new UrlMapping("zzz9999", "https://www.other.com");
+        when(shortCodeGenerator.decode("abc123")).thenReturn(OptionalLong.of(1L));
+        when(urlMappingRepository.findById(1L)).thenReturn(Optional.of(otherMapping));
+        when(urlMappingRepository.findByShortUrl("abc123")).thenReturn(Optional.of(testUrlMapping));
+
+        // When
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("abc123");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("https://www.example.com", result.get().getLongUrl());
     }
 
     @Test
@@ -132,11 +400,25 @@ class UrlShortenerServiceTest {
         when(urlMappingRepository.findByShortUrl("notfound")).thenReturn(Optional.empty());
 
         // When
-        Optional<String> result = urlShortenerService.expandUrl("notfound");
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("notfound");
+
+        // Then
+        assertFalse(result.isPresent());
+        verify(clickCountAggregator, never()).recordClick(anyString());
+        verify(shortUrlFilter).recordMiss("notfound");
+    }
+
+    @Test
+    void testExpandUrl_RejectedByFilter() {
+        // Given
+        when(shortUrlFilter.mightExist("unknown")).thenReturn(false);
+
+        // When
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("unknown");
 
         // Then
         assertFalse(result.isPresent());
-        verify(urlMappingRepository, never()).incrementClickCount(anyString());
+        verifyNoInteractions(urlMappingRepository);
     }
 
     @Test
@@ -146,11 +428,11 @@ class UrlShortenerServiceTest {
         when(urlMappingRepository.findByShortUrl("abc123")).thenReturn(Optional.of(testUrlMapping));
 
         // When
-        Optional<String> result = urlShortenerService.expandUrl("abc123");
+        Optional<RedirectTarget> result = urlShortenerService.expandUrl("abc123");
 
         // Then
         assertFalse(result.isPresent());
-        verify(urlMappingRepository, never()).incrementClickCount(anyString());
+        verify(clickCountAggregator, never()).recordClick(anyString());
     }
 
     @Test
@@ -183,18 +465,56 @@ class UrlShortenerServiceTest {
     }
 
     @Test
-    void testGetAllUrls() {
+    void testListUrls_FirstPage() {
         // Given
-        List<UrlMapping> urlMappings = Arrays.asList(testUrlMapping);
-        when(urlMappingRepository.findAll()).thenReturn(urlMappings);
+        UrlMapping second = new UrlMapping("def456", "https://www.example.org");
+        second.setId(2L);
+        UrlMapping third = new UrlMapping("ghi789", "https://www.example.net");
+        third.setId(3L);
+        UrlListFilter filter = new UrlListFilter();
+        when(urlMappingRepository.findPage(null, filter, 3)).thenReturn(Arrays.asList(testUrlMapping, second, third));
 
         // When
-        List<UrlMapping> result = urlShortenerService.getAllUrls();
+        UrlPage page = urlShortenerService.listUrls(null, filter, 2);
 
         // Then
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testUrlMapping, result.get(0));
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+        assertEquals("2", page.getNextCursor());
+    }
+
+    @Test
+    void testListUrls_LastPage() {
+        // Given
+        UrlListFilter filter = new UrlListFilter();
+        when(urlMappingRepository.findPage(1L, filter, 101)).thenReturn(Collections.emptyList());
+
+        // When
+        UrlPage page = urlShortenerService.listUrls("1", filter, 100);
+
+        // Then
+        assertTrue(page.getItems().isEmpty());
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void testListUrls_PageSizeCapped() {
+        // Given
+        UrlListFilter filter = new UrlListFilter();
+        when(urlMappingRepository.findPage(null, filter, 1001)).thenReturn(Collections.emptyList());
+
+        // When
+        urlShortenerService.listUrls(null, filter, 1000000);
+
+        // Then
+        verify(urlMappingRepository).findPage(null, filter, 1001);
+    }
+
+    @Test
+    void testListUrls_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> urlShortenerService.listUrls("abc", new UrlListFilter(), 10));
     }
 
     @Test
@@ -208,6 +528,8 @@ class UrlShortenerServiceTest {
         // Then
         assertTrue(result);
         verify(urlMappingRepository).delete(testUrlMapping);
+        verify(shortUrlFilter).recordDeleted("abc123");
+        verify(redirectIndex).recordDeleted("abc123");
     }
 
     @Test
@@ -226,14 +548,14 @@ class UrlShortenerServiceTest {
     @Test
     void testCleanupExpiredUrls() {
         // Given
-        when(urlMappingRepository.deleteExpiredUrls(any(LocalDateTime.class))).thenReturn(3);
+        when(expiredUrlReaper.reap()).thenReturn(3);
 
         // When
         int result = urlShortenerService.cleanupExpiredUrls();
 
         // Then
         assertEquals(3, result);
-        verify(urlMappingRepository).deleteExpiredUrls(any(LocalDateTime.class));
+        verify(expiredUrlReaper).reap();
     }
 
     @Test
@@ -250,9 +572,7 @@ class UrlShortenerServiceTest {
     @Test
     void testGetTotalStats() {
         // Given
-        when(urlMappingRepository.countTotalUrls()).thenReturn(100L);
-        when(urlMappingRepository.getTotalClickCount()).thenReturn(1500L);
-        when(urlMappingRepository.countUrlsCreatedToday()).thenReturn(10L);
+        when(globalCounters.getTotals()).thenReturn(new long[]{100L, 1500L, 10L});
 
         // When
         long[] result = urlShortenerService.getTotalStats();
@@ -263,23 +583,43 @@ class UrlShortenerServiceTest {
         assertEquals(100L, result[0]); // total URLs
         assertEquals(1500L, result[1]); // total clicks
         assertEquals(10L, result[2]); // URLs created today
+        verify(urlMappingRepository, never()).countTotalUrls();
     }
 
     @Test
-    void testGetTotalStats_NullClickCount() {
+    void testGetClickTimeSeries_NotFound() {
         // Given
-        when(urlMappingRepository.countTotalUrls()).thenReturn(100L);
-        when(urlMappingRepository.getTotalClickCount()).thenReturn(null);
-        when(urlMappingRepository.countUrlsCreatedToday()).thenReturn(10L);
+        when(urlMappingRepository.existsByShortUrl("notfound")).thenReturn(false);
 
         // When
-        long[] result = urlShortenerService.getTotalStats();
+        Optional<ClickTimeSeriesResponse> result = urlShortenerService.getClickTimeSeries("notfound",
+                LocalDateTime.now().minusDays(1), LocalDateTime.now(), Duration.ofHours(1));
 
         // Then
-        assertNotNull(result);
-        assertEquals(3, result.length);
-        assertEquals(100L, result[0]); // total URLs
-        assertEquals(0L, result[1]); // total clicks (null converted to 0)
-        assertEquals(10L, result[2]); // URLs created today
+        assertFalse(result.isPresent());
+        verifyNoInteractions(clickTimeSeries);
+    }
+
+    /**
+     * Make the allocator hand out IDs starting at 1 and the given generated short URLs
+     */
+    @SuppressWarnings("unchecked")
+    private void givenGeneratedShortUrls(String... shortUrls) {
+        Iterator<String> generated = Arrays.asList(shortUrls).iterator();
+        long[] nextId = {1L};
+        Consumer<UrlMapping> assign = mapping -> {
+            mapping.setId(nextId[0]++);
+            if (mapping.getShortUrl() == null) {
+                mapping.setShortUrl(generated.next());
+            }
+        };
+        lenient().doAnswer(invocation -> {
+            assign.accept(invocation.getArgument(0));
+            return null;
+        }).when(shortUrlAllocator).assign(any(UrlMapping.class));
+        lenient().doAnswer(invocation -> {
+            ((List<UrlMapping>) invocation.getArgument(0)).forEach(assign);
+            return null;
+        }).when(shortUrlAllocator).assignAll(anyList());
     }
-}
\ No newline at end of file
+}
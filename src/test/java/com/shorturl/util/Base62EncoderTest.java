@@ -4,6 +4,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -128,4 +130,60 @@ class Base62EncoderTest {
         
         assertEquals(decoded1, decoded2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testEncode_FixedWidth() {
+        assertEquals("0000001", Base62Encoder.encode(1, 7));
+        assertEquals("000000Z", Base62Encoder.encode(61, 7));
+        assertEquals("10", Base62Encoder.encode(62, 1));
+        assertEquals("aZl8N0y58M7", Base62Encoder.encode(Long.MAX_VALUE, 7));
+    }
+
+    @Test
+    void testEncode_Negative() {
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.encode(-1));
+    }
+
+    @Test
+    void testEncodeTo_CharBuffer() {
+        char[] buffer = {'x', 'x', 'x', 'x', 'x', 'x'};
+
+        int written = Base62Encoder.encodeTo(72, 4, buffer, 1);
+
+        assertEquals(4, written);
+        assertEquals("x001ax", new String(buffer));
+        assertThrows(IndexOutOfBoundsException.class, () -> Base62Encoder.encodeTo(72, 4, buffer, 3));
+    }
+
+    @Test
+    void testEncodeTo_ByteBuffer() {
+        byte[] buffer = new byte[Base62Encoder.MAX_LENGTH];
+
+        int written = Base62Encoder.encodeTo(Long.MAX_VALUE, 1, buffer, 0);
+
+        assertEquals(Base62Encoder.MAX_LENGTH, written);
+        assertEquals(Base62Encoder.encode(Long.MAX_VALUE), new String(buffer, 0, written, StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void testDecode_CharSequenceRange() {
+        StringBuilder path = new StringBuilder("/api/v1/1a?x");
+
+        assertEquals(72, Base62Encoder.decode(path, 8, 10));
+        assertEquals(72, Base62Encoder.decode(new StringBuilder("0001a")));
+    }
+
+    @Test
+    void testDecode_Overflow() {
+        assertEquals(Long.MAX_VALUE, Base62Encoder.decode(Base62Encoder.encode(Long.MAX_VALUE)));
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.decode("aZl8N0y58M8"));
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.decode("100000000000"));
+    }
+
+    @Test
+    void testDecode_NonAsciiAndEmpty() {
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.decode("ab\u00e9"));
+        assertThrows(IllegalArgumentException.class, () -> Base62Encoder.decode(""));
+        assertFalse(Base62Encoder.isValidBase62("ab\u0100"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.shorturl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConsistentHashRing
+ */
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 30000;
+
+    @Test
+    void testNodeFor_IsStable() {
+        ConsistentHashRing ring = new ConsistentHashRing(Arrays.asList("shard0", "shard1", "shard2"), 160);
+        ConsistentHashRing same = new ConsistentHashRing(Arrays.asList("shard0", "shard1", "shard2"), 160);
+
+        for (int i = 0; i < 1000; i++) {
+            String key = Base62Encoder.encode(i * 7919L);
+            assertEquals(ring.nodeFor(key), same.nodeFor(key));
+        }
+    }
+
+    @Test
+    void testNodeFor_SingleNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(Collections.singletonList("default"), 1);
+
+        assertEquals("default", ring.nodeFor("abc123"));
+        assertEquals("default", ring.nodeFor(""));
+    }
+
+    @Test
+    void testNodeFor_SpreadsKeysEvenly() {
+        // Given
+        List<String> nodes = Arrays.asList("shard0", "shard1", "shard2", "shard3");
+        ConsistentHashRing ring = new ConsistentHashRing(nodes, 160);
+
+        // When
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            counts.merge(ring.nodeFor(Base62Encoder.encode(i)), 1, Integer::sum);
+        }
+
+        // Then
+        for (String node : nodes) {
+            int expected = KEYS / nodes.size();
+            assertTrue(Math.abs(counts.get(node) - expected) < expected * 0.2,
+                    node + " owns " + counts.get(node) + " keys");
+        }
+    }
+
+    @Test
+    void testAddingNode_MovesOnlyKeysToNewNode() {
+        // Given
+        ConsistentHashRing before = new ConsistentHashRing(Arrays.asList("shard0", "shard1", "shard2"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(Arrays.asList("shard0", "shard1", "shard2", "shard3"), 160);
+
+        // When
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = Base62Encoder.encode(i);
+            String oldNode = before.nodeFor(key);
+            String newNode = after.nodeFor(key);
+            if (!oldNode.equals(newNode)) {
+                assertEquals("shard3", newNode);
+                moved++;
+            }
+        }
+
+        // Then about a quarter of the keys move
+        assertTrue(moved > KEYS * 0.2 && moved < KEYS * 0.3, "moved " + moved);
+    }
+
+    @Test
+    void testConstructor_RejectsEmptyRing() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsistentHashRing(Collections.emptyList(), 160));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConsistentHashRing(Collections.singletonList("shard0"), 0));
+    }
+}
@@ -0,0 +1,30 @@
+package com.shorturl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CsvLineParser
+ */
+class CsvLineParserTest {
+
+    @Test
+    void testParse_PlainFields() {
+        assertEquals(Arrays.asList("abc", "https://www.example.com", ""),
+                CsvLineParser.parse("abc,https://www.example.com,"));
+    }
+
+    @Test
+    void testParse_QuotedFields() {
+        assertEquals(Arrays.asList("abc", "https://www.example.com/?a=1,2", "say \"hi\""),
+                CsvLineParser.parse("abc,\"https://www.example.com/?a=1,2\",\"say \"\"hi\"\"\""));
+    }
+
+    @Test
+    void testParse_UnterminatedQuote() {
+        assertThrows(IllegalArgumentException.class, () -> CsvLineParser.parse("abc,\"https://www.example.com"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.shorturl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for FeistelPermutation
+ */
+class FeistelPermutationTest {
+
+    private static final long DOMAIN_62_7 = 3521614606208L;
+
+    @Test
+    void testPermute_IsBijectionOnSmallDomain() {
+        FeistelPermutation permutation = new FeistelPermutation(42L, 62 * 62);
+        Set<Long> outputs = new HashSet<>();
+
+        for (long value = 0; value < 62 * 62; value++) {
+            long permuted = permutation.permute(value);
+            assertTrue(permuted >= 0 && permuted < 62 * 62);
+            assertEquals(value, permutation.inverse(permuted));
+            outputs.add(permuted);
+        }
+
+        assertEquals(62 * 62, outputs.size());
+    }
+
+    @Test
+    void testPermute_RoundtripOnBase62Domain() {
+        FeistelPermutation permutation = new FeistelPermutation(7046029254386353131L, DOMAIN_62_7);
+        long[] testValues = {0, 1, 2, 10000, 123456789L, DOMAIN_62_7 / 2, DOMAIN_62_7 - 1};
+
+        for (long value : testValues) {
+            long permuted = permutation.permute(value);
+            assertTrue(permuted < DOMAIN_62_7, "Out of domain for value: " + value);
+            assertEquals(value, permutation.inverse(permuted), "Failed for value: " + value);
+        }
+    }
+
+    @Test
+    void testPermute_SequentialInputsAreScattered() {
+        FeistelPermutation permutation = new FeistelPermutation(1L, DOMAIN_62_7);
+
+        long first = permutation.permute(1000);
+        long second = permutation.permute(1001);
+
+        assertTrue(Math.abs(first - second) > 1000000L);
+    }
+
+    @Test
+    void testPermute_DependsOnKey() {
+        FeistelPermutation permutation1 = new FeistelPermutation(1L, DOMAIN_62_7);
+        FeistelPermutation permutation2 = new FeistelPermutation(2L, DOMAIN_62_7);
+
+        assertNotEquals(permutation1.permute(1000), permutation2.permute(1000));
+    }
+
+    @Test
+    void testPermute_OutOfDomain() {
+        FeistelPermutation permutation = new FeistelPermutation(1L, 100);
+
+        assertThrows(IllegalArgumentException.class, () -> permutation.permute(100));
+        assertThrows(IllegalArgumentException.class, () -> permutation.inverse(-1));
+    }
+}
@@ -0,0 +1,266 @@
+package com.shorturl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MappedUrlTable
+ */
+class MappedUrlTableTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPutAndGet() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            assertTrue(table.put("abc123", "https://www.example.com", Long.MIN_VALUE));
+            assertTrue(table.put("def456", "https://www.example.com/other", 1700000000000L));
+
+            assertEquals("https://www.example.com", table.get("abc123").getLongUrl());
+            assertEquals(Long.MIN_VALUE, table.get("abc123").getExpiresAtMillis());
+            assertEquals(1700000000000L, table.get("def456").getExpiresAtMillis());
+            assertNull(table.get("zzz999"));
+            assertEquals(2, table.size());
+        }
+    }
+
+    @Test
+    void testLeadingZeros_AreDifferentCodes() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc", "https://www.example.com/short", Long.MIN_VALUE);
+            table.put("00abc", "https://www.example.com/padded", Long.MIN_VALUE);
+
+            assertEquals("https://www.example.com/short", table.get("abc").getLongUrl());
+            assertEquals("https://www.example.com/padded", table.get("00abc").getLongUrl());
+            assertNull(table.get("0abc"));
+        }
+    }
+
+    @Test
+    void testPut_ReplacesEntry() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc123", "https://www.example.com/old", Long.MIN_VALUE);
+            table.put("abc123", "https://www.example.com/new", Long.MIN_VALUE);
+
+            assertEquals("https://www.example.com/new", table.get("abc123").getLongUrl());
+            assertEquals(1, table.size());
+        }
+    }
+
+    @Test
+    void testRemove() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE);
+            table.put("def456", "https://www.example.com/other", Long.MIN_VALUE);
+
+            assertTrue(table.remove("abc123"));
+            assertFalse(table.remove("abc123"));
+            assertNull(table.get("abc123"));
+            assertEquals("https://www.example.com/other", table.get("def456").getLongUrl());
+            assertEquals(1, table.size());
+
+            // The tombstone can be reused
+            assertTrue(table.put("abc123", "https://www.example.com/again", Long.MIN_VALUE));
+            assertEquals("https://www.example.com/again", table.get("abc123").getLongUrl());
+        }
+    }
+
+    @Test
+    void testReopen_KeepsEntries() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            for (int i = 0; i < 500; i++) {
+                table.put(Base62Encoder.encode(i), "https://www.example.com/" + i, i);
+            }
+            table.remove(Base62Encoder.encode(7));
+        }
+
+        // Opened with another capacity, the table keeps the one it was created with
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 64)) {
+            assertEquals(1024, table.capacity());
+            assertEquals(499, table.size());
+            assertNull(table.get(Base62Encoder.encode(7)));
+            for (int i = 0; i < 500; i++) {
+                if (i != 7) {
+                    assertEquals("https://www.example.com/" + i, table.get(Base62Encoder.encode(i)).getLongUrl());
+                    assertEquals(i, table.get(Base62Encoder.encode(i)).getExpiresAtMillis());
+                }
+            }
+        }
+    }
+
+    @Test
+    void testPut_KeepsRecordingTime() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            long before = System.currentTimeMillis();
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE);
+            table.put("def456", "https://www.example.com/other", Long.MIN_VALUE, 1700000000000L);
+
+            assertTrue(table.get("abc123").getRecordedAtMillis() >= before);
+            assertEquals(1700000000000L, table.get("def456").getRecordedAtMillis());
+        }
+    }
+
+    @Test
+    void testPut_UnchangedTargetRefreshesRecordingTimeInPlace() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE, 1700000000000L);
+            long dataBytes = table.dataBytes();
+
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE, 1700000060000L);
+
+            assertEquals(dataBytes, table.dataBytes());
+            assertEquals(1700000060000L, table.get("abc123").getRecordedAtMillis());
+        }
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            assertEquals(1700000060000L, table.get("abc123").getRecordedAtMillis());
+        }
+    }
+
+    @Test
+    void testLiveBytes_ExcludeReplacedAndRemovedRecords() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE);
+            long recordBytes = table.dataBytes();
+            table.put("abc123", "https://www.example.com", 1700000000000L);
+            table.put("def456", "https://www.example.com", Long.MIN_VALUE);
+            table.remove("def456");
+
+            assertEquals(3 * recordBytes, table.dataBytes());
+            assertEquals(recordBytes, table.liveBytes());
+            assertEquals(2, table.used());
+        }
+    }
+
+    @Test
+    void testCopyTo_LeavesTombstonesAndDeadRecordsBehind() throws Exception {
+        Path staging = directory.resolve("staging");
+        Path live = directory.resolve("live");
+        MappedUrlTable compacted;
+        try (MappedUrlTable table = MappedUrlTable.open(live, 16)) {
+            for (int i = 0; i < 12; i++) {
+                table.put(Base62Encoder.encode(i), "https://www.example.com/" + i, Long.MIN_VALUE, i);
+            }
+            for (int i = 1; i < 12; i++) {
+                table.remove(Base62Encoder.encode(i));
+            }
+            table.put(Base62Encoder.encode(0), "https://www.example.com/changed", Long.MIN_VALUE, 0);
+
+            compacted = MappedUrlTable.open(staging, 16);
+            assertEquals(0, table.copyTo(compacted));
+        }
+        MappedUrlTable.move(staging, live);
+
+        try {
+            assertEquals(1, compacted.used());
+            assertEquals(compacted.liveBytes(), compacted.dataBytes());
+            assertTrue(compacted.put("full", "https://www.example.com/full", Long.MIN_VALUE));
+        } finally {
+            compacted.close();
+        }
+        try (MappedUrlTable table = MappedUrlTable.open(live, 16)) {
+            assertEquals(2, table.size());
+            assertEquals("https://www.example.com/changed", table.get(Base62Encoder.encode(0)).getLongUrl());
+            assertEquals("https://www.example.com/full", table.get("full").getLongUrl());
+        }
+    }
+
+    @Test
+    void testOpen_StartsOverTablesOfAnOlderVersion() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            table.put("abc123", "https://www.example.com", Long.MIN_VALUE);
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve("redirect.idx"), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1), 8);
+        }
+
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1024)) {
+            assertEquals(0, table.size());
+            assertNull(table.get("abc123"));
+        }
+    }
+
+    @Test
+    void testOpen_RejectsOtherFiles() throws Exception {
+        Files.write(directory.resolve("redirect.idx"), new byte[128]);
+
+        assertThrows(IOException.class, () -> MappedUrlTable.open(directory, 1024));
+    }
+
+    @Test
+    void testPut_RefusedWhenFull() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 16)) {
+            for (int i = 0; i < 12; i++) {
+                assertTrue(table.put(Base62Encoder.encode(i), "https://www.example.com/" + i, Long.MIN_VALUE));
+            }
+
+            assertNull(table.get("full"));
+            assertEquals(12, table.size());
+        }
+    }
+
+    @Test
+    void testPut_RejectsCodesThatAreNotBase62() throws Exception {
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 16)) {
+            assertFalse(table.put("not-base62", "https://www.example.com", Long.MIN_VALUE));
+            assertFalse(table.put("", "https://www.example.com", Long.MIN_VALUE));
+            assertNull(table.get("not-base62"));
+        }
+    }
+
+    @Test
+    void testLongUrl_LargerThanReadAhead() throws Exception {
+        String longUrl = "https://www.example.com/" + String.join("", Collections.nCopies(2000, "x"));
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 16)) {
+            table.put("abc123", longUrl, Long.MIN_VALUE);
+
+            assertEquals(longUrl, table.get("abc123").getLongUrl());
+        }
+    }
+
+    @Test
+    void testConcurrentReadsAndWrites() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (MappedUrlTable table = MappedUrlTable.open(directory, 1 << 16)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 2; t++) {
+                int offset = t * 10000;
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + 10000; i++) {
+                        table.put(Base62Encoder.encode(i), "https://www.example.com/" + i, Long.MIN_VALUE);
+                    }
+                    return null;
+                }));
+                futures.add(executor.submit(() -> {
+                    for (int i = offset; i < offset + 10000; i++) {
+                        MappedUrlTable.Entry entry = table.get(Base62Encoder.encode(i));
+                        assertTrue(entry == null || entry.getLongUrl().equals("https://www.example.com/" + i));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+
+            assertEquals(20000, table.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
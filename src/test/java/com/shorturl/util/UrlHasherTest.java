@@ -0,0 +1,29 @@
+package com.shorturl.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for UrlHasher
+ */
+class UrlHasherTest {
+
+    @Test
+    void testNormalize_LowerCasesSchemeAndHost() {
+        assertEquals("https://www.example.com/Path?Q=1", UrlHasher.normalize(" HTTPS://WWW.Example.com/Path?Q=1 "));
+        assertEquals("https://www.example.com", UrlHasher.normalize("https://WWW.EXAMPLE.COM"));
+    }
+
+    @Test
+    void testHash_SameForEquivalentUrls() {
+        assertEquals(UrlHasher.hash("https://www.example.com/a"), UrlHasher.hash("HTTPS://www.EXAMPLE.com/a"));
+        assertTrue(UrlHasher.sameUrl("https://www.example.com/a", "https://WWW.example.com/a"));
+    }
+
+    @Test
+    void testHash_DiffersForDifferentPaths() {
+        assertNotEquals(UrlHasher.hash("https://www.example.com/a"), UrlHasher.hash("https://www.example.com/A"));
+        assertFalse(UrlHasher.sameUrl("https://www.example.com/a", "https://www.example.com/A"));
+    }
+}
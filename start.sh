@@ -56,4 +56,4 @@ echo -e "${BLUE}Access the application at: http://localhost:8000${NC}"
 echo -e "${BLUE}API Documentation: http://localhost:8000/api/v1/health${NC}"
 echo ""
 
-java -jar target/url-shortener-1.0.0.jar
\ No newline at end of file
+java -jar target/url-shortener-1.0.0.jar --spring.profiles.active=dev
\ No newline at end of file